@@ -0,0 +1,89 @@
+package org.fir3.cml.api;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Optional;
+
+/**
+ * The destination that a {@link Translator} writes its output files to.
+ *
+ * <p>
+ *     Output files are identified by their names, which are relative paths
+ *     whose segments are separated by forward slashes (e.g.
+ *     <code>org/example/Model.java</code>), regardless of the current
+ *     platform.
+ * </p>
+ *
+ * <p>
+ *     Implementations must support opening multiple channels concurrently
+ *     from different threads. Translators may use the optional methods
+ *     {@link #openExisting(String)}, {@link #exists(String)} and
+ *     {@link #delete(String)} for incremental translation. Sinks that do not
+ *     keep the output of previous translations can simply rely on their
+ *     default implementations, which behave as if the sink was empty.
+ * </p>
+ */
+public interface OutputSink {
+    /**
+     * Opens the output file with the specified <code>name</code> for
+     * writing. If there is already an output file with that name, it will be
+     * replaced.
+     *
+     * <p>
+     *     The output file is complete once the returned channel has been
+     *     closed.
+     * </p>
+     *
+     * @param name  The name of the output file.
+     * @return  The channel that the content of the output file is written to.
+     *
+     * @throws NullPointerException     If <code>name</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>name</code> is not a valid
+     *                                  relative path.
+     *
+     * @throws IOException              If opening the output file fails.
+     */
+    WritableByteChannel open(String name) throws IOException;
+
+    /**
+     * Opens the existing output file with the specified <code>name</code>
+     * for reading.
+     *
+     * @param name  The name of the output file.
+     * @return  An {@link Optional} container that either contains the channel
+     *          that provides the content of the output file, or
+     *          <code>null</code>, if there is no such output file.
+     *
+     * @throws IOException  If opening the output file fails.
+     */
+    default Optional<ReadableByteChannel> openExisting(String name)
+            throws IOException {
+        return Optional.empty();
+    }
+
+    /**
+     * Checks, if there is an output file with the specified
+     * <code>name</code>.
+     *
+     * @param name  The name of the output file.
+     * @return  Either <code>true</code>, if the output file exists, otherwise
+     *          <code>false</code>.
+     *
+     * @throws IOException  If accessing the sink fails.
+     */
+    default boolean exists(String name) throws IOException {
+        return false;
+    }
+
+    /**
+     * Deletes the output file with the specified <code>name</code>, if it
+     * exists.
+     *
+     * @param name  The name of the output file.
+     * @throws IOException  If deleting the output file fails.
+     */
+    default void delete(String name) throws IOException { }
+}
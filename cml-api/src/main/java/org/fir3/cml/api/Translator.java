@@ -3,12 +3,15 @@ package org.fir3.cml.api;
 import org.fir3.cml.api.exception.ConfigurationException;
 import org.fir3.cml.api.exception.TranslationException;
 import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.api.util.StreamHelper;
 
 import java.io.InputStream;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.Collection;
+import java.util.Objects;
 
 /**
  * An implementation of a translator that is capable of translating the
@@ -46,6 +49,22 @@ public interface Translator {
          *          implementation.
          */
         String name();
+
+        /**
+         * Returns whether the target translator implementation supports
+         * output sinks, i.e. whether it overrides
+         * {@link #translate(Environment, String, InputStream, OutputSink)}.
+         *
+         * <p>
+         * This allows users to find out whether the output files can be
+         * written to a sink before translating anything.
+         * </p>
+         *
+         * @return  Either <code>true</code>, if output sinks are supported,
+         *          or <code>false</code>, if translating to an output sink
+         *          throws an {@link UnsupportedOperationException}.
+         */
+        boolean supportsOutputSinks() default false;
     }
 
     /**
@@ -75,4 +94,161 @@ public interface Translator {
             String targetDomain,
             InputStream configSource
     ) throws ConfigurationException, TranslationException;
+
+    /**
+     * Translates the specified <code>domain</code> to this implementation's
+     * output format and writes the resulting output files to the specified
+     * <code>sink</code>.
+     *
+     * <p>
+     *     Any translator-specific configuration that determines the location
+     *     of the output files is ignored by this method. The default
+     *     implementation does not support output sinks at all. Implementations
+     *     that override it should declare so via
+     *     {@link Info#supportsOutputSinks()}.
+     * </p>
+     *
+     * @param environment   The environment of this translation task.
+     * @param targetDomain  The full name of the domain that shall be
+     *                      translated. It is required to be present in the
+     *                      specified <code>environment</code>.
+     *
+     * @param configSource  Either a stream of bytes that provides additional
+     *                      translator-specific configuration or
+     *                      <code>null</code>, if there is no further
+     *                      configuration.
+     *
+     * @param sink          The sink that the output files are written to.
+     *
+     * @throws ConfigurationException           If the provided
+     *                                          <code>configSource</code>
+     *                                          contains invalid data for this
+     *                                          translator implementation.
+     *
+     * @throws TranslationException             If the translation fails due
+     *                                          to some reason.
+     *
+     * @throws UnsupportedOperationException    If this translator
+     *                                          implementation does not
+     *                                          support output sinks.
+     */
+    default void translate(
+            Environment environment,
+            String targetDomain,
+            InputStream configSource,
+            OutputSink sink
+    ) throws ConfigurationException, TranslationException {
+        throw new UnsupportedOperationException(
+                "Output sinks are not supported"
+        );
+    }
+
+    /**
+     * Translates all of the specified <code>targetDomains</code> to this
+     * implementation's output format.
+     *
+     * <p>
+     *     Implementations are encouraged to override this method, so that the
+     *     configuration is read only once and that intermediate results are
+     *     shared between the domains. The default implementation reads the
+     *     configuration into memory and translates the domains one by one via
+     *     {@link #translate(Environment, String, InputStream)}.
+     * </p>
+     *
+     * @param environment   The environment of this translation task.
+     * @param targetDomains The full names of the domains that shall be
+     *                      translated. Each of them is required to be present
+     *                      in the specified <code>environment</code>.
+     *
+     * @param configSource  Either a stream of bytes that provides additional
+     *                      translator-specific configuration or
+     *                      <code>null</code>, if there is no further
+     *                      configuration.
+     *
+     * @throws NullPointerException     If <code>targetDomains</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws ConfigurationException   If the provided
+     *                                  <code>configSource</code> contains
+     *                                  invalid data for this translator
+     *                                  implementation.
+     *
+     * @throws TranslationException     If the translation fails due to some
+     *                                  reason.
+     */
+    default void translate(
+            Environment environment,
+            Collection<String> targetDomains,
+            InputStream configSource
+    ) throws ConfigurationException, TranslationException {
+        Objects.requireNonNull(targetDomains, "targetDomains is null");
+
+        byte[] config = StreamHelper.readConfiguration(configSource);
+
+        for (String targetDomain : targetDomains) {
+            this.translate(
+                    environment,
+                    targetDomain,
+                    StreamHelper.openConfiguration(config)
+            );
+        }
+    }
+
+    /**
+     * Translates all of the specified <code>targetDomains</code> to this
+     * implementation's output format and writes the resulting output files
+     * to the specified <code>sink</code>.
+     *
+     * <p>
+     *     The default implementation reads the configuration into memory and
+     *     translates the domains one by one via
+     *     {@link #translate(Environment, String, InputStream, OutputSink)}.
+     * </p>
+     *
+     * @param environment   The environment of this translation task.
+     * @param targetDomains The full names of the domains that shall be
+     *                      translated. Each of them is required to be present
+     *                      in the specified <code>environment</code>.
+     *
+     * @param configSource  Either a stream of bytes that provides additional
+     *                      translator-specific configuration or
+     *                      <code>null</code>, if there is no further
+     *                      configuration.
+     *
+     * @param sink          The sink that the output files are written to.
+     *
+     * @throws NullPointerException             If <code>targetDomains</code>
+     *                                          is <code>null</code>.
+     *
+     * @throws ConfigurationException           If the provided
+     *                                          <code>configSource</code>
+     *                                          contains invalid data for this
+     *                                          translator implementation.
+     *
+     * @throws TranslationException             If the translation fails due
+     *                                          to some reason.
+     *
+     * @throws UnsupportedOperationException    If this translator
+     *                                          implementation does not
+     *                                          support output sinks.
+     */
+    default void translate(
+            Environment environment,
+            Collection<String> targetDomains,
+            InputStream configSource,
+            OutputSink sink
+    ) throws ConfigurationException, TranslationException {
+        Objects.requireNonNull(targetDomains, "targetDomains is null");
+
+        byte[] config = StreamHelper.readConfiguration(configSource);
+
+        for (String targetDomain : targetDomains) {
+            this.translate(
+                    environment,
+                    targetDomain,
+                    StreamHelper.openConfiguration(config),
+                    sink
+            );
+        }
+    }
 }
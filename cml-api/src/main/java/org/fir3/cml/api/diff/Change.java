@@ -0,0 +1,185 @@
+package org.fir3.cml.api.diff;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A single difference between two environments, which affects one model or
+ * one attribute of a model.
+ */
+public final class Change {
+    /**
+     * The kinds of changes.
+     */
+    public enum Kind {
+        /**
+         * A model has been added.
+         */
+        ModelAdded,
+
+        /**
+         * A model has been removed.
+         */
+        ModelRemoved,
+
+        /**
+         * The flags of a model have changed.
+         */
+        FlagsChanged,
+
+        /**
+         * The number of type parameters of a model has changed.
+         */
+        TypeParametersChanged,
+
+        /**
+         * An attribute has been added to a model.
+         */
+        AttributeAdded,
+
+        /**
+         * An attribute has been removed from a model.
+         */
+        AttributeRemoved,
+
+        /**
+         * The type of an attribute has changed.
+         */
+        AttributeTypeChanged,
+
+        /**
+         * The type of an attribute is unchanged, but refers to a model that
+         * has changed.
+         */
+        DependencyChanged
+    }
+
+    private final String modelName;
+    private final String attributeName;
+    private final Kind kind;
+    private final Compatibility compatibility;
+    private final String description;
+
+    /**
+     * Initializes a new instance of <code>Change</code>.
+     *
+     * @param modelName     The fully qualified name of the affected model.
+     * @param attributeName The name of the affected attribute, or
+     *                      <code>null</code>, if the change affects the
+     *                      model as a whole.
+     *
+     * @param kind          The kind of the change.
+     * @param compatibility The effect of the change on encoded data.
+     * @param description   A description of the change that is suitable for
+     *                      messages.
+     *
+     * @throws NullPointerException If any of the parameters, except for
+     *                              <code>attributeName</code>, is
+     *                              <code>null</code>.
+     */
+    public Change(
+            String modelName,
+            String attributeName,
+            Kind kind,
+            Compatibility compatibility,
+            String description
+    ) {
+        Objects.requireNonNull(modelName, "modelName is null");
+        Objects.requireNonNull(kind, "kind is null");
+        Objects.requireNonNull(compatibility, "compatibility is null");
+        Objects.requireNonNull(description, "description is null");
+
+        this.modelName = modelName;
+        this.attributeName = attributeName;
+        this.kind = kind;
+        this.compatibility = compatibility;
+        this.description = description;
+    }
+
+    /**
+     * Returns the fully qualified name of the affected model.
+     *
+     * @return  The fully qualified name of the model.
+     */
+    public String getModelName() {
+        return this.modelName;
+    }
+
+    /**
+     * Returns the name of the affected attribute.
+     *
+     * @return  An {@link Optional} container that either contains the name
+     *          of the attribute, or <code>null</code>, if the change affects
+     *          the model as a whole.
+     */
+    public Optional<String> getAttributeName() {
+        return Optional.ofNullable(this.attributeName);
+    }
+
+    /**
+     * Returns the kind of this change.
+     *
+     * @return  The kind of this change.
+     */
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Returns the effect of this change on encoded data.
+     *
+     * @return  The compatibility of this change.
+     */
+    public Compatibility getCompatibility() {
+        return this.compatibility;
+    }
+
+    /**
+     * Returns a description of this change that is suitable for messages.
+     *
+     * @return  The description of this change.
+     */
+    public String getDescription() {
+        return this.description;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                this.modelName,
+                this.attributeName,
+                this.kind,
+                this.compatibility,
+                this.description
+        );
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof Change) {
+            Change change = (Change) obj;
+
+            return Objects.equals(this.modelName, change.modelName) &&
+                    Objects.equals(this.attributeName, change.attributeName) &&
+                    this.kind == change.kind &&
+                    this.compatibility == change.compatibility &&
+                    Objects.equals(this.description, change.description);
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        str.append(this.compatibility.name())
+                .append(": ")
+                .append(this.modelName);
+
+        if (this.attributeName != null) {
+            str.append('.').append(this.attributeName);
+        }
+
+        return str.append(": ").append(this.description).toString();
+    }
+}
@@ -0,0 +1,27 @@
+package org.fir3.cml.api.diff;
+
+/**
+ * The effect of a change of a schema on data that has been encoded with the
+ * previous schema. The constants are ordered from the least to the most
+ * severe effect.
+ */
+public enum Compatibility {
+    /**
+     * The encoded data is decoded unchanged with the new schema.
+     */
+    Compatible,
+
+    /**
+     * The encoding of the affected models changes, but each value of the
+     * previous schema has a counterpart in the new schema, thus the encoded
+     * data can be converted mechanically.
+     */
+    LayoutChanging,
+
+    /**
+     * Some values of the previous schema have no counterpart in the new
+     * schema, thus the encoded data cannot be converted without further
+     * rules.
+     */
+    Breaking
+}
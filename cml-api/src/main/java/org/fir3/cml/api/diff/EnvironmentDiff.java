@@ -0,0 +1,526 @@
+package org.fir3.cml.api.diff;
+
+import org.fir3.cml.api.model.*;
+import org.fir3.cml.api.util.ModelHelper;
+
+import java.util.*;
+
+/**
+ * The differences between two environments and their effect on data that
+ * has been encoded with the models of the previous environment.
+ *
+ * <p>
+ *     Models are matched by their fully qualified names and attributes by
+ *     their names. The types of matching attributes are compared after all
+ *     model names have been resolved to fully qualified names and all type
+ *     parameters have been replaced by their positions, thus types are equal
+ *     if they refer to the same models, regardless of how they are written.
+ * </p>
+ *
+ * <p>
+ *     A change of a model also affects every model that refers to it, since
+ *     the values of the changed model are part of the values of the referring
+ *     model. These changes are reported as
+ *     {@link Change.Kind#DependencyChanged}.
+ * </p>
+ *
+ * <p>
+ *     The models and attributes of both environments are looked up by hash,
+ *     thus computing the differences takes time linear in the size of both
+ *     environments.
+ * </p>
+ */
+public final class EnvironmentDiff {
+    /**
+     * A model of one of the compared environments.
+     */
+    private static final class Entry {
+        private final Domain domain;
+        private final Model model;
+
+        private Entry(Domain domain, Model model) {
+            this.domain = domain;
+            this.model = model;
+        }
+
+        private Map<String, Type> getAttributeTypes(Index index) {
+            Map<String, Type> types = new HashMap<>();
+
+            for (Attribute attribute : this.model.getAttributes()) {
+                types.put(attribute.getName(), EnvironmentDiff.canonicalize(
+                        attribute.getType(),
+                        index,
+                        this.domain,
+                        this.model.getTypeParameters()
+                ));
+            }
+
+            return types;
+        }
+    }
+
+    /**
+     * The models of one of the compared environments, indexed by their fully
+     * qualified names and, for ubiquitous domains, by their simple names.
+     *
+     * <p>
+     *     Resolving names through the index follows the same rules as
+     *     {@link Environment#resolveModel(String, Domain)}, but takes
+     *     constant time regardless of the size of the environment.
+     * </p>
+     */
+    private static final class Index {
+        private final Map<String, Entry> models = new HashMap<>();
+        private final Map<String, String> ubiquitousModels = new HashMap<>();
+
+        private Index(Environment environment) {
+            for (Domain domain : environment.getDomains()) {
+                boolean ubiquitous = domain.getFlags().contains(
+                        Domain.Flag.Ubiquitous
+                );
+
+                for (Model model : domain.getModels()) {
+                    String name = ModelHelper.toString(domain, model);
+                    this.models.put(name, new Entry(domain, model));
+
+                    if (ubiquitous) {
+                        this.ubiquitousModels.put(model.getName(), name);
+                    }
+                }
+            }
+        }
+
+        private Optional<String> resolve(String name, Domain context) {
+            if (name.indexOf('.') != -1) {
+                return this.models.containsKey(name)
+                        ? Optional.of(name)
+                        : Optional.empty();
+            }
+
+            String qualifiedName = context.getName() + "." + name;
+
+            if (this.models.containsKey(qualifiedName)) {
+                return Optional.of(qualifiedName);
+            }
+
+            return Optional.ofNullable(this.ubiquitousModels.get(name));
+        }
+    }
+
+    /**
+     * An unchanged attribute, whose type refers to other models.
+     */
+    private static final class Dependent {
+        private final String modelName;
+        private final String attributeName;
+        private Compatibility compatibility = Compatibility.Compatible;
+        private String cause;
+
+        private Dependent(String modelName, String attributeName) {
+            this.modelName = modelName;
+            this.attributeName = attributeName;
+        }
+    }
+
+    private static final Comparator<Change> CHANGE_ORDER = Comparator
+            .comparing(Change::getModelName)
+            .thenComparing(c -> c.getAttributeName().orElse(""))
+            .thenComparing(Change::getKind);
+
+    /**
+     * Computes the differences between the <code>previous</code> and the
+     * <code>next</code> environment.
+     *
+     * @param previous  The environment that existing data has been encoded
+     *                  with.
+     *
+     * @param next      The environment that will be used to decode the data.
+     * @return  The differences between both environments.
+     *
+     * @throws NullPointerException     If any of the parameters is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If an attribute of either environment
+     *                                  refers to an unknown model.
+     */
+    public static EnvironmentDiff compute(
+            Environment previous,
+            Environment next
+    ) {
+        Objects.requireNonNull(previous, "previous is null");
+        Objects.requireNonNull(next, "next is null");
+
+        Index previousIndex = new Index(previous);
+        Index nextIndex = new Index(next);
+        Map<String, Entry> previousModels = previousIndex.models;
+        Map<String, Entry> nextModels = nextIndex.models;
+        Map<String, Compatibility> models = new HashMap<>();
+        Map<String, List<Dependent>> dependents = new HashMap<>();
+        List<Change> changes = new ArrayList<>();
+
+        for (Map.Entry<String, Entry> entry : previousModels.entrySet()) {
+            String name = entry.getKey();
+            Entry nextEntry = nextModels.get(name);
+
+            if (nextEntry == null) {
+                changes.add(new Change(
+                        name,
+                        null,
+                        Change.Kind.ModelRemoved,
+                        Compatibility.Breaking,
+                        "Model has been removed"
+                ));
+
+                models.put(name, Compatibility.Breaking);
+                continue;
+            }
+
+            EnvironmentDiff.compare(
+                    name,
+                    entry.getValue(),
+                    previousIndex,
+                    nextEntry,
+                    nextIndex,
+                    changes,
+                    dependents
+            );
+        }
+
+        for (String name : nextModels.keySet()) {
+            if (!previousModels.containsKey(name)) {
+                changes.add(new Change(
+                        name,
+                        null,
+                        Change.Kind.ModelAdded,
+                        Compatibility.Compatible,
+                        "Model has been added"
+                ));
+            }
+        }
+
+        for (Change change : changes) {
+            models.merge(
+                    change.getModelName(),
+                    change.getCompatibility(),
+                    EnvironmentDiff::max
+            );
+        }
+
+        EnvironmentDiff.propagate(models, dependents, changes);
+        changes.sort(CHANGE_ORDER);
+
+        return new EnvironmentDiff(changes, models);
+    }
+
+    private static void compare(
+            String name,
+            Entry previousEntry,
+            Index previous,
+            Entry nextEntry,
+            Index next,
+            List<Change> changes,
+            Map<String, List<Dependent>> dependents
+    ) {
+        Model previousModel = previousEntry.model;
+        Model nextModel = nextEntry.model;
+
+        if (!previousModel.getFlags().equals(nextModel.getFlags())) {
+            changes.add(new Change(
+                    name,
+                    null,
+                    Change.Kind.FlagsChanged,
+                    Compatibility.Breaking,
+                    String.format(
+                            "Flags changed from %s to %s",
+                            previousModel.getFlags(),
+                            nextModel.getFlags()
+                    )
+            ));
+        }
+
+        int previousCount = previousModel.getTypeParameters().size();
+        int nextCount = nextModel.getTypeParameters().size();
+
+        if (previousCount != nextCount) {
+            changes.add(new Change(
+                    name,
+                    null,
+                    Change.Kind.TypeParametersChanged,
+                    Compatibility.Breaking,
+                    String.format(
+                            "Number of type parameters changed from %d to %d",
+                            previousCount,
+                            nextCount
+                    )
+            ));
+        }
+
+        Map<String, Type> previousTypes =
+                previousEntry.getAttributeTypes(previous);
+
+        Map<String, Type> nextTypes = nextEntry.getAttributeTypes(next);
+
+        for (Map.Entry<String, Type> attribute : previousTypes.entrySet()) {
+            String attributeName = attribute.getKey();
+            Type previousType = attribute.getValue();
+            Type nextType = nextTypes.get(attributeName);
+
+            if (nextType == null) {
+                changes.add(new Change(
+                        name,
+                        attributeName,
+                        Change.Kind.AttributeRemoved,
+                        Compatibility.LayoutChanging,
+                        "Attribute has been removed"
+                ));
+            } else if (!previousType.equals(nextType)) {
+                changes.add(new Change(
+                        name,
+                        attributeName,
+                        Change.Kind.AttributeTypeChanged,
+                        Compatibility.Breaking,
+                        String.format(
+                                "Type changed from %s to %s",
+                                EnvironmentDiff.describe(previousType),
+                                EnvironmentDiff.describe(nextType)
+                        )
+                ));
+            } else {
+                Dependent dependent = new Dependent(name, attributeName);
+
+                for (String modelName :
+                        EnvironmentDiff.collectModelNames(nextType)) {
+                    dependents.computeIfAbsent(
+                            modelName,
+                            n -> new ArrayList<>()
+                    ).add(dependent);
+                }
+            }
+        }
+
+        for (String attributeName : nextTypes.keySet()) {
+            if (!previousTypes.containsKey(attributeName)) {
+                changes.add(new Change(
+                        name,
+                        attributeName,
+                        Change.Kind.AttributeAdded,
+                        Compatibility.Breaking,
+                        "Attribute has been added"
+                ));
+            }
+        }
+    }
+
+    /**
+     * Passes the compatibility of each changed model on to the unchanged
+     * attributes that refer to it, and from there on to their models, until
+     * nothing changes anymore. The compatibility of a model only ever
+     * increases, thus each model is processed at most once per constant of
+     * {@link Compatibility}.
+     */
+    private static void propagate(
+            Map<String, Compatibility> models,
+            Map<String, List<Dependent>> dependents,
+            List<Change> changes
+    ) {
+        Deque<String> pending = new ArrayDeque<>();
+        List<Dependent> affected = new ArrayList<>();
+
+        for (Map.Entry<String, Compatibility> model : models.entrySet()) {
+            if (model.getValue() != Compatibility.Compatible) {
+                pending.add(model.getKey());
+            }
+        }
+
+        while (!pending.isEmpty()) {
+            String name = pending.poll();
+            Compatibility compatibility = models.get(name);
+
+            for (Dependent dependent : dependents.getOrDefault(
+                    name,
+                    Collections.emptyList()
+            )) {
+                if (compatibility.compareTo(dependent.compatibility) <= 0) {
+                    continue;
+                }
+
+                if (dependent.cause == null) {
+                    affected.add(dependent);
+                }
+
+                dependent.compatibility = compatibility;
+                dependent.cause = name;
+
+                Compatibility previous = models.getOrDefault(
+                        dependent.modelName,
+                        Compatibility.Compatible
+                );
+
+                if (compatibility.compareTo(previous) > 0) {
+                    models.put(dependent.modelName, compatibility);
+                    pending.add(dependent.modelName);
+                }
+            }
+        }
+
+        for (Dependent dependent : affected) {
+            changes.add(new Change(
+                    dependent.modelName,
+                    dependent.attributeName,
+                    Change.Kind.DependencyChanged,
+                    dependent.compatibility,
+                    String.format(
+                            "Type refers to changed model %s",
+                            dependent.cause
+                    )
+            ));
+        }
+    }
+
+    /**
+     * Returns the representation of the specified <code>type</code> that is
+     * compared, i.e. with fully qualified model names and with the names of
+     * type parameters replaced by their positions (<code>P1</code>,
+     * <code>P2</code>, ...) in the declaration of the model.
+     */
+    private static Type canonicalize(
+            Type type,
+            Index index,
+            Domain context,
+            List<TypeParameter> typeParameters
+    ) {
+        switch (type.getCategory()) {
+            case Parameter:
+                String parameterName =
+                        ((ParameterType) type).getTypeParameterName();
+
+                for (int i = 0; i < typeParameters.size(); i++) {
+                    if (typeParameters.get(i).getName().equals(parameterName)) {
+                        return new ParameterType("P" + (i + 1));
+                    }
+                }
+
+                return type;
+
+            case Model:
+                ModelType modelType = (ModelType) type;
+                String modelName = index.resolve(
+                        modelType.getModelName(),
+                        context
+                ).orElseThrow(() -> new IllegalArgumentException(
+                        "Unknown model: " + modelType.getModelName()
+                ));
+
+                List<Type> parameters = new ArrayList<>();
+
+                for (Type parameter : modelType.getTypeParameters()) {
+                    parameters.add(EnvironmentDiff.canonicalize(
+                            parameter,
+                            index,
+                            context,
+                            typeParameters
+                    ));
+                }
+
+                return new ModelType(modelName, parameters);
+
+            default:
+                throw new UnsupportedOperationException(String.format(
+                        "Category not implemented: '%s'",
+                        type.getCategory().name()
+                ));
+        }
+    }
+
+    private static Set<String> collectModelNames(Type type) {
+        Set<String> names = new HashSet<>();
+        Deque<Type> pending = new ArrayDeque<>();
+        pending.add(type);
+
+        while (!pending.isEmpty()) {
+            Type current = pending.poll();
+
+            if (current.getCategory() == Type.Category.Model) {
+                ModelType modelType = (ModelType) current;
+
+                names.add(modelType.getModelName());
+                pending.addAll(modelType.getTypeParameters());
+            }
+        }
+
+        return names;
+    }
+
+    private static String describe(Type type) {
+        if (type.getCategory() == Type.Category.Parameter) {
+            return ((ParameterType) type).getTypeParameterName();
+        }
+
+        ModelType modelType = (ModelType) type;
+        StringJoiner parameters = new StringJoiner(", ", "<", ">");
+        parameters.setEmptyValue("");
+
+        for (Type parameter : modelType.getTypeParameters()) {
+            parameters.add(EnvironmentDiff.describe(parameter));
+        }
+
+        return modelType.getModelName() + parameters;
+    }
+
+    private static Compatibility max(Compatibility a, Compatibility b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private final List<Change> changes;
+    private final Map<String, Compatibility> models;
+    private final Compatibility compatibility;
+
+    private EnvironmentDiff(
+            List<Change> changes,
+            Map<String, Compatibility> models
+    ) {
+        this.changes = Collections.unmodifiableList(changes);
+        this.models = models;
+        this.compatibility = models.values()
+                .stream()
+                .reduce(Compatibility.Compatible, EnvironmentDiff::max);
+    }
+
+    /**
+     * Returns all changes, ordered by the names of the affected models and
+     * attributes.
+     *
+     * @return  The changes, which are empty, if both environments are
+     *          equivalent.
+     */
+    public List<Change> getChanges() {
+        return this.changes;
+    }
+
+    /**
+     * Returns the combined effect of all changes on encoded data.
+     *
+     * @return  The most severe compatibility of all changes, or
+     *          {@link Compatibility#Compatible}, if there are no changes.
+     */
+    public Compatibility getCompatibility() {
+        return this.compatibility;
+    }
+
+    /**
+     * Returns the effect of all changes on the encoded values of the model
+     * with the specified fully qualified <code>modelName</code>.
+     *
+     * @param modelName The fully qualified name of the model.
+     * @return  The most severe compatibility of all changes that affect the
+     *          model, including the changes of the models it refers to.
+     *
+     * @throws NullPointerException If <code>modelName</code> is
+     *                              <code>null</code>.
+     */
+    public Compatibility getCompatibility(String modelName) {
+        Objects.requireNonNull(modelName, "modelName is null");
+
+        return this.models.getOrDefault(modelName, Compatibility.Compatible);
+    }
+}
@@ -0,0 +1,93 @@
+package org.fir3.cml.api.output;
+
+import org.fir3.cml.api.OutputSink;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An {@link OutputSink} that writes the output files directly to a directory
+ * of a {@link java.nio.file.FileSystem}.
+ */
+public final class DirectoryOutputSink implements OutputSink {
+    private final Path directory;
+
+    /**
+     * Initializes a new instance of <code>DirectoryOutputSink</code>.
+     *
+     * @param directory The root directory of the output files. It will be
+     *                  created on demand.
+     *
+     * @throws NullPointerException If <code>directory</code> is
+     *                              <code>null</code>.
+     */
+    public DirectoryOutputSink(Path directory) {
+        Objects.requireNonNull(directory, "directory is null");
+
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the root directory of the output files.
+     *
+     * @return  The root directory of the output files.
+     */
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    @Override
+    public WritableByteChannel open(String name) throws IOException {
+        Path file = this.resolve(name);
+        Path parent = file.toAbsolutePath().getParent();
+
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        return FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+        );
+    }
+
+    @Override
+    public Optional<ReadableByteChannel> openExisting(String name)
+            throws IOException {
+        try {
+            return Optional.of(FileChannel.open(
+                    this.resolve(name),
+                    StandardOpenOption.READ
+            ));
+        } catch (NoSuchFileException ignored) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return Files.isRegularFile(this.resolve(name));
+    }
+
+    @Override
+    public void delete(String name) throws IOException {
+        Files.deleteIfExists(this.resolve(name));
+    }
+
+    private Path resolve(String name) {
+        Path file = this.directory;
+
+        for (String segment : OutputNames.split(name)) {
+            file = file.resolve(segment);
+        }
+
+        return file;
+    }
+}
@@ -0,0 +1,136 @@
+package org.fir3.cml.api.output;
+
+import org.fir3.cml.api.OutputSink;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An {@link OutputSink} that keeps all output files in memory.
+ *
+ * <p>
+ *     An output file becomes visible to the other methods of this sink once
+ *     the channel that it was written to has been closed.
+ * </p>
+ */
+public final class MemoryOutputSink implements OutputSink {
+    private final class MemoryChannel implements WritableByteChannel {
+        private final String name;
+        private final ByteArrayOutputStream content;
+        private boolean open;
+
+        public MemoryChannel(String name) {
+            this.name = name;
+            this.content = new ByteArrayOutputStream();
+            this.open = true;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!this.open) {
+                throw new ClosedChannelException();
+            }
+
+            int length = src.remaining();
+
+            if (src.hasArray()) {
+                this.content.write(
+                        src.array(),
+                        src.arrayOffset() + src.position(),
+                        length
+                );
+
+                src.position(src.limit());
+            } else {
+                byte[] bytes = new byte[length];
+                src.get(bytes);
+                this.content.write(bytes, 0, length);
+            }
+
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.open;
+        }
+
+        @Override
+        public void close() {
+            if (!this.open) {
+                return;
+            }
+
+            this.open = false;
+            MemoryOutputSink.this.files.put(
+                    this.name,
+                    this.content.toByteArray()
+            );
+        }
+    }
+
+    private final Map<String, byte[]> files;
+
+    /**
+     * Initializes a new, empty instance of <code>MemoryOutputSink</code>.
+     */
+    public MemoryOutputSink() {
+        this.files = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the names of all output files of this sink.
+     *
+     * @return  The sorted names of all output files.
+     */
+    public SortedSet<String> getNames() {
+        return Collections.unmodifiableSortedSet(
+                new TreeSet<>(this.files.keySet())
+        );
+    }
+
+    /**
+     * Returns the content of the output file with the specified
+     * <code>name</code>.
+     *
+     * @param name  The name of the output file.
+     * @return  An {@link Optional} container that either contains a copy of
+     *          the content of the output file, or <code>null</code>, if there
+     *          is no such output file.
+     */
+    public Optional<byte[]> getContent(String name) {
+        return Optional.ofNullable(this.files.get(name)).map(byte[]::clone);
+    }
+
+    @Override
+    public WritableByteChannel open(String name) {
+        return new MemoryChannel(OutputNames.validate(name));
+    }
+
+    @Override
+    public Optional<ReadableByteChannel> openExisting(String name) {
+        byte[] content = this.files.get(OutputNames.validate(name));
+
+        return Optional.ofNullable(content).map(
+                c -> Channels.newChannel(new ByteArrayInputStream(c))
+        );
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return this.files.containsKey(OutputNames.validate(name));
+    }
+
+    @Override
+    public void delete(String name) {
+        this.files.remove(OutputNames.validate(name));
+    }
+}
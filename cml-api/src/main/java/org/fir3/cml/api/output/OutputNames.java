@@ -0,0 +1,67 @@
+package org.fir3.cml.api.output;
+
+import java.util.Objects;
+
+/**
+ * A collection of utility methods for the names of output files.
+ *
+ * @see org.fir3.cml.api.OutputSink
+ */
+public final class OutputNames {
+    private static final char SEPARATOR = '/';
+
+    /**
+     * Splits the specified output file <code>name</code> into its segments.
+     *
+     * @param name  The name of an output file.
+     * @return  The segments of the specified <code>name</code>.
+     *
+     * @throws NullPointerException     If <code>name</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>name</code> is not a valid
+     *                                  relative path, e.g. because it is
+     *                                  absolute, contains empty segments or
+     *                                  refers to a parent directory.
+     */
+    public static String[] split(String name) {
+        Objects.requireNonNull(name, "name is null");
+
+        if (name.isEmpty() || name.indexOf('\\') != -1) {
+            throw new IllegalArgumentException("Invalid name");
+        }
+
+        String[] segments = name.split(Character.toString(SEPARATOR), -1);
+
+        for (String segment : segments) {
+            if (segment.isEmpty() ||
+                    segment.equals(".") ||
+                    segment.equals("..")) {
+                throw new IllegalArgumentException("Invalid name");
+            }
+        }
+
+        return segments;
+    }
+
+    /**
+     * Validates the specified output file <code>name</code>.
+     *
+     * @param name  The name of an output file.
+     * @return  The specified <code>name</code>.
+     *
+     * @throws NullPointerException     If <code>name</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>name</code> is not a valid
+     *                                  relative path.
+     */
+    public static String validate(String name) {
+        OutputNames.split(name);
+        return name;
+    }
+
+    private OutputNames() {
+        throw new IllegalStateException("Do not instantiate this class");
+    }
+}
@@ -0,0 +1,91 @@
+package org.fir3.cml.api.util;
+
+import org.fir3.cml.api.exception.ConfigurationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * A collection of utility methods for streams.
+ */
+public final class StreamHelper {
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Reads all remaining bytes from the specified <code>src</code> stream.
+     *
+     * <p>
+     *     The specified <code>src</code> stream is not closed by this method.
+     * </p>
+     *
+     * @param src   The stream that will be read.
+     * @return  The bytes that have been read.
+     *
+     * @throws NullPointerException If <code>src</code> is <code>null</code>.
+     * @throws IOException          If reading from <code>src</code> fails.
+     */
+    public static byte[] readAll(InputStream src) throws IOException {
+        Objects.requireNonNull(src, "src is null");
+
+        ByteArrayOutputStream dst = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length;
+
+        while ((length = src.read(buffer)) >= 0) {
+            dst.write(buffer, 0, length);
+        }
+
+        return dst.toByteArray();
+    }
+
+    /**
+     * Reads the translator-specific configuration from the specified
+     * <code>configSource</code> into memory, so that it can be passed to
+     * multiple translations via {@link #openConfiguration(byte[])}. A
+     * configuration stream can only be consumed once otherwise.
+     *
+     * @param configSource  Either the stream that provides the
+     *                      configuration, or <code>null</code>, if there is
+     *                      no configuration.
+     *
+     * @return  Either the bytes of the configuration, or <code>null</code>,
+     *          if <code>configSource</code> is <code>null</code>.
+     *
+     * @throws ConfigurationException   If reading from
+     *                                  <code>configSource</code> fails.
+     */
+    public static byte[] readConfiguration(InputStream configSource)
+            throws ConfigurationException {
+        if (configSource == null) {
+            return null;
+        }
+
+        try {
+            return StreamHelper.readAll(configSource);
+        } catch (IOException ex) {
+            throw new ConfigurationException(ex);
+        }
+    }
+
+    /**
+     * Opens a new stream that provides the specified <code>config</code>,
+     * which has been read by {@link #readConfiguration(InputStream)}.
+     *
+     * @param config    Either the bytes of the configuration, or
+     *                  <code>null</code>, if there is no configuration.
+     *
+     * @return  Either a new stream that provides <code>config</code>, or
+     *          <code>null</code>, if <code>config</code> is
+     *          <code>null</code>.
+     */
+    public static InputStream openConfiguration(byte[] config) {
+        return config == null ? null : new ByteArrayInputStream(config);
+    }
+
+    private StreamHelper() {
+        throw new IllegalStateException("Do not instantiate this class");
+    }
+}
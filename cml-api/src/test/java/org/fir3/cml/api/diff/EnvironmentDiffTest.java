@@ -0,0 +1,368 @@
+package org.fir3.cml.api.diff;
+
+import org.fir3.cml.api.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnvironmentDiffTest {
+    private static final String BUILTIN_DOMAIN = "org.fir3.cml.__builtin__";
+
+    // The built-in domain is shared by all environments of this test
+
+    private static final Domain BUILTIN = new Domain(
+            BUILTIN_DOMAIN,
+            EnumSet.of(Domain.Flag.Ubiquitous),
+            new HashSet<>(Arrays.asList(
+                    new Model(
+                            "Bit",
+                            EnumSet.of(Model.Flag.Builtin),
+                            Collections.emptyList(),
+                            Collections.emptySet()
+                    ),
+                    new Model(
+                            "Sequence",
+                            EnumSet.of(Model.Flag.Builtin),
+                            Collections.singletonList(
+                                    new TypeParameter("ElementType")
+                            ),
+                            Collections.emptySet()
+                    )
+            ))
+    );
+
+    private static Type type(String modelName, Type... typeParameters) {
+        return new ModelType(modelName, Arrays.asList(typeParameters));
+    }
+
+    private static Model model(
+            String name,
+            List<String> typeParameters,
+            Attribute... attributes
+    ) {
+        List<TypeParameter> parameters = new ArrayList<>();
+
+        for (String typeParameter : typeParameters) {
+            parameters.add(new TypeParameter(typeParameter));
+        }
+
+        return new Model(
+                name,
+                EnumSet.noneOf(Model.Flag.class),
+                parameters,
+                new HashSet<>(Arrays.asList(attributes))
+        );
+    }
+
+    private static Model model(String name, Attribute... attributes) {
+        return model(name, Collections.emptyList(), attributes);
+    }
+
+    private static Environment environment(Domain... domains) {
+        Set<Domain> allDomains = new HashSet<>(Arrays.asList(domains));
+        allDomains.add(BUILTIN);
+
+        return new Environment(allDomains);
+    }
+
+    private static Domain domain(String name, Model... models) {
+        return new Domain(
+                name,
+                EnumSet.noneOf(Domain.Flag.class),
+                new HashSet<>(Arrays.asList(models))
+        );
+    }
+
+    private static Environment schema(Model header, Model... extraModels) {
+        List<Model> models = new ArrayList<>(Arrays.asList(extraModels));
+        models.add(header);
+        models.add(model(
+                "Pair",
+                Arrays.asList("A", "B"),
+                new Attribute("first", new ParameterType("A")),
+                new Attribute("second", new ParameterType("B"))
+        ));
+
+        models.add(model(
+                "Message",
+                new Attribute("header", type("Header")),
+                new Attribute(
+                        "pairs",
+                        type(
+                                "Sequence",
+                                type("Pair", type("Bit"), type("Bit"))
+                        )
+                )
+        ));
+
+        return environment(
+                domain("test", models.toArray(new Model[0])),
+                domain(
+                        "other",
+                        model(
+                                "Envelope",
+                                new Attribute(
+                                        "message",
+                                        type("test.Message")
+                                )
+                        )
+                )
+        );
+    }
+
+    private static Model header(Attribute... attributes) {
+        return model("Header", attributes);
+    }
+
+    @Test
+    public void testEquivalentEnvironments() {
+        Environment previous = schema(header(
+                new Attribute("flag", type("Bit"))
+        ));
+
+        // Referring to the same models with qualified names and renaming type
+        // parameters does not change anything.
+
+        Environment next = environment(
+                domain(
+                        "test",
+                        header(new Attribute(
+                                "flag",
+                                type(BUILTIN_DOMAIN + ".Bit")
+                        )),
+                        model(
+                                "Pair",
+                                Arrays.asList("X", "Y"),
+                                new Attribute("first", new ParameterType("X")),
+                                new Attribute("second", new ParameterType("Y"))
+                        ),
+                        model(
+                                "Message",
+                                new Attribute("header", type("test.Header")),
+                                new Attribute(
+                                        "pairs",
+                                        type(
+                                                "Sequence",
+                                                type(
+                                                        "Pair",
+                                                        type("Bit"),
+                                                        type("Bit")
+                                                )
+                                        )
+                                )
+                        )
+                ),
+                domain(
+                        "other",
+                        model(
+                                "Envelope",
+                                new Attribute(
+                                        "message",
+                                        type("test.Message")
+                                )
+                        )
+                )
+        );
+
+        EnvironmentDiff diff = EnvironmentDiff.compute(previous, next);
+
+        assertEquals(Collections.emptyList(), diff.getChanges());
+        assertEquals(Compatibility.Compatible, diff.getCompatibility());
+    }
+
+    @Test
+    public void testAddedModel() {
+        EnvironmentDiff diff = EnvironmentDiff.compute(
+                schema(header()),
+                schema(header(), model("Extra"))
+        );
+
+        assertEquals(
+                Collections.singletonList(new Change(
+                        "test.Extra",
+                        null,
+                        Change.Kind.ModelAdded,
+                        Compatibility.Compatible,
+                        "Model has been added"
+                )),
+                diff.getChanges()
+        );
+
+        assertEquals(Compatibility.Compatible, diff.getCompatibility());
+    }
+
+    @Test
+    public void testRemovedAttribute() {
+        EnvironmentDiff diff = EnvironmentDiff.compute(
+                schema(header(new Attribute("flag", type("Bit")))),
+                schema(header())
+        );
+
+        List<String> changes = new ArrayList<>();
+
+        for (Change change : diff.getChanges()) {
+            changes.add(change.toString());
+        }
+
+        assertEquals(Arrays.asList(
+                "LayoutChanging: other.Envelope.message: " +
+                        "Type refers to changed model test.Message",
+                "LayoutChanging: test.Header.flag: Attribute has been removed",
+                "LayoutChanging: test.Message.header: " +
+                        "Type refers to changed model test.Header"
+        ), changes);
+
+        assertEquals(Compatibility.LayoutChanging, diff.getCompatibility());
+        assertEquals(
+                Compatibility.LayoutChanging,
+                diff.getCompatibility("other.Envelope")
+        );
+
+        assertEquals(
+                Compatibility.Compatible,
+                diff.getCompatibility("test.Pair")
+        );
+    }
+
+    @Test
+    public void testBreakingChanges() {
+        Environment previous = schema(header(
+                new Attribute("flag", type("Bit"))
+        ));
+
+        // Changing the type of an attribute
+
+        EnvironmentDiff diff = EnvironmentDiff.compute(
+                previous,
+                schema(header(new Attribute(
+                        "flag",
+                        type("Sequence", type("Bit"))
+                )))
+        );
+
+        Change change = diff.getChanges().get(1);
+
+        assertEquals("test.Header", change.getModelName());
+        assertEquals(Optional.of("flag"), change.getAttributeName());
+        assertEquals(Change.Kind.AttributeTypeChanged, change.getKind());
+        assertEquals(
+                "Type changed from " + BUILTIN_DOMAIN + ".Bit to " +
+                        BUILTIN_DOMAIN + ".Sequence<" + BUILTIN_DOMAIN +
+                        ".Bit>",
+                change.getDescription()
+        );
+
+        assertEquals(
+                Compatibility.Breaking,
+                diff.getCompatibility("other.Envelope")
+        );
+
+        // Adding an attribute
+
+        diff = EnvironmentDiff.compute(previous, schema(header(
+                new Attribute("flag", type("Bit")),
+                new Attribute("other", type("Bit"))
+        )));
+
+        assertEquals(
+                Change.Kind.AttributeAdded,
+                diff.getChanges().get(1).getKind()
+        );
+
+        assertEquals(Compatibility.Breaking, diff.getCompatibility());
+
+        // Removing a model
+
+        diff = EnvironmentDiff.compute(
+                schema(header(), model("Extra")),
+                schema(header())
+        );
+
+        assertEquals(
+                Change.Kind.ModelRemoved,
+                diff.getChanges().get(0).getKind()
+        );
+
+        assertEquals(Compatibility.Breaking, diff.getCompatibility());
+    }
+
+    @Test
+    public void testSwappedTypeParameters() {
+        Environment previous = environment(domain(
+                "test",
+                model(
+                        "Pair",
+                        Arrays.asList("A", "B"),
+                        new Attribute("first", new ParameterType("A")),
+                        new Attribute("second", new ParameterType("B"))
+                )
+        ));
+
+        Environment next = environment(domain(
+                "test",
+                model(
+                        "Pair",
+                        Arrays.asList("B", "A"),
+                        new Attribute("first", new ParameterType("A")),
+                        new Attribute("second", new ParameterType("B"))
+                )
+        ));
+
+        EnvironmentDiff diff = EnvironmentDiff.compute(previous, next);
+
+        assertEquals(2, diff.getChanges().size());
+        assertEquals(Compatibility.Breaking, diff.getCompatibility());
+    }
+
+    @Test
+    public void testRecursiveModel() {
+        Environment previous = environment(domain(
+                "test",
+                model(
+                        "Node",
+                        new Attribute(
+                                "children",
+                                type("Sequence", type("Node"))
+                        )
+                )
+        ));
+
+        Environment next = environment(domain(
+                "test",
+                model(
+                        "Node",
+                        new Attribute(
+                                "children",
+                                type("Sequence", type("Node"))
+                        ),
+                        new Attribute("leaf", type("Bit"))
+                )
+        ));
+
+        EnvironmentDiff diff = EnvironmentDiff.compute(previous, next);
+
+        assertEquals(2, diff.getChanges().size());
+        assertEquals(
+                Change.Kind.DependencyChanged,
+                diff.getChanges().get(0).getKind()
+        );
+
+        assertEquals(Compatibility.Breaking, diff.getCompatibility());
+    }
+
+    @Test
+    public void testUnknownModel() {
+        Environment previous = environment(domain("test", model("A")));
+        Environment next = environment(domain(
+                "test",
+                model("A", new Attribute("b", type("Unknown")))
+        ));
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> EnvironmentDiff.compute(previous, next)
+        );
+    }
+}
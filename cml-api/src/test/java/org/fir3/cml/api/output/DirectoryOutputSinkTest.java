@@ -0,0 +1,57 @@
+package org.fir3.cml.api.output;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirectoryOutputSinkTest {
+    private static final byte[] CONTENT =
+            "Some content".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testWriteAndDelete(@TempDir Path directory)
+            throws IOException {
+        DirectoryOutputSink sink = new DirectoryOutputSink(directory);
+
+        try (WritableByteChannel channel = sink.open("a/b/File.txt")) {
+            channel.write(ByteBuffer.wrap(CONTENT));
+        }
+
+        Path file = directory.resolve("a").resolve("b").resolve("File.txt");
+
+        assertTrue(sink.exists("a/b/File.txt"));
+        assertArrayEquals(CONTENT, Files.readAllBytes(file));
+        assertTrue(sink.openExisting("a/b/File.txt").isPresent());
+
+        sink.delete("a/b/File.txt");
+
+        assertFalse(sink.exists("a/b/File.txt"));
+        assertFalse(Files.exists(file));
+        assertFalse(sink.openExisting("a/b/File.txt").isPresent());
+    }
+
+    @Test
+    public void testEscapingNames(@TempDir Path directory) {
+        DirectoryOutputSink sink = new DirectoryOutputSink(
+                directory.resolve("out")
+        );
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> sink.open("../File.txt")
+        );
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> sink.open("/File.txt")
+        );
+    }
+}
@@ -0,0 +1,94 @@
+package org.fir3.cml.api.output;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryOutputSinkTest {
+    private static final byte[] CONTENT =
+            "Some content".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testVisibilityAfterClose() throws IOException {
+        MemoryOutputSink sink = new MemoryOutputSink();
+        WritableByteChannel channel = sink.open("a/b/File.txt");
+
+        channel.write(ByteBuffer.wrap(CONTENT));
+
+        // The output file must not be visible before the channel has been
+        // closed.
+
+        assertFalse(sink.exists("a/b/File.txt"));
+        channel.close();
+
+        assertTrue(sink.exists("a/b/File.txt"));
+        assertEquals(
+                Arrays.asList("a/b/File.txt"),
+                Arrays.asList(sink.getNames().toArray())
+        );
+
+        assertArrayEquals(CONTENT, sink.getContent("a/b/File.txt").orElse(null));
+    }
+
+    @Test
+    public void testOpenExisting() throws IOException {
+        MemoryOutputSink sink = new MemoryOutputSink();
+
+        assertFalse(sink.openExisting("File.txt").isPresent());
+
+        try (WritableByteChannel channel = sink.open("File.txt")) {
+            channel.write(ByteBuffer.wrap(CONTENT));
+        }
+
+        Optional<ReadableByteChannel> channel = sink.openExisting("File.txt");
+        assertTrue(channel.isPresent());
+
+        ByteBuffer buffer = ByteBuffer.allocate(CONTENT.length);
+
+        while (buffer.hasRemaining() && channel.get().read(buffer) >= 0) {
+            // Reading until the buffer is full
+        }
+
+        assertArrayEquals(CONTENT, buffer.array());
+    }
+
+    @Test
+    public void testDelete() throws IOException {
+        MemoryOutputSink sink = new MemoryOutputSink();
+        sink.open("File.txt").close();
+
+        assertTrue(sink.exists("File.txt"));
+        sink.delete("File.txt");
+        assertFalse(sink.exists("File.txt"));
+    }
+
+    @Test
+    public void testInvalidNames() {
+        MemoryOutputSink sink = new MemoryOutputSink();
+
+        assertThrows(IllegalArgumentException.class, () -> sink.open(""));
+        assertThrows(IllegalArgumentException.class, () -> sink.open("/a"));
+        assertThrows(IllegalArgumentException.class, () -> sink.open("a//b"));
+        assertThrows(IllegalArgumentException.class, () -> sink.open("../a"));
+        assertThrows(IllegalArgumentException.class, () -> sink.open("a\\b"));
+
+        // Names are validated when reading or deleting as well, so that
+        // invalid names do not silently miss existing output files.
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> sink.openExisting("/a")
+        );
+
+        assertThrows(IllegalArgumentException.class, () -> sink.exists("a//b"));
+        assertThrows(IllegalArgumentException.class, () -> sink.delete("../a"));
+    }
+}
@@ -0,0 +1,93 @@
+package org.fir3.cml.benchmarks;
+
+import org.fir3.cml.runtime.BitOrder;
+import org.fir3.cml.runtime.BitReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to read a buffer field by field with the
+ * {@link BitReader}, compared to a loop that reads one bit at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitReaderBenchmark {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Param({"BigEndian", "LittleEndian"})
+    public BitOrder order;
+
+    @Param({"3", "13", "64"})
+    public int bits;
+
+    private byte[] array;
+    private long fields;
+
+    /**
+     * Reads a field one bit at a time.
+     */
+    static long readNaive(
+            byte[] array,
+            BitOrder order,
+            long bitOffset,
+            int bits
+    ) {
+        long value = 0;
+
+        for (int index = 0; index < bits; index++) {
+            long offset = bitOffset + index;
+            int currentByte = array[(int) (offset >>> 3)] & 0xFF;
+
+            if (order == BitOrder.BigEndian) {
+                value = (value << 1) |
+                        ((currentByte >>> (7 - (offset & 7))) & 1);
+            } else {
+                value |= (long) ((currentByte >>> (offset & 7)) & 1) << index;
+            }
+        }
+
+        return value;
+    }
+
+    @Setup
+    public void setUp() {
+        this.array = new byte[BUFFER_SIZE];
+        new Random(0).nextBytes(this.array);
+
+        this.fields = (BUFFER_SIZE * 8L) / this.bits;
+    }
+
+    @Benchmark
+    public long readWords() {
+        BitReader reader = new BitReader(this.array, this.order);
+        long checksum = 0;
+
+        for (long index = 0; index < this.fields; index++) {
+            checksum += reader.read(this.bits);
+        }
+
+        return checksum;
+    }
+
+    @Benchmark
+    public long readBits() {
+        long checksum = 0;
+
+        for (long index = 0; index < this.fields; index++) {
+            checksum += BitReaderBenchmark.readNaive(
+                    this.array,
+                    this.order,
+                    index * this.bits,
+                    this.bits
+            );
+        }
+
+        return checksum;
+    }
+}
@@ -0,0 +1,134 @@
+package org.fir3.cml.benchmarks;
+
+import org.fir3.cml.runtime.BitOrder;
+import org.fir3.cml.runtime.BitReader;
+import org.fir3.cml.runtime.BitWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to fill a buffer field by field with the
+ * {@link BitWriter}, compared to a loop that writes one bit at a time, and
+ * how long it takes to copy an unaligned range of bits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitWriterBenchmark {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Param({"BigEndian", "LittleEndian"})
+    public BitOrder order;
+
+    @Param({"3", "13", "64"})
+    public int bits;
+
+    private byte[] source;
+    private byte[] target;
+    private long fields;
+
+    /**
+     * Writes a field one bit at a time.
+     */
+    static void writeNaive(
+            byte[] array,
+            BitOrder order,
+            long bitOffset,
+            int bits,
+            long value
+    ) {
+        for (int index = 0; index < bits; index++) {
+            long offset = bitOffset + index;
+            int byteIndex = (int) (offset >>> 3);
+            int bit;
+            int shift;
+
+            if (order == BitOrder.BigEndian) {
+                bit = (int) (value >>> (bits - 1 - index)) & 1;
+                shift = 7 - (int) (offset & 7);
+            } else {
+                bit = (int) (value >>> index) & 1;
+                shift = (int) (offset & 7);
+            }
+
+            array[byteIndex] = (byte) ((array[byteIndex] & ~(1 << shift)) |
+                    (bit << shift));
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        this.source = new byte[BUFFER_SIZE];
+        this.target = new byte[BUFFER_SIZE];
+        new Random(0).nextBytes(this.source);
+
+        this.fields = (BUFFER_SIZE * 8L) / this.bits;
+    }
+
+    @Benchmark
+    public byte[] writeWords() {
+        BitWriter writer = new BitWriter(this.target, this.order);
+
+        for (long index = 0; index < this.fields; index++) {
+            writer.write(this.bits, index);
+        }
+
+        return this.target;
+    }
+
+    @Benchmark
+    public byte[] writeBits() {
+        for (long index = 0; index < this.fields; index++) {
+            BitWriterBenchmark.writeNaive(
+                    this.target,
+                    this.order,
+                    index * this.bits,
+                    this.bits,
+                    index
+            );
+        }
+
+        return this.target;
+    }
+
+    @Benchmark
+    public byte[] copyWords() {
+        // The offsets differ by a few bits, so that every word of the copy
+        // is unaligned.
+
+        BitReader reader = new BitReader(this.source, this.order);
+        BitWriter writer = new BitWriter(this.target, this.order);
+
+        reader.setPosition(this.bits);
+        writer.copy(reader, reader.getRemaining());
+
+        return this.target;
+    }
+
+    @Benchmark
+    public byte[] copyBits() {
+        long count = BUFFER_SIZE * 8L - this.bits;
+
+        for (long offset = 0; offset < count; offset++) {
+            BitWriterBenchmark.writeNaive(
+                    this.target,
+                    this.order,
+                    offset,
+                    1,
+                    BitReaderBenchmark.readNaive(
+                            this.source,
+                            this.order,
+                            this.bits + offset,
+                            1
+                    )
+            );
+        }
+
+        return this.target;
+    }
+}
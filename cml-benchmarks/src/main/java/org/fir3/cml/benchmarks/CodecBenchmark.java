@@ -0,0 +1,233 @@
+package org.fir3.cml.benchmarks;
+
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.codec.Codec;
+import org.fir3.cml.codec.CodecException;
+import org.fir3.cml.codec.DynamicRecord;
+import org.fir3.cml.codec.Plan;
+import org.fir3.cml.runtime.BitOrder;
+import org.fir3.cml.runtime.BitReader;
+import org.fir3.cml.runtime.BitWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to decode and encode a message with the
+ * interpreted {@link Plan} of its model, compared to a hand-written codec
+ * that resembles generated code, and how long it takes to read a single
+ * attribute with a {@link DynamicRecord}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    private static final String BUILTIN_SOURCE = String.join("\n",
+            "ubiquitous domain org.fir3.cml.__builtin__;",
+            "builtin model Bit;",
+            "builtin model Sequence<ElementType>;"
+    );
+
+    private static final String MESSAGE_SOURCE = String.join("\n",
+            "domain bench.codec;",
+            "model Header {",
+            "    Bit a; Bit b; Bit c; Bit d; Bit e; Bit f; Bit g; Bit h;",
+            "    Bit i; Bit j; Bit k; Bit l; Bit m; Bit n; Bit o; Bit p;",
+            "}",
+            "model Entry {",
+            "    Sequence<Bit> data;",
+            "    Header header;",
+            "}",
+            "model Message {",
+            "    Sequence<Entry> entries;",
+            "    Header header;",
+            "}"
+    );
+
+    private static final int HEADER_BITS = 16;
+    private static final int DATA_BITS = 24;
+    private static final int LENGTH_BITS = 32;
+
+    @Param({"BigEndian", "LittleEndian"})
+    public BitOrder order;
+
+    @Param({"16", "256"})
+    public int entries;
+
+    private Plan plan;
+    private int headerIndex;
+    private Object message;
+    private byte[] array;
+
+    private static Domain parse(String source) throws IOException {
+        return Schema.parse(Schema.tokenize(
+                source.getBytes(StandardCharsets.UTF_8)
+        ));
+    }
+
+    private static Object[] header(Random random) {
+        Object[] header = new Object[HEADER_BITS];
+
+        for (int index = 0; index < header.length; index++) {
+            header[index] = random.nextBoolean();
+        }
+
+        return header;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Environment environment = new Environment(new HashSet<>(Arrays.asList(
+                CodecBenchmark.parse(BUILTIN_SOURCE),
+                CodecBenchmark.parse(MESSAGE_SOURCE)
+        )));
+
+        Random random = new Random(0);
+        List<Object> entries = new ArrayList<>();
+
+        for (int index = 0; index < this.entries; index++) {
+            List<Object> data = new ArrayList<>();
+
+            for (int bit = 0; bit < DATA_BITS; bit++) {
+                data.add(random.nextBoolean());
+            }
+
+            entries.add(new Object[] { data, CodecBenchmark.header(random) });
+        }
+
+        this.plan = new Codec(environment).getPlan("bench.codec.Message");
+        this.headerIndex = this.plan.getAttributeIndex("header");
+        this.message = new Object[] {
+                entries,
+                CodecBenchmark.header(random)
+        };
+
+        long size = this.plan.getSize(this.message);
+
+        this.array = new byte[(int) ((size + 7) >>> 3)];
+
+        this.plan.encode(this.message, new BitWriter(this.array, this.order));
+    }
+
+    @Benchmark
+    public Object decodeInterpreted() throws CodecException {
+        return this.plan.decode(new BitReader(this.array, this.order));
+    }
+
+    @Benchmark
+    public Object decodeGenerated() {
+        return CodecBenchmark.readMessage(new BitReader(
+                this.array,
+                this.order
+        ));
+    }
+
+    @Benchmark
+    public long skipInterpreted() throws CodecException {
+        BitReader reader = new BitReader(this.array, this.order);
+        this.plan.skip(reader);
+
+        return reader.getPosition();
+    }
+
+    @Benchmark
+    public boolean routeRecord() throws CodecException {
+        DynamicRecord message = new DynamicRecord(
+                this.plan,
+                new BitReader(this.array, this.order),
+                0
+        );
+
+        return message.getRecord(this.headerIndex).getBit(0);
+    }
+
+    @Benchmark
+    public byte[] encodeInterpreted() throws CodecException {
+        byte[] array = new byte[this.array.length];
+        this.plan.encode(this.message, new BitWriter(array, this.order));
+
+        return array;
+    }
+
+    @Benchmark
+    public byte[] encodeGenerated() {
+        byte[] array = new byte[this.array.length];
+        CodecBenchmark.writeMessage(
+                this.message,
+                new BitWriter(array, this.order)
+        );
+
+        return array;
+    }
+
+    private static Object[] readMessage(BitReader src) {
+        int length = (int) src.read(LENGTH_BITS);
+        List<Object> entries = new ArrayList<>(length);
+
+        for (int index = 0; index < length; index++) {
+            entries.add(CodecBenchmark.readEntry(src));
+        }
+
+        return new Object[] { entries, CodecBenchmark.readHeader(src) };
+    }
+
+    private static Object[] readEntry(BitReader src) {
+        int length = (int) src.read(LENGTH_BITS);
+        List<Object> data = new ArrayList<>(length);
+
+        for (int index = 0; index < length; index++) {
+            data.add(src.readBoolean());
+        }
+
+        return new Object[] { data, CodecBenchmark.readHeader(src) };
+    }
+
+    private static Object[] readHeader(BitReader src) {
+        Object[] header = new Object[HEADER_BITS];
+
+        for (int index = 0; index < HEADER_BITS; index++) {
+            header[index] = src.readBoolean();
+        }
+
+        return header;
+    }
+
+    private static void writeMessage(Object value, BitWriter dst) {
+        Object[] message = (Object[]) value;
+        List<?> entries = (List<?>) message[0];
+
+        dst.write(LENGTH_BITS, entries.size());
+
+        for (Object entry : entries) {
+            CodecBenchmark.writeEntry(entry, dst);
+        }
+
+        CodecBenchmark.writeHeader(message[1], dst);
+    }
+
+    private static void writeEntry(Object value, BitWriter dst) {
+        Object[] entry = (Object[]) value;
+        List<?> data = (List<?>) entry[0];
+
+        dst.write(LENGTH_BITS, data.size());
+
+        for (Object bit : data) {
+            dst.writeBoolean((Boolean) bit);
+        }
+
+        CodecBenchmark.writeHeader(entry[1], dst);
+    }
+
+    private static void writeHeader(Object value, BitWriter dst) {
+        for (Object bit : (Object[]) value) {
+            dst.writeBoolean((Boolean) bit);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.fir3.cml.benchmarks;
+
+import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.tool.compiler.Compiler;
+import org.fir3.cml.tool.generator.SchemaGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the whole compilation of generated source files against the
+ * number of domains, so that time and memory (with <code>-prof gc</code>)
+ * can be charted against the size of the schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompilerBenchmark {
+    @Param({"1", "4", "16", "64"})
+    public int domains;
+
+    @Param({"64"})
+    public int modelsPerDomain;
+
+    @Param({"8"})
+    public int attributesPerModel;
+
+    private Path directory;
+    private Compiler compiler;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("cml-benchmark");
+        this.compiler = new Compiler(1);
+
+        new SchemaGenerator(0x434D4C)
+                .setDomains(this.domains)
+                .setModelsPerDomain(this.modelsPerDomain)
+                .setAttributesPerModel(this.attributesPerModel)
+                .write(this.directory);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(
+                    Comparator.reverseOrder()
+            )::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Environment compile() throws IOException {
+        return this.compiler.compile(Collections.singletonList(
+                this.directory
+        ));
+    }
+}
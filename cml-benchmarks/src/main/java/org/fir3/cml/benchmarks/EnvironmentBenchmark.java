@@ -0,0 +1,73 @@
+package org.fir3.cml.benchmarks;
+
+import org.fir3.cml.api.diff.EnvironmentDiff;
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.api.model.ModelType;
+import org.fir3.cml.api.model.Type;
+import org.fir3.cml.api.util.Pair;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to build an {@link Environment}, to resolve
+ * the models that the attributes of a schema refer to and to compare two
+ * equal environments with {@link EnvironmentDiff}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvironmentBenchmark {
+    @Param({"Small", "Medium", "Huge"})
+    public Schema.Size size;
+
+    private Environment environment;
+    private Environment copy;
+    private Set<Domain> domains;
+    private List<Pair<String, Domain>> references;
+
+    @Setup
+    public void setUp() {
+        this.environment = Schema.generate(this.size).toEnvironment();
+        this.copy = Schema.generate(this.size).toEnvironment();
+        this.domains = new HashSet<>(this.environment.getDomains());
+        this.references = new ArrayList<>();
+
+        for (Pair<Type, Domain> type :
+                Schema.collectModelTypes(this.environment)) {
+            this.references.add(new Pair<>(
+                    ((ModelType) type.getFirstComponent()).getModelName(),
+                    type.getSecondComponent()
+            ));
+        }
+    }
+
+    @Benchmark
+    public Environment createEnvironment() {
+        return new Environment(this.domains);
+    }
+
+    @Benchmark
+    public void resolveModel(Blackhole blackhole) {
+        for (Pair<String, Domain> reference : this.references) {
+            blackhole.consume(this.environment.resolveModel(
+                    reference.getFirstComponent(),
+                    reference.getSecondComponent()
+            ));
+        }
+    }
+
+    @Benchmark
+    public EnvironmentDiff diff() {
+        return EnvironmentDiff.compute(this.environment, this.copy);
+    }
+}
@@ -0,0 +1,79 @@
+package org.fir3.cml.benchmarks;
+
+import org.fir3.cml.api.model.Type;
+import org.fir3.cml.tool.parser.ParseListener;
+import org.fir3.cml.tool.parser.Parser;
+import org.fir3.cml.tool.tokenizer.Token;
+import org.fir3.cml.tool.tokenizer.Tokenizer;
+import org.fir3.cml.tool.util.seq.ByteBufferSequence;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to parse the domains of a schema, both from
+ * tokens that have been read in advance and from the encoded sources.
+ *
+ * <p>
+ *     The <code>scan</code> benchmark reports the declarations to a
+ *     {@link ParseListener} while tokenizing, instead of building the
+ *     domains.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"Small", "Medium", "Huge"})
+    public Schema.Size size;
+
+    private List<byte[]> sources;
+    private List<List<Token>> tokens;
+
+    @Setup
+    public void setUp() {
+        Schema schema = Schema.generate(this.size);
+
+        this.sources = schema.getSources();
+        this.tokens = schema.tokenize();
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws IOException {
+        for (List<Token> sourceTokens : this.tokens) {
+            blackhole.consume(Schema.parse(sourceTokens));
+        }
+    }
+
+    @Benchmark
+    public void tokenizeAndParse(Blackhole blackhole) throws IOException {
+        for (byte[] source : this.sources) {
+            blackhole.consume(Schema.parse(Schema.tokenize(source)));
+        }
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) throws IOException {
+        ParseListener listener = new ParseListener() {
+            @Override
+            public void onAttribute(String name, Type type) {
+                blackhole.consume(type);
+            }
+        };
+
+        for (byte[] source : this.sources) {
+            try (Tokenizer tokenizer = new Tokenizer(new ByteBufferSequence(
+                    ByteBuffer.wrap(source)
+            ))) {
+                blackhole.consume(new Parser(tokenizer).parse(listener));
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package org.fir3.cml.benchmarks;
+
+import org.fir3.cml.api.model.Attribute;
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.api.model.Model;
+import org.fir3.cml.api.model.ModelType;
+import org.fir3.cml.api.model.Type;
+import org.fir3.cml.api.util.Pair;
+import org.fir3.cml.tool.generator.SchemaGenerator;
+import org.fir3.cml.tool.parser.Parser;
+import org.fir3.cml.tool.tokenizer.Token;
+import org.fir3.cml.tool.tokenizer.Tokenizer;
+import org.fir3.cml.tool.util.seq.ByteBufferSequence;
+import org.fir3.cml.tool.util.seq.ListSequence;
+import org.fir3.cml.tool.util.seq.Sequence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A synthetic schema that the benchmarks operate on.
+ *
+ * <p>
+ *     The schema is generated by the {@link SchemaGenerator} from a fixed
+ *     seed, thus every run of the benchmarks, regardless of the commit,
+ *     operates on exactly the same sources.
+ * </p>
+ */
+public final class Schema {
+    /**
+     * The predefined sizes of the generated schemas.
+     */
+    public enum Size {
+        Small(2, 16, 4),
+        Medium(8, 64, 8),
+        Huge(32, 128, 12);
+
+        private final int domains;
+        private final int modelsPerDomain;
+        private final int attributesPerModel;
+
+        Size(int domains, int modelsPerDomain, int attributesPerModel) {
+            this.domains = domains;
+            this.modelsPerDomain = modelsPerDomain;
+            this.attributesPerModel = attributesPerModel;
+        }
+    }
+
+    private static final long SEED = 0x434D4C;
+
+    /**
+     * Generates the schema of the specified <code>size</code>.
+     *
+     * @param size  The size of the schema.
+     * @return  The generated schema.
+     */
+    public static Schema generate(Size size) {
+        List<byte[]> sources = new ArrayList<>();
+
+        for (String source : new SchemaGenerator(SEED)
+                .setDomainPrefix("bench")
+                .setDomains(size.domains)
+                .setModelsPerDomain(size.modelsPerDomain)
+                .setAttributesPerModel(size.attributesPerModel)
+                .generate()
+                .values()) {
+            sources.add(source.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return new Schema(sources);
+    }
+
+    /**
+     * Reads all tokens of the specified <code>source</code>.
+     *
+     * @param source    The encoded source.
+     * @return  The tokens of the source.
+     *
+     * @throws IOException  If the source is malformed.
+     */
+    public static List<Token> tokenize(byte[] source) throws IOException {
+        List<Token> tokens = new ArrayList<>();
+
+        try (Tokenizer tokenizer = new Tokenizer(new ByteBufferSequence(
+                ByteBuffer.wrap(source)
+        ))) {
+            Token token;
+
+            while ((token = tokenizer.read()) != null) {
+                tokens.add(token);
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Parses the domain from the specified <code>tokens</code>.
+     *
+     * @param tokens    The tokens of a source.
+     * @return  The parsed domain.
+     *
+     * @throws IOException  If the tokens do not form a valid domain.
+     */
+    public static Domain parse(List<Token> tokens) throws IOException {
+        try (Sequence<Token> src = new ListSequence<>(tokens)) {
+            return new Parser(src).parse().orElseThrow(
+                    () -> new IOException("No domain declaration")
+            );
+        }
+    }
+
+    private final List<byte[]> sources;
+
+    private Schema(List<byte[]> sources) {
+        this.sources = Collections.unmodifiableList(sources);
+    }
+
+    /**
+     * Returns the UTF-8 encoded sources of this schema, one per domain.
+     *
+     * @return  The sources of this schema.
+     */
+    public List<byte[]> getSources() {
+        return this.sources;
+    }
+
+    /**
+     * Returns the total size of all sources.
+     *
+     * @return  The total size in bytes.
+     */
+    public long getSourceSize() {
+        return this.sources.stream().mapToLong(s -> s.length).sum();
+    }
+
+    /**
+     * Tokenizes all sources of this schema.
+     *
+     * @return  The tokens of each source.
+     */
+    public List<List<Token>> tokenize() {
+        List<List<Token>> tokens = new ArrayList<>();
+
+        try {
+            for (byte[] source : this.sources) {
+                tokens.add(Schema.tokenize(source));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Parses all sources of this schema and combines their domains to an
+     * environment.
+     *
+     * @return  The environment of this schema.
+     */
+    public Environment toEnvironment() {
+        Set<Domain> domains = new HashSet<>();
+
+        try {
+            for (List<Token> tokens : this.tokenize()) {
+                domains.add(Schema.parse(tokens));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        return new Environment(domains);
+    }
+
+    /**
+     * Returns the types of all attributes of the specified
+     * <code>environment</code> that refer to models, together with the
+     * domains that declare the attributes.
+     *
+     * <p>
+     *     The types are returned in the order of the names of their domains,
+     *     models and attributes, so that the order does not depend on the
+     *     iteration order of the underlying sets.
+     * </p>
+     *
+     * @param environment   The environment of this schema.
+     * @return  The model types and their contexts.
+     */
+    public static List<Pair<Type, Domain>> collectModelTypes(
+            Environment environment
+    ) {
+        List<Pair<Type, Domain>> types = new ArrayList<>();
+        List<Domain> domains = new ArrayList<>(environment.getDomains());
+        domains.sort(Comparator.comparing(Domain::getName));
+
+        for (Domain domain : domains) {
+            List<Model> models = new ArrayList<>(domain.getModels());
+            models.sort(Comparator.comparing(Model::getName));
+
+            for (Model model : models) {
+                List<Attribute> attributes = new ArrayList<>(
+                        model.getAttributes()
+                );
+
+                attributes.sort(Comparator.comparing(Attribute::getName));
+
+                for (Attribute attribute : attributes) {
+                    if (attribute.getType() instanceof ModelType) {
+                        types.add(new Pair<>(attribute.getType(), domain));
+                    }
+                }
+            }
+        }
+
+        return types;
+    }
+}
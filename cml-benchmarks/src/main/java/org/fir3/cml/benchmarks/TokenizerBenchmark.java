@@ -0,0 +1,36 @@
+package org.fir3.cml.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to turn the sources of a schema into tokens.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+    @Param({"Small", "Medium", "Huge"})
+    public Schema.Size size;
+
+    private List<byte[]> sources;
+
+    @Setup
+    public void setUp() {
+        this.sources = Schema.generate(this.size).getSources();
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) throws IOException {
+        for (byte[] source : this.sources) {
+            blackhole.consume(Schema.tokenize(source));
+        }
+    }
+}
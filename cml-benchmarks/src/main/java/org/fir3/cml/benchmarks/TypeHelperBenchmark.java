@@ -0,0 +1,112 @@
+package org.fir3.cml.benchmarks;
+
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.api.model.Model;
+import org.fir3.cml.api.model.ModelType;
+import org.fir3.cml.api.model.Type;
+import org.fir3.cml.api.util.Pair;
+import org.fir3.cml.api.util.TypeHelper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link TypeHelper} operations on the attribute types of a
+ * schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeHelperBenchmark {
+    @Param({"Small", "Medium", "Huge"})
+    public Schema.Size size;
+
+    private Environment environment;
+    private List<Pair<Type, Domain>> types;
+    private List<String> typeStrings;
+    private List<Pair<Type, Type>> derivations;
+
+    @Setup
+    public void setUp() {
+        this.environment = Schema.generate(this.size).toEnvironment();
+        this.types = Schema.collectModelTypes(this.environment);
+        this.typeStrings = new ArrayList<>();
+        this.derivations = new ArrayList<>();
+
+        for (Pair<Type, Domain> type : this.types) {
+            Type normalizedType = TypeHelper.normalize(
+                    type.getFirstComponent(),
+                    this.environment,
+                    type.getSecondComponent()
+            );
+
+            this.typeStrings.add(TypeHelper.toString(
+                    type.getFirstComponent(),
+                    this.environment,
+                    type.getSecondComponent()
+            ));
+
+            // Pairing each type with the most generic type of its model
+
+            Pair<Domain, Model> model = this.environment.resolveModel(
+                    ((ModelType) type.getFirstComponent()).getModelName(),
+                    type.getSecondComponent()
+            ).orElseThrow(IllegalStateException::new);
+
+            this.derivations.add(new Pair<>(
+                    normalizedType,
+                    TypeHelper.from(
+                            this.environment,
+                            model.getFirstComponent(),
+                            model.getSecondComponent()
+                    )
+            ));
+        }
+    }
+
+    @Benchmark
+    public void normalize(Blackhole blackhole) {
+        for (Pair<Type, Domain> type : this.types) {
+            blackhole.consume(TypeHelper.normalize(
+                    type.getFirstComponent(),
+                    this.environment,
+                    type.getSecondComponent()
+            ));
+        }
+    }
+
+    @Benchmark
+    public void toTypeString(Blackhole blackhole) {
+        for (Pair<Type, Domain> type : this.types) {
+            blackhole.consume(TypeHelper.toString(
+                    type.getFirstComponent(),
+                    this.environment,
+                    type.getSecondComponent()
+            ));
+        }
+    }
+
+    @Benchmark
+    public void fromString(Blackhole blackhole) {
+        for (String typeString : this.typeStrings) {
+            blackhole.consume(TypeHelper.fromString(typeString));
+        }
+    }
+
+    @Benchmark
+    public void computeDerivationScore(Blackhole blackhole) {
+        for (Pair<Type, Type> derivation : this.derivations) {
+            blackhole.consume(TypeHelper.computeDerivationScore(
+                    derivation.getFirstComponent(),
+                    derivation.getSecondComponent()
+            ));
+        }
+    }
+}
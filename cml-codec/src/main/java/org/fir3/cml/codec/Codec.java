@@ -0,0 +1,433 @@
+package org.fir3.cml.codec;
+
+import org.fir3.cml.api.Builtin;
+import org.fir3.cml.api.model.*;
+import org.fir3.cml.api.util.Pair;
+import org.fir3.cml.api.util.TypeHelper;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decodes and encodes values of the models of an environment without any
+ * generated code.
+ *
+ * <p>
+ *     The encoding of a value depends only on its type:
+ * </p>
+ *
+ * <ul>
+ *     <li>
+ *         A <code>Bit</code> is encoded as a single bit.
+ *     </li>
+ *     <li>
+ *         A <code>Sequence</code> is encoded as the number of its elements,
+ *         an unsigned field of 32 bits, followed by its elements.
+ *     </li>
+ *     <li>
+ *         Any other model is encoded as its attributes in the
+ *         lexicographical order of their names, without any padding.
+ *     </li>
+ * </ul>
+ *
+ * <p>
+ *     Each type is compiled into a {@link Plan} once. Plans are cached by the
+ *     normalized representation of their type, thus all types that refer to
+ *     the same model with the same type parameters share a single plan.
+ * </p>
+ *
+ * <p>
+ *     Instances of this class are safe for concurrent use.
+ * </p>
+ */
+public final class Codec {
+    /**
+     * The number of bits of the length of a sequence.
+     */
+    static final int LENGTH_BITS = 32;
+
+    private static final String BIT_MODEL_NAME =
+            ((ModelType) Builtin.TYPE_BIT).getModelName();
+
+    private static final String SEQUENCE_MODEL_NAME =
+            ((ModelType) Builtin.TYPE_SEQUENCE).getModelName();
+
+    /**
+     * The state of the compilation of a single plan.
+     */
+    private static final class Compilation {
+        private final List<Integer> code = new ArrayList<>();
+        private final List<Plan> plans = new ArrayList<>();
+        private final Set<Type> inlined = new HashSet<>();
+        private final List<Long> offsets = new ArrayList<>();
+        private int depth;
+        private int maxDepth;
+        private long fixedBits;
+        private long minBits;
+
+        private void emit(int opcode, int slot, int operand) {
+            this.code.add(opcode);
+            this.code.add(slot);
+            this.code.add(operand);
+        }
+
+        private void emitBit(int slot) {
+            int size = this.code.size();
+
+            // Consecutive bits of the same model are merged into a single
+            // instruction, which accesses up to 64 bits at once.
+
+            if (size > 0) {
+                int previous = size - Plan.INSTRUCTION_SIZE;
+                int opcode = this.code.get(previous);
+                int first = this.code.get(previous + 1);
+                int count = opcode == Plan.OP_BITS
+                        ? this.code.get(previous + 2)
+                        : 1;
+
+                if ((opcode == Plan.OP_BIT || opcode == Plan.OP_BITS) &&
+                        first + count == slot &&
+                        count < 64) {
+                    this.code.set(previous, Plan.OP_BITS);
+                    this.code.set(previous + 2, count + 1);
+                    return;
+                }
+            }
+
+            this.emit(Plan.OP_BIT, slot, 0);
+        }
+
+        private long[] toOffsets() {
+            long[] result = new long[this.offsets.size()];
+
+            for (int index = 0; index < result.length; index++) {
+                result[index] = this.offsets.get(index);
+            }
+
+            return result;
+        }
+
+        private int[] toCode() {
+            int[] result = new int[this.code.size()];
+
+            for (int index = 0; index < result.length; index++) {
+                result[index] = this.code.get(index);
+            }
+
+            return result;
+        }
+    }
+
+    private final Environment environment;
+    private final Map<Type, Plan> plans = new ConcurrentHashMap<>();
+    private final Map<Type, Plan> pending = new HashMap<>();
+
+    /**
+     * Initializes a new instance of <code>Codec</code>.
+     *
+     * @param environment   The environment that types are resolved from.
+     * @throws NullPointerException If <code>environment</code> is
+     *                              <code>null</code>.
+     */
+    public Codec(Environment environment) {
+        Objects.requireNonNull(environment, "environment is null");
+
+        this.environment = environment;
+    }
+
+    /**
+     * Returns the plan of the model with the specified fully qualified
+     * <code>modelName</code>, which must not have any type parameters.
+     *
+     * @param modelName The fully qualified name of the model.
+     * @return  The plan of the model.
+     *
+     * @throws NullPointerException     If <code>modelName</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If there is no such model or if it
+     *                                  cannot be encoded.
+     */
+    public Plan getPlan(String modelName) {
+        Objects.requireNonNull(modelName, "modelName is null");
+
+        return this.getPlan(
+                new ModelType(modelName, Collections.emptyList()),
+                null
+        );
+    }
+
+    /**
+     * Returns the plan of the specified <code>type</code>, which is compiled,
+     * if there is no cached plan of the type yet.
+     *
+     * @param type      The type of the values of the plan. The type must not
+     *                  refer to any type parameters.
+     *
+     * @param context   The domain that <code>type</code> is resolved in, or
+     *                  <code>null</code>, if <code>type</code> uses fully
+     *                  qualified model names only.
+     *
+     * @return  The plan of the specified <code>type</code>.
+     *
+     * @throws NullPointerException     If <code>type</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>type</code> refers to
+     *                                  unknown models or to type parameters,
+     *                                  or if it cannot be encoded.
+     */
+    public Plan getPlan(Type type, Domain context) {
+        Objects.requireNonNull(type, "type is null");
+
+        Type normalizedType = TypeHelper.normalize(
+                type,
+                this.environment,
+                context
+        );
+
+        if (!Codec.isConcrete(normalizedType)) {
+            throw new IllegalArgumentException(String.format(
+                    "Type '%s' refers to type parameters",
+                    TypeHelper.toString(
+                            normalizedType,
+                            this.environment,
+                            null
+                    )
+            ));
+        }
+
+        Plan plan = this.plans.get(normalizedType);
+
+        if (plan != null) {
+            return plan;
+        }
+
+        synchronized (this.pending) {
+            try {
+                plan = this.resolve(normalizedType);
+                this.plans.putAll(this.pending);
+            } finally {
+                this.pending.clear();
+            }
+        }
+
+        return plan;
+    }
+
+    /**
+     * Returns the plan of the specified normalized <code>type</code>. A plan
+     * that is not cached yet is compiled and stays pending until the
+     * compilation of the requested plan has finished, so that recursive
+     * types refer to the same plan.
+     */
+    private Plan resolve(Type type) {
+        Plan plan = this.plans.get(type);
+
+        if (plan == null) {
+            plan = this.pending.get(type);
+        }
+
+        if (plan != null) {
+            return plan;
+        }
+
+        plan = new Plan(type);
+        this.pending.put(type, plan);
+        this.compile(plan);
+
+        return plan;
+    }
+
+    private void compile(Plan plan) {
+        Compilation compilation = new Compilation();
+        ModelType type = (ModelType) plan.getType();
+        Model model = this.getModel(type).getSecondComponent();
+        List<String> attributeNames = new ArrayList<>();
+        List<Plan> attributePlans = new ArrayList<>();
+
+        this.emit(type, 0, compilation);
+
+        if (!model.getFlags().contains(Model.Flag.Builtin)) {
+            for (Attribute attribute : Codec.sortAttributes(model)) {
+                attributeNames.add(attribute.getName());
+                attributePlans.add(this.resolve(
+                        this.getAttributeType(type, attribute)
+                ));
+            }
+        }
+
+        plan.initialize(
+                compilation.toCode(),
+                compilation.plans.toArray(new Plan[0]),
+                compilation.maxDepth,
+                compilation.fixedBits,
+                compilation.minBits,
+                attributeNames,
+                attributePlans,
+                compilation.toOffsets()
+        );
+    }
+
+    private void emit(ModelType type, int slot, Compilation compilation) {
+        String modelName = type.getModelName();
+        Model model = this.getModel(type).getSecondComponent();
+
+        if (model.getTypeParameters().size() !=
+                type.getTypeParameters().size()) {
+            throw new IllegalArgumentException(String.format(
+                    "Model '%s' expects %d type parameters",
+                    modelName,
+                    model.getTypeParameters().size()
+            ));
+        }
+
+        if (BIT_MODEL_NAME.equals(modelName)) {
+            compilation.emitBit(slot);
+
+            if (compilation.fixedBits >= 0) {
+                compilation.fixedBits++;
+            }
+
+            compilation.minBits++;
+            return;
+        }
+
+        if (SEQUENCE_MODEL_NAME.equals(modelName)) {
+            ModelType elementType =
+                    (ModelType) type.getTypeParameters().get(0);
+
+            if (BIT_MODEL_NAME.equals(elementType.getModelName())) {
+                compilation.emit(Plan.OP_BIT_SEQUENCE, slot, 0);
+            } else {
+                compilation.emit(
+                        Plan.OP_SEQUENCE,
+                        slot,
+                        compilation.plans.size()
+                );
+
+                compilation.plans.add(this.resolve(elementType));
+            }
+
+            compilation.fixedBits = -1;
+            compilation.minBits += LENGTH_BITS;
+            return;
+        }
+
+        if (model.getFlags().contains(Model.Flag.Builtin)) {
+            throw new IllegalArgumentException(String.format(
+                    "Unsupported builtin model: '%s'",
+                    modelName
+            ));
+        }
+
+        // Nested models are inlined, thus a model that contains itself
+        // without a sequence in between would never end.
+
+        if (!compilation.inlined.add(type)) {
+            throw new IllegalArgumentException(String.format(
+                    "Model '%s' contains itself",
+                    modelName
+            ));
+        }
+
+        List<Attribute> attributes = Codec.sortAttributes(model);
+
+        compilation.emit(Plan.OP_RECORD, slot, attributes.size());
+        compilation.maxDepth = Math.max(
+                compilation.maxDepth,
+                ++compilation.depth
+        );
+
+        for (int index = 0; index < attributes.size(); index++) {
+            // The offsets of the root model's attributes are known up to the
+            // first attribute that follows a sequence.
+
+            if (compilation.depth == 1) {
+                compilation.offsets.add(compilation.fixedBits);
+            }
+
+            this.emit(
+                    this.getAttributeType(type, attributes.get(index)),
+                    index,
+                    compilation
+            );
+        }
+
+        compilation.emit(Plan.OP_END, 0, 0);
+        compilation.depth--;
+        compilation.inlined.remove(type);
+    }
+
+    private Pair<Domain, Model> getModel(ModelType type) {
+        return this.environment.resolveModel(type.getModelName(), null)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Unknown model: " + type.getModelName()
+                ));
+    }
+
+    /**
+     * Returns the normalized type of the specified <code>attribute</code> of
+     * the model of the specified <code>owner</code> type, with the type
+     * parameters of the model replaced by the ones of <code>owner</code>.
+     */
+    private ModelType getAttributeType(ModelType owner, Attribute attribute) {
+        Pair<Domain, Model> model = this.getModel(owner);
+        List<TypeParameter> typeParameters =
+                model.getSecondComponent().getTypeParameters();
+
+        Map<String, Type> arguments = new HashMap<>();
+
+        for (int index = 0; index < typeParameters.size(); index++) {
+            arguments.put(
+                    typeParameters.get(index).getName(),
+                    owner.getTypeParameters().get(index)
+            );
+        }
+
+        return (ModelType) TypeHelper.normalize(
+                Codec.substitute(attribute.getType(), arguments),
+                this.environment,
+                model.getFirstComponent()
+        );
+    }
+
+    private static Type substitute(Type type, Map<String, Type> arguments) {
+        if (type.getCategory() == Type.Category.Parameter) {
+            Type argument = arguments.get(
+                    ((ParameterType) type).getTypeParameterName()
+            );
+
+            if (argument == null) {
+                throw new IllegalArgumentException(
+                        "Unknown type parameter: " + type
+                );
+            }
+
+            return argument;
+        }
+
+        ModelType modelType = (ModelType) type;
+        List<Type> typeParameters = new ArrayList<>();
+
+        for (Type typeParameter : modelType.getTypeParameters()) {
+            typeParameters.add(Codec.substitute(typeParameter, arguments));
+        }
+
+        return new ModelType(modelType.getModelName(), typeParameters);
+    }
+
+    private static boolean isConcrete(Type type) {
+        return type.getCategory() == Type.Category.Model &&
+                ((ModelType) type).getTypeParameters()
+                        .stream()
+                        .allMatch(Codec::isConcrete);
+    }
+
+    private static List<Attribute> sortAttributes(Model model) {
+        List<Attribute> attributes = new ArrayList<>(model.getAttributes());
+        attributes.sort(Comparator.comparing(Attribute::getName));
+
+        return attributes;
+    }
+}
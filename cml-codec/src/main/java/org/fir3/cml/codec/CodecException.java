@@ -0,0 +1,21 @@
+package org.fir3.cml.codec;
+
+import java.io.IOException;
+
+/**
+ * An exception that indicates that a value cannot be decoded from or encoded
+ * to a sequence of bits, e.g. because the sequence ends too early.
+ */
+public class CodecException extends IOException {
+    public CodecException(String message) {
+        super(message);
+    }
+
+    public CodecException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public CodecException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,325 @@
+package org.fir3.cml.codec;
+
+import org.fir3.cml.api.Builtin;
+import org.fir3.cml.runtime.BitOrder;
+import org.fir3.cml.runtime.BitReader;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * A view of an encoded model, whose attributes are decoded individually and
+ * only when they are accessed.
+ *
+ * <p>
+ *     Attributes are accessed by their index (see
+ *     {@link #getAttributeIndex(String)}), which is the same for all records
+ *     of the same plan. The offsets of the attributes that precede the first
+ *     sequence are known from the plan. The offsets of the remaining
+ *     attributes are determined by skipping the preceding attributes when
+ *     they are first needed, and are kept for subsequent accesses.
+ * </p>
+ *
+ * <p>
+ *     The record does not copy the encoded bytes, thus changing them
+ *     affects the values of the record. Instances of this class are not safe
+ *     for concurrent use.
+ * </p>
+ */
+public final class DynamicRecord {
+    private final Plan plan;
+    private final BitReader src;
+    private final long offset;
+
+    /**
+     * The offsets of the attributes relative to the start of the record,
+     * followed by the size of the record. Offsets that have not been
+     * determined yet are <code>-1</code>.
+     */
+    private final long[] offsets;
+
+    /**
+     * Initializes a new instance of <code>DynamicRecord</code> that starts at
+     * the position of the specified <code>buffer</code>.
+     *
+     * @param plan      The plan of the record's model.
+     * @param buffer    The buffer that contains the record.
+     * @param order     The order of the bits.
+     *
+     * @throws NullPointerException     If any of the parameters is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>plan</code> is not the plan
+     *                                  of a model with attributes.
+     */
+    public DynamicRecord(Plan plan, ByteBuffer buffer, BitOrder order) {
+        this(plan, new BitReader(buffer, order), 0);
+    }
+
+    /**
+     * Initializes a new instance of <code>DynamicRecord</code> that starts at
+     * the specified <code>offset</code> of the specified <code>src</code>
+     * reader. The position of the reader is changed whenever the record is
+     * accessed.
+     *
+     * @param plan      The plan of the record's model.
+     * @param src       The reader that the record is read from.
+     * @param offset    The bit offset of the record.
+     *
+     * @throws NullPointerException         If <code>plan</code> or
+     *                                      <code>src</code> is
+     *                                      <code>null</code>.
+     *
+     * @throws IllegalArgumentException     If <code>plan</code> is not the
+     *                                      plan of a model with attributes.
+     *
+     * @throws IndexOutOfBoundsException    If <code>offset</code> is negative
+     *                                      or greater than the limit of
+     *                                      <code>src</code>.
+     */
+    public DynamicRecord(Plan plan, BitReader src, long offset) {
+        Objects.requireNonNull(plan, "plan is null");
+        Objects.requireNonNull(src, "src is null");
+
+        if (!plan.isRecord()) {
+            throw new IllegalArgumentException(
+                    "plan does not describe a model with attributes"
+            );
+        }
+
+        if (offset < 0 || offset > src.getLimit()) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Offset %d is outside of [0, %d]",
+                    offset,
+                    src.getLimit()
+            ));
+        }
+
+        this.plan = plan;
+        this.src = src;
+        this.offset = offset;
+        this.offsets = plan.getLayout();
+    }
+
+    /**
+     * Returns the plan of this record's model.
+     *
+     * @return  The plan of this record.
+     */
+    public Plan getPlan() {
+        return this.plan;
+    }
+
+    /**
+     * Returns the bit offset that this record starts at.
+     *
+     * @return  The bit offset of this record.
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Returns the number of attributes of this record.
+     *
+     * @return  The number of attributes.
+     */
+    public int getAttributeCount() {
+        return this.offsets.length - 1;
+    }
+
+    /**
+     * Returns the index of the attribute with the specified
+     * <code>name</code>. The index should be determined once and reused for
+     * all records of the same plan.
+     *
+     * @param name  The name of the attribute.
+     * @return  The index of the attribute, or <code>-1</code>, if there is no
+     *          such attribute.
+     */
+    public int getAttributeIndex(String name) {
+        return this.plan.getAttributeIndex(name);
+    }
+
+    /**
+     * Returns the bit offset of the attribute with the specified
+     * <code>index</code>.
+     *
+     * @param index The index of the attribute.
+     * @return  The bit offset of the attribute.
+     *
+     * @throws IndexOutOfBoundsException    If there is no attribute with the
+     *                                      specified <code>index</code>.
+     *
+     * @throws CodecException               If a preceding attribute cannot be
+     *                                      skipped.
+     */
+    public long getAttributeOffset(int index) throws CodecException {
+        this.checkIndex(index);
+
+        return this.locate(index);
+    }
+
+    /**
+     * Returns the number of bits that this record occupies.
+     *
+     * @return  The size of this record in bits.
+     * @throws CodecException   If an attribute cannot be skipped.
+     */
+    public long getSize() throws CodecException {
+        return this.locate(this.offsets.length - 1) - this.offset;
+    }
+
+    /**
+     * Decodes the value of the attribute with the specified
+     * <code>index</code>.
+     *
+     * @param index The index of the attribute.
+     * @return  The decoded value (see {@link Plan}).
+     *
+     * @throws IndexOutOfBoundsException    If there is no attribute with the
+     *                                      specified <code>index</code>.
+     *
+     * @throws CodecException               If the attribute cannot be
+     *                                      decoded.
+     */
+    public Object get(int index) throws CodecException {
+        this.checkIndex(index);
+        this.seek(this.locate(index));
+
+        Object value = this.plan.getAttributePlan(index).decode(this.src);
+
+        // The end of the attribute is the start of the next one, which saves
+        // skipping it again.
+
+        this.offsets[index + 1] = this.src.getPosition() - this.offset;
+        return value;
+    }
+
+    /**
+     * Reads the value of the <code>Bit</code> attribute with the specified
+     * <code>index</code> without decoding it into an object.
+     *
+     * @param index The index of the attribute.
+     * @return  Either <code>true</code>, if the bit is set, otherwise
+     *          <code>false</code>.
+     *
+     * @throws IndexOutOfBoundsException    If there is no attribute with the
+     *                                      specified <code>index</code>.
+     *
+     * @throws IllegalArgumentException     If the attribute is not a
+     *                                      <code>Bit</code>.
+     *
+     * @throws CodecException               If the attribute cannot be read.
+     */
+    public boolean getBit(int index) throws CodecException {
+        this.checkIndex(index);
+
+        if (!Builtin.TYPE_BIT.equals(
+                this.plan.getAttributePlan(index).getType()
+        )) {
+            throw new IllegalArgumentException(String.format(
+                    "Attribute '%s' is not a Bit",
+                    this.plan.getAttributeNames().get(index)
+            ));
+        }
+
+        long bitOffset = this.locate(index);
+
+        if (bitOffset >= this.src.getLimit()) {
+            throw new CodecException("Unexpected end of input");
+        }
+
+        return this.src.read(bitOffset, 1) != 0;
+    }
+
+    /**
+     * Returns a view of the attribute with the specified <code>index</code>,
+     * which must be a model with attributes itself. The returned record
+     * shares the reader of this record.
+     *
+     * @param index The index of the attribute.
+     * @return  The record of the attribute.
+     *
+     * @throws IndexOutOfBoundsException    If there is no attribute with the
+     *                                      specified <code>index</code>.
+     *
+     * @throws IllegalArgumentException     If the attribute is not a model
+     *                                      with attributes.
+     *
+     * @throws CodecException               If a preceding attribute cannot be
+     *                                      skipped.
+     */
+    public DynamicRecord getRecord(int index) throws CodecException {
+        this.checkIndex(index);
+
+        return new DynamicRecord(
+                this.plan.getAttributePlan(index),
+                this.src,
+                this.locate(index)
+        );
+    }
+
+    /**
+     * Decodes all attributes of this record.
+     *
+     * @return  The decoded values of all attributes (see {@link Plan}).
+     * @throws CodecException   If the record cannot be decoded.
+     */
+    public Object[] decode() throws CodecException {
+        this.seek(this.offset);
+
+        Object[] values = (Object[]) this.plan.decode(this.src);
+        this.offsets[this.offsets.length - 1] =
+                this.src.getPosition() - this.offset;
+
+        return values;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.offsets.length - 1) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Attribute index %d is outside of [0, %d)",
+                    index,
+                    this.offsets.length - 1
+            ));
+        }
+    }
+
+    /**
+     * Returns the absolute bit offset of the attribute with the specified
+     * <code>index</code>, or the end of this record, if <code>index</code>
+     * equals the number of attributes.
+     */
+    private long locate(int index) throws CodecException {
+        if (this.offsets[index] >= 0) {
+            return this.offset + this.offsets[index];
+        }
+
+        // Skipping forward from the closest attribute, whose offset is
+        // known. The first attribute always starts at offset zero.
+
+        int current = index - 1;
+
+        while (this.offsets[current] < 0) {
+            current--;
+        }
+
+        this.seek(this.offset + this.offsets[current]);
+
+        for (; current < index; current++) {
+            this.plan.getAttributePlan(current).skip(this.src);
+            this.offsets[current + 1] = this.src.getPosition() - this.offset;
+        }
+
+        return this.src.getPosition();
+    }
+
+    private void seek(long position) throws CodecException {
+        if (position > this.src.getLimit()) {
+            throw new CodecException("Unexpected end of input");
+        }
+
+        this.src.setPosition(position);
+    }
+}
@@ -0,0 +1,769 @@
+package org.fir3.cml.codec;
+
+import org.fir3.cml.api.model.Type;
+import org.fir3.cml.runtime.BitOrder;
+import org.fir3.cml.runtime.BitReader;
+import org.fir3.cml.runtime.BitWriter;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * The compiled execution plan of a type, which decodes and encodes values of
+ * that type.
+ *
+ * <p>
+ *     A plan is a flat array of instructions, each of which consists of an
+ *     opcode and two operands. The attributes of nested models are inlined,
+ *     and consecutive bits are read and written with a single access of up
+ *     to 64 bits. Only the elements of sequences are handled by the plans of
+ *     their element types, which allows recursive types.
+ * </p>
+ *
+ * <p>
+ *     Values are represented as follows:
+ * </p>
+ *
+ * <ul>
+ *     <li>
+ *         A <code>Bit</code> is a {@link Boolean}.
+ *     </li>
+ *     <li>
+ *         A <code>Sequence</code> is a {@link List} of its elements.
+ *     </li>
+ *     <li>
+ *         Any other model is an <code>Object[]</code> that contains the
+ *         values of its attributes in the lexicographical order of their
+ *         names (see {@link #getAttributeNames()}).
+ *     </li>
+ * </ul>
+ *
+ * <p>
+ *     Plans are created by a {@link Codec} and are safe for concurrent use.
+ * </p>
+ */
+public final class Plan {
+    /**
+     * Reads or writes a single bit. The operands are the slot and zero.
+     */
+    static final int OP_BIT = 0;
+
+    /**
+     * Reads or writes consecutive bits. The operands are the slot of the
+     * first bit and the number of bits, which is at most 64.
+     */
+    static final int OP_BITS = 1;
+
+    /**
+     * Begins a nested model. The operands are the slot of the model and the
+     * number of its attributes.
+     */
+    static final int OP_RECORD = 2;
+
+    /**
+     * Ends the innermost nested model. Both operands are zero.
+     */
+    static final int OP_END = 3;
+
+    /**
+     * Reads or writes a sequence. The operands are the slot of the sequence
+     * and the index of the plan of its elements.
+     */
+    static final int OP_SEQUENCE = 4;
+
+    /**
+     * Reads or writes a sequence of bits. The operands are the slot of the
+     * sequence and zero.
+     */
+    static final int OP_BIT_SEQUENCE = 5;
+
+    /**
+     * The number of operands of each instruction plus one for the opcode.
+     */
+    static final int INSTRUCTION_SIZE = 3;
+
+    private static final int MAX_SEQUENCE_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final Type type;
+    private int[] code;
+    private Plan[] plans;
+    private int depth;
+    private long fixedBits;
+    private long minBits;
+    private List<String> attributeNames;
+    private List<Plan> attributePlans;
+    private long[] attributeOffsets;
+
+    /**
+     * Initializes a new, empty instance of <code>Plan</code>. The plan is
+     * usable after {@link #initialize} has been called.
+     *
+     * @param type  The normalized type of the plan.
+     */
+    Plan(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Sets the instructions of this plan.
+     *
+     * @param code              The instructions.
+     * @param plans             The plans of the elements of sequences.
+     * @param depth             The maximum number of nested models.
+     * @param fixedBits         The size of each value in bits, or
+     *                          <code>-1</code>, if the size varies.
+     *
+     * @param minBits           The minimum size of each value in bits.
+     * @param attributeNames    The names of the attributes of the root
+     *                          model.
+     *
+     * @param attributePlans    The plans of the attributes of the root
+     *                          model.
+     *
+     * @param attributeOffsets  The bit offsets of the attributes of the root
+     *                          model, or <code>-1</code> for each attribute
+     *                          that follows a sequence.
+     */
+    void initialize(
+            int[] code,
+            Plan[] plans,
+            int depth,
+            long fixedBits,
+            long minBits,
+            List<String> attributeNames,
+            List<Plan> attributePlans,
+            long[] attributeOffsets
+    ) {
+        this.code = code;
+        this.plans = plans;
+        this.depth = depth;
+        this.fixedBits = fixedBits;
+        this.minBits = minBits;
+        this.attributeNames = Collections.unmodifiableList(attributeNames);
+        this.attributePlans = Collections.unmodifiableList(attributePlans);
+        this.attributeOffsets = attributeOffsets;
+    }
+
+    /**
+     * Returns the normalized type that this plan decodes and encodes.
+     *
+     * @return  The normalized type.
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Returns the size of the encoded values of this plan's type.
+     *
+     * @return  An {@link OptionalLong} container that either contains the
+     *          size in bits, or nothing, if the size depends on the value,
+     *          i.e. if the type contains a sequence.
+     */
+    public OptionalLong getFixedSize() {
+        return this.fixedBits < 0
+                ? OptionalLong.empty()
+                : OptionalLong.of(this.fixedBits);
+    }
+
+    /**
+     * Returns the names of the attributes of this plan's type, in the order
+     * of their values.
+     *
+     * @return  The names of the attributes, which is empty, if the type is a
+     *          builtin model.
+     */
+    public List<String> getAttributeNames() {
+        return this.attributeNames;
+    }
+
+    /**
+     * Returns the index of the value of the attribute with the specified
+     * <code>name</code>.
+     *
+     * @param name  The name of the attribute.
+     * @return  The index of the attribute, or <code>-1</code>, if there is no
+     *          such attribute.
+     */
+    public int getAttributeIndex(String name) {
+        int index = Collections.binarySearch(this.attributeNames, name);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * Returns the plan of the type of the attribute with the specified
+     * <code>index</code>.
+     *
+     * @param index The index of the attribute.
+     * @return  The plan of the attribute's type.
+     *
+     * @throws IndexOutOfBoundsException    If there is no attribute with the
+     *                                      specified <code>index</code>.
+     */
+    public Plan getAttributePlan(int index) {
+        return this.attributePlans.get(index);
+    }
+
+    /**
+     * Returns the offset of the attribute with the specified
+     * <code>index</code> relative to the start of the encoded value, if the
+     * offset is the same for all values.
+     *
+     * @param index The index of the attribute.
+     * @return  An {@link OptionalLong} container that either contains the
+     *          offset in bits, or nothing, if a preceding attribute contains
+     *          a sequence.
+     *
+     * @throws IndexOutOfBoundsException    If there is no attribute with the
+     *                                      specified <code>index</code>.
+     */
+    public OptionalLong getAttributeOffset(int index) {
+        long offset = this.attributeOffsets[index];
+
+        return offset < 0 ? OptionalLong.empty() : OptionalLong.of(offset);
+    }
+
+    /**
+     * Returns the offsets of the attributes of this plan's type, followed by
+     * the size of the values. Offsets and sizes that depend on the value are
+     * <code>-1</code>.
+     *
+     * @return  A new array of the offsets and the size in bits.
+     */
+    long[] getLayout() {
+        long[] layout = Arrays.copyOf(
+                this.attributeOffsets,
+                this.attributeOffsets.length + 1
+        );
+
+        layout[this.attributeOffsets.length] = this.fixedBits;
+        return layout;
+    }
+
+    /**
+     * Returns whether the values of this plan are models with attributes,
+     * as opposed to builtin models.
+     *
+     * @return  Either <code>true</code>, if the values are models with
+     *          attributes, otherwise <code>false</code>.
+     */
+    boolean isRecord() {
+        return this.code[0] == OP_RECORD;
+    }
+
+    /**
+     * Decodes a value at the current position of the specified
+     * <code>src</code> reader and advances its position past it.
+     *
+     * @param src   The reader that the value is decoded from.
+     * @return  The decoded value.
+     *
+     * @throws NullPointerException If <code>src</code> is <code>null</code>.
+     * @throws CodecException       If <code>src</code> ends before the value
+     *                              or if a sequence is longer than the
+     *                              remaining bits allow.
+     */
+    public Object decode(BitReader src) throws CodecException {
+        Objects.requireNonNull(src, "src is null");
+
+        try {
+            return this.read(src);
+        } catch (BufferUnderflowException ex) {
+            throw new CodecException("Unexpected end of input", ex);
+        }
+    }
+
+    /**
+     * Decodes a value from the remaining bytes of the specified
+     * <code>src</code> buffer and advances its position past the last byte
+     * that the value occupies.
+     *
+     * @param src   The buffer that the value is decoded from.
+     * @param order The order of the bits.
+     * @return  The decoded value.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     *
+     * @throws CodecException       If <code>src</code> ends before the value
+     *                              or if a sequence is longer than the
+     *                              remaining bits allow.
+     */
+    public Object decode(ByteBuffer src, BitOrder order)
+            throws CodecException {
+        BitReader reader = new BitReader(src, order);
+        Object value = this.decode(reader);
+
+        src.position(src.position() + Plan.toBytes(reader.getPosition()));
+        return value;
+    }
+
+    /**
+     * Skips a value at the current position of the specified
+     * <code>src</code> reader without decoding it.
+     *
+     * <p>
+     *     Only the lengths of sequences are read. Sequences, whose elements
+     *     have a fixed size, are skipped at once.
+     * </p>
+     *
+     * @param src   The reader, whose position will be advanced past the
+     *              value.
+     *
+     * @throws NullPointerException If <code>src</code> is <code>null</code>.
+     * @throws CodecException       If <code>src</code> ends before the value.
+     */
+    public void skip(BitReader src) throws CodecException {
+        Objects.requireNonNull(src, "src is null");
+
+        try {
+            this.skipValue(src);
+        } catch (BufferUnderflowException ex) {
+            throw new CodecException("Unexpected end of input", ex);
+        }
+    }
+
+    /**
+     * Encodes the specified <code>value</code> at the current position of the
+     * specified <code>dst</code> writer and advances its position past it.
+     *
+     * @param value The value that will be encoded.
+     * @param dst   The writer that the value is encoded to.
+     *
+     * @throws NullPointerException     If <code>dst</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>value</code> does not match
+     *                                  the type of this plan.
+     *
+     * @throws CodecException           If <code>dst</code> ends before the
+     *                                  value.
+     */
+    public void encode(Object value, BitWriter dst) throws CodecException {
+        Objects.requireNonNull(dst, "dst is null");
+
+        try {
+            this.write(value, dst);
+        } catch (BufferOverflowException ex) {
+            throw new CodecException("Insufficient space", ex);
+        }
+    }
+
+    /**
+     * Encodes the specified <code>value</code> to the remaining bytes of the
+     * specified <code>dst</code> buffer and advances its position past the
+     * last byte that the value occupies. The unused bits of the last byte
+     * are zero.
+     *
+     * @param value The value that will be encoded.
+     * @param dst   The buffer that the value is encoded to.
+     * @param order The order of the bits.
+     *
+     * @throws NullPointerException     If <code>dst</code> or
+     *                                  <code>order</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>value</code> does not match
+     *                                  the type of this plan.
+     *
+     * @throws CodecException           If <code>dst</code> ends before the
+     *                                  value.
+     */
+    public void encode(Object value, ByteBuffer dst, BitOrder order)
+            throws CodecException {
+        BitWriter writer = new BitWriter(dst, order);
+        this.encode(value, writer);
+
+        int padding = (int) (-writer.getPosition() & 7);
+
+        if (padding > 0) {
+            writer.write(padding, 0);
+        }
+
+        dst.position(dst.position() + Plan.toBytes(writer.getPosition()));
+    }
+
+    /**
+     * Returns the number of bits that the specified <code>value</code>
+     * occupies when it is encoded.
+     *
+     * @param value The value.
+     * @return  The size of the encoded value in bits.
+     *
+     * @throws IllegalArgumentException If <code>value</code> does not match
+     *                                  the type of this plan.
+     */
+    public long getSize(Object value) {
+        if (this.fixedBits >= 0) {
+            return this.fixedBits;
+        }
+
+        return this.measure(value);
+    }
+
+    private Object read(BitReader src) throws CodecException {
+        Object[] holder = new Object[1];
+        Object[][] stack = new Object[this.depth + 1][];
+        Object[] current = holder;
+        int top = 0;
+        int[] code = this.code;
+
+        stack[0] = holder;
+
+        for (int pc = 0; pc < code.length; pc += INSTRUCTION_SIZE) {
+            int slot = code[pc + 1];
+            int operand = code[pc + 2];
+
+            switch (code[pc]) {
+                case OP_BIT:
+                    current[slot] = src.read(1) != 0;
+                    break;
+
+                case OP_BITS:
+                    long bits = src.read(operand);
+
+                    if (src.getOrder() == BitOrder.BigEndian) {
+                        for (int index = operand - 1; index >= 0; index--) {
+                            current[slot + index] = (bits & 1) != 0;
+                            bits >>>= 1;
+                        }
+                    } else {
+                        for (int index = 0; index < operand; index++) {
+                            current[slot + index] = (bits & 1) != 0;
+                            bits >>>= 1;
+                        }
+                    }
+
+                    break;
+
+                case OP_RECORD:
+                    Object[] record = new Object[operand];
+                    current[slot] = record;
+                    stack[++top] = record;
+                    current = record;
+                    break;
+
+                case OP_END:
+                    current = stack[--top];
+                    break;
+
+                case OP_SEQUENCE:
+                    current[slot] = this.plans[operand].readSequence(src);
+                    break;
+
+                case OP_BIT_SEQUENCE:
+                    current[slot] = Plan.readBitSequence(src);
+                    break;
+
+                default:
+                    throw new IllegalStateException("Invalid opcode");
+            }
+        }
+
+        return holder[0];
+    }
+
+    private List<Object> readSequence(BitReader src) throws CodecException {
+        int length = Plan.readLength(src, this.minBits);
+
+        // Values without any bits are all equal, thus there is no need to
+        // decode them more than once.
+
+        if (this.fixedBits == 0) {
+            return Collections.nCopies(length, this.read(src));
+        }
+
+        List<Object> elements = new ArrayList<>(length);
+
+        for (int index = 0; index < length; index++) {
+            elements.add(this.read(src));
+        }
+
+        return elements;
+    }
+
+    private static List<Object> readBitSequence(BitReader src)
+            throws CodecException {
+        int length = Plan.readLength(src, 1);
+        List<Object> elements = new ArrayList<>(length);
+
+        for (int offset = 0; offset < length; offset += 64) {
+            int count = Math.min(64, length - offset);
+            long bits = src.read(count);
+
+            if (src.getOrder() == BitOrder.BigEndian) {
+                for (int index = count - 1; index >= 0; index--) {
+                    elements.add((bits >>> index & 1) != 0);
+                }
+            } else {
+                for (int index = 0; index < count; index++) {
+                    elements.add((bits >>> index & 1) != 0);
+                }
+            }
+        }
+
+        return elements;
+    }
+
+    private static int readLength(BitReader src, long minBits)
+            throws CodecException {
+        long length = src.read(Codec.LENGTH_BITS);
+
+        // Rejecting lengths that cannot be satisfied by the remaining input
+        // before anything is allocated.
+
+        if (length > MAX_SEQUENCE_LENGTH ||
+                (minBits > 0 && length > src.getRemaining() / minBits)) {
+            throw new CodecException(String.format(
+                    "Sequence length %d exceeds the input",
+                    length
+            ));
+        }
+
+        return (int) length;
+    }
+
+    private void skipValue(BitReader src) throws CodecException {
+        int[] code = this.code;
+
+        for (int pc = 0; pc < code.length; pc += INSTRUCTION_SIZE) {
+            int operand = code[pc + 2];
+
+            switch (code[pc]) {
+                case OP_BIT:
+                    Plan.advance(src, 1);
+                    break;
+
+                case OP_BITS:
+                    Plan.advance(src, operand);
+                    break;
+
+                case OP_RECORD:
+                case OP_END:
+                    break;
+
+                case OP_SEQUENCE:
+                    Plan element = this.plans[operand];
+                    int length = Plan.readLength(src, element.minBits);
+
+                    if (element.fixedBits >= 0) {
+                        Plan.advance(src, length * element.fixedBits);
+                        break;
+                    }
+
+                    for (int index = 0; index < length; index++) {
+                        element.skipValue(src);
+                    }
+
+                    break;
+
+                case OP_BIT_SEQUENCE:
+                    Plan.advance(src, Plan.readLength(src, 1));
+                    break;
+
+                default:
+                    throw new IllegalStateException("Invalid opcode");
+            }
+        }
+    }
+
+    private static void advance(BitReader src, long bits) {
+        if (bits > src.getRemaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        src.setPosition(src.getPosition() + bits);
+    }
+
+    private void write(Object value, BitWriter dst) {
+        Object[] holder = { value };
+        Object[][] stack = new Object[this.depth + 1][];
+        Object[] current = holder;
+        int top = 0;
+        int[] code = this.code;
+
+        stack[0] = holder;
+
+        for (int pc = 0; pc < code.length; pc += INSTRUCTION_SIZE) {
+            int slot = code[pc + 1];
+            int operand = code[pc + 2];
+
+            switch (code[pc]) {
+                case OP_BIT:
+                    dst.write(1, Plan.toBit(current[slot]));
+                    break;
+
+                case OP_BITS:
+                    long bits = 0;
+
+                    if (dst.getOrder() == BitOrder.BigEndian) {
+                        for (int index = 0; index < operand; index++) {
+                            bits = (bits << 1) |
+                                    Plan.toBit(current[slot + index]);
+                        }
+                    } else {
+                        for (int index = operand - 1; index >= 0; index--) {
+                            bits = (bits << 1) |
+                                    Plan.toBit(current[slot + index]);
+                        }
+                    }
+
+                    dst.write(operand, bits);
+                    break;
+
+                case OP_RECORD:
+                    Object[] record = Plan.toRecord(current[slot], operand);
+                    stack[++top] = record;
+                    current = record;
+                    break;
+
+                case OP_END:
+                    current = stack[--top];
+                    break;
+
+                case OP_SEQUENCE:
+                    List<?> elements = Plan.toList(current[slot]);
+                    Plan element = this.plans[operand];
+
+                    dst.write(Codec.LENGTH_BITS, elements.size());
+
+                    for (Object nextElement : elements) {
+                        element.write(nextElement, dst);
+                    }
+
+                    break;
+
+                case OP_BIT_SEQUENCE:
+                    Plan.writeBitSequence(Plan.toList(current[slot]), dst);
+                    break;
+
+                default:
+                    throw new IllegalStateException("Invalid opcode");
+            }
+        }
+    }
+
+    private static void writeBitSequence(List<?> elements, BitWriter dst) {
+        int length = elements.size();
+        dst.write(Codec.LENGTH_BITS, length);
+
+        for (int offset = 0; offset < length; offset += 64) {
+            int count = Math.min(64, length - offset);
+            long bits = 0;
+
+            for (int index = 0; index < count; index++) {
+                int element = Plan.toBit(elements.get(offset + index));
+
+                bits = dst.getOrder() == BitOrder.BigEndian
+                        ? (bits << 1) | element
+                        : bits | ((long) element << index);
+            }
+
+            dst.write(count, bits);
+        }
+    }
+
+    private long measure(Object value) {
+        Object[] holder = { value };
+        Object[][] stack = new Object[this.depth + 1][];
+        Object[] current = holder;
+        int top = 0;
+        long size = 0;
+        int[] code = this.code;
+
+        stack[0] = holder;
+
+        for (int pc = 0; pc < code.length; pc += INSTRUCTION_SIZE) {
+            int slot = code[pc + 1];
+            int operand = code[pc + 2];
+
+            switch (code[pc]) {
+                case OP_BIT:
+                    size += 1;
+                    break;
+
+                case OP_BITS:
+                    size += operand;
+                    break;
+
+                case OP_RECORD:
+                    Object[] record = Plan.toRecord(current[slot], operand);
+                    stack[++top] = record;
+                    current = record;
+                    break;
+
+                case OP_END:
+                    current = stack[--top];
+                    break;
+
+                case OP_SEQUENCE:
+                    List<?> elements = Plan.toList(current[slot]);
+                    Plan element = this.plans[operand];
+
+                    size += Codec.LENGTH_BITS;
+
+                    for (Object nextElement : elements) {
+                        size += element.getSize(nextElement);
+                    }
+
+                    break;
+
+                case OP_BIT_SEQUENCE:
+                    size += Codec.LENGTH_BITS +
+                            Plan.toList(current[slot]).size();
+
+                    break;
+
+                default:
+                    throw new IllegalStateException("Invalid opcode");
+            }
+        }
+
+        return size;
+    }
+
+    private static int toBit(Object value) {
+        if (!(value instanceof Boolean)) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected a Boolean, but got '%s'",
+                    value
+            ));
+        }
+
+        return (Boolean) value ? 1 : 0;
+    }
+
+    private static Object[] toRecord(Object value, int size) {
+        if (!(value instanceof Object[]) || ((Object[]) value).length != size) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected an Object[] of %d attributes",
+                    size
+            ));
+        }
+
+        return (Object[]) value;
+    }
+
+    private static List<?> toList(Object value) {
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected a List, but got '%s'",
+                    value
+            ));
+        }
+
+        List<?> elements = (List<?>) value;
+
+        if (elements.size() > MAX_SEQUENCE_LENGTH) {
+            throw new IllegalArgumentException("Sequence is too long");
+        }
+
+        return elements;
+    }
+
+    private static int toBytes(long bits) {
+        return (int) ((bits + 7) >>> 3);
+    }
+}
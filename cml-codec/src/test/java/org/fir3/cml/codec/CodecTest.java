@@ -0,0 +1,294 @@
+package org.fir3.cml.codec;
+
+import org.fir3.cml.api.model.*;
+import org.fir3.cml.runtime.BitOrder;
+import org.fir3.cml.runtime.BitReader;
+import org.fir3.cml.runtime.BitWriter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.fir3.cml.codec.TestSchema.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CodecTest {
+    @Test
+    public void testBitLayout() throws CodecException {
+        Codec codec = new Codec(environment());
+        Plan plan = codec.getPlan(TEST_DOMAIN + ".Flags");
+
+        assertEquals(OptionalLong.of(3), plan.getFixedSize());
+        assertEquals(Arrays.asList("a", "b", "c"), plan.getAttributeNames());
+        assertEquals(1, plan.getAttributeIndex("b"));
+        assertEquals(-1, plan.getAttributeIndex("d"));
+
+        assertArrayEquals(
+                new byte[] { (byte) 0b1100_0000 },
+                encode(plan, flags(true, true, false), BitOrder.BigEndian)
+        );
+
+        assertArrayEquals(
+                new byte[] { 0b0000_0011 },
+                encode(plan, flags(true, true, false), BitOrder.LittleEndian)
+        );
+    }
+
+    @Test
+    public void testMergedBits() throws CodecException {
+        Codec codec = new Codec(environment());
+        Plan plan = codec.getPlan(TEST_DOMAIN + ".ManyBits");
+        Random random = new Random(42);
+
+        for (BitOrder order : BitOrder.values()) {
+            Object[] value = new Object[70];
+            byte[] expected = new byte[9];
+            BitWriter writer = new BitWriter(expected, order);
+
+            for (int index = 0; index < value.length; index++) {
+                value[index] = random.nextBoolean();
+                writer.writeBoolean((Boolean) value[index]);
+            }
+
+            assertEquals(OptionalLong.of(70), plan.getFixedSize());
+            assertArrayEquals(expected, encode(plan, value, order));
+            assertArrayEquals(
+                    value,
+                    (Object[]) plan.decode(ByteBuffer.wrap(expected), order)
+            );
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws CodecException {
+        Codec codec = new Codec(environment());
+        Plan plan = codec.getPlan(TEST_DOMAIN + ".Record");
+        Object[] value = record();
+
+        // flags + name + pairs
+
+        long size = 3 + (32 + 7) + (32 + 2 * 6);
+
+        assertFalse(plan.getFixedSize().isPresent());
+        assertEquals(size, plan.getSize(value));
+
+        for (BitOrder order : BitOrder.values()) {
+            // The computed size must cover exactly the encoded bytes
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) ((size + 7) >>> 3));
+            plan.encode(value, buffer, order);
+            assertFalse(buffer.hasRemaining());
+
+            BitReader reader = new BitReader(buffer.array(), order);
+
+            assertEquals(
+                    toComparable(value),
+                    toComparable(plan.decode(reader))
+            );
+
+            assertEquals(size, reader.getPosition());
+
+            reader.setPosition(0);
+            plan.skip(reader);
+
+            assertEquals(size, reader.getPosition());
+        }
+    }
+
+    @Test
+    public void testAttributePlans() throws CodecException {
+        Codec codec = new Codec(environment());
+        Plan plan = codec.getPlan(TEST_DOMAIN + ".Record");
+        Plan pairs = plan.getAttributePlan(plan.getAttributeIndex("pairs"));
+
+        assertEquals(
+                type(
+                        BUILTIN_DOMAIN + ".Sequence",
+                        type(
+                                TEST_DOMAIN + ".Pair",
+                                type(TEST_DOMAIN + ".Flags")
+                        )
+                ),
+                pairs.getType()
+        );
+
+        assertSame(
+                codec.getPlan(TEST_DOMAIN + ".Flags"),
+                plan.getAttributePlan(plan.getAttributeIndex("flags"))
+        );
+
+        // Decoding a single attribute after skipping the preceding ones
+
+        byte[] bytes = encode(plan, record(), BitOrder.BigEndian);
+        BitReader reader = new BitReader(bytes, BitOrder.BigEndian);
+
+        plan.getAttributePlan(0).skip(reader);
+        plan.getAttributePlan(1).skip(reader);
+
+        assertEquals(
+                toComparable(record()[2]),
+                toComparable(pairs.decode(reader))
+        );
+    }
+
+    @Test
+    public void testGenericType() throws CodecException {
+        Environment environment = environment();
+        Domain domain = environment.resolveDomain(TEST_DOMAIN).get();
+        Codec codec = new Codec(environment);
+        Plan plan = codec.getPlan(type("Pair", type("Bit")), domain);
+        Object[] value = { true, false };
+
+        assertEquals(OptionalLong.of(2), plan.getFixedSize());
+        assertArrayEquals(
+                value,
+                (Object[]) plan.decode(ByteBuffer.wrap(
+                        encode(plan, value, BitOrder.BigEndian)
+                ), BitOrder.BigEndian)
+        );
+    }
+
+    @Test
+    public void testRecursiveType() throws CodecException {
+        Codec codec = new Codec(environment());
+        Plan plan = codec.getPlan(TEST_DOMAIN + ".Node");
+        Object[] value = node(
+                false,
+                node(true),
+                node(false, node(true), node(true, node(false)))
+        );
+
+        assertEquals(
+                toComparable(value),
+                toComparable(plan.decode(ByteBuffer.wrap(
+                        encode(plan, value, BitOrder.LittleEndian)
+                ), BitOrder.LittleEndian))
+        );
+    }
+
+    @Test
+    public void testEmptyElements() throws CodecException {
+        Codec codec = new Codec(environment());
+        Plan plan = codec.getPlan(TEST_DOMAIN + ".Empties");
+        Object[] value = {
+                Arrays.asList(new Object[0], new Object[0], new Object[0])
+        };
+
+        Object[] decoded = (Object[]) plan.decode(ByteBuffer.wrap(
+                encode(plan, value, BitOrder.BigEndian)
+        ), BitOrder.BigEndian);
+
+        assertEquals(3, ((List<?>) decoded[0]).size());
+    }
+
+    @Test
+    public void testInvalidInput() {
+        Codec codec = new Codec(environment());
+        Plan record = codec.getPlan(TEST_DOMAIN + ".Record");
+        Plan node = codec.getPlan(TEST_DOMAIN + ".Node");
+
+        // Truncated input
+
+        assertThrows(CodecException.class, () -> record.decode(
+                new BitReader(new byte[5])
+        ));
+
+        assertThrows(CodecException.class, () -> record.skip(
+                new BitReader(new byte[5])
+        ));
+
+        // A sequence that claims more elements than the input contains
+
+        byte[] bytes = { 0, 0, 1, 0, 0, 0 };
+
+        assertThrows(CodecException.class, () -> node.decode(
+                new BitReader(bytes)
+        ));
+
+        // Insufficient space
+
+        assertThrows(CodecException.class, () -> record.encode(
+                record(),
+                new BitWriter(new byte[5])
+        ));
+    }
+
+    @Test
+    public void testInvalidValue() {
+        Codec codec = new Codec(environment());
+        Plan plan = codec.getPlan(TEST_DOMAIN + ".Record");
+        BitWriter writer = new BitWriter(new byte[64]);
+
+        assertThrows(IllegalArgumentException.class, () -> plan.encode(
+                new Object[] { flags(true, false, true) },
+                writer
+        ));
+
+        assertThrows(IllegalArgumentException.class, () -> plan.encode(
+                new Object[] {
+                        flags(true, false, true),
+                        Collections.singletonList(1),
+                        Collections.emptyList()
+                },
+                writer
+        ));
+
+        assertThrows(IllegalArgumentException.class, () -> plan.encode(
+                "record",
+                writer
+        ));
+    }
+
+    @Test
+    public void testInvalidType() {
+        Codec codec = new Codec(environment());
+
+        assertThrows(IllegalArgumentException.class, () -> codec.getPlan(
+                TEST_DOMAIN + ".Unknown"
+        ));
+
+        assertThrows(IllegalArgumentException.class, () -> codec.getPlan(
+                TEST_DOMAIN + ".Loop"
+        ));
+
+        assertThrows(IllegalArgumentException.class, () -> codec.getPlan(
+                TEST_DOMAIN + ".Number"
+        ));
+
+        assertThrows(IllegalArgumentException.class, () -> codec.getPlan(
+                TEST_DOMAIN + ".Pair"
+        ));
+
+        assertThrows(IllegalArgumentException.class, () -> codec.getPlan(
+                type(TEST_DOMAIN + ".Pair", new ParameterType("T")),
+                null
+        ));
+
+        // Failed compilations must not leave any plans behind
+
+        assertNotNull(codec.getPlan(TEST_DOMAIN + ".Record"));
+    }
+
+    @Test
+    public void testCache() {
+        Environment environment = environment();
+        Domain domain = environment.resolveDomain(TEST_DOMAIN).get();
+        Codec codec = new Codec(environment);
+
+        assertSame(
+                codec.getPlan(TEST_DOMAIN + ".Node"),
+                codec.getPlan(type("Node"), domain)
+        );
+
+        assertSame(
+                codec.getPlan(type("Pair", type("Flags")), domain),
+                codec.getPlan(
+                        type(
+                                TEST_DOMAIN + ".Pair",
+                                type(TEST_DOMAIN + ".Flags")
+                        ),
+                        null
+                )
+        );
+    }
+}
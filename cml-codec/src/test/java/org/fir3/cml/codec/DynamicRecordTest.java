@@ -0,0 +1,140 @@
+package org.fir3.cml.codec;
+
+import org.fir3.cml.runtime.BitOrder;
+import org.fir3.cml.runtime.BitReader;
+import org.fir3.cml.runtime.BitWriter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.OptionalLong;
+
+import static org.fir3.cml.codec.TestSchema.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DynamicRecordTest {
+    @Test
+    public void testStaticOffsets() {
+        Codec codec = new Codec(environment());
+        Plan plan = codec.getPlan(TEST_DOMAIN + ".Record");
+
+        assertEquals(OptionalLong.of(0), plan.getAttributeOffset(0));
+        assertEquals(OptionalLong.of(3), plan.getAttributeOffset(1));
+        assertEquals(OptionalLong.empty(), plan.getAttributeOffset(2));
+    }
+
+    @Test
+    public void testRandomAccess() throws CodecException {
+        Codec codec = new Codec(environment());
+        Plan plan = codec.getPlan(TEST_DOMAIN + ".Record");
+        Object[] value = record();
+
+        for (BitOrder order : BitOrder.values()) {
+            DynamicRecord record = new DynamicRecord(
+                    plan,
+                    ByteBuffer.wrap(encode(plan, value, order)),
+                    order
+            );
+
+            int flags = record.getAttributeIndex("flags");
+            int pairs = record.getAttributeIndex("pairs");
+
+            assertEquals(3, record.getAttributeCount());
+            assertEquals(42, record.getAttributeOffset(pairs));
+            assertEquals(
+                    toComparable(value[pairs]),
+                    toComparable(record.get(pairs))
+            );
+
+            DynamicRecord flagsRecord = record.getRecord(flags);
+
+            assertEquals(0, flagsRecord.getOffset());
+            assertEquals(3, flagsRecord.getSize());
+            assertTrue(flagsRecord.getBit(0));
+            assertFalse(flagsRecord.getBit(1));
+            assertTrue(flagsRecord.getBit(2));
+
+            assertEquals(plan.getSize(value), record.getSize());
+            assertEquals(toComparable(value), toComparable(record.decode()));
+        }
+    }
+
+    @Test
+    public void testRouting() throws CodecException {
+        Codec codec = new Codec(environment());
+        Plan plan = codec.getPlan(TEST_DOMAIN + ".Node");
+        Object[] value = node(true, node(false, node(true)), node(false));
+        byte[] bytes = encode(plan, value, BitOrder.BigEndian);
+
+        // Writing the same node behind a prefix of 5 bits
+
+        byte[] shifted = new byte[bytes.length + 1];
+        BitWriter writer = new BitWriter(shifted);
+        writer.write(5, 0b10101);
+        plan.encode(value, writer);
+
+        DynamicRecord record = new DynamicRecord(
+                plan,
+                new BitReader(shifted),
+                5
+        );
+
+        int leaf = record.getAttributeIndex("leaf");
+
+        assertTrue(record.getBit(leaf));
+        assertEquals(
+                5 + plan.getSize(value) - 1,
+                record.getAttributeOffset(leaf)
+        );
+
+        assertEquals(plan.getSize(value), record.getSize());
+    }
+
+    @Test
+    public void testTruncatedInput() throws CodecException {
+        Codec codec = new Codec(environment());
+        Plan plan = codec.getPlan(TEST_DOMAIN + ".Record");
+        byte[] bytes = encode(plan, record(), BitOrder.BigEndian);
+        DynamicRecord record = new DynamicRecord(
+                plan,
+                ByteBuffer.wrap(bytes, 0, 6),
+                BitOrder.BigEndian
+        );
+
+        assertThrows(CodecException.class, () -> record.get(2));
+        assertThrows(CodecException.class, record::getSize);
+        assertThrows(CodecException.class, record::decode);
+    }
+
+    @Test
+    public void testInvalidAccess() throws CodecException {
+        Codec codec = new Codec(environment());
+        Plan plan = codec.getPlan(TEST_DOMAIN + ".Record");
+        DynamicRecord record = new DynamicRecord(
+                plan,
+                ByteBuffer.wrap(encode(plan, record(), BitOrder.BigEndian)),
+                BitOrder.BigEndian
+        );
+
+        assertThrows(IllegalArgumentException.class, () -> record.getBit(0));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> record.getRecord(1)
+        );
+
+        assertThrows(IndexOutOfBoundsException.class, () -> record.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> record.get(-1));
+        assertEquals(-1, record.getAttributeIndex("unknown"));
+
+        assertThrows(IllegalArgumentException.class, () -> new DynamicRecord(
+                plan.getAttributePlan(1),
+                new BitReader(new byte[8]),
+                0
+        ));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> new DynamicRecord(
+                plan,
+                new BitReader(new byte[8]),
+                65
+        ));
+    }
+}
@@ -0,0 +1,199 @@
+package org.fir3.cml.codec;
+
+import org.fir3.cml.api.model.*;
+import org.fir3.cml.runtime.BitOrder;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+final class TestSchema {
+    static final String BUILTIN_DOMAIN = "org.fir3.cml.__builtin__";
+    static final String TEST_DOMAIN = "test";
+
+    private static final Domain BUILTIN = new Domain(
+            BUILTIN_DOMAIN,
+            EnumSet.of(Domain.Flag.Ubiquitous),
+            new HashSet<>(Arrays.asList(
+                    builtin("Bit"),
+                    builtin("Sequence", "ElementType"),
+                    builtin("Integer")
+            ))
+    );
+
+    static Type type(String modelName, Type... typeParameters) {
+        return new ModelType(modelName, Arrays.asList(typeParameters));
+    }
+
+    static Model model(
+            String name,
+            List<TypeParameter> typeParameters,
+            Attribute... attributes
+    ) {
+        return new Model(
+                name,
+                EnumSet.noneOf(Model.Flag.class),
+                typeParameters,
+                new HashSet<>(Arrays.asList(attributes))
+        );
+    }
+
+    static Model model(String name, Attribute... attributes) {
+        return model(name, Collections.emptyList(), attributes);
+    }
+
+    private static Model builtin(String name, String... typeParameters) {
+        List<TypeParameter> parameters = new ArrayList<>();
+
+        for (String typeParameter : typeParameters) {
+            parameters.add(new TypeParameter(typeParameter));
+        }
+
+        return new Model(
+                name,
+                EnumSet.of(Model.Flag.Builtin),
+                parameters,
+                Collections.emptySet()
+        );
+    }
+
+    static Environment environment() {
+        Attribute[] manyBits = new Attribute[70];
+
+        for (int index = 0; index < manyBits.length; index++) {
+            manyBits[index] = new Attribute(
+                    String.format("a%02d", index),
+                    type("Bit")
+            );
+        }
+
+        return new Environment(new HashSet<>(Arrays.asList(
+                BUILTIN,
+                new Domain(
+                        TEST_DOMAIN,
+                        EnumSet.noneOf(Domain.Flag.class),
+                        new HashSet<>(Arrays.asList(
+                                model(
+                                        "Flags",
+                                        new Attribute("c", type("Bit")),
+                                        new Attribute("a", type("Bit")),
+                                        new Attribute("b", type("Bit"))
+                                ),
+                                model(
+                                        "Pair",
+                                        Collections.singletonList(
+                                                new TypeParameter("T")
+                                        ),
+                                        new Attribute(
+                                                "first",
+                                                new ParameterType("T")
+                                        ),
+                                        new Attribute(
+                                                "second",
+                                                new ParameterType("T")
+                                        )
+                                ),
+                                model(
+                                        "Record",
+                                        new Attribute("flags", type("Flags")),
+                                        new Attribute(
+                                                "name",
+                                                type("Sequence", type("Bit"))
+                                        ),
+                                        new Attribute(
+                                                "pairs",
+                                                type(
+                                                        "Sequence",
+                                                        type(
+                                                                "Pair",
+                                                                type("Flags")
+                                                        )
+                                                )
+                                        )
+                                ),
+                                model(
+                                        "Node",
+                                        new Attribute(
+                                                "children",
+                                                type("Sequence", type("Node"))
+                                        ),
+                                        new Attribute("leaf", type("Bit"))
+                                ),
+                                model(
+                                        "Loop",
+                                        new Attribute("next", type("Loop"))
+                                ),
+                                model("Empty"),
+                                model(
+                                        "Empties",
+                                        new Attribute(
+                                                "elements",
+                                                type("Sequence", type("Empty"))
+                                        )
+                                ),
+                                model(
+                                        "Number",
+                                        new Attribute("value", type("Integer"))
+                                ),
+                                model("ManyBits", manyBits)
+                        ))
+                )
+        )));
+    }
+
+    static Object[] flags(boolean a, boolean b, boolean c) {
+        return new Object[] { a, b, c };
+    }
+
+    static Object[] record() {
+        return new Object[] {
+                flags(true, false, true),
+                Arrays.asList(true, true, false, true, false, false, true),
+                Arrays.asList(
+                        new Object[] {
+                                flags(false, false, true),
+                                flags(true, true, false)
+                        },
+                        new Object[] {
+                                flags(true, false, false),
+                                flags(false, true, true)
+                        }
+                )
+        };
+    }
+
+    static Object[] node(boolean leaf, Object[]... children) {
+        return new Object[] { Arrays.asList(children), leaf };
+    }
+
+    static Object toComparable(Object value) {
+        if (value instanceof Object[]) {
+            value = Arrays.asList((Object[]) value);
+        }
+
+        if (!(value instanceof List)) {
+            return value;
+        }
+
+        List<Object> elements = new ArrayList<>();
+
+        for (Object element : (List<?>) value) {
+            elements.add(toComparable(element));
+        }
+
+        return elements;
+    }
+
+    static byte[] encode(Plan plan, Object value, BitOrder order)
+            throws CodecException {
+        ByteBuffer buffer = ByteBuffer.allocate(
+                (int) ((plan.getSize(value) + 7) >>> 3)
+        );
+
+        plan.encode(value, buffer, order);
+        return buffer.array();
+    }
+
+    private TestSchema() {
+        throw new IllegalStateException("Do not instantiate this class");
+    }
+}
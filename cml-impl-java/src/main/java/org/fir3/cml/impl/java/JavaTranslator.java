@@ -1,47 +1,453 @@
 package org.fir3.cml.impl.java;
 
-import com.google.gson.Gson;
+import org.fir3.cml.api.OutputSink;
 import org.fir3.cml.api.Translator;
 import org.fir3.cml.api.exception.ConfigurationException;
+import org.fir3.cml.api.exception.TranslationException;
+import org.fir3.cml.api.model.Domain;
 import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.api.model.Model;
+import org.fir3.cml.api.output.DirectoryOutputSink;
+import org.fir3.cml.api.util.ModelHelper;
+import org.fir3.cml.api.util.Pair;
 import org.fir3.cml.impl.java.config.Configuration;
 import org.fir3.cml.impl.java.config.ConfigurationReader;
+import org.fir3.cml.impl.java.generator.JavaNames;
+import org.fir3.cml.impl.java.generator.ModelGenerator;
+import org.fir3.cml.impl.java.incremental.Manifest;
+import org.fir3.cml.impl.java.incremental.ModelHasher;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A translator implementation that targets the Java programming language and
  * translates to Java source code.
+ *
+ * <p>
+ *     The translator keeps a manifest next to the emitted source files that
+ *     maps each emitted model to a content hash of its definition and the
+ *     definitions of its transitive dependencies. If the translation is
+ *     incremental (see {@link Configuration#isIncremental()}), only models
+ *     whose hash changed are emitted again. Source files of models that no
+ *     longer exist in the target domain are removed. Both require an
+ *     {@link OutputSink} that keeps the output of previous translations.
+ * </p>
+ *
+ * <p>
+ *     Models are emitted concurrently on up to
+ *     {@link Configuration#getParallelism()} threads. Since each model is
+ *     emitted to its own file and the manifest is updated in the order of the
+ *     model names afterwards, the output does not depend on the scheduling.
+ * </p>
+ *
+ * <p>
+ *     Translating multiple domains at once reads the configuration and the
+ *     manifest only once, shares the normalized model definitions between
+ *     the domains and emits the models of all domains in a single pass.
+ * </p>
+ *
+ * <p>
+ *     Translations of different domains may share an output directory, e.g.
+ *     the jobs of a translation executor. Since all of them update the same
+ *     manifest, the manifest is only read and written while holding a lock
+ *     of the output directory, and the entries of the translated domains are
+ *     merged into the current manifest before it is written. The models are
+ *     emitted without holding the lock. The lock only covers translations
+ *     inside the same JVM.
+ * </p>
  */
-@Translator.Info(name = "java")
+@Translator.Info(name = "java", supportsOutputSinks = true)
 public final class JavaTranslator implements Translator {
+    /**
+     * The name of the manifest file inside the output directory.
+     */
+    public static final String MANIFEST_FILE_NAME = ".cml-java-manifest";
+
+    /**
+     * The version of the emitted source code. This must be changed whenever
+     * the generator emits different code for the same model, since it is
+     * part of each model's content hash.
+     */
+    private static final String GENERATOR_VERSION = "1";
+
     private static final Configuration DEFAULT = new Configuration();
-    private final Gson gson;
 
-    public JavaTranslator() {
-        this.gson = new Gson();
+    /**
+     * The locks that guard the manifests of the output directories, keyed by
+     * the normalized absolute paths of the directories.
+     */
+    private static final ConcurrentMap<Path, Object> MANIFEST_LOCKS =
+            new ConcurrentHashMap<>();
+
+    @Override
+    public void translate(
+            Environment environment,
+            String targetDomain,
+            InputStream configSource
+    ) throws ConfigurationException, TranslationException {
+        this.translate(
+                environment,
+                Collections.singleton(targetDomain),
+                configSource
+        );
     }
 
     @Override
     public void translate(
             Environment environment,
             String targetDomain,
+            InputStream configSource,
+            OutputSink sink
+    ) throws ConfigurationException, TranslationException {
+        this.translate(
+                environment,
+                Collections.singleton(targetDomain),
+                configSource,
+                sink
+        );
+    }
+
+    @Override
+    public void translate(
+            Environment environment,
+            Collection<String> targetDomains,
             InputStream configSource
-    ) throws ConfigurationException {
+    ) throws ConfigurationException, TranslationException {
+        Objects.requireNonNull(targetDomains, "targetDomains is null");
+
+        Configuration config = JavaTranslator.readConfiguration(configSource);
+
+        this.translate(
+                environment,
+                targetDomains,
+                config,
+                new DirectoryOutputSink(Paths.get(config.getOutputDirectory()))
+        );
+    }
+
+    @Override
+    public void translate(
+            Environment environment,
+            Collection<String> targetDomains,
+            InputStream configSource,
+            OutputSink sink
+    ) throws ConfigurationException, TranslationException {
+        Objects.requireNonNull(targetDomains, "targetDomains is null");
+        Objects.requireNonNull(sink, "sink is null");
+
+        this.translate(
+                environment,
+                targetDomains,
+                JavaTranslator.readConfiguration(configSource),
+                sink
+        );
+    }
+
+    private static Configuration readConfiguration(InputStream configSource)
+            throws ConfigurationException {
         // If there is some configuration, we expect it to be JSON and that it
-        // is a serialized instance of the Configuration class.
+        // is a serialized instance of the Configuration class. The reader
+        // validates the options, so there is nothing left to check here.
+
+        if (configSource == null) {
+            return JavaTranslator.DEFAULT;
+        }
+
+        try {
+            return ConfigurationReader.getInstance().read(configSource);
+        } catch (IOException ex) {
+            throw new ConfigurationException(ex.getMessage(), ex);
+        }
+    }
+
+    private void translate(
+            Environment environment,
+            Collection<String> targetDomains,
+            Configuration config,
+            OutputSink sink
+    ) throws TranslationException {
+        // Resolving all target domains before anything is written, so that
+        // an unknown domain does not leave a partially translated batch
+        // behind.
+
+        SortedMap<String, Domain> domains = new TreeMap<>();
+
+        for (String targetDomain : targetDomains) {
+            Domain domain = environment.resolveDomain(targetDomain)
+                    .orElseThrow(() -> new TranslationException(String.format(
+                            "Unknown domain '%s'",
+                            targetDomain
+                    )));
+
+            domains.put(domain.getName(), domain);
+        }
+
+        int parallelism = config.getParallelism() == 0
+                ? Runtime.getRuntime().availableProcessors()
+                : config.getParallelism();
+
+        try {
+            this.translate(
+                    environment,
+                    domains.values(),
+                    sink,
+                    config.isIncremental(),
+                    parallelism
+            );
+        } catch (IOException ex) {
+            throw new TranslationException(ex);
+        }
+    }
+
+    private void translate(
+            Environment environment,
+            Collection<Domain> domains,
+            OutputSink sink,
+            boolean incremental,
+            int parallelism
+    ) throws IOException, TranslationException {
+        Object manifestLock = JavaTranslator.getManifestLock(sink);
+        Manifest manifest;
+
+        synchronized (manifestLock) {
+            manifest = JavaTranslator.readManifest(sink);
+        }
+
+        // The hasher caches the hash of every model that it encounters.
+        // Sharing it between all domains of the batch means that common
+        // dependencies are only hashed once.
+
+        ModelHasher hasher = new ModelHasher(environment, GENERATOR_VERSION);
+
+        // Determining every model, whose hash changed since the previous
+        // translation or whose source file disappeared in the meantime.
+        //
+        // NOTE:    The models are processed in the order of their names, so
+        //          that the result does not depend on the iteration order of
+        //          the domain's model set.
+
+        Map<String, Set<String>> modelNames = new HashMap<>();
+        List<Pair<Domain, Model>> pendingModels = new ArrayList<>();
+        List<Manifest.Entry> pendingEntries = new ArrayList<>();
+
+        for (Domain domain : domains) {
+            List<Model> models = new ArrayList<>(domain.getModels());
+            models.sort(Comparator.comparing(Model::getName));
+
+            Set<String> domainModelNames = new HashSet<>();
+            modelNames.put(domain.getName(), domainModelNames);
+
+            for (Model model : models) {
+                if (model.getFlags().contains(Model.Flag.Builtin)) {
+                    continue;
+                }
 
-        Configuration config = JavaTranslator.DEFAULT;
+                String modelName = ModelHelper.toString(domain, model);
+                String hash = hasher.hash(domain, model);
+                String path = JavaNames.toSourcePath(domain, model);
 
-        if (configSource != null) {
-            try {
-                config = ConfigurationReader.getInstance().read(configSource);
-            } catch (IOException ex) {
-                throw new ConfigurationException(ex);
+                domainModelNames.add(modelName);
+
+                Optional<Manifest.Entry> previous = manifest.get(modelName);
+
+                if (incremental &&
+                        previous.isPresent() &&
+                        Objects.equals(hash, previous.get().getHash()) &&
+                        Objects.equals(path, previous.get().getPath()) &&
+                        sink.exists(path)) {
+                    continue;
+                }
+
+                // If the model is emitted to a different file than before,
+                // the old file is obsolete.
+
+                if (previous.isPresent() &&
+                        !Objects.equals(path, previous.get().getPath())) {
+                    sink.delete(previous.get().getPath());
+                }
+
+                pendingModels.add(new Pair<>(domain, model));
+                pendingEntries.add(new Manifest.Entry(
+                        domain.getName(),
+                        modelName,
+                        hash,
+                        path
+                ));
             }
         }
 
-        throw new UnsupportedOperationException("Not implemented");
+        // The models of all domains are emitted in a single pass, so that
+        // the threads are kept busy even if the domains are small.
+
+        this.emit(
+                new ModelGenerator(environment),
+                pendingModels,
+                sink,
+                parallelism
+        );
+
+        // Other translations to the same output directory may have updated
+        // the manifest in the meantime, thus the entries of the translated
+        // domains are merged into its current state.
+
+        synchronized (manifestLock) {
+            manifest = JavaTranslator.readManifest(sink);
+
+            for (Manifest.Entry entry : pendingEntries) {
+                manifest.put(entry);
+            }
+
+            // Removing the source files of all models that have been deleted
+            // from the translated domains since the previous translation.
+
+            for (Map.Entry<String, Set<String>> domainModelNames :
+                    modelNames.entrySet()) {
+                for (Manifest.Entry entry :
+                        manifest.getEntries(domainModelNames.getKey())) {
+                    if (domainModelNames.getValue().contains(
+                            entry.getModelName()
+                    )) {
+                        continue;
+                    }
+
+                    sink.delete(entry.getPath());
+                    manifest.remove(entry.getModelName());
+                }
+            }
+
+            manifest.write(Channels.newOutputStream(
+                    sink.open(MANIFEST_FILE_NAME)
+            ));
+        }
+    }
+
+    private static Object getManifestLock(OutputSink sink) {
+        // Translations to the same directory usually use distinct sink
+        // instances, thus directories are identified by their path instead.
+
+        if (!(sink instanceof DirectoryOutputSink)) {
+            return sink;
+        }
+
+        return MANIFEST_LOCKS.computeIfAbsent(
+                ((DirectoryOutputSink) sink).getDirectory()
+                        .toAbsolutePath()
+                        .normalize(),
+                directory -> new Object()
+        );
+    }
+
+    private static Manifest readManifest(OutputSink sink) throws IOException {
+        Optional<ReadableByteChannel> manifestChannel = sink.openExisting(
+                MANIFEST_FILE_NAME
+        );
+
+        return manifestChannel.isPresent()
+                ? Manifest.read(Channels.newInputStream(manifestChannel.get()))
+                : new Manifest();
+    }
+
+    private void emit(
+            ModelGenerator generator,
+            List<Pair<Domain, Model>> models,
+            OutputSink sink,
+            int parallelism
+    ) throws IOException, TranslationException {
+        // The models do not share any mutable state, so they can be emitted
+        // independently of each other. If there is no chance to gain anything
+        // from parallelism, we do not bother to set up the thread pool.
+
+        if (parallelism == 1 || models.size() < 2) {
+            for (Pair<Domain, Model> model : models) {
+                JavaTranslator.emit(generator, model, sink);
+            }
+
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(parallelism, models.size()),
+                JavaTranslator::newEmitterThread
+        );
+
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+
+            for (Pair<Domain, Model> model : models) {
+                futures.add(executor.submit(() -> {
+                    JavaTranslator.emit(generator, model, sink);
+                    return null;
+                }));
+            }
+
+            // Waiting for the tasks in the order of their submission, so that
+            // the reported failure does not depend on the scheduling.
+
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new TranslationException(ex);
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+
+                    if (cause instanceof TranslationException) {
+                        throw (TranslationException) cause;
+                    }
+
+                    throw new TranslationException(cause);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void emit(
+            ModelGenerator generator,
+            Pair<Domain, Model> pair,
+            OutputSink sink
+    ) throws IOException, TranslationException {
+        Domain domain = pair.getFirstComponent();
+        Model model = pair.getSecondComponent();
+
+        // The source code is encoded and written to the sink while it is
+        // being generated, so there is never a copy of the whole file in
+        // memory.
+
+        try (Writer out = new BufferedWriter(Channels.newWriter(
+                sink.open(JavaNames.toSourcePath(domain, model)),
+                StandardCharsets.UTF_8.newEncoder(),
+                -1
+        ))) {
+            generator.generate(domain, model, out);
+        }
+    }
+
+    private static Thread newEmitterThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "cml-java-emitter");
+        thread.setDaemon(true);
+
+        return thread;
     }
 }
@@ -1,4 +1,90 @@
 package org.fir3.cml.impl.java.config;
 
+/**
+ * The configuration of the {@link org.fir3.cml.impl.java.JavaTranslator}.
+ *
+ * <p>
+ *     Instances of this class are usually deserialized from JSON by the
+ *     {@link ConfigurationReader}. Options that are missing in the JSON
+ *     representation keep their default values.
+ * </p>
+ */
 public final class Configuration {
+    static final String DEFAULT_OUTPUT_DIRECTORY = ".";
+    static final boolean DEFAULT_INCREMENTAL = true;
+    static final int DEFAULT_PARALLELISM = 0;
+
+    private final String outputDirectory;
+    private final boolean incremental;
+    private final int parallelism;
+
+    /**
+     * Initializes a new instance of <code>Configuration</code>, whose options
+     * have their default values.
+     */
+    public Configuration() {
+        this(
+                DEFAULT_OUTPUT_DIRECTORY,
+                DEFAULT_INCREMENTAL,
+                DEFAULT_PARALLELISM
+        );
+    }
+
+    /**
+     * Initializes a new instance of <code>Configuration</code>. The options
+     * are expected to be validated by the caller.
+     *
+     * @param outputDirectory   The path of the output directory.
+     * @param incremental       Whether the translation is incremental.
+     * @param parallelism       The maximum number of concurrently emitted
+     *                          models.
+     */
+    Configuration(
+            String outputDirectory,
+            boolean incremental,
+            int parallelism
+    ) {
+        this.outputDirectory = outputDirectory;
+        this.incremental = incremental;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the path of the directory that the generated source files will
+     * be written to.
+     *
+     * <p>
+     *     This option is ignored, if the translation writes to an
+     *     {@link org.fir3.cml.api.OutputSink} that was passed by the caller.
+     * </p>
+     *
+     * @return  The path of the output directory. Defaults to the current
+     *          working directory.
+     */
+    public String getOutputDirectory() {
+        return this.outputDirectory;
+    }
+
+    /**
+     * Returns whether only those models shall be emitted again, whose
+     * definition (or the definition of one of their dependencies) changed
+     * since the previous translation into the same output directory.
+     *
+     * @return  Either <code>true</code>, if the translation is incremental,
+     *          otherwise <code>false</code>. Defaults to <code>true</code>.
+     */
+    public boolean isIncremental() {
+        return this.incremental;
+    }
+
+    /**
+     * Returns the maximum number of models that will be emitted concurrently.
+     *
+     * @return  The maximum number of concurrently emitted models, or
+     *          <code>0</code>, if the number of available processors shall be
+     *          used. Defaults to <code>0</code>.
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
 }
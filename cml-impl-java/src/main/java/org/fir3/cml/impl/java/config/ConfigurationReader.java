@@ -1,38 +1,53 @@
 package org.fir3.cml.impl.java.config;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonIOException;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 
 /**
  * The reader for JSON-serialized instances of {@link Configuration}.
+ *
+ * <p>
+ *     The JSON representation is read with a streaming parser and bound to
+ *     the options without reflection. Every option is validated while it is
+ *     read, so that a misconfiguration is reported before the translation
+ *     starts. Unknown options are rejected as well, since they are most
+ *     likely misspelled.
+ * </p>
  */
 public final class ConfigurationReader {
-    private static ConfigurationReader INSTANCE;
+    private static final String OPTION_OUTPUT_DIRECTORY = "outputDirectory";
+    private static final String OPTION_INCREMENTAL = "incremental";
+    private static final String OPTION_PARALLELISM = "parallelism";
+
+    /**
+     * Holds the singleton instance, which is created exactly once when
+     * {@link #getInstance()} is called for the first time.
+     */
+    private static final class Holder {
+        private static final ConfigurationReader INSTANCE =
+                new ConfigurationReader();
+    }
 
     /**
      * Returns the singleton instance of this class.
      *
+     * <p>
+     *     This method and the returned instance are safe for concurrent use.
+     * </p>
+     *
      * @return  The singleton instance.
      */
     public static ConfigurationReader getInstance() {
-        if (ConfigurationReader.INSTANCE == null) {
-            ConfigurationReader.INSTANCE = new ConfigurationReader();
-        }
-
-        return ConfigurationReader.INSTANCE;
+        return Holder.INSTANCE;
     }
 
-    private final Gson gson;
-
-    private ConfigurationReader() {
-        this.gson = new Gson();
-    }
+    private ConfigurationReader() { }
 
     /**
      * Attempts to read and deserialize a {@link Configuration} object from the
@@ -40,7 +55,8 @@ public final class ConfigurationReader {
      *
      * <p>
      *     The specified <code>src</code> stream will be closed when this
-     *     method returns.
+     *     method returns. If <code>src</code> is empty or contains the JSON
+     *     literal <code>null</code>, the default configuration is returned.
      * </p>
      *
      * @param src   The source stream that contains the serialized
@@ -52,10 +68,98 @@ public final class ConfigurationReader {
      *                      data.
      */
     public Configuration read(InputStream src) throws IOException {
-        try (Reader r = new InputStreamReader(src)) {
-            return this.gson.fromJson(r, Configuration.class);
-        } catch (JsonSyntaxException | JsonIOException ex) {
-            throw new IOException(ex);
+        try (JsonReader reader = new JsonReader(new InputStreamReader(
+                src,
+                StandardCharsets.UTF_8
+        ))) {
+            Configuration config = ConfigurationReader.read(reader);
+
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new IOException(
+                        "Unexpected content after the configuration"
+                );
+            }
+
+            return config;
+        } catch (IllegalStateException | NumberFormatException ex) {
+            // Thrown by the JsonReader if a value has an unexpected type.
+
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
+    private static Configuration read(JsonReader reader) throws IOException {
+        JsonToken token;
+
+        try {
+            token = reader.peek();
+        } catch (EOFException ex) {
+            // An empty source is equivalent to the default configuration.
+
+            return new Configuration();
+        }
+
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return new Configuration();
+        }
+
+        String outputDirectory = Configuration.DEFAULT_OUTPUT_DIRECTORY;
+        boolean incremental = Configuration.DEFAULT_INCREMENTAL;
+        int parallelism = Configuration.DEFAULT_PARALLELISM;
+
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            String option = reader.nextName();
+
+            if (reader.peek() == JsonToken.NULL) {
+                throw new IOException(String.format(
+                        "Option '%s' must not be null",
+                        option
+                ));
+            }
+
+            switch (option) {
+                case OPTION_OUTPUT_DIRECTORY:
+                    outputDirectory = reader.nextString();
+
+                    if (outputDirectory.isEmpty()) {
+                        throw new IOException(String.format(
+                                "Option '%s' must not be empty",
+                                option
+                        ));
+                    }
+
+                    break;
+
+                case OPTION_INCREMENTAL:
+                    incremental = reader.nextBoolean();
+                    break;
+
+                case OPTION_PARALLELISM:
+                    parallelism = reader.nextInt();
+
+                    if (parallelism < 0) {
+                        throw new IOException(String.format(
+                                "Option '%s' must not be negative, but is %d",
+                                option,
+                                parallelism
+                        ));
+                    }
+
+                    break;
+
+                default:
+                    throw new IOException(String.format(
+                            "Unknown option '%s'",
+                            option
+                    ));
+            }
         }
+
+        reader.endObject();
+
+        return new Configuration(outputDirectory, incremental, parallelism);
     }
 }
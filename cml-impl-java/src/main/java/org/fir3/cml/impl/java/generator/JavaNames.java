@@ -0,0 +1,143 @@
+package org.fir3.cml.impl.java.generator;
+
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Model;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * A collection of utility methods that map CML names to valid Java
+ * identifiers.
+ */
+public final class JavaNames {
+    private static final Set<String> RESERVED_WORDS = new HashSet<>(
+            Arrays.asList(
+                    "abstract", "assert", "boolean", "break", "byte", "case",
+                    "catch", "char", "class", "const", "continue", "default",
+                    "do", "double", "else", "enum", "extends", "false",
+                    "final", "finally", "float", "for", "goto", "if",
+                    "implements", "import", "instanceof", "int", "interface",
+                    "long", "native", "new", "null", "package", "private",
+                    "protected", "public", "return", "short", "static",
+                    "strictfp", "super", "switch", "synchronized", "this",
+                    "throw", "throws", "transient", "true", "try", "void",
+                    "volatile", "while"
+            )
+    );
+
+    /**
+     * Returns a valid Java identifier for the specified CML
+     * <code>name</code>.
+     *
+     * <p>
+     *     Names that start with a digit or collide with a reserved word of
+     *     the Java programming language are prefixed with an underscore. All
+     *     other names are returned unchanged.
+     * </p>
+     *
+     * @param name  The CML name of a domain segment, model, attribute or type
+     *              parameter.
+     *
+     * @return  The corresponding Java identifier.
+     *
+     * @throws NullPointerException If <code>name</code> is <code>null</code>.
+     */
+    public static String toIdentifier(String name) {
+        Objects.requireNonNull(name, "name is null");
+
+        if (name.isEmpty() ||
+                Character.isDigit(name.charAt(0)) ||
+                JavaNames.RESERVED_WORDS.contains(name)) {
+            return "_" + name;
+        }
+
+        return name;
+    }
+
+    /**
+     * Returns the name of the Java package that the models of the specified
+     * <code>domain</code> are emitted to.
+     *
+     * @param domain    The domain whose package name will be returned.
+     * @return  The name of the corresponding Java package.
+     *
+     * @throws NullPointerException If <code>domain</code> is
+     *                              <code>null</code>.
+     */
+    public static String toPackageName(Domain domain) {
+        Objects.requireNonNull(domain, "domain is null");
+
+        return Arrays.stream(domain.getName().split("\\."))
+                .map(JavaNames::toIdentifier)
+                .collect(Collectors.joining("."));
+    }
+
+    /**
+     * Returns the fully qualified name of the Java class that the specified
+     * <code>model</code> is emitted to.
+     *
+     * @param domain    The domain of the specified <code>model</code>.
+     * @param model     The model whose class name will be returned.
+     *
+     * @return  The fully qualified name of the corresponding Java class.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     */
+    public static String toClassName(Domain domain, Model model) {
+        Objects.requireNonNull(model, "model is null");
+
+        return String.format(
+                "%s.%s",
+                JavaNames.toPackageName(domain),
+                JavaNames.toIdentifier(model.getName())
+        );
+    }
+
+    /**
+     * Returns the path of the source file that the specified
+     * <code>model</code> is emitted to, relative to the output directory.
+     *
+     * <p>
+     *     The segments of the returned path are always separated by a
+     *     forward slash, regardless of the current platform.
+     * </p>
+     *
+     * @param domain    The domain of the specified <code>model</code>.
+     * @param model     The model whose source file path will be returned.
+     *
+     * @return  The relative path of the corresponding Java source file.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     */
+    public static String toSourcePath(Domain domain, Model model) {
+        return JavaNames.toClassName(domain, model).replace('.', '/') +
+                ".java";
+    }
+
+    /**
+     * Returns the suffix of the accessor method names of the attribute with
+     * the specified <code>name</code>.
+     *
+     * @param name  The name of the attribute.
+     * @return  The specified <code>name</code> with a capitalized first
+     *          character.
+     *
+     * @throws NullPointerException If <code>name</code> is <code>null</code>.
+     */
+    public static String toAccessorSuffix(String name) {
+        Objects.requireNonNull(name, "name is null");
+
+        if (name.isEmpty()) {
+            return name;
+        }
+
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private JavaNames() {
+        throw new IllegalStateException("Do not instantiate this class");
+    }
+}
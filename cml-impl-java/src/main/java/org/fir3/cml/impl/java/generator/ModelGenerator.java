@@ -0,0 +1,225 @@
+package org.fir3.cml.impl.java.generator;
+
+import org.fir3.cml.api.Builtin;
+import org.fir3.cml.api.exception.TranslationException;
+import org.fir3.cml.api.model.*;
+import org.fir3.cml.api.util.ModelHelper;
+import org.fir3.cml.api.util.Pair;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * The generator that emits the Java source code of a single model.
+ *
+ * <p>
+ *     Each non-builtin model is emitted as a plain Java class with one
+ *     private field and a pair of accessor methods per attribute. The
+ *     attributes are emitted in the lexicographical order of their names, so
+ *     that the same model always results in the same source code.
+ * </p>
+ */
+public final class ModelGenerator {
+    private static final String BIT_MODEL_NAME =
+            ((ModelType) Builtin.TYPE_BIT).getModelName();
+
+    private static final String SEQUENCE_MODEL_NAME =
+            ((ModelType) Builtin.TYPE_SEQUENCE).getModelName();
+
+    private static final String INDENT = "    ";
+
+    private final Environment environment;
+
+    /**
+     * Initializes a new instance of <code>ModelGenerator</code>.
+     *
+     * @param environment   The environment that the types of the emitted
+     *                      attributes are resolved from.
+     *
+     * @throws NullPointerException If <code>environment</code> is
+     *                              <code>null</code>.
+     */
+    public ModelGenerator(Environment environment) {
+        Objects.requireNonNull(environment, "environment is null");
+
+        this.environment = environment;
+    }
+
+    /**
+     * Generates the Java source code of the specified <code>model</code> and
+     * writes it to the specified <code>out</code> writer.
+     *
+     * <p>
+     *     The types of all attributes are resolved before anything is written,
+     *     so that nothing is written if the model cannot be translated.
+     * </p>
+     *
+     * @param domain    The domain of the specified <code>model</code>.
+     * @param model     The model whose source code will be generated. This
+     *                  must not be a builtin model.
+     *
+     * @param out       The writer that the content of the Java source file,
+     *                  which declares the class of the specified
+     *                  <code>model</code>, is written to.
+     *
+     * @throws NullPointerException     If any of the parameters is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>model</code> is a builtin
+     *                                  model.
+     *
+     * @throws TranslationException     If the type of an attribute cannot be
+     *                                  mapped to a Java type.
+     *
+     * @throws IOException              If writing to <code>out</code> fails.
+     */
+    public void generate(Domain domain, Model model, Writer out)
+            throws TranslationException, IOException {
+        Objects.requireNonNull(domain, "domain is null");
+        Objects.requireNonNull(model, "model is null");
+        Objects.requireNonNull(out, "out is null");
+
+        if (model.getFlags().contains(Model.Flag.Builtin)) {
+            throw new IllegalArgumentException("model is builtin");
+        }
+
+        List<Attribute> attributes = new ArrayList<>(model.getAttributes());
+        attributes.sort(Comparator.comparing(Attribute::getName));
+
+        List<String> javaTypes = new ArrayList<>();
+
+        for (Attribute attribute : attributes) {
+            javaTypes.add(this.toJavaType(attribute.getType(), domain, false));
+        }
+
+        // Package declaration and class header
+
+        out.append("package ")
+                .append(JavaNames.toPackageName(domain))
+                .append(";\n\n");
+
+        out.append("/**\n * Generated from the CML model <code>")
+                .append(ModelHelper.toString(domain, model))
+                .append("</code>.\n */\n");
+
+        out.append("public class ")
+                .append(JavaNames.toIdentifier(model.getName()));
+
+        if (!model.getTypeParameters().isEmpty()) {
+            StringJoiner parameters = new StringJoiner(", ", "<", ">");
+
+            for (TypeParameter parameter : model.getTypeParameters()) {
+                parameters.add(JavaNames.toIdentifier(parameter.getName()));
+            }
+
+            out.append(parameters.toString());
+        }
+
+        out.append(" {\n");
+
+        // Fields
+
+        for (int index = 0; index < attributes.size(); index++) {
+            out.append(INDENT)
+                    .append("private ")
+                    .append(javaTypes.get(index))
+                    .append(' ')
+                    .append(JavaNames.toIdentifier(
+                            attributes.get(index).getName()
+                    ))
+                    .append(";\n");
+        }
+
+        // Accessors
+
+        for (int index = 0; index < attributes.size(); index++) {
+            String javaType = javaTypes.get(index);
+            String fieldName = JavaNames.toIdentifier(
+                    attributes.get(index).getName()
+            );
+
+            String suffix = JavaNames.toAccessorSuffix(fieldName);
+
+            out.append('\n')
+                    .append(INDENT).append("public ").append(javaType)
+                    .append(" get").append(suffix).append("() {\n")
+                    .append(INDENT).append(INDENT)
+                    .append("return this.").append(fieldName).append(";\n")
+                    .append(INDENT).append("}\n\n");
+
+            out.append(INDENT).append("public void set").append(suffix)
+                    .append('(').append(javaType).append(' ')
+                    .append(fieldName).append(") {\n")
+                    .append(INDENT).append(INDENT)
+                    .append("this.").append(fieldName).append(" = ")
+                    .append(fieldName).append(";\n")
+                    .append(INDENT).append("}\n");
+        }
+
+        out.append("}\n");
+    }
+
+    private String toJavaType(Type type, Domain context, boolean boxed)
+            throws TranslationException {
+        switch (type.getCategory()) {
+            case Parameter:
+                return JavaNames.toIdentifier(
+                        ((ParameterType) type).getTypeParameterName()
+                );
+
+            case Model:
+                ModelType modelType = (ModelType) type;
+
+                Pair<Domain, Model> pair = this.environment.resolveModel(
+                        modelType.getModelName(),
+                        context
+                ).orElseThrow(() -> new TranslationException(String.format(
+                        "Unknown model '%s'",
+                        modelType.getModelName()
+                )));
+
+                Domain domain = pair.getFirstComponent();
+                Model model = pair.getSecondComponent();
+                String modelName = ModelHelper.toString(domain, model);
+
+                if (model.getTypeParameters().size() !=
+                        modelType.getTypeParameters().size()) {
+                    throw new TranslationException(String.format(
+                            "Wrong number of type parameters for '%s'",
+                            modelName
+                    ));
+                }
+
+                if (Objects.equals(BIT_MODEL_NAME, modelName)) {
+                    return boxed ? "Boolean" : "boolean";
+                }
+
+                StringJoiner parameters = new StringJoiner(", ", "<", ">");
+                parameters.setEmptyValue("");
+
+                for (Type parameter : modelType.getTypeParameters()) {
+                    parameters.add(this.toJavaType(parameter, context, true));
+                }
+
+                if (Objects.equals(SEQUENCE_MODEL_NAME, modelName)) {
+                    return "java.util.List" + parameters;
+                }
+
+                if (model.getFlags().contains(Model.Flag.Builtin)) {
+                    throw new TranslationException(String.format(
+                            "Unsupported builtin model '%s'",
+                            modelName
+                    ));
+                }
+
+                return JavaNames.toClassName(domain, model) + parameters;
+
+            default:
+                throw new UnsupportedOperationException(String.format(
+                        "Category not implemented: '%s'",
+                        type.getCategory().name()
+                ));
+        }
+    }
+}
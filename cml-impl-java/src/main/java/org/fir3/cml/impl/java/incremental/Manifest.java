@@ -0,0 +1,243 @@
+package org.fir3.cml.impl.java.incremental;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * The manifest keeps track of the source files that have been emitted into an
+ * output directory and of the content hashes of the models that they were
+ * emitted from.
+ *
+ * <p>
+ *     The manifest is stored as UTF-8 encoded text file with one
+ *     tab-separated entry per line. Lines that start with <code>#</code> are
+ *     ignored.
+ * </p>
+ */
+public final class Manifest {
+    /**
+     * A single entry of the manifest, which describes one emitted model.
+     */
+    public static final class Entry {
+        private final String domainName;
+        private final String modelName;
+        private final String hash;
+        private final String path;
+
+        /**
+         * Initializes a new instance of <code>Entry</code>.
+         *
+         * @param domainName    The name of the domain of the model.
+         * @param modelName     The fully qualified name of the model.
+         * @param hash          The content hash of the model.
+         * @param path          The path of the emitted source file, relative
+         *                      to the output directory.
+         *
+         * @throws NullPointerException If any of the parameters is
+         *                              <code>null</code>.
+         */
+        public Entry(
+                String domainName,
+                String modelName,
+                String hash,
+                String path
+        ) {
+            Objects.requireNonNull(domainName, "domainName is null");
+            Objects.requireNonNull(modelName, "modelName is null");
+            Objects.requireNonNull(hash, "hash is null");
+            Objects.requireNonNull(path, "path is null");
+
+            this.domainName = domainName;
+            this.modelName = modelName;
+            this.hash = hash;
+            this.path = path;
+        }
+
+        public String getDomainName() {
+            return this.domainName;
+        }
+
+        public String getModelName() {
+            return this.modelName;
+        }
+
+        public String getHash() {
+            return this.hash;
+        }
+
+        public String getPath() {
+            return this.path;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.modelName.hashCode() ^ this.hash.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Entry) {
+                Entry entry = (Entry) obj;
+
+                return Objects.equals(this.domainName, entry.domainName) &&
+                        Objects.equals(this.modelName, entry.modelName) &&
+                        Objects.equals(this.hash, entry.hash) &&
+                        Objects.equals(this.path, entry.path);
+            }
+
+            return false;
+        }
+    }
+
+    private static final String COMMENT_PREFIX = "#";
+    private static final String HEADER =
+            COMMENT_PREFIX + " Generated by the CML Java translator";
+
+    private static final char SEPARATOR = '\t';
+
+    /**
+     * Reads the manifest from the specified <code>src</code> stream.
+     *
+     * <p>
+     *     The specified <code>src</code> stream will be closed when this
+     *     method returns.
+     * </p>
+     *
+     * @param src   The stream that provides the manifest.
+     * @return  The manifest that has been read.
+     *
+     * @throws IOException  If reading from <code>src</code> fails or if it
+     *                      contains malformed entries.
+     */
+    public static Manifest read(InputStream src) throws IOException {
+        Manifest manifest = new Manifest();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                src,
+                StandardCharsets.UTF_8
+        ))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith(COMMENT_PREFIX)) {
+                    continue;
+                }
+
+                String[] columns = line.split(
+                        Character.toString(SEPARATOR),
+                        -1
+                );
+
+                if (columns.length != 4) {
+                    throw new IOException(String.format(
+                            "Malformed manifest entry: '%s'",
+                            line
+                    ));
+                }
+
+                manifest.put(new Entry(
+                        columns[0],
+                        columns[1],
+                        columns[2],
+                        columns[3]
+                ));
+            }
+        }
+
+        return manifest;
+    }
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * Initializes a new, empty instance of <code>Manifest</code>.
+     */
+    public Manifest() {
+        this.entries = new TreeMap<>();
+    }
+
+    /**
+     * Returns the entry of the model with the specified
+     * <code>modelName</code>.
+     *
+     * @param modelName The fully qualified name of the model.
+     * @return  An {@link Optional} container that either contains the
+     *          requested entry, or <code>null</code>, if there is no such
+     *          entry.
+     */
+    public Optional<Entry> get(String modelName) {
+        return Optional.ofNullable(this.entries.get(modelName));
+    }
+
+    /**
+     * Returns all entries of models that belong to the domain with the
+     * specified <code>domainName</code>.
+     *
+     * @param domainName    The name of the domain.
+     * @return  The entries of all models of the specified domain.
+     */
+    public List<Entry> getEntries(String domainName) {
+        return this.entries.values()
+                .stream()
+                .filter(e -> Objects.equals(domainName, e.getDomainName()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Adds the specified <code>entry</code> to this manifest, replacing any
+     * previous entry of the same model.
+     *
+     * @param entry The entry that will be added.
+     * @throws NullPointerException If <code>entry</code> is
+     *                              <code>null</code>.
+     */
+    public void put(Entry entry) {
+        Objects.requireNonNull(entry, "entry is null");
+
+        this.entries.put(entry.getModelName(), entry);
+    }
+
+    /**
+     * Removes the entry of the model with the specified
+     * <code>modelName</code>.
+     *
+     * @param modelName The fully qualified name of the model.
+     */
+    public void remove(String modelName) {
+        this.entries.remove(modelName);
+    }
+
+    /**
+     * Writes this manifest to the specified <code>dst</code> stream.
+     *
+     * <p>
+     *     The specified <code>dst</code> stream will be closed when this
+     *     method returns.
+     * </p>
+     *
+     * @param dst   The target stream.
+     * @throws IOException  If writing to <code>dst</code> fails.
+     */
+    public void write(OutputStream dst) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                dst,
+                StandardCharsets.UTF_8
+        ))) {
+            writer.write(HEADER);
+            writer.write('\n');
+
+            for (Entry entry : this.entries.values()) {
+                writer.write(entry.getDomainName());
+                writer.write(SEPARATOR);
+                writer.write(entry.getModelName());
+                writer.write(SEPARATOR);
+                writer.write(entry.getHash());
+                writer.write(SEPARATOR);
+                writer.write(entry.getPath());
+                writer.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package org.fir3.cml.impl.java.incremental;
+
+import org.fir3.cml.api.exception.TranslationException;
+import org.fir3.cml.api.model.*;
+import org.fir3.cml.api.util.ModelHelper;
+import org.fir3.cml.api.util.Pair;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Computes content hashes of models that change whenever the definition of
+ * the model itself or the definition of any model that it (transitively)
+ * depends on changes.
+ *
+ * <p>
+ *     The hash of a model is computed from a normalized textual definition,
+ *     in which all referenced models are fully qualified and the attributes
+ *     are sorted by their names. Thus, the hash does not depend on the
+ *     iteration order of the underlying sets or on the way a type was written
+ *     down in the source.
+ * </p>
+ *
+ * <p>
+ *     Instead of the definitions of its whole dependency closure, the hash of
+ *     a model covers the hashes of the models that it references directly.
+ *     Models that reference each other, directly or indirectly, form a cycle
+ *     and share the definitions of all members of the cycle. Every hash is
+ *     cached, thus each model is hashed once per instance, no matter how many
+ *     models depend on it.
+ * </p>
+ *
+ * <p>
+ *     Instances of this class cache intermediate results and are not safe for
+ *     concurrent use.
+ * </p>
+ */
+public final class ModelHasher {
+    /**
+     * A single depth-first traversal of the dependency graph, which
+     * determines the cycles of the graph by Tarjan's algorithm and hashes
+     * each cycle as soon as it has been completed.
+     */
+    private final class Traversal {
+        private final Map<String, Integer> indices;
+        private final Map<String, Integer> lowLinks;
+        private final Deque<String> stack;
+        private final Set<String> stacked;
+
+        private Traversal() {
+            this.indices = new HashMap<>();
+            this.lowLinks = new HashMap<>();
+            this.stack = new ArrayDeque<>();
+            this.stacked = new HashSet<>();
+        }
+
+        private void visit(String modelName) throws TranslationException {
+            ModelHasher.this.define(modelName);
+
+            int index = this.indices.size();
+
+            this.indices.put(modelName, index);
+            this.lowLinks.put(modelName, index);
+            this.stack.push(modelName);
+            this.stacked.add(modelName);
+
+            for (String dependency : ModelHasher.this.dependencies.get(
+                    modelName
+            )) {
+                // Dependencies that have been hashed already, either during
+                // this or during a previous traversal, are not part of the
+                // current cycle.
+
+                if (ModelHasher.this.hashes.containsKey(dependency)) {
+                    continue;
+                }
+
+                if (!this.indices.containsKey(dependency)) {
+                    this.visit(dependency);
+                    this.lowLinks.put(modelName, Math.min(
+                            this.lowLinks.get(modelName),
+                            this.lowLinks.get(dependency)
+                    ));
+                } else if (this.stacked.contains(dependency)) {
+                    this.lowLinks.put(modelName, Math.min(
+                            this.lowLinks.get(modelName),
+                            this.indices.get(dependency)
+                    ));
+                }
+            }
+
+            if (this.lowLinks.get(modelName) != index) {
+                return;
+            }
+
+            SortedSet<String> members = new TreeSet<>();
+            String member;
+
+            do {
+                member = this.stack.pop();
+                this.stacked.remove(member);
+                members.add(member);
+            } while (!Objects.equals(modelName, member));
+
+            ModelHasher.this.hashCycle(members);
+        }
+    }
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final String salt;
+    private final Map<String, Pair<Domain, Model>> models;
+    private final Map<String, Pair<Domain, Model>> ubiquitousModels;
+    private final Map<String, String> definitions;
+    private final Map<String, Set<String>> dependencies;
+    private final Map<String, String> hashes;
+
+    /**
+     * Initializes a new instance of <code>ModelHasher</code>.
+     *
+     * @param environment   The environment that the models and their
+     *                      dependencies are resolved from.
+     *
+     * @param salt          An arbitrary string that is included in every
+     *                      hash, e.g. the version of the code generator.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     */
+    public ModelHasher(Environment environment, String salt) {
+        Objects.requireNonNull(environment, "environment is null");
+        Objects.requireNonNull(salt, "salt is null");
+
+        this.salt = salt;
+        this.models = new HashMap<>();
+        this.ubiquitousModels = new HashMap<>();
+        this.definitions = new HashMap<>();
+        this.dependencies = new HashMap<>();
+        this.hashes = new HashMap<>();
+
+        // Indexing the models of the environment once, so that resolving a
+        // referenced model does not need to search the domains.
+
+        for (Domain domain : environment.getDomains()) {
+            boolean ubiquitous = domain.getFlags().contains(
+                    Domain.Flag.Ubiquitous
+            );
+
+            for (Model model : domain.getModels()) {
+                Pair<Domain, Model> pair = new Pair<>(domain, model);
+
+                this.models.put(ModelHelper.toString(domain, model), pair);
+
+                if (ubiquitous) {
+                    this.ubiquitousModels.put(model.getName(), pair);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the content hash of the specified <code>model</code>.
+     *
+     * @param domain    The domain of the specified <code>model</code>.
+     * @param model     The model whose hash will be computed.
+     *
+     * @return  The hexadecimal representation of the content hash.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     *
+     * @throws TranslationException If the specified <code>model</code> or one
+     *                              of its dependencies references an unknown
+     *                              model.
+     */
+    public String hash(Domain domain, Model model) throws TranslationException {
+        Objects.requireNonNull(domain, "domain is null");
+        Objects.requireNonNull(model, "model is null");
+
+        String modelName = ModelHelper.toString(domain, model);
+        String hash = this.hashes.get(modelName);
+
+        if (hash != null) {
+            return hash;
+        }
+
+        this.define(domain, model);
+        new Traversal().visit(modelName);
+
+        return this.hashes.get(modelName);
+    }
+
+    private void hashCycle(SortedSet<String> members) {
+        // The members and their external dependencies are sorted by their
+        // names, so that the hash does not depend on the order in which they
+        // were discovered.
+
+        SortedSet<String> externalDependencies = new TreeSet<>();
+        MessageDigest digest = ModelHasher.createDigest();
+
+        ModelHasher.update(digest, this.salt);
+
+        for (String member : members) {
+            ModelHasher.update(digest, this.definitions.get(member));
+            externalDependencies.addAll(this.dependencies.get(member));
+        }
+
+        externalDependencies.removeAll(members);
+
+        for (String dependency : externalDependencies) {
+            ModelHasher.update(digest, this.hashes.get(dependency));
+        }
+
+        String cycleHash = ModelHasher.toHex(digest.digest());
+
+        // Every member of a cycle covers the same definitions, thus the name
+        // of the member is added to tell the members apart.
+
+        for (String member : members) {
+            digest.reset();
+
+            ModelHasher.update(digest, cycleHash);
+            ModelHasher.update(digest, member);
+
+            this.hashes.put(member, ModelHasher.toHex(digest.digest()));
+        }
+    }
+
+    private void define(String modelName) throws TranslationException {
+        if (this.definitions.containsKey(modelName)) {
+            return;
+        }
+
+        Pair<Domain, Model> pair = this.models.get(modelName);
+
+        if (pair == null) {
+            throw new TranslationException(String.format(
+                    "Unknown model '%s'",
+                    modelName
+            ));
+        }
+
+        this.define(pair.getFirstComponent(), pair.getSecondComponent());
+    }
+
+    private void define(Domain domain, Model model)
+            throws TranslationException {
+        String modelName = ModelHelper.toString(domain, model);
+
+        if (this.definitions.containsKey(modelName)) {
+            return;
+        }
+
+        Set<String> modelDependencies = new HashSet<>();
+        StringBuilder definition = new StringBuilder();
+
+        definition.append("model ")
+                .append(modelName)
+                .append(' ')
+                .append(new TreeSet<>(model.getFlags()))
+                .append(' ');
+
+        StringJoiner parameters = new StringJoiner(",", "<", ">");
+
+        for (TypeParameter parameter : model.getTypeParameters()) {
+            parameters.add(parameter.getName());
+        }
+
+        definition.append(parameters).append(" {");
+
+        List<Attribute> attributes = new ArrayList<>(model.getAttributes());
+        attributes.sort(Comparator.comparing(Attribute::getName));
+
+        for (Attribute attribute : attributes) {
+            definition.append(attribute.getName()).append(':');
+            this.appendType(
+                    definition,
+                    attribute.getType(),
+                    domain,
+                    modelDependencies
+            );
+
+            definition.append(';');
+        }
+
+        definition.append('}');
+
+        this.definitions.put(modelName, definition.toString());
+        this.dependencies.put(modelName, modelDependencies);
+    }
+
+    private void appendType(
+            StringBuilder definition,
+            Type type,
+            Domain context,
+            Set<String> modelDependencies
+    ) throws TranslationException {
+        switch (type.getCategory()) {
+            case Parameter:
+                definition.append("P:").append(
+                        ((ParameterType) type).getTypeParameterName()
+                );
+
+                break;
+
+            case Model:
+                ModelType modelType = (ModelType) type;
+
+                Pair<Domain, Model> pair = this.resolve(
+                        modelType.getModelName(),
+                        context
+                );
+
+                String modelName = ModelHelper.toString(
+                        pair.getFirstComponent(),
+                        pair.getSecondComponent()
+                );
+
+                modelDependencies.add(modelName);
+                definition.append("M:").append(modelName).append('<');
+
+                for (Type parameter : modelType.getTypeParameters()) {
+                    this.appendType(
+                            definition,
+                            parameter,
+                            context,
+                            modelDependencies
+                    );
+
+                    definition.append(',');
+                }
+
+                definition.append('>');
+                break;
+
+            default:
+                throw new UnsupportedOperationException(String.format(
+                        "Category not implemented: '%s'",
+                        type.getCategory().name()
+                ));
+        }
+    }
+
+    private Pair<Domain, Model> resolve(String name, Domain context)
+            throws TranslationException {
+        // Resolving the model like Environment.resolveModel does: A dot
+        // denotes a fully qualified name, otherwise the context is searched
+        // before the ubiquitous domains.
+
+        Pair<Domain, Model> pair;
+
+        if (name.indexOf('.') != -1) {
+            pair = this.models.get(name);
+        } else {
+            pair = this.models.get(String.format(
+                    "%s.%s",
+                    context.getName(),
+                    name
+            ));
+
+            if (pair == null) {
+                pair = this.ubiquitousModels.get(name);
+            }
+        }
+
+        if (pair == null) {
+            throw new TranslationException(String.format(
+                    "Unknown model '%s'",
+                    name
+            ));
+        }
+
+        return pair;
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256.
+
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void update(MessageDigest digest, String str) {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+
+        // Prefixing each part with its length, so that the boundaries between
+        // the parts cannot be shifted without changing the hash.
+
+        int length = bytes.length;
+
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+        digest.update(bytes);
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+
+        for (int index = 0; index < bytes.length; index++) {
+            hex[index * 2] = HEX_DIGITS[(bytes[index] >>> 4) & 0x0F];
+            hex[index * 2 + 1] = HEX_DIGITS[bytes[index] & 0x0F];
+        }
+
+        return new String(hex);
+    }
+}
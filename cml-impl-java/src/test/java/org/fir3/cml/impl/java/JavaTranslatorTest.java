@@ -0,0 +1,447 @@
+package org.fir3.cml.impl.java;
+
+import org.fir3.cml.api.exception.ConfigurationException;
+import org.fir3.cml.api.exception.TranslationException;
+import org.fir3.cml.api.model.Attribute;
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.api.model.Model;
+import org.fir3.cml.api.model.ModelType;
+import org.fir3.cml.api.model.ParameterType;
+import org.fir3.cml.api.output.MemoryOutputSink;
+import org.fir3.cml.impl.java.incremental.Manifest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.fir3.cml.impl.java.TestEnvironments.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JavaTranslatorTest {
+    private static final String MARKER = "// untouched";
+
+    private static InputStream config(Path outputDirectory) {
+        return config(outputDirectory, 0);
+    }
+
+    private static InputStream config(Path outputDirectory, int parallelism) {
+        String json = String.format(
+                "{\"outputDirectory\": \"%s\", \"parallelism\": %d}",
+                outputDirectory.toString().replace("\\", "\\\\"),
+                parallelism
+        );
+
+        return new ByteArrayInputStream(
+                json.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    private static Environment sampleEnvironment(String extraAttribute) {
+        return environment(
+                model(
+                        "Outer",
+                        attribute("flag", "Bit"),
+                        attribute(
+                                "items",
+                                "Sequence",
+                                new ModelType(
+                                        "Inner",
+                                        Collections.singletonList(
+                                                new ModelType(
+                                                        "Bit",
+                                                        Collections.emptyList()
+                                                )
+                                        )
+                                )
+                        )
+                ),
+                genericModel(
+                        "Inner",
+                        "T",
+                        new Attribute(
+                                "value",
+                                new ParameterType("T")
+                        ),
+                        attribute(extraAttribute, "Bit")
+                )
+        );
+    }
+
+    @Test
+    public void testEmission(@TempDir Path outputDirectory)
+            throws ConfigurationException, TranslationException, IOException {
+        new JavaTranslator().translate(
+                sampleEnvironment("other"),
+                TEST_DOMAIN,
+                config(outputDirectory)
+        );
+
+        Path outer = outputDirectory.resolve("test/domain/Outer.java");
+        Path inner = outputDirectory.resolve("test/domain/Inner.java");
+
+        assertTrue(Files.exists(outer));
+        assertTrue(Files.exists(inner));
+        assertTrue(Files.exists(outputDirectory.resolve(
+                JavaTranslator.MANIFEST_FILE_NAME
+        )));
+
+        String outerSrc = new String(
+                Files.readAllBytes(outer),
+                StandardCharsets.UTF_8
+        );
+
+        assertTrue(outerSrc.contains("package test.domain;"));
+        assertTrue(outerSrc.contains("private boolean flag;"));
+        assertTrue(outerSrc.contains(
+                "private java.util.List<test.domain.Inner<Boolean>> items;"
+        ));
+
+        String innerSrc = new String(
+                Files.readAllBytes(inner),
+                StandardCharsets.UTF_8
+        );
+
+        assertTrue(innerSrc.contains("public class Inner<T> {"));
+        assertTrue(innerSrc.contains("private T value;"));
+    }
+
+    @Test
+    public void testIncrementalTranslation(@TempDir Path outputDirectory)
+            throws ConfigurationException, TranslationException, IOException {
+        JavaTranslator translator = new JavaTranslator();
+        Path outer = outputDirectory.resolve("test/domain/Outer.java");
+        Path inner = outputDirectory.resolve("test/domain/Inner.java");
+
+        translator.translate(
+                sampleEnvironment("other"),
+                TEST_DOMAIN,
+                config(outputDirectory)
+        );
+
+        // Replacing the content of both files with a marker. If the same
+        // environment is translated again, none of them may be touched.
+
+        Files.write(outer, MARKER.getBytes(StandardCharsets.UTF_8));
+        Files.write(inner, MARKER.getBytes(StandardCharsets.UTF_8));
+
+        translator.translate(
+                sampleEnvironment("other"),
+                TEST_DOMAIN,
+                config(outputDirectory)
+        );
+
+        assertEquals(MARKER, new String(
+                Files.readAllBytes(outer),
+                StandardCharsets.UTF_8
+        ));
+
+        assertEquals(MARKER, new String(
+                Files.readAllBytes(inner),
+                StandardCharsets.UTF_8
+        ));
+
+        // Changing Inner must cause both, Inner and Outer (which depends on
+        // Inner), to be emitted again.
+
+        translator.translate(
+                sampleEnvironment("renamed"),
+                TEST_DOMAIN,
+                config(outputDirectory)
+        );
+
+        assertNotEquals(MARKER, new String(
+                Files.readAllBytes(outer),
+                StandardCharsets.UTF_8
+        ));
+
+        assertNotEquals(MARKER, new String(
+                Files.readAllBytes(inner),
+                StandardCharsets.UTF_8
+        ));
+    }
+
+    @Test
+    public void testDeletedModel(@TempDir Path outputDirectory)
+            throws ConfigurationException, TranslationException {
+        JavaTranslator translator = new JavaTranslator();
+
+        translator.translate(
+                sampleEnvironment("other"),
+                TEST_DOMAIN,
+                config(outputDirectory)
+        );
+
+        assertTrue(Files.exists(
+                outputDirectory.resolve("test/domain/Outer.java")
+        ));
+
+        translator.translate(
+                environment(model("Single", attribute("flag", "Bit"))),
+                TEST_DOMAIN,
+                config(outputDirectory)
+        );
+
+        assertFalse(Files.exists(
+                outputDirectory.resolve("test/domain/Outer.java")
+        ));
+
+        assertFalse(Files.exists(
+                outputDirectory.resolve("test/domain/Inner.java")
+        ));
+
+        assertTrue(Files.exists(
+                outputDirectory.resolve("test/domain/Single.java")
+        ));
+    }
+
+    @Test
+    public void testParallelEmission(@TempDir Path outputDirectory)
+            throws ConfigurationException, TranslationException, IOException {
+        Model[] models = new Model[64];
+
+        for (int index = 0; index < models.length; index++) {
+            models[index] = model(
+                    "Model" + index,
+                    attribute("flag", "Bit"),
+                    attribute("next", "Model" + ((index + 1) % models.length))
+            );
+        }
+
+        Environment env = environment(models);
+        Path serialDirectory = outputDirectory.resolve("serial");
+        Path parallelDirectory = outputDirectory.resolve("parallel");
+
+        new JavaTranslator().translate(
+                env,
+                TEST_DOMAIN,
+                config(serialDirectory, 1)
+        );
+
+        new JavaTranslator().translate(
+                env,
+                TEST_DOMAIN,
+                config(parallelDirectory, 8)
+        );
+
+        // Both output directories must have exactly the same content.
+
+        for (int index = 0; index < models.length; index++) {
+            String path = "test/domain/Model" + index + ".java";
+
+            assertArrayEquals(
+                    Files.readAllBytes(serialDirectory.resolve(path)),
+                    Files.readAllBytes(parallelDirectory.resolve(path))
+            );
+        }
+
+        assertArrayEquals(
+                Files.readAllBytes(serialDirectory.resolve(
+                        JavaTranslator.MANIFEST_FILE_NAME
+                )),
+                Files.readAllBytes(parallelDirectory.resolve(
+                        JavaTranslator.MANIFEST_FILE_NAME
+                ))
+        );
+    }
+
+    @Test
+    public void testNegativeParallelism(@TempDir Path outputDirectory) {
+        assertThrows(ConfigurationException.class, () ->
+                new JavaTranslator().translate(
+                        sampleEnvironment("other"),
+                        TEST_DOMAIN,
+                        config(outputDirectory, -1)
+                )
+        );
+    }
+
+    @Test
+    public void testOutputSink()
+            throws ConfigurationException, TranslationException {
+        MemoryOutputSink sink = new MemoryOutputSink();
+
+        new JavaTranslator().translate(
+                sampleEnvironment("other"),
+                TEST_DOMAIN,
+                null,
+                sink
+        );
+
+        assertEquals(
+                new TreeSet<>(Arrays.asList(
+                        JavaTranslator.MANIFEST_FILE_NAME,
+                        "test/domain/Inner.java",
+                        "test/domain/Outer.java"
+                )),
+                sink.getNames()
+        );
+
+        String outerSrc = new String(
+                sink.getContent("test/domain/Outer.java").orElse(new byte[0]),
+                StandardCharsets.UTF_8
+        );
+
+        assertTrue(outerSrc.startsWith("package test.domain;"));
+        assertTrue(outerSrc.endsWith("}\n"));
+
+        // Translating a domain without Outer into the same sink must remove
+        // its source file.
+
+        new JavaTranslator().translate(
+                environment(genericModel(
+                        "Inner",
+                        "T",
+                        new Attribute("value", new ParameterType("T"))
+                )),
+                TEST_DOMAIN,
+                null,
+                sink
+        );
+
+        assertFalse(sink.exists("test/domain/Outer.java"));
+        assertTrue(sink.exists("test/domain/Inner.java"));
+    }
+
+    private static Environment batchEnvironment() {
+        List<Domain> domains = new ArrayList<>();
+
+        for (String domainName : Arrays.asList("batch.a", "batch.b")) {
+            domains.add(domain(
+                    domainName,
+                    model("First", attribute("flag", "Bit")),
+                    model("Second", attribute("first", "First"))
+            ));
+        }
+
+        return environment(domains.toArray(new Domain[0]));
+    }
+
+    @Test
+    public void testBatchTranslation()
+            throws ConfigurationException, TranslationException {
+        MemoryOutputSink batchSink = new MemoryOutputSink();
+        MemoryOutputSink singleSink = new MemoryOutputSink();
+
+        new JavaTranslator().translate(
+                batchEnvironment(),
+                Arrays.asList("batch.b", "batch.a"),
+                null,
+                batchSink
+        );
+
+        for (String domainName : Arrays.asList("batch.a", "batch.b")) {
+            new JavaTranslator().translate(
+                    batchEnvironment(),
+                    domainName,
+                    null,
+                    singleSink
+            );
+        }
+
+        // Translating the domains at once must result in exactly the same
+        // output as translating them one after another.
+
+        assertEquals(5, batchSink.getNames().size());
+        assertEquals(singleSink.getNames(), batchSink.getNames());
+
+        for (String name : batchSink.getNames()) {
+            assertArrayEquals(
+                    singleSink.getContent(name).orElse(null),
+                    batchSink.getContent(name).orElse(null),
+                    name
+            );
+        }
+    }
+
+    @Test
+    public void testConcurrentTranslationsToSharedDirectory(
+            @TempDir Path outputDirectory
+    ) throws Exception {
+        Environment environment = batchEnvironment();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Each round translates both domains concurrently, like two jobs
+            // of a translation executor that share the output directory. If
+            // the manifest was not guarded, one of the translations would
+            // drop the entries of the other one every now and then.
+
+            for (int round = 0; round < 20; round++) {
+                List<Future<?>> futures = new ArrayList<>();
+
+                for (String domainName : Arrays.asList("batch.a", "batch.b")) {
+                    futures.add(executor.submit(() -> {
+                        new JavaTranslator().translate(
+                                environment,
+                                domainName,
+                                config(outputDirectory, 1)
+                        );
+
+                        return null;
+                    }));
+                }
+
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+
+                Manifest manifest;
+
+                try (InputStream src = Files.newInputStream(
+                        outputDirectory.resolve(
+                                JavaTranslator.MANIFEST_FILE_NAME
+                        )
+                )) {
+                    manifest = Manifest.read(src);
+                }
+
+                assertEquals(2, manifest.getEntries("batch.a").size());
+                assertEquals(2, manifest.getEntries("batch.b").size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBatchWithUnknownDomain() {
+        MemoryOutputSink sink = new MemoryOutputSink();
+
+        assertThrows(
+                TranslationException.class,
+                () -> new JavaTranslator().translate(
+                        batchEnvironment(),
+                        Arrays.asList("batch.a", "unknown.domain"),
+                        null,
+                        sink
+                )
+        );
+
+        assertTrue(sink.getNames().isEmpty());
+    }
+
+    @Test
+    public void testUnknownDomain(@TempDir Path outputDirectory) {
+        assertThrows(TranslationException.class, () ->
+                new JavaTranslator().translate(
+                        sampleEnvironment("other"),
+                        "unknown.domain",
+                        config(outputDirectory)
+                )
+        );
+    }
+}
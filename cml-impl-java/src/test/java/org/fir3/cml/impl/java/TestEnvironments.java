@@ -0,0 +1,96 @@
+package org.fir3.cml.impl.java;
+
+import org.fir3.cml.api.model.*;
+
+import java.util.*;
+
+public final class TestEnvironments {
+    public static final String BUILTIN_DOMAIN = "org.fir3.cml.__builtin__";
+    public static final String TEST_DOMAIN = "test.domain";
+
+    // Every environment contains the built-in domain, so it is built once
+
+    private static final Domain BUILTIN = new Domain(
+            BUILTIN_DOMAIN,
+            EnumSet.of(Domain.Flag.Ubiquitous),
+            new HashSet<>(Arrays.asList(
+                    new Model(
+                            "Bit",
+                            EnumSet.of(Model.Flag.Builtin),
+                            Collections.emptyList(),
+                            Collections.emptySet()
+                    ),
+                    new Model(
+                            "Sequence",
+                            EnumSet.of(Model.Flag.Builtin),
+                            Collections.singletonList(
+                                    new TypeParameter("ElementType")
+                            ),
+                            Collections.emptySet()
+                    )
+            ))
+    );
+
+    public static Model model(String name, Attribute... attributes) {
+        return new Model(
+                name,
+                EnumSet.noneOf(Model.Flag.class),
+                Collections.emptyList(),
+                new HashSet<>(Arrays.asList(attributes))
+        );
+    }
+
+    public static Model genericModel(
+            String name,
+            String typeParameter,
+            Attribute... attributes
+    ) {
+        return new Model(
+                name,
+                EnumSet.noneOf(Model.Flag.class),
+                Collections.singletonList(new TypeParameter(typeParameter)),
+                new HashSet<>(Arrays.asList(attributes))
+        );
+    }
+
+    public static Attribute attribute(String name, String typeName) {
+        return new Attribute(
+                name,
+                new ModelType(typeName, Collections.emptyList())
+        );
+    }
+
+    public static Attribute attribute(
+            String name,
+            String typeName,
+            Type... typeParameters
+    ) {
+        return new Attribute(
+                name,
+                new ModelType(typeName, Arrays.asList(typeParameters))
+        );
+    }
+
+    public static Domain domain(String name, Model... models) {
+        return new Domain(
+                name,
+                EnumSet.noneOf(Domain.Flag.class),
+                new HashSet<>(Arrays.asList(models))
+        );
+    }
+
+    public static Environment environment(Domain... domains) {
+        Set<Domain> allDomains = new HashSet<>(Arrays.asList(domains));
+        allDomains.add(BUILTIN);
+
+        return new Environment(allDomains);
+    }
+
+    public static Environment environment(Model... models) {
+        return environment(domain(TEST_DOMAIN, models));
+    }
+
+    private TestEnvironments() {
+        throw new IllegalStateException("Do not instantiate this class");
+    }
+}
@@ -0,0 +1,60 @@
+package org.fir3.cml.impl.java.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigurationReaderTest {
+    private static Configuration read(String json) throws IOException {
+        return ConfigurationReader.getInstance().read(new ByteArrayInputStream(
+                json.getBytes(StandardCharsets.UTF_8)
+        ));
+    }
+
+    @Test
+    public void testAllOptions() throws IOException {
+        Configuration config = read(
+                "{\"outputDirectory\": \"out\", \"incremental\": false, " +
+                        "\"parallelism\": 3}"
+        );
+
+        assertEquals("out", config.getOutputDirectory());
+        assertFalse(config.isIncremental());
+        assertEquals(3, config.getParallelism());
+    }
+
+    @Test
+    public void testDefaults() throws IOException {
+        for (String json : new String[] { "", "null", "{}" }) {
+            Configuration config = read(json);
+
+            assertEquals(".", config.getOutputDirectory(), json);
+            assertTrue(config.isIncremental(), json);
+            assertEquals(0, config.getParallelism(), json);
+        }
+    }
+
+    @Test
+    public void testInvalidValues() {
+        String[] invalidConfigs = {
+                "{\"parallelism\": -1}",
+                "{\"parallelism\": 1.5}",
+                "{\"parallelism\": \"many\"}",
+                "{\"incremental\": \"yes\"}",
+                "{\"outputDirectory\": \"\"}",
+                "{\"outputDirectory\": null}",
+                "{\"unknownOption\": 1}",
+                "{\"parallelism\": 1} {}",
+                "[]",
+                "{"
+        };
+
+        for (String json : invalidConfigs) {
+            assertThrows(IOException.class, () -> read(json), json);
+        }
+    }
+}
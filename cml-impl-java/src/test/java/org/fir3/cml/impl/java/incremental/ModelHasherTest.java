@@ -0,0 +1,110 @@
+package org.fir3.cml.impl.java.incremental;
+
+import org.fir3.cml.api.exception.TranslationException;
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.api.model.Model;
+import org.junit.jupiter.api.Test;
+
+import static org.fir3.cml.impl.java.TestEnvironments.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ModelHasherTest {
+    private static String hash(Environment environment, String modelName)
+            throws TranslationException {
+        Domain domain = environment.resolveDomain(TEST_DOMAIN).orElse(null);
+        assertNotNull(domain);
+
+        Model model = domain.resolveModel(modelName).orElse(null);
+        assertNotNull(model);
+
+        return new ModelHasher(environment, "salt").hash(domain, model);
+    }
+
+    @Test
+    public void testStability() throws TranslationException {
+        Environment env1 = environment(
+                model("A", attribute("x", "Bit"), attribute("y", "Bit"))
+        );
+
+        Environment env2 = environment(
+                model("A", attribute("y", "Bit"), attribute("x", "Bit"))
+        );
+
+        assertEquals(hash(env1, "A"), hash(env2, "A"));
+    }
+
+    @Test
+    public void testTransitiveDependencies() throws TranslationException {
+        Environment env1 = environment(
+                model("A", attribute("b", "B")),
+                model("B", attribute("c", "C")),
+                model("C", attribute("x", "Bit")),
+                model("Unrelated", attribute("x", "Bit"))
+        );
+
+        Environment env2 = environment(
+                model("A", attribute("b", "B")),
+                model("B", attribute("c", "C")),
+                model("C", attribute("z", "Bit")),
+                model("Unrelated", attribute("x", "Bit"))
+        );
+
+        assertNotEquals(hash(env1, "A"), hash(env2, "A"));
+        assertNotEquals(hash(env1, "B"), hash(env2, "B"));
+        assertEquals(hash(env1, "Unrelated"), hash(env2, "Unrelated"));
+    }
+
+    @Test
+    public void testCyclicDependencies() throws TranslationException {
+        Environment env = environment(
+                model("A", attribute("b", "B")),
+                model("B", attribute("a", "A"))
+        );
+
+        assertNotEquals(hash(env, "A"), hash(env, "B"));
+    }
+
+    @Test
+    public void testCachedDependencies() throws TranslationException {
+        Environment env = environment(
+                model("A", attribute("b", "B"), attribute("c", "C")),
+                model("B", attribute("c", "C")),
+                model("C", attribute("a", "A"), attribute("x", "Bit"))
+        );
+
+        Domain domain = env.resolveDomain(TEST_DOMAIN).orElse(null);
+        assertNotNull(domain);
+
+        Model a = domain.resolveModel("A").orElse(null);
+        Model b = domain.resolveModel("B").orElse(null);
+        assertNotNull(a);
+        assertNotNull(b);
+
+        // Hashing a model after its dependencies have been cached must yield
+        // the same hash as hashing it first.
+
+        ModelHasher hasher = new ModelHasher(env, "salt");
+        String hashB = hasher.hash(domain, b);
+        String hashA = hasher.hash(domain, a);
+
+        assertEquals(hash(env, "A"), hashA);
+        assertEquals(hash(env, "B"), hashB);
+        assertEquals(hashA, hasher.hash(domain, a));
+    }
+
+    @Test
+    public void testSalt() throws TranslationException {
+        Environment env = environment(model("A", attribute("x", "Bit")));
+        Domain domain = env.resolveDomain(TEST_DOMAIN).orElse(null);
+        assertNotNull(domain);
+
+        Model model = domain.resolveModel("A").orElse(null);
+        assertNotNull(model);
+
+        assertNotEquals(
+                new ModelHasher(env, "1").hash(domain, model),
+                new ModelHasher(env, "2").hash(domain, model)
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package org.fir3.cml.runtime;
+
+/**
+ * The order, in which the bits of a field are stored in a sequence of bytes.
+ */
+public enum BitOrder {
+    /**
+     * The bits of each byte are numbered from the most significant to the
+     * least significant one, and the most significant bit of a field comes
+     * first. A field that starts and ends at byte boundaries is therefore
+     * stored in big-endian byte order.
+     */
+    BigEndian,
+
+    /**
+     * The bits of each byte are numbered from the least significant to the
+     * most significant one, and the least significant bit of a field comes
+     * first. A field that starts and ends at byte boundaries is therefore
+     * stored in little-endian byte order.
+     */
+    LittleEndian
+}
@@ -0,0 +1,330 @@
+package org.fir3.cml.runtime;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Reads fields of 1 to 64 bits from arbitrary bit offsets of a sequence of
+ * bytes.
+ *
+ * <p>
+ *     A field is read with a single 64-bit load of the bytes that it starts
+ *     in, plus a single byte load, if it extends beyond them. Only fields
+ *     within the last 8 bytes of the sequence are assembled byte by byte.
+ *     Reading does not allocate any memory.
+ * </p>
+ *
+ * <p>
+ *     The reader covers the bytes between the position and the limit of the
+ *     buffer at the time the reader was created. Changing the position or
+ *     the limit of the buffer afterwards does not affect the reader, but
+ *     changing its content does.
+ * </p>
+ *
+ * <p>
+ *     Instances of this class are not safe for concurrent use.
+ * </p>
+ */
+public final class BitReader {
+    private final ByteBuffer buffer;
+    private final BitOrder order;
+    private final int offset;
+    private final int length;
+    private final long limit;
+    private long position;
+
+    /**
+     * Initializes a new instance of <code>BitReader</code> that reads from
+     * the specified <code>array</code> in {@link BitOrder#BigEndian} order.
+     *
+     * @param array The bytes that will be read.
+     * @throws NullPointerException If <code>array</code> is
+     *                              <code>null</code>.
+     */
+    public BitReader(byte[] array) {
+        this(array, BitOrder.BigEndian);
+    }
+
+    /**
+     * Initializes a new instance of <code>BitReader</code> that reads from
+     * the specified <code>array</code>.
+     *
+     * @param array The bytes that will be read.
+     * @param order The order of the bits.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     */
+    public BitReader(byte[] array, BitOrder order) {
+        this(ByteBuffer.wrap(
+                Objects.requireNonNull(array, "array is null")
+        ), order);
+    }
+
+    /**
+     * Initializes a new instance of <code>BitReader</code> that reads the
+     * remaining bytes of the specified <code>buffer</code>.
+     *
+     * @param buffer    The buffer that will be read.
+     * @param order     The order of the bits.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     */
+    public BitReader(ByteBuffer buffer, BitOrder order) {
+        Objects.requireNonNull(buffer, "buffer is null");
+        Objects.requireNonNull(order, "order is null");
+
+        this.buffer = buffer.duplicate().order(order == BitOrder.BigEndian
+                ? ByteOrder.BIG_ENDIAN
+                : ByteOrder.LITTLE_ENDIAN);
+
+        this.order = order;
+        this.offset = buffer.position();
+        this.length = buffer.remaining();
+        this.limit = (long) this.length << 3;
+    }
+
+    /**
+     * Returns the order of the bits that this reader reads.
+     *
+     * @return  The order of the bits.
+     */
+    public BitOrder getOrder() {
+        return this.order;
+    }
+
+    /**
+     * Returns the number of bits that this reader covers.
+     *
+     * @return  The number of bits.
+     */
+    public long getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Returns the offset of the bit that the next relative read starts at.
+     *
+     * @return  The current bit offset.
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Sets the offset of the bit that the next relative read starts at.
+     *
+     * @param position  The new bit offset.
+     * @throws IndexOutOfBoundsException    If <code>position</code> is
+     *                                      negative or greater than the
+     *                                      limit.
+     */
+    public void setPosition(long position) {
+        if (position < 0 || position > this.limit) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Position %d is outside of [0, %d]",
+                    position,
+                    this.limit
+            ));
+        }
+
+        this.position = position;
+    }
+
+    /**
+     * Returns the number of bits between the current position and the limit.
+     *
+     * @return  The number of remaining bits.
+     */
+    public long getRemaining() {
+        return this.limit - this.position;
+    }
+
+    /**
+     * Reads an unsigned field of the specified number of <code>bits</code> at
+     * the current position and advances the position past it.
+     *
+     * @param bits  The width of the field, between <code>1</code> and
+     *              <code>64</code>.
+     *
+     * @return  The value of the field, whose bits above the field's width
+     *          are zero.
+     *
+     * @throws IllegalArgumentException If <code>bits</code> is out of range.
+     * @throws BufferUnderflowException If fewer than <code>bits</code> bits
+     *                                  remain.
+     */
+    public long read(int bits) {
+        if (bits > this.limit - this.position) {
+            BitReader.checkWidth(bits);
+            throw new BufferUnderflowException();
+        }
+
+        long value = this.read(this.position, bits);
+        this.position += bits;
+
+        return value;
+    }
+
+    /**
+     * Reads a signed field of the specified number of <code>bits</code> at
+     * the current position and advances the position past it.
+     *
+     * @param bits  The width of the field, between <code>1</code> and
+     *              <code>64</code>.
+     *
+     * @return  The value of the field, whose most significant bit is
+     *          extended to the bits above the field's width.
+     *
+     * @throws IllegalArgumentException If <code>bits</code> is out of range.
+     * @throws BufferUnderflowException If fewer than <code>bits</code> bits
+     *                                  remain.
+     */
+    public long readSigned(int bits) {
+        return (this.read(bits) << (64 - bits)) >> (64 - bits);
+    }
+
+    /**
+     * Reads a single bit at the current position and advances the position
+     * past it.
+     *
+     * @return  Either <code>true</code>, if the bit is set, otherwise
+     *          <code>false</code>.
+     *
+     * @throws BufferUnderflowException If no bits remain.
+     */
+    public boolean readBoolean() {
+        return this.read(1) != 0;
+    }
+
+    /**
+     * Reads an unsigned field of the specified number of <code>bits</code>,
+     * which starts at the specified <code>bitOffset</code>. The position of
+     * this reader is not changed.
+     *
+     * @param bitOffset The offset of the field's first bit.
+     * @param bits      The width of the field, between <code>1</code> and
+     *                  <code>64</code>.
+     *
+     * @return  The value of the field, whose bits above the field's width
+     *          are zero.
+     *
+     * @throws IllegalArgumentException     If <code>bits</code> is out of
+     *                                      range.
+     *
+     * @throws IndexOutOfBoundsException    If the field does not lie within
+     *                                      the limit.
+     */
+    public long read(long bitOffset, int bits) {
+        BitReader.checkWidth(bits);
+
+        if (bitOffset < 0 || bitOffset > this.limit - bits) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Field [%d, %d) is outside of [0, %d)",
+                    bitOffset,
+                    bitOffset + bits,
+                    this.limit
+            ));
+        }
+
+        int byteIndex = (int) (bitOffset >>> 3);
+        int shift = (int) bitOffset & 7;
+
+        // The 64-bit load must not exceed the limit, thus the last few bytes
+        // are assembled one at a time.
+
+        if (byteIndex > this.length - 8) {
+            return this.order == BitOrder.BigEndian
+                    ? this.readBigEndianBytes(byteIndex, shift, bits)
+                    : this.readLittleEndianBytes(byteIndex, shift, bits);
+        }
+
+        long word = this.buffer.getLong(this.offset + byteIndex);
+        int overflow = shift + bits - 64;
+
+        if (this.order == BitOrder.BigEndian) {
+            long value = (word << shift) >>> (64 - bits);
+
+            if (overflow > 0) {
+                value |= this.getByte(byteIndex + 8) >>> (8 - overflow);
+            }
+
+            return value;
+        }
+
+        long value = word >>> shift;
+
+        if (overflow > 0) {
+            value |= (long) this.getByte(byteIndex + 8) << (64 - shift);
+        }
+
+        return value & BitReader.mask(bits);
+    }
+
+    private long readBigEndianBytes(int byteIndex, int shift, int bits) {
+        long value = 0;
+
+        while (bits > 0) {
+            int count = Math.min(8 - shift, bits);
+            int chunk = this.getByte(byteIndex++) >>> (8 - shift - count);
+
+            value = (value << count) | (chunk & ((1 << count) - 1));
+            bits -= count;
+            shift = 0;
+        }
+
+        return value;
+    }
+
+    private long readLittleEndianBytes(int byteIndex, int shift, int bits) {
+        long value = 0;
+        int done = 0;
+
+        while (done < bits) {
+            int count = Math.min(8 - shift, bits - done);
+            int chunk = this.getByte(byteIndex++) >>> shift;
+
+            value |= (long) (chunk & ((1 << count) - 1)) << done;
+            done += count;
+            shift = 0;
+        }
+
+        return value;
+    }
+
+    private int getByte(int byteIndex) {
+        return this.buffer.get(this.offset + byteIndex) & 0xFF;
+    }
+
+    /**
+     * Validates the width of a field.
+     *
+     * @param bits  The width of the field.
+     * @throws IllegalArgumentException If <code>bits</code> is not between
+     *                                  <code>1</code> and <code>64</code>.
+     */
+    static void checkWidth(int bits) {
+        if (bits < 1 || bits > 64) {
+            throw new IllegalArgumentException(String.format(
+                    "Field width %d is outside of [1, 64]",
+                    bits
+            ));
+        }
+    }
+
+    /**
+     * Returns a mask of the specified number of least significant
+     * <code>bits</code>.
+     *
+     * @param bits  The number of bits, between <code>1</code> and
+     *              <code>64</code>.
+     *
+     * @return  The mask.
+     */
+    static long mask(int bits) {
+        return -1L >>> (64 - bits);
+    }
+}
@@ -0,0 +1,383 @@
+package org.fir3.cml.runtime;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Writes fields of 1 to 64 bits to arbitrary bit offsets of a sequence of
+ * bytes.
+ *
+ * <p>
+ *     A field is written by a single 64-bit read-modify-write of the bytes
+ *     that it starts in, plus a second one, if it extends beyond them. Only
+ *     fields within the last 8 bytes of the sequence are written byte by
+ *     byte. The bits around a field are preserved. Writing does not allocate
+ *     any memory.
+ * </p>
+ *
+ * <p>
+ *     The writer covers the bytes between the position and the limit of the
+ *     buffer at the time the writer was created. Changing the position or
+ *     the limit of the buffer afterwards does not affect the writer.
+ * </p>
+ *
+ * <p>
+ *     Instances of this class are not safe for concurrent use.
+ * </p>
+ */
+public final class BitWriter {
+    private final ByteBuffer buffer;
+    private final BitOrder order;
+    private final int offset;
+    private final int length;
+    private final long limit;
+    private long position;
+
+    /**
+     * Initializes a new instance of <code>BitWriter</code> that writes to
+     * the specified <code>array</code> in {@link BitOrder#BigEndian} order.
+     *
+     * @param array The bytes that will be written.
+     * @throws NullPointerException If <code>array</code> is
+     *                              <code>null</code>.
+     */
+    public BitWriter(byte[] array) {
+        this(array, BitOrder.BigEndian);
+    }
+
+    /**
+     * Initializes a new instance of <code>BitWriter</code> that writes to
+     * the specified <code>array</code>.
+     *
+     * @param array The bytes that will be written.
+     * @param order The order of the bits.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     */
+    public BitWriter(byte[] array, BitOrder order) {
+        this(ByteBuffer.wrap(
+                Objects.requireNonNull(array, "array is null")
+        ), order);
+    }
+
+    /**
+     * Initializes a new instance of <code>BitWriter</code> that writes to the
+     * remaining bytes of the specified <code>buffer</code>.
+     *
+     * @param buffer    The buffer that will be written.
+     * @param order     The order of the bits.
+     *
+     * @throws NullPointerException     If any of the parameters is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>buffer</code> is read-only.
+     */
+    public BitWriter(ByteBuffer buffer, BitOrder order) {
+        Objects.requireNonNull(buffer, "buffer is null");
+        Objects.requireNonNull(order, "order is null");
+
+        if (buffer.isReadOnly()) {
+            throw new IllegalArgumentException("buffer is read-only");
+        }
+
+        this.buffer = buffer.duplicate().order(order == BitOrder.BigEndian
+                ? ByteOrder.BIG_ENDIAN
+                : ByteOrder.LITTLE_ENDIAN);
+
+        this.order = order;
+        this.offset = buffer.position();
+        this.length = buffer.remaining();
+        this.limit = (long) this.length << 3;
+    }
+
+    /**
+     * Returns the order of the bits that this writer writes.
+     *
+     * @return  The order of the bits.
+     */
+    public BitOrder getOrder() {
+        return this.order;
+    }
+
+    /**
+     * Returns the number of bits that this writer covers.
+     *
+     * @return  The number of bits.
+     */
+    public long getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Returns the offset of the bit that the next relative write starts at.
+     *
+     * @return  The current bit offset.
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Sets the offset of the bit that the next relative write starts at.
+     *
+     * @param position  The new bit offset.
+     * @throws IndexOutOfBoundsException    If <code>position</code> is
+     *                                      negative or greater than the
+     *                                      limit.
+     */
+    public void setPosition(long position) {
+        if (position < 0 || position > this.limit) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Position %d is outside of [0, %d]",
+                    position,
+                    this.limit
+            ));
+        }
+
+        this.position = position;
+    }
+
+    /**
+     * Returns the number of bits between the current position and the limit.
+     *
+     * @return  The number of remaining bits.
+     */
+    public long getRemaining() {
+        return this.limit - this.position;
+    }
+
+    /**
+     * Writes the specified number of least significant <code>bits</code> of
+     * the specified <code>value</code> at the current position and advances
+     * the position past them.
+     *
+     * @param bits  The width of the field, between <code>1</code> and
+     *              <code>64</code>.
+     *
+     * @param value The value of the field. Bits above the field's width are
+     *              ignored.
+     *
+     * @throws IllegalArgumentException If <code>bits</code> is out of range.
+     * @throws BufferOverflowException  If fewer than <code>bits</code> bits
+     *                                  remain.
+     */
+    public void write(int bits, long value) {
+        if (bits > this.limit - this.position) {
+            BitReader.checkWidth(bits);
+            throw new BufferOverflowException();
+        }
+
+        this.write(this.position, bits, value);
+        this.position += bits;
+    }
+
+    /**
+     * Writes a single bit at the current position and advances the position
+     * past it.
+     *
+     * @param value Whether the bit is set.
+     * @throws BufferOverflowException  If no bits remain.
+     */
+    public void writeBoolean(boolean value) {
+        this.write(1, value ? 1 : 0);
+    }
+
+    /**
+     * Writes the specified number of least significant <code>bits</code> of
+     * the specified <code>value</code> at the specified
+     * <code>bitOffset</code>. The position of this writer is not changed.
+     *
+     * @param bitOffset The offset of the field's first bit.
+     * @param bits      The width of the field, between <code>1</code> and
+     *                  <code>64</code>.
+     *
+     * @param value     The value of the field. Bits above the field's width
+     *                  are ignored.
+     *
+     * @throws IllegalArgumentException     If <code>bits</code> is out of
+     *                                      range.
+     *
+     * @throws IndexOutOfBoundsException    If the field does not lie within
+     *                                      the limit.
+     */
+    public void write(long bitOffset, int bits, long value) {
+        BitReader.checkWidth(bits);
+
+        if (bitOffset < 0 || bitOffset > this.limit - bits) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Field [%d, %d) is outside of [0, %d)",
+                    bitOffset,
+                    bitOffset + bits,
+                    this.limit
+            ));
+        }
+
+        int shift = (int) bitOffset & 7;
+        int overflow = shift + bits - 64;
+
+        // A field that does not fit into the 64-bit word of its first byte is
+        // split into the part that does and the rest.
+
+        if (overflow > 0) {
+            int head = bits - overflow;
+
+            if (this.order == BitOrder.BigEndian) {
+                this.writeWord(bitOffset, head, value >>> overflow);
+                this.writeWord(bitOffset + head, overflow, value);
+            } else {
+                this.writeWord(bitOffset, head, value);
+                this.writeWord(bitOffset + head, overflow, value >>> head);
+            }
+
+            return;
+        }
+
+        this.writeWord(bitOffset, bits, value);
+    }
+
+    /**
+     * Copies the specified number of <code>bits</code> from the current
+     * position of the specified <code>source</code> to the current position
+     * of this writer and advances both positions past them.
+     *
+     * <p>
+     *     The bits are copied in fields of 64 bits, regardless of the
+     *     alignment of both positions.
+     * </p>
+     *
+     * @param source    The reader that the bits are copied from.
+     * @param bits      The number of bits.
+     *
+     * @throws NullPointerException     If <code>source</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>bits</code> is negative or
+     *                                  if the bit order of
+     *                                  <code>source</code> differs from the
+     *                                  order of this writer.
+     *
+     * @throws BufferUnderflowException If fewer than <code>bits</code> bits
+     *                                  remain in <code>source</code>.
+     *
+     * @throws BufferOverflowException  If fewer than <code>bits</code> bits
+     *                                  remain in this writer.
+     */
+    public void copy(BitReader source, long bits) {
+        Objects.requireNonNull(source, "source is null");
+
+        if (bits < 0) {
+            throw new IllegalArgumentException("bits is negative");
+        }
+
+        if (source.getOrder() != this.order) {
+            throw new IllegalArgumentException(
+                    "source has a different bit order"
+            );
+        }
+
+        if (bits > source.getRemaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        if (bits > this.getRemaining()) {
+            throw new BufferOverflowException();
+        }
+
+        while (bits >= 64) {
+            this.write(64, source.read(64));
+            bits -= 64;
+        }
+
+        if (bits > 0) {
+            this.write((int) bits, source.read((int) bits));
+        }
+    }
+
+    private void writeWord(long bitOffset, int bits, long value) {
+        int byteIndex = (int) (bitOffset >>> 3);
+        int shift = (int) bitOffset & 7;
+
+        // The 64-bit store must not exceed the limit, thus the last few bytes
+        // are written one at a time.
+
+        if (byteIndex > this.length - 8) {
+            if (this.order == BitOrder.BigEndian) {
+                this.writeBigEndianBytes(byteIndex, shift, bits, value);
+            } else {
+                this.writeLittleEndianBytes(byteIndex, shift, bits, value);
+            }
+
+            return;
+        }
+
+        int index = this.offset + byteIndex;
+        long word = this.buffer.getLong(index);
+        long mask;
+
+        if (this.order == BitOrder.BigEndian) {
+            int lowBits = 64 - shift - bits;
+
+            mask = BitReader.mask(bits) << lowBits;
+            value <<= lowBits;
+        } else {
+            mask = BitReader.mask(bits) << shift;
+            value <<= shift;
+        }
+
+        this.buffer.putLong(index, (word & ~mask) | (value & mask));
+    }
+
+    private void writeBigEndianBytes(
+            int byteIndex,
+            int shift,
+            int bits,
+            long value
+    ) {
+        while (bits > 0) {
+            int count = Math.min(8 - shift, bits);
+            int lowBits = 8 - shift - count;
+            int mask = ((1 << count) - 1) << lowBits;
+            int chunk = (int) (value >>> (bits - count)) << lowBits;
+
+            this.putByte(byteIndex, (this.getByte(byteIndex) & ~mask) |
+                    (chunk & mask));
+
+            byteIndex++;
+            bits -= count;
+            shift = 0;
+        }
+    }
+
+    private void writeLittleEndianBytes(
+            int byteIndex,
+            int shift,
+            int bits,
+            long value
+    ) {
+        while (bits > 0) {
+            int count = Math.min(8 - shift, bits);
+            int mask = ((1 << count) - 1) << shift;
+            int chunk = (int) value << shift;
+
+            this.putByte(byteIndex, (this.getByte(byteIndex) & ~mask) |
+                    (chunk & mask));
+
+            byteIndex++;
+            value >>>= count;
+            bits -= count;
+            shift = 0;
+        }
+    }
+
+    private int getByte(int byteIndex) {
+        return this.buffer.get(this.offset + byteIndex) & 0xFF;
+    }
+
+    private void putByte(int byteIndex, int value) {
+        this.buffer.put(this.offset + byteIndex, (byte) value);
+    }
+}
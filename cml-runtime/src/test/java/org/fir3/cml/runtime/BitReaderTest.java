@@ -0,0 +1,125 @@
+package org.fir3.cml.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitReaderTest {
+    /**
+     * Reads a field one bit at a time, which is the reference that the word
+     * based implementation is compared with.
+     */
+    static long readNaive(
+            byte[] array,
+            BitOrder order,
+            long bitOffset,
+            int bits
+    ) {
+        long value = 0;
+
+        for (int index = 0; index < bits; index++) {
+            long offset = bitOffset + index;
+            int currentByte = array[(int) (offset >>> 3)] & 0xFF;
+
+            if (order == BitOrder.BigEndian) {
+                long bit = (currentByte >>> (7 - (offset & 7))) & 1;
+                value = (value << 1) | bit;
+            } else {
+                long bit = (currentByte >>> (offset & 7)) & 1;
+                value |= bit << index;
+            }
+        }
+
+        return value;
+    }
+
+    @Test
+    public void testRandomFields() {
+        Random random = new Random(42);
+        byte[] array = new byte[67];
+        random.nextBytes(array);
+
+        for (BitOrder order : BitOrder.values()) {
+            BitReader reader = new BitReader(array, order);
+
+            for (int index = 0; index < 10000; index++) {
+                int bits = 1 + random.nextInt(64);
+                long offset = random.nextInt((int) (reader.getLimit() - bits));
+
+                assertEquals(
+                        readNaive(array, order, offset, bits),
+                        reader.read(offset, bits),
+                        String.format("%s [%d, %d)", order, offset, bits)
+                );
+            }
+        }
+    }
+
+    @Test
+    public void testSequentialRead() {
+        byte[] array = { (byte) 0b1011_1101, (byte) 0xFF, 0x01 };
+        BitReader bigEndian = new BitReader(array);
+
+        assertTrue(bigEndian.readBoolean());
+        assertEquals(0b011, bigEndian.read(3));
+        assertEquals(-2, bigEndian.readSigned(3));
+        assertEquals(0x1FF, bigEndian.read(9));
+        assertEquals(8, bigEndian.getRemaining());
+
+        BitReader littleEndian = new BitReader(array, BitOrder.LittleEndian);
+
+        assertTrue(littleEndian.readBoolean());
+        assertEquals(0b110, littleEndian.read(3));
+        assertEquals(0xFFB, littleEndian.read(12));
+        assertEquals(0x01, littleEndian.read(8));
+
+        assertThrows(BufferUnderflowException.class, () -> bigEndian.read(9));
+        assertEquals(1, bigEndian.read(8));
+        assertEquals(0, bigEndian.getRemaining());
+    }
+
+    @Test
+    public void testBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+
+        for (int index = 0; index < 16; index++) {
+            buffer.put((byte) index);
+        }
+
+        buffer.position(4);
+        buffer.limit(14);
+
+        BitReader reader = new BitReader(buffer, BitOrder.BigEndian);
+
+        assertEquals(80, reader.getLimit());
+        assertEquals(0x0405060708090A0BL, reader.read(64));
+        assertEquals(0x0C0D, reader.read(16));
+        assertEquals(4, buffer.position());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        BitReader reader = new BitReader(new byte[4]);
+
+        assertThrows(IllegalArgumentException.class, () -> reader.read(0));
+        assertThrows(IllegalArgumentException.class, () -> reader.read(65));
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> reader.read(25, 8)
+        );
+
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> reader.read(-1, 8)
+        );
+
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> reader.setPosition(33)
+        );
+    }
+}
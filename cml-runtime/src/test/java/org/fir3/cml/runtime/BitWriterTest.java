@@ -0,0 +1,152 @@
+package org.fir3.cml.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitWriterTest {
+    private static void writeNaive(
+            byte[] array,
+            BitOrder order,
+            long bitOffset,
+            int bits,
+            long value
+    ) {
+        for (int index = 0; index < bits; index++) {
+            long offset = bitOffset + index;
+            int byteIndex = (int) (offset >>> 3);
+            int bit;
+            int shift;
+
+            if (order == BitOrder.BigEndian) {
+                bit = (int) (value >>> (bits - 1 - index)) & 1;
+                shift = 7 - (int) (offset & 7);
+            } else {
+                bit = (int) (value >>> index) & 1;
+                shift = (int) (offset & 7);
+            }
+
+            array[byteIndex] = (byte) ((array[byteIndex] & ~(1 << shift)) |
+                    (bit << shift));
+        }
+    }
+
+    @Test
+    public void testRandomFields() {
+        Random random = new Random(42);
+
+        for (BitOrder order : BitOrder.values()) {
+            byte[] expected = new byte[67];
+            random.nextBytes(expected);
+
+            byte[] actual = expected.clone();
+            BitWriter writer = new BitWriter(actual, order);
+
+            for (int index = 0; index < 10000; index++) {
+                int bits = 1 + random.nextInt(64);
+                long offset = random.nextInt((int) (writer.getLimit() - bits));
+                long value = random.nextLong();
+
+                writeNaive(expected, order, offset, bits, value);
+                writer.write(offset, bits, value);
+
+                assertArrayEquals(
+                        expected,
+                        actual,
+                        String.format("%s [%d, %d)", order, offset, bits)
+                );
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        for (BitOrder order : BitOrder.values()) {
+            byte[] array = new byte[9];
+            BitWriter writer = new BitWriter(array, order);
+
+            writer.writeBoolean(true);
+            writer.write(5, -3);
+            writer.write(64, 0x0123456789ABCDEFL);
+            writer.write(2, 2);
+
+            assertEquals(0, writer.getRemaining());
+            assertThrows(
+                    BufferOverflowException.class,
+                    () -> writer.write(1, 0)
+            );
+
+            BitReader reader = new BitReader(array, order);
+
+            assertTrue(reader.readBoolean());
+            assertEquals(-3, reader.readSigned(5));
+            assertEquals(0x0123456789ABCDEFL, reader.read(64));
+            assertEquals(2, reader.read(2));
+        }
+    }
+
+    @Test
+    public void testCopy() {
+        Random random = new Random(42);
+
+        for (BitOrder order : BitOrder.values()) {
+            byte[] source = new byte[40];
+            random.nextBytes(source);
+
+            byte[] target = new byte[40];
+            BitReader reader = new BitReader(source, order);
+            BitWriter writer = new BitWriter(target, order);
+
+            reader.setPosition(3);
+            writer.setPosition(11);
+            writer.copy(reader, 250);
+
+            assertEquals(253, reader.getPosition());
+            assertEquals(261, writer.getPosition());
+
+            for (int index = 0; index < 250; index++) {
+                assertEquals(
+                        BitReaderTest.readNaive(source, order, 3 + index, 1),
+                        BitReaderTest.readNaive(target, order, 11 + index, 1)
+                );
+            }
+
+            assertEquals(0, BitReaderTest.readNaive(target, order, 0, 11));
+            assertEquals(0, BitReaderTest.readNaive(target, order, 261, 59));
+        }
+
+        BitWriter writer = new BitWriter(new byte[8], BitOrder.BigEndian);
+
+        assertThrows(IllegalArgumentException.class, () -> writer.copy(
+                new BitReader(new byte[8], BitOrder.LittleEndian),
+                8
+        ));
+    }
+
+    @Test
+    public void testBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.position(2);
+
+        BitWriter writer = new BitWriter(buffer, BitOrder.LittleEndian);
+        writer.write(64, 0x0807060504030201L);
+        writer.write(16, 0x0A09);
+
+        for (int index = 0; index < 10; index++) {
+            assertEquals(index + 1, buffer.get(index + 2));
+        }
+
+        assertEquals(0, buffer.get(0));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new BitWriter(
+                        buffer.asReadOnlyBuffer(),
+                        BitOrder.BigEndian
+                )
+        );
+    }
+}
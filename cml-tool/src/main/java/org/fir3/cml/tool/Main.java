@@ -1,6 +1,464 @@
 package org.fir3.cml.tool;
 
-public class Main {
+import org.fir3.cml.api.Translator;
+import org.fir3.cml.api.exception.ConfigurationException;
+import org.fir3.cml.api.exception.TranslationException;
+import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.api.model.Model;
+import org.fir3.cml.api.output.DirectoryOutputSink;
+import org.fir3.cml.api.output.MemoryOutputSink;
+import org.fir3.cml.tool.cache.BuildCache;
+import org.fir3.cml.tool.cache.CacheKey;
+import org.fir3.cml.tool.cache.OutputCodec;
+import org.fir3.cml.tool.cli.Options;
+import org.fir3.cml.tool.compiler.Compiler;
+import org.fir3.cml.tool.compiler.Workspace;
+import org.fir3.cml.tool.daemon.Daemon;
+import org.fir3.cml.tool.exception.CommandLineException;
+import org.fir3.cml.tool.lsp.LanguageServer;
+import org.fir3.cml.tool.stats.Phase;
+import org.fir3.cml.tool.stats.Statistics;
+import org.fir3.cml.tool.util.ClassHelper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * The entry point of the CML tool, which compiles CML source files and
+ * translates the resulting domains with one of the available
+ * {@link Translator} implementations.
+ */
+public final class Main {
+    /**
+     * The exit code that indicates a successful translation.
+     */
+    public static final int EXIT_SUCCESS = 0;
+
+    /**
+     * The exit code that indicates that reading, parsing or translating the
+     * sources failed.
+     */
+    public static final int EXIT_FAILURE = 1;
+
+    /**
+     * The exit code that indicates invalid command line arguments.
+     */
+    public static final int EXIT_USAGE = 2;
+
+    private static final Logger LOG = Logger.getLogger(Main.class.getName());
+
     public static void main(String[] args) {
+        System.exit(Main.run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the CML tool with the specified command line <code>args</code>.
+     *
+     * @param args  The command line arguments.
+     * @param out   The stream that regular output is printed to.
+     * @param err   The stream that error messages are printed to.
+     *
+     * @return  The exit code, i.e. either {@link #EXIT_SUCCESS},
+     *          {@link #EXIT_FAILURE} or {@link #EXIT_USAGE}.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        return Main.run(args, System.in, out, err);
+    }
+
+    /**
+     * Runs the CML tool with the specified command line <code>args</code>.
+     *
+     * @param args  The command line arguments.
+     * @param in    The stream that the language server reads from.
+     * @param out   The stream that regular output is printed to.
+     * @param err   The stream that error messages are printed to.
+     *
+     * @return  The exit code, i.e. either {@link #EXIT_SUCCESS},
+     *          {@link #EXIT_FAILURE} or {@link #EXIT_USAGE}.
+     */
+    public static int run(
+            String[] args,
+            InputStream in,
+            PrintStream out,
+            PrintStream err
+    ) {
+        Options options;
+
+        try {
+            options = Options.parse(args);
+        } catch (CommandLineException ex) {
+            err.println("error: " + ex.getMessage());
+            err.println();
+            err.println(Options.USAGE);
+
+            return EXIT_USAGE;
+        }
+
+        if (options.isHelp()) {
+            out.println(Options.USAGE);
+            return EXIT_SUCCESS;
+        }
+
+        if (options.isLsp()) {
+            return Main.runLanguageServer(options, in, out, err);
+        }
+
+        Optional<Translator> translator = Translators.getInstance()
+                .getTranslator(options.getTranslatorName());
+
+        if (!translator.isPresent()) {
+            err.printf(
+                    "error: Unknown translator '%s', available: %s%n",
+                    options.getTranslatorName(),
+                    Translators.getInstance()
+                            .getTranslatorInfos()
+                            .stream()
+                            .map(Translator.Info::name)
+                            .sorted()
+                            .collect(Collectors.joining(", "))
+            );
+
+            return EXIT_USAGE;
+        }
+
+        // The output directory is passed to the translator as output sink,
+        // which translators do not need to support.
+
+        if (options.getOutputDirectory().isPresent() &&
+                !Main.supportsOutputSinks(translator.get())) {
+            err.printf(
+                    "error: Translator '%s' does not support output " +
+                            "directories%n",
+                    options.getTranslatorName()
+            );
+
+            return EXIT_USAGE;
+        }
+
+        if (options.isDaemon()) {
+            return Main.runDaemon(translator.get(), options, out, err);
+        }
+
+        Statistics statistics = options.getStatisticsFormat().isPresent()
+                ? new Statistics()
+                : Statistics.DISABLED;
+
+        int exitCode = Main.run(translator.get(), options, statistics, err);
+
+        // The statistics are printed even if the translation failed, since
+        // they may help to understand why.
+
+        if (options.getStatisticsFormat().isPresent()) {
+            statistics.stop();
+            out.print(options.getStatisticsFormat().get().format(statistics));
+        }
+
+        return exitCode;
+    }
+
+    private static int run(
+            Translator translator,
+            Options options,
+            Statistics statistics,
+            PrintStream err
+    ) {
+        try {
+            BuildCache cache = Main.openCache(options);
+            byte[] config = Main.readConfig(options);
+            String outputKey = null;
+
+            // If the output of the same sources, translator and configuration
+            // is cached already, the sources do not even need to be parsed.
+
+            Environment environment;
+
+            try (Compiler compiler = new Compiler(
+                    options.getJobs(),
+                    statistics,
+                    cache
+            )) {
+                if (cache != null && options.getOutputDirectory().isPresent()) {
+                    outputKey = Main.createOutputKey(
+                            compiler,
+                            translator,
+                            options,
+                            config
+                    );
+
+                    if (Main.restoreOutput(cache, outputKey, options)) {
+                        return EXIT_SUCCESS;
+                    }
+                }
+
+                environment = compiler.compile(options.getInputs());
+            }
+
+            Statistics.Measurement measurement = statistics.measure(
+                    Phase.Translate
+            );
+
+            try {
+                if (outputKey == null) {
+                    Main.translate(translator, environment, options, config);
+                } else {
+                    Main.translate(
+                            translator,
+                            environment,
+                            options,
+                            config,
+                            cache,
+                            outputKey
+                    );
+                }
+            } finally {
+                measurement.stop();
+            }
+
+            statistics.addTranslatedModels(Main.countModels(
+                    environment,
+                    options.getTargetDomains()
+            ));
+        } catch (IOException | ConfigurationException |
+                TranslationException ex) {
+            err.println("error: " + ex.getMessage());
+            return EXIT_FAILURE;
+        }
+
+        return EXIT_SUCCESS;
+    }
+
+    private static int runDaemon(
+            Translator translator,
+            Options options,
+            PrintStream out,
+            PrintStream err
+    ) {
+        // The daemon keeps the compiler and the translator alive, so that the
+        // parsed domains and the JIT-compiled code are reused by every build.
+        // The compiler is closed after the daemon, since the daemon may still
+        // be building until it is closed.
+
+        try (Compiler compiler = new Compiler(
+                     options.getJobs(),
+                     Statistics.DISABLED,
+                     Main.openCache(options)
+             );
+             Daemon daemon = new Daemon(
+                     new Workspace(options.getInputs(), compiler),
+                     translator,
+                     options.getTargetDomains(),
+                     Main.readConfig(options),
+                     options.getOutputDirectory()
+                             .map(DirectoryOutputSink::new)
+                             .orElse(null)
+             )) {
+            int port = daemon.start(options.getPort());
+
+            out.printf(
+                    "Listening on %s:%d%n",
+                    InetAddress.getLoopbackAddress().getHostAddress(),
+                    port
+            );
+
+            out.flush();
+            daemon.awaitStop();
+        } catch (IOException ex) {
+            err.println("error: " + ex.getMessage());
+            return EXIT_FAILURE;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return EXIT_FAILURE;
+        }
+
+        return EXIT_SUCCESS;
+    }
+
+    private static int runLanguageServer(
+            Options options,
+            InputStream in,
+            PrintStream out,
+            PrintStream err
+    ) {
+        // The output stream belongs to the protocol, so nothing else must be
+        // printed to it.
+
+        try {
+            return new LanguageServer(in, out, options.getInputs()).run();
+        } catch (IOException ex) {
+            err.println("error: " + ex.getMessage());
+            return EXIT_FAILURE;
+        }
+    }
+
+    private static boolean supportsOutputSinks(Translator translator) {
+        Translator.Info info = translator.getClass().getAnnotation(
+                Translator.Info.class
+        );
+
+        return info != null && info.supportsOutputSinks();
+    }
+
+    private static long countModels(
+            Environment environment,
+            Collection<String> domainNames
+    ) {
+        return domainNames.stream()
+                .map(environment::resolveDomain)
+                .filter(Optional::isPresent)
+                .flatMap(d -> d.get().getModels().stream())
+                .filter(m -> !m.getFlags().contains(Model.Flag.Builtin))
+                .count();
+    }
+
+    private static void translate(
+            Translator translator,
+            Environment environment,
+            Options options,
+            byte[] configBytes
+    ) throws IOException, ConfigurationException, TranslationException {
+        InputStream config = configBytes == null
+                ? null
+                : new ByteArrayInputStream(configBytes);
+
+        Optional<Path> outputDirectory = options.getOutputDirectory();
+
+        if (outputDirectory.isPresent()) {
+            translator.translate(
+                    environment,
+                    options.getTargetDomains(),
+                    config,
+                    new DirectoryOutputSink(outputDirectory.get())
+            );
+        } else {
+            translator.translate(
+                    environment,
+                    options.getTargetDomains(),
+                    config
+            );
+        }
+    }
+
+    private static void translate(
+            Translator translator,
+            Environment environment,
+            Options options,
+            byte[] config,
+            BuildCache cache,
+            String outputKey
+    ) throws IOException, ConfigurationException, TranslationException {
+        // The output is translated into memory first, so that the cached
+        // entry contains all output files, even if the translator would only
+        // write the changed ones to the output directory.
+
+        MemoryOutputSink sink = new MemoryOutputSink();
+
+        translator.translate(
+                environment,
+                options.getTargetDomains(),
+                config == null ? null : new ByteArrayInputStream(config),
+                sink
+        );
+
+        byte[] output = OutputCodec.encode(sink);
+        cache.put(outputKey, output);
+
+        // Restoring the output like a cached one, so that unchanged files
+        // are not touched and obsolete files are deleted.
+
+        OutputCodec.restore(
+                output,
+                new DirectoryOutputSink(options.getOutputDirectory().get())
+        );
+    }
+
+    private static BuildCache openCache(Options options) throws IOException {
+        if (!options.getCacheDirectory().isPresent()) {
+            return null;
+        }
+
+        return new BuildCache(
+                options.getCacheDirectory().get(),
+                options.getCacheSize()
+        );
+    }
+
+    private static String createOutputKey(
+            Compiler compiler,
+            Translator translator,
+            Options options,
+            byte[] config
+    ) throws IOException {
+        // The output depends on the content of the sources, but not on their
+        // paths. The target domains are sorted, since their order does not
+        // matter either.
+
+        CacheKey key = new CacheKey("output")
+                .add(Integer.toString(OutputCodec.VERSION))
+                .add(options.getTranslatorName())
+                .add(ClassHelper.getFingerprint(translator.getClass()))
+                .add(config == null ? "no config" : "config")
+                .add(config == null ? new byte[0] : config);
+
+        for (String domain : new TreeSet<>(options.getTargetDomains())) {
+            key.add(domain);
+        }
+
+        for (Path source : compiler.findSources(options.getInputs())) {
+            key.add(Files.readAllBytes(source));
+        }
+
+        return key.toString();
+    }
+
+    private static boolean restoreOutput(
+            BuildCache cache,
+            String outputKey,
+            Options options
+    ) {
+        Optional<byte[]> output = cache.get(outputKey);
+
+        if (!output.isPresent()) {
+            return false;
+        }
+
+        // A broken entry is translated again and replaced afterwards
+
+        try {
+            OutputCodec.restore(
+                    output.get(),
+                    new DirectoryOutputSink(options.getOutputDirectory().get())
+            );
+
+            return true;
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Ignoring broken cache entry", ex);
+            return false;
+        }
+    }
+
+    private static byte[] readConfig(Options options) throws IOException {
+        // The configuration is read into memory, so that a broken file is
+        // reported as IO error rather than as invalid configuration.
+
+        if (!options.getConfigFile().isPresent()) {
+            return null;
+        }
+
+        return Files.readAllBytes(options.getConfigFile().get());
+    }
+
+    private Main() {
+        throw new IllegalStateException("Do not instantiate this class");
     }
 }
@@ -3,6 +3,12 @@ package org.fir3.cml.tool;
 import org.fir3.cml.api.Translator;
 import org.fir3.cml.tool.util.ClassHelper;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -10,44 +16,104 @@ import java.util.logging.Logger;
 /**
  * The manager that discovers {@link org.fir3.cml.api.Translator}
  * implementations inside the current classpath and makes them accessible.
+ *
+ * <p>
+ *     The implementations are discovered by reading the provider
+ *     configuration files of Java's SPI mechanism directly. Their classes are
+ *     loaded without being initialized and only their {@link Translator.Info}
+ *     annotation is inspected, so that an implementation is not instantiated
+ *     before it is requested via {@link #getTranslator(String)}.
+ * </p>
  */
 public final class Translators {
     private static final Logger LOG = Logger.getLogger(
             Translators.class.getName()
     );
 
-    private static Translators INSTANCE;
+    private static final String PROVIDER_CONFIGURATION =
+            "META-INF/services/" + Translator.class.getName();
+
+    private static final String COMMENT_PREFIX = "#";
+
+    /**
+     * Holds the singleton instance, which is created when this class is
+     * initialized, i.e. when {@link #getInstance()} is called for the first
+     * time. The JVM guarantees that this happens exactly once, even if
+     * multiple threads call {@link #getInstance()} concurrently.
+     */
+    private static final class Holder {
+        private static final Translators INSTANCE = new Translators();
+    }
+
+    /**
+     * A discovered, but not necessarily instantiated, {@link Translator}
+     * implementation.
+     */
+    private static final class Provider {
+        private final Translator.Info info;
+        private final Class<? extends Translator> implClass;
+        private Translator instance;
+
+        private Provider(
+                Translator.Info info,
+                Class<? extends Translator> implClass
+        ) {
+            this.info = info;
+            this.implClass = implClass;
+        }
+
+        private synchronized Translator get() {
+            if (this.instance == null) {
+                try {
+                    this.instance = this.implClass.getConstructor()
+                            .newInstance();
+                } catch (ReflectiveOperationException | LinkageError ex) {
+                    throw new ServiceConfigurationError(String.format(
+                            "Unable to instantiate translator '%s'",
+                            this.implClass.getName()
+                    ), ex);
+                }
+            }
+
+            return this.instance;
+        }
+    }
 
     /**
      * Returns the singleton instance of this class.
      *
+     * <p>
+     *     This method and the returned instance are safe for concurrent use.
+     * </p>
+     *
      * @return  The singleton instance of this class.
      */
     public static Translators getInstance() {
-        if (Translators.INSTANCE == null) {
-            Translators.INSTANCE = new Translators();
-        }
-
-        return Translators.INSTANCE;
+        return Holder.INSTANCE;
     }
 
-    private static Map<Translator.Info, Translator> discoverTranslators() {
-        Map<Translator.Info, Translator> translators = new HashMap<>();
+    private static Map<String, Provider> discoverTranslators() {
+        Map<String, Provider> providers = new LinkedHashMap<>();
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
 
-        // Using the Java SPI to discover all implementations of the Translator
-        // interface inside the current classpath.
+        if (loader == null) {
+            loader = Translators.class.getClassLoader();
+        }
 
-        ServiceLoader<Translator> translatorLoader = ServiceLoader.load(
-                Translator.class
-        );
+        // For each Translator implementation: Checking, if it was annotated
+        // with the Info annotation. If that's the case and there is no
+        // collision with another Translator with the same name, we can safely
+        // add it to the providers map.
 
-        // For each Translator instance: Checking, if it was annotated with the
-        // Info annotation. If that's the case and there is no collision with
-        // another Translator with an equal Info annotation, we can safely add
-        // it to the translators map.
+        for (String implClassName : Translators.readProviderNames(loader)) {
+            Class<? extends Translator> implClass = Translators.loadClass(
+                    implClassName,
+                    loader
+            );
 
-        for (Translator translator : translatorLoader) {
-            Class<? extends Translator> implClass = translator.getClass();
+            if (implClass == null) {
+                continue;
+            }
 
             // Attempting to extract the annotation
 
@@ -70,14 +136,15 @@ public final class Translators {
             }
 
             // Validating that there is no other Translator implementation in
-            // the translators map, whose Info annotation collides with the
-            // one of the current Translator.
+            // the providers map, whose name collides with the one of the
+            // current Translator. The names are compared instead of the whole
+            // annotations, since translators are looked up by their names.
 
-            Translator collidingTranslator = translators.get(translatorInfo);
+            Provider collidingProvider = providers.get(translatorInfo.name());
 
-            if (collidingTranslator != null) {
+            if (collidingProvider != null) {
                 Class<? extends Translator> collidingClass =
-                        collidingTranslator.getClass();
+                        collidingProvider.implClass;
 
                 LOG.log(
                         Level.WARNING,
@@ -99,25 +166,184 @@ public final class Translators {
                 continue;
             }
 
-            translators.put(translatorInfo, translator);
+            providers.put(
+                    translatorInfo.name(),
+                    new Provider(translatorInfo, implClass)
+            );
         }
 
-        return Collections.unmodifiableMap(translators);
+        return Collections.unmodifiableMap(providers);
     }
 
-    private final Map<Translator.Info, Translator> translators;
+    private static Set<String> readProviderNames(ClassLoader loader) {
+        // The provider configuration files have the same format as the ones
+        // that are read by the ServiceLoader: One fully qualified class name
+        // per line, everything after a '#' is a comment.
+
+        Set<String> implClassNames = new LinkedHashSet<>();
+        Enumeration<URL> configurations;
+
+        try {
+            configurations = loader.getResources(PROVIDER_CONFIGURATION);
+        } catch (IOException ex) {
+            throw new ServiceConfigurationError(
+                    "Unable to locate translator provider configurations",
+                    ex
+            );
+        }
+
+        while (configurations.hasMoreElements()) {
+            URL configuration = configurations.nextElement();
+
+            try (InputStream src = configuration.openStream();
+                 BufferedReader reader = new BufferedReader(
+                         new InputStreamReader(src, StandardCharsets.UTF_8)
+                 )) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    int commentStart = line.indexOf(COMMENT_PREFIX);
+
+                    if (commentStart >= 0) {
+                        line = line.substring(0, commentStart);
+                    }
+
+                    line = line.trim();
+
+                    if (!line.isEmpty()) {
+                        implClassNames.add(line);
+                    }
+                }
+            } catch (IOException ex) {
+                throw new ServiceConfigurationError(String.format(
+                        "Unable to read translator provider configuration " +
+                                "'%s'",
+                        configuration
+                ), ex);
+            }
+        }
+
+        return implClassNames;
+    }
+
+    private static Class<? extends Translator> loadClass(
+            String implClassName,
+            ClassLoader loader
+    ) {
+        Class<?> implClass;
+
+        // The class is not initialized, so that static initializers of
+        // translators that are never requested do not run.
+
+        try {
+            implClass = Class.forName(implClassName, false, loader);
+        } catch (ClassNotFoundException | LinkageError ex) {
+            LOG.log(
+                    Level.WARNING,
+                    String.format(
+                            "Ignoring translator implementation '%s' because " +
+                                    "it cannot be loaded.",
+                            implClassName
+                    ),
+                    ex
+            );
+
+            return null;
+        }
+
+        if (!Translator.class.isAssignableFrom(implClass)) {
+            LOG.log(
+                    Level.WARNING,
+                    "Ignoring ''{0}'' because it does not implement ''{1}''.",
+                    new Object[] {
+                            implClassName,
+                            Translator.class.getName()
+                    }
+            );
+
+            return null;
+        }
+
+        return implClass.asSubclass(Translator.class);
+    }
+
+    private final Map<String, Provider> providers;
+    private final Set<Translator.Info> infos;
 
     private Translators() {
-        this.translators = Translators.discoverTranslators();
+        this.providers = Translators.discoverTranslators();
+
+        Set<Translator.Info> infos = new LinkedHashSet<>();
+
+        for (Provider provider : this.providers.values()) {
+            infos.add(provider.info);
+        }
+
+        this.infos = Collections.unmodifiableSet(infos);
+    }
+
+    /**
+     * Returns the {@link Translator.Info} annotations of all
+     * {@link Translator} implementations that have been (successfully)
+     * discovered by this manager.
+     *
+     * <p>
+     *     Calling this method does not instantiate any of the
+     *     implementations.
+     * </p>
+     *
+     * @return  The annotations of all discovered implementations.
+     */
+    public Set<Translator.Info> getTranslatorInfos() {
+        return this.infos;
+    }
+
+    /**
+     * Returns the {@link Translator} implementation with the specified
+     * <code>name</code>.
+     *
+     * <p>
+     *     Only the requested implementation is instantiated. Subsequent calls
+     *     with the same <code>name</code> return the same instance.
+     * </p>
+     *
+     * @param name  The name of the requested implementation, as provided by
+     *              its {@link Translator.Info} annotation.
+     *
+     * @return  An {@link Optional} instance that either contains the
+     *          requested implementation, or <code>null</code>, if there is no
+     *          such implementation.
+     *
+     * @throws ServiceConfigurationError    If the implementation cannot be
+     *                                      instantiated.
+     */
+    public Optional<Translator> getTranslator(String name) {
+        return Optional.ofNullable(this.providers.get(name))
+                .map(Provider::get);
     }
 
     /**
      * Returns all {@link Translator} implementations that have been
      * (successfully) discovered by this manager.
      *
+     * <p>
+     *     Calling this method instantiates every discovered implementation.
+     *     Use {@link #getTranslatorInfos()} and {@link #getTranslator(String)}
+     *     if only one of them is needed.
+     * </p>
+     *
      * @return  All discovered {@link Translator} implementations.
+     *
+     * @throws ServiceConfigurationError    If one of the implementations
+     *                                      cannot be instantiated.
      */
     public Map<Translator.Info, Translator> getTranslators() {
-        return this.translators;
+        Map<Translator.Info, Translator> translators = new LinkedHashMap<>();
+
+        for (Provider provider : this.providers.values()) {
+            translators.put(provider.info, provider.get());
+        }
+
+        return Collections.unmodifiableMap(translators);
     }
 }
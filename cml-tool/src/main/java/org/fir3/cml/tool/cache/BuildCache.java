@@ -0,0 +1,280 @@
+package org.fir3.cml.tool.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A content-addressed cache on disk, which stores arbitrary byte arrays
+ * under the keys that are built by {@link CacheKey}.
+ *
+ * <p>
+ *     Each entry is stored in its own file. The modification time of that
+ *     file is updated whenever the entry is read, so that the least recently
+ *     used entries are evicted first once the total size of all entries
+ *     exceeds the maximum size of the cache.
+ * </p>
+ *
+ * <p>
+ *     The cache is a pure optimization: Failures to read or write entries
+ *     are logged and reported as cache misses. Entries are written to a
+ *     temporary file and moved into place afterwards, so that multiple
+ *     threads and processes can share the same cache directory.
+ * </p>
+ */
+public final class BuildCache {
+    /**
+     * An entry of the cache, as found on disk.
+     */
+    private static final class Entry {
+        private final Path path;
+        private final long size;
+        private final FileTime lastModified;
+
+        private Entry(Path path, long size, FileTime lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static final Logger LOG = Logger.getLogger(
+            BuildCache.class.getName()
+    );
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{8,}");
+    private static final String TEMP_FILE_PREFIX = ".tmp-";
+
+    private final Path directory;
+    private final long maxSize;
+    private long size;
+
+    /**
+     * Initializes a new instance of <code>BuildCache</code>. The directory is
+     * created, if it does not exist yet.
+     *
+     * @param directory The directory that contains the entries.
+     * @param maxSize   The maximum total size of all entries in bytes.
+     *
+     * @throws NullPointerException     If <code>directory</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>maxSize</code> is negative.
+     * @throws IOException              If the directory cannot be created.
+     */
+    public BuildCache(Path directory, long maxSize) throws IOException {
+        Objects.requireNonNull(directory, "directory is null");
+
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize is negative");
+        }
+
+        this.directory = Files.createDirectories(directory);
+        this.maxSize = maxSize;
+        this.size = -1;
+    }
+
+    /**
+     * Returns the content of the entry with the specified <code>key</code>
+     * and marks the entry as recently used.
+     *
+     * @param key   The key of the entry.
+     * @return  An {@link Optional} instance that either contains the content
+     *          of the entry, or <code>null</code>, if there is no such entry
+     *          or if it cannot be read.
+     *
+     * @throws NullPointerException     If <code>key</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>key</code> is not a valid
+     *                                  key.
+     */
+    public Optional<byte[]> get(String key) {
+        Path file = this.resolve(key);
+
+        try {
+            byte[] content = Files.readAllBytes(file);
+
+            Files.setLastModifiedTime(
+                    file,
+                    FileTime.fromMillis(System.currentTimeMillis())
+            );
+
+            return Optional.of(content);
+        } catch (NoSuchFileException ex) {
+            return Optional.empty();
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Unable to read cache entry " + key, ex);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the specified <code>content</code> under the specified
+     * <code>key</code>, replacing any previous entry with the same key.
+     * Afterwards, the least recently used entries are evicted until the
+     * cache does not exceed its maximum size anymore.
+     *
+     * @param key       The key of the entry.
+     * @param content   The content of the entry.
+     *
+     * @throws NullPointerException     If any of the parameters is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>key</code> is not a valid
+     *                                  key.
+     */
+    public void put(String key, byte[] content) {
+        Objects.requireNonNull(content, "content is null");
+
+        Path file = this.resolve(key);
+
+        try {
+            Files.createDirectories(file.getParent());
+
+            Path temp = Files.createTempFile(
+                    file.getParent(),
+                    TEMP_FILE_PREFIX,
+                    null
+            );
+
+            try {
+                Files.write(temp, content);
+                BuildCache.move(temp, file);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Unable to write cache entry " + key, ex);
+            return;
+        }
+
+        this.evict(content.length);
+    }
+
+    /**
+     * Returns the total size of all entries of this cache.
+     *
+     * @return  The total size in bytes.
+     * @throws IOException  If the cache directory cannot be searched.
+     */
+    public long getSize() throws IOException {
+        long size = 0;
+
+        for (Entry entry : this.listEntries()) {
+            size += entry.size;
+        }
+
+        return size;
+    }
+
+    private Path resolve(String key) {
+        Objects.requireNonNull(key, "key is null");
+
+        if (!KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid key: " + key);
+        }
+
+        return this.directory.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(
+                    source,
+                    target,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING
+            );
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private synchronized void evict(long addedSize) {
+        // The total size is only determined once and tracked afterwards, so
+        // that the cache directory is not searched on every write. Other
+        // processes may change the size in the meantime, thus the actual
+        // entries are listed again before anything is evicted.
+
+        try {
+            if (this.size < 0) {
+                this.size = this.getSize();
+            } else {
+                this.size += addedSize;
+            }
+
+            if (this.size <= this.maxSize) {
+                return;
+            }
+
+            List<Entry> entries = this.listEntries();
+            entries.sort(Comparator.comparing(e -> e.lastModified));
+
+            this.size = 0;
+
+            for (Entry entry : entries) {
+                this.size += entry.size;
+            }
+
+            for (Entry entry : entries) {
+                if (this.size <= this.maxSize) {
+                    break;
+                }
+
+                Files.deleteIfExists(entry.path);
+                this.size -= entry.size;
+            }
+        } catch (IOException | UncheckedIOException ex) {
+            LOG.log(Level.WARNING, "Unable to evict cache entries", ex);
+        }
+    }
+
+    private List<Entry> listEntries() throws IOException {
+        try (Stream<Path> files = Files.walk(this.directory, 2)) {
+            List<Path> paths = files
+                    .filter(p -> KEY_PATTERN.matcher(
+                            p.getFileName().toString()
+                    ).matches())
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+
+            List<Entry> entries = new ArrayList<>();
+
+            for (Path path : paths) {
+                BasicFileAttributes attributes;
+
+                try {
+                    attributes = Files.readAttributes(
+                            path,
+                            BasicFileAttributes.class
+                    );
+                } catch (NoSuchFileException ex) {
+                    // Evicted by another process in the meantime
+
+                    continue;
+                }
+
+                entries.add(new Entry(
+                        path,
+                        attributes.size(),
+                        attributes.lastModifiedTime()
+                ));
+            }
+
+            return entries;
+        }
+    }
+}
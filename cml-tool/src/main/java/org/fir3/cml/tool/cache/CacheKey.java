@@ -0,0 +1,115 @@
+package org.fir3.cml.tool.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+/**
+ * Builds the key of a {@link BuildCache} entry by hashing all inputs that
+ * the cached content depends on.
+ *
+ * <p>
+ *     Each component is prefixed with its length before it is hashed, so
+ *     that different sequences of components never result in the same
+ *     input of the hash function.
+ * </p>
+ */
+public final class CacheKey {
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final MessageDigest digest;
+
+    /**
+     * Initializes a new instance of <code>CacheKey</code>.
+     *
+     * @param kind  The kind of the cached content, which separates the keys
+     *              of different kinds of content with equal inputs.
+     *
+     * @throws NullPointerException If <code>kind</code> is <code>null</code>.
+     */
+    public CacheKey(String kind) {
+        Objects.requireNonNull(kind, "kind is null");
+
+        try {
+            this.digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+
+            throw new IllegalStateException(ex);
+        }
+
+        this.add(kind);
+    }
+
+    /**
+     * Adds the specified <code>value</code> to this key.
+     *
+     * @param value The value that will be added.
+     * @return  This instance.
+     *
+     * @throws NullPointerException If <code>value</code> is
+     *                              <code>null</code>.
+     */
+    public CacheKey add(String value) {
+        Objects.requireNonNull(value, "value is null");
+
+        return this.add(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds the specified <code>value</code> to this key.
+     *
+     * @param value The value that will be added.
+     * @return  This instance.
+     *
+     * @throws NullPointerException If <code>value</code> is
+     *                              <code>null</code>.
+     */
+    public CacheKey add(byte[] value) {
+        Objects.requireNonNull(value, "value is null");
+
+        return this.add(ByteBuffer.wrap(value));
+    }
+
+    /**
+     * Adds the remaining content of the specified <code>value</code> buffer
+     * to this key. The position of the buffer is not changed.
+     *
+     * @param value The value that will be added.
+     * @return  This instance.
+     *
+     * @throws NullPointerException If <code>value</code> is
+     *                              <code>null</code>.
+     */
+    public CacheKey add(ByteBuffer value) {
+        Objects.requireNonNull(value, "value is null");
+
+        this.digest.update(ByteBuffer.allocate(Long.BYTES)
+                .putLong(0, value.remaining()));
+
+        this.digest.update(value.duplicate());
+        return this;
+    }
+
+    /**
+     * Returns the hexadecimal representation of the hash of all components
+     * that have been added. This instance must not be used afterwards.
+     *
+     * @return  The key.
+     */
+    @Override
+    public String toString() {
+        byte[] hash = this.digest.digest();
+        char[] hex = new char[hash.length * 2];
+
+        for (int index = 0; index < hash.length; index++) {
+            hex[2 * index] = HEX_DIGITS[(hash[index] >> 4) & 0xF];
+            hex[2 * index + 1] = HEX_DIGITS[hash[index] & 0xF];
+        }
+
+        return new String(hex);
+    }
+}
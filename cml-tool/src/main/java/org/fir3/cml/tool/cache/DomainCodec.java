@@ -0,0 +1,268 @@
+package org.fir3.cml.tool.cache;
+
+import org.fir3.cml.api.model.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Encodes {@link Domain} instances to a compact binary form and decodes them
+ * again, so that parsed domains can be stored in a {@link BuildCache}.
+ *
+ * <p>
+ *     The models of a domain and the attributes of a model are encoded in
+ *     the order of their names, thus equal domains are always encoded to the
+ *     same bytes.
+ * </p>
+ */
+public final class DomainCodec {
+    /**
+     * The version of the binary form. This must be changed whenever the
+     * binary form changes, and it should be part of every cache key of an
+     * encoded domain.
+     */
+    public static final int VERSION = 1;
+
+    private static final byte TYPE_MODEL = 0;
+    private static final byte TYPE_PARAMETER = 1;
+
+    /**
+     * Encodes the specified <code>domain</code>.
+     *
+     * @param domain    The domain that will be encoded.
+     * @return  The binary form of the domain.
+     *
+     * @throws NullPointerException If <code>domain</code> is
+     *                              <code>null</code>.
+     */
+    public static byte[] encode(Domain domain) {
+        Objects.requireNonNull(domain, "domain is null");
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        try (DataOutputStream dst = new DataOutputStream(buffer)) {
+            dst.writeInt(VERSION);
+            dst.writeUTF(domain.getName());
+            DomainCodec.writeFlags(dst, domain.getFlags());
+
+            List<Model> models = new ArrayList<>(domain.getModels());
+            models.sort(Comparator.comparing(Model::getName));
+            dst.writeInt(models.size());
+
+            for (Model model : models) {
+                DomainCodec.writeModel(dst, model);
+            }
+        } catch (IOException ex) {
+            // ByteArrayOutputStream does not throw any IOException
+
+            throw new UncheckedIOException(ex);
+        }
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Decodes the domain from the specified binary form.
+     *
+     * @param content   The binary form, as returned by
+     *                  {@link #encode(Domain)}.
+     *
+     * @return  The decoded domain.
+     *
+     * @throws NullPointerException If <code>content</code> is
+     *                              <code>null</code>.
+     *
+     * @throws IOException          If <code>content</code> is not a valid
+     *                              binary form of a domain, or if it has been
+     *                              encoded by a different version.
+     */
+    public static Domain decode(byte[] content) throws IOException {
+        Objects.requireNonNull(content, "content is null");
+
+        try (DataInputStream src = new DataInputStream(
+                new ByteArrayInputStream(content)
+        )) {
+            int version = src.readInt();
+
+            if (version != VERSION) {
+                throw new IOException(String.format(
+                        "Unsupported version %d",
+                        version
+                ));
+            }
+
+            String name = src.readUTF();
+            EnumSet<Domain.Flag> flags = DomainCodec.readFlags(
+                    src,
+                    Domain.Flag.class
+            );
+
+            int modelCount = DomainCodec.readCount(src);
+            Set<Model> models = new HashSet<>();
+
+            for (int index = 0; index < modelCount; index++) {
+                models.add(DomainCodec.readModel(src));
+            }
+
+            if (src.read() >= 0) {
+                throw new IOException("Trailing content");
+            }
+
+            return new Domain(name, flags, models);
+        } catch (EOFException ex) {
+            throw new IOException("Unexpected end of content", ex);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
+    private static void writeModel(DataOutput dst, Model model)
+            throws IOException {
+        dst.writeUTF(model.getName());
+        DomainCodec.writeFlags(dst, model.getFlags());
+        dst.writeInt(model.getTypeParameters().size());
+
+        for (TypeParameter parameter : model.getTypeParameters()) {
+            dst.writeUTF(parameter.getName());
+        }
+
+        List<Attribute> attributes = new ArrayList<>(model.getAttributes());
+        attributes.sort(Comparator.comparing(Attribute::getName));
+        dst.writeInt(attributes.size());
+
+        for (Attribute attribute : attributes) {
+            dst.writeUTF(attribute.getName());
+            DomainCodec.writeType(dst, attribute.getType());
+        }
+    }
+
+    private static Model readModel(DataInput src) throws IOException {
+        String name = src.readUTF();
+        EnumSet<Model.Flag> flags = DomainCodec.readFlags(
+                src,
+                Model.Flag.class
+        );
+
+        int parameterCount = DomainCodec.readCount(src);
+        List<TypeParameter> parameters = new ArrayList<>();
+
+        for (int index = 0; index < parameterCount; index++) {
+            parameters.add(new TypeParameter(src.readUTF()));
+        }
+
+        int attributeCount = DomainCodec.readCount(src);
+        Set<Attribute> attributes = new HashSet<>();
+
+        for (int index = 0; index < attributeCount; index++) {
+            attributes.add(new Attribute(
+                    src.readUTF(),
+                    DomainCodec.readType(src)
+            ));
+        }
+
+        return new Model(name, flags, parameters, attributes);
+    }
+
+    private static void writeType(DataOutput dst, Type type)
+            throws IOException {
+        switch (type.getCategory()) {
+            case Model:
+                ModelType modelType = (ModelType) type;
+
+                dst.writeByte(TYPE_MODEL);
+                dst.writeUTF(modelType.getModelName());
+                dst.writeInt(modelType.getTypeParameters().size());
+
+                for (Type parameter : modelType.getTypeParameters()) {
+                    DomainCodec.writeType(dst, parameter);
+                }
+
+                break;
+
+            case Parameter:
+                dst.writeByte(TYPE_PARAMETER);
+                dst.writeUTF(((ParameterType) type).getTypeParameterName());
+                break;
+
+            default:
+                throw new UnsupportedOperationException(String.format(
+                        "Type category not implemented: '%s'",
+                        type.getCategory().name()
+                ));
+        }
+    }
+
+    private static Type readType(DataInput src) throws IOException {
+        byte tag = src.readByte();
+
+        switch (tag) {
+            case TYPE_MODEL:
+                String modelName = src.readUTF();
+                int parameterCount = DomainCodec.readCount(src);
+                List<Type> parameters = new ArrayList<>();
+
+                for (int index = 0; index < parameterCount; index++) {
+                    parameters.add(DomainCodec.readType(src));
+                }
+
+                return new ModelType(modelName, parameters);
+
+            case TYPE_PARAMETER:
+                return new ParameterType(src.readUTF());
+
+            default:
+                throw new IOException(String.format(
+                        "Unknown type tag %d",
+                        tag
+                ));
+        }
+    }
+
+    private static <E extends Enum<E>> void writeFlags(
+            DataOutput dst,
+            EnumSet<E> flags
+    ) throws IOException {
+        int mask = 0;
+
+        for (E flag : flags) {
+            mask |= 1 << flag.ordinal();
+        }
+
+        dst.writeInt(mask);
+    }
+
+    private static <E extends Enum<E>> EnumSet<E> readFlags(
+            DataInput src,
+            Class<E> flagClass
+    ) throws IOException {
+        int mask = src.readInt();
+        EnumSet<E> flags = EnumSet.noneOf(flagClass);
+
+        for (E flag : flagClass.getEnumConstants()) {
+            if ((mask & (1 << flag.ordinal())) != 0) {
+                flags.add(flag);
+                mask &= ~(1 << flag.ordinal());
+            }
+        }
+
+        if (mask != 0) {
+            throw new IOException("Unknown flags");
+        }
+
+        return flags;
+    }
+
+    private static int readCount(DataInput src) throws IOException {
+        int count = src.readInt();
+
+        if (count < 0) {
+            throw new IOException("Negative count");
+        }
+
+        return count;
+    }
+
+    private DomainCodec() {
+        throw new IllegalStateException("Do not instantiate this class");
+    }
+}
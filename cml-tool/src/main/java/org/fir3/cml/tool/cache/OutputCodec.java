@@ -0,0 +1,276 @@
+package org.fir3.cml.tool.cache;
+
+import org.fir3.cml.api.OutputSink;
+import org.fir3.cml.api.output.MemoryOutputSink;
+import org.fir3.cml.api.output.OutputNames;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Encodes the output files of a translation to a single binary form and
+ * restores them again, so that the output can be stored in a
+ * {@link BuildCache}.
+ */
+public final class OutputCodec {
+    /**
+     * The version of the binary form. This must be changed whenever the
+     * binary form changes, and it should be part of every cache key of an
+     * encoded output.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The name of the file, in which {@link #restore(byte[], OutputSink)}
+     * records the names of the restored output files.
+     */
+    public static final String INDEX_FILE_NAME = ".cml-output-index";
+
+    /**
+     * Encodes all output files of the specified <code>sink</code>.
+     *
+     * @param sink  The sink that contains the output files.
+     * @return  The binary form of the output files.
+     *
+     * @throws NullPointerException If <code>sink</code> is <code>null</code>.
+     */
+    public static byte[] encode(MemoryOutputSink sink) {
+        Objects.requireNonNull(sink, "sink is null");
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        try (DataOutputStream dst = new DataOutputStream(buffer)) {
+            dst.writeInt(VERSION);
+            dst.writeInt(sink.getNames().size());
+
+            for (String name : sink.getNames()) {
+                byte[] content = sink.getContent(name).orElseThrow(
+                        () -> new IllegalStateException(
+                                "File disappeared: " + name
+                        )
+                );
+
+                dst.writeUTF(name);
+                dst.writeInt(content.length);
+                dst.write(content);
+            }
+        } catch (IOException ex) {
+            // ByteArrayOutputStream does not throw any IOException
+
+            throw new UncheckedIOException(ex);
+        }
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Writes the output files of the specified binary form to the specified
+     * <code>sink</code>.
+     *
+     * <p>
+     *     The binary form is validated completely before anything is
+     *     written, so that a broken cache entry does not leave partial
+     *     output behind.
+     * </p>
+     *
+     * @param content   The binary form, as returned by
+     *                  {@link #encode(MemoryOutputSink)}.
+     *
+     * @param sink      The sink that the output files are written to.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     *
+     * @throws IOException          If <code>content</code> is not a valid
+     *                              binary form, or if writing to
+     *                              <code>sink</code> fails.
+     */
+    public static void decode(byte[] content, OutputSink sink)
+            throws IOException {
+        Objects.requireNonNull(content, "content is null");
+        Objects.requireNonNull(sink, "sink is null");
+
+        MemoryOutputSink files = OutputCodec.decode(content);
+
+        for (String name : files.getNames()) {
+            OutputCodec.write(
+                    sink,
+                    name,
+                    files.getContent(name).orElseThrow(
+                            IllegalStateException::new
+                    )
+            );
+        }
+    }
+
+    /**
+     * Restores the output files of the specified binary form to the
+     * specified <code>sink</code>, which may contain the output of a
+     * previous translation.
+     *
+     * <p>
+     *     Unlike {@link #decode(byte[], OutputSink)}, output files whose
+     *     content did not change are not written again, and the output files
+     *     of the previous restore that are not part of the binary form
+     *     anymore are deleted. For the latter, the names of the restored
+     *     output files are recorded in the {@link #INDEX_FILE_NAME} file.
+     * </p>
+     *
+     * @param content   The binary form, as returned by
+     *                  {@link #encode(MemoryOutputSink)}.
+     *
+     * @param sink      The sink that the output files are restored to.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     *
+     * @throws IOException          If <code>content</code> is not a valid
+     *                              binary form, or if accessing
+     *                              <code>sink</code> fails.
+     */
+    public static void restore(byte[] content, OutputSink sink)
+            throws IOException {
+        Objects.requireNonNull(content, "content is null");
+        Objects.requireNonNull(sink, "sink is null");
+
+        MemoryOutputSink files = OutputCodec.decode(content);
+        Set<String> previousNames = OutputCodec.readIndex(sink);
+
+        for (String name : files.getNames()) {
+            byte[] fileContent = files.getContent(name).orElseThrow(
+                    IllegalStateException::new
+            );
+
+            Optional<byte[]> previousContent = OutputCodec.read(sink, name);
+
+            if (previousContent.isPresent() &&
+                    Arrays.equals(previousContent.get(), fileContent)) {
+                continue;
+            }
+
+            OutputCodec.write(sink, name, fileContent);
+        }
+
+        for (String name : previousNames) {
+            if (!files.getNames().contains(name)) {
+                sink.delete(name);
+            }
+        }
+
+        OutputCodec.write(
+                sink,
+                INDEX_FILE_NAME,
+                String.join("\n", files.getNames())
+                        .getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    private static Set<String> readIndex(OutputSink sink) throws IOException {
+        Optional<byte[]> index = OutputCodec.read(sink, INDEX_FILE_NAME);
+        Set<String> names = new HashSet<>();
+
+        if (!index.isPresent()) {
+            return names;
+        }
+
+        // Names that are not valid anymore, e.g. because the index has been
+        // edited by hand, are ignored rather than deleted.
+
+        for (String name : new String(
+                index.get(),
+                StandardCharsets.UTF_8
+        ).split("\n")) {
+            try {
+                names.add(OutputNames.validate(name));
+            } catch (IllegalArgumentException ignored) { }
+        }
+
+        return names;
+    }
+
+    private static Optional<byte[]> read(OutputSink sink, String name)
+            throws IOException {
+        Optional<ReadableByteChannel> channel = sink.openExisting(name);
+
+        if (!channel.isPresent()) {
+            return Optional.empty();
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        try (InputStream src = Channels.newInputStream(channel.get())) {
+            byte[] chunk = new byte[8192];
+            int length;
+
+            while ((length = src.read(chunk)) >= 0) {
+                buffer.write(chunk, 0, length);
+            }
+        }
+
+        return Optional.of(buffer.toByteArray());
+    }
+
+    private static void write(OutputSink sink, String name, byte[] content)
+            throws IOException {
+        try (WritableByteChannel channel = sink.open(name)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static MemoryOutputSink decode(byte[] content)
+            throws IOException {
+        MemoryOutputSink files = new MemoryOutputSink();
+
+        try (DataInputStream src = new DataInputStream(
+                new ByteArrayInputStream(content)
+        )) {
+            int version = src.readInt();
+
+            if (version != VERSION) {
+                throw new IOException(String.format(
+                        "Unsupported version %d",
+                        version
+                ));
+            }
+
+            int fileCount = src.readInt();
+
+            for (int index = 0; index < fileCount; index++) {
+                String name = src.readUTF();
+                int length = src.readInt();
+
+                if (length < 0 || length > src.available()) {
+                    throw new IOException("Invalid length of " + name);
+                }
+
+                byte[] fileContent = new byte[length];
+                src.readFully(fileContent);
+
+                try (WritableByteChannel channel = files.open(name)) {
+                    channel.write(ByteBuffer.wrap(fileContent));
+                }
+            }
+
+            if (fileCount < 0 || src.read() >= 0) {
+                throw new IOException("Malformed content");
+            }
+        } catch (EOFException | IllegalArgumentException ex) {
+            throw new IOException("Malformed content", ex);
+        }
+
+        return files;
+    }
+
+    private OutputCodec() {
+        throw new IllegalStateException("Do not instantiate this class");
+    }
+}
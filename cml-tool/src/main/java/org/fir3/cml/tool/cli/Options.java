@@ -0,0 +1,447 @@
+package org.fir3.cml.tool.cli;
+
+import org.fir3.cml.tool.exception.CommandLineException;
+import org.fir3.cml.tool.stats.StatisticsFormat;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * The options that have been passed to the CML tool on the command line.
+ */
+public final class Options {
+    /**
+     * The usage description of the command line interface.
+     */
+    public static final String USAGE = String.join("\n",
+            "Usage: cml-tool [options] <input>...",
+            "",
+            "Translates the CML domains that are declared by the source files",
+            "of the specified inputs. Directories are searched for *.cml files.",
+            "Zip and jar archives are searched without extracting them.",
+            "",
+            "Options:",
+            "  -t, --translator <name>  The translator that will be used.",
+            "  -d, --domain <name>      A domain that will be translated. May",
+            "                           be specified multiple times.",
+            "  -o, --output <dir>       The directory that the output is",
+            "                           written to. If omitted, the translator",
+            "                           configuration decides.",
+            "  -c, --config <file>      The translator-specific configuration.",
+            "  -j, --jobs <n>           The maximum number of source files",
+            "                           that are parsed concurrently.",
+            "  -s, --stats <format>     Prints the time and memory that each",
+            "                           phase took, either as 'text' or as",
+            "                           'json'.",
+            "      --cache <dir>        Caches parsed source files and the",
+            "                           output in the specified directory.",
+            "                           Requires '--output' to cache output.",
+            "      --cache-size <MiB>   The maximum size of the cache. Least",
+            "                           recently used entries are evicted.",
+            "                           Defaults to 256.",
+            "      --daemon             Keeps running, rebuilds whenever an",
+            "                           input changes and accepts the",
+            "                           commands 'build', 'status' and",
+            "                           'stop' on a loopback socket.",
+            "      --port <n>           The port that the daemon listens on.",
+            "                           Defaults to an arbitrary free port.",
+            "      --lsp                Runs a language server on stdin and",
+            "                           stdout. Translator and domains are",
+            "                           not required.",
+            "  -h, --help               Prints this message."
+    );
+
+    private static final long MEBIBYTE = 1 << 20;
+    private static final long DEFAULT_CACHE_SIZE = 256 * MEBIBYTE;
+
+    /**
+     * Parses the specified command line <code>args</code>.
+     *
+     * @param args  The command line arguments.
+     * @return  The parsed options.
+     *
+     * @throws NullPointerException If <code>args</code> is <code>null</code>.
+     * @throws CommandLineException If <code>args</code> contains an unknown
+     *                              option, an option without its value, an
+     *                              invalid value, or if a mandatory option is
+     *                              missing.
+     */
+    public static Options parse(String[] args) throws CommandLineException {
+        Objects.requireNonNull(args, "args is null");
+
+        Options options = new Options();
+        Deque<String> pending = new ArrayDeque<>(Arrays.asList(args));
+        boolean optionsEnded = false;
+
+        while (!pending.isEmpty()) {
+            String arg = pending.pop();
+
+            if (optionsEnded || !arg.startsWith("-") || arg.equals("-")) {
+                options.inputs.add(Options.toPath(arg));
+                continue;
+            }
+
+            switch (arg) {
+                case "--":
+                    optionsEnded = true;
+                    break;
+
+                case "-t":
+                case "--translator":
+                    options.translatorName = Options.value(arg, pending);
+                    break;
+
+                case "-d":
+                case "--domain":
+                    options.targetDomains.add(Options.value(arg, pending));
+                    break;
+
+                case "-o":
+                case "--output":
+                    options.outputDirectory = Options.toPath(
+                            Options.value(arg, pending)
+                    );
+
+                    break;
+
+                case "-c":
+                case "--config":
+                    options.configFile = Options.toPath(
+                            Options.value(arg, pending)
+                    );
+
+                    break;
+
+                case "-j":
+                case "--jobs":
+                    options.jobs = Options.toPositiveInt(
+                            arg,
+                            Options.value(arg, pending)
+                    );
+
+                    break;
+
+                case "-s":
+                case "--stats":
+                    String formatName = Options.value(arg, pending);
+
+                    options.statisticsFormat = StatisticsFormat.fromName(
+                            formatName
+                    ).orElseThrow(() -> new CommandLineException(
+                            String.format(
+                                    "Unknown statistics format '%s'",
+                                    formatName
+                            )
+                    ));
+
+                    break;
+
+                case "--cache":
+                    options.cacheDirectory = Options.toPath(
+                            Options.value(arg, pending)
+                    );
+
+                    break;
+
+                case "--cache-size":
+                    options.cacheSize = Options.toPositiveInt(
+                            arg,
+                            Options.value(arg, pending)
+                    ) * MEBIBYTE;
+
+                    break;
+
+                case "--daemon":
+                    options.daemon = true;
+                    break;
+
+                case "--port":
+                    options.port = Options.toPort(
+                            arg,
+                            Options.value(arg, pending)
+                    );
+
+                    break;
+
+                case "--lsp":
+                    options.lsp = true;
+                    break;
+
+                case "-h":
+                case "--help":
+                    options.help = true;
+                    break;
+
+                default:
+                    throw new CommandLineException(String.format(
+                            "Unknown option '%s'",
+                            arg
+                    ));
+            }
+        }
+
+        if (options.help) {
+            return options;
+        }
+
+        if (options.lsp && options.daemon) {
+            throw new CommandLineException(
+                    "Options '--lsp' and '--daemon' cannot be combined"
+            );
+        }
+
+        // The language server learns the workspace from its client and does
+        // not translate anything.
+
+        if (!options.lsp) {
+            if (options.inputs.isEmpty()) {
+                throw new CommandLineException("No inputs specified");
+            }
+
+            if (options.translatorName == null) {
+                throw new CommandLineException("No translator specified");
+            }
+
+            if (options.targetDomains.isEmpty()) {
+                throw new CommandLineException(
+                        "No target domains specified"
+                );
+            }
+        }
+
+        if (options.cacheSize != 0 &&
+                options.cacheDirectory == null) {
+            throw new CommandLineException(
+                    "Option '--cache-size' requires '--cache'"
+            );
+        }
+
+        if (options.port != 0 && !options.daemon) {
+            throw new CommandLineException(
+                    "Option '--port' requires '--daemon'"
+            );
+        }
+
+        return options;
+    }
+
+    private static String value(String option, Deque<String> pending)
+            throws CommandLineException {
+        if (pending.isEmpty()) {
+            throw new CommandLineException(String.format(
+                    "Option '%s' requires a value",
+                    option
+            ));
+        }
+
+        return pending.pop();
+    }
+
+    private static Path toPath(String value) throws CommandLineException {
+        try {
+            return Paths.get(value);
+        } catch (InvalidPathException ex) {
+            throw new CommandLineException(
+                    String.format("Invalid path '%s'", value),
+                    ex
+            );
+        }
+    }
+
+    private static int toPositiveInt(String option, String value)
+            throws CommandLineException {
+        int number;
+
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            number = 0;
+        }
+
+        if (number < 1) {
+            throw new CommandLineException(String.format(
+                    "Option '%s' requires a positive number, but got '%s'",
+                    option,
+                    value
+            ));
+        }
+
+        return number;
+    }
+
+    private static int toPort(String option, String value)
+            throws CommandLineException {
+        int port;
+
+        try {
+            port = Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            port = -1;
+        }
+
+        if (port < 0 || port > 65535) {
+            throw new CommandLineException(String.format(
+                    "Option '%s' requires a port number, but got '%s'",
+                    option,
+                    value
+            ));
+        }
+
+        return port;
+    }
+
+    private final List<Path> inputs;
+    private final Set<String> targetDomains;
+    private String translatorName;
+    private Path outputDirectory;
+    private Path configFile;
+    private int jobs;
+    private StatisticsFormat statisticsFormat;
+    private Path cacheDirectory;
+    private long cacheSize;
+    private boolean daemon;
+    private int port;
+    private boolean lsp;
+    private boolean help;
+
+    private Options() {
+        this.inputs = new ArrayList<>();
+        this.targetDomains = new LinkedHashSet<>();
+        this.jobs = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Returns the source files and directories.
+     *
+     * @return  The source files and directories.
+     */
+    public List<Path> getInputs() {
+        return Collections.unmodifiableList(this.inputs);
+    }
+
+    /**
+     * Returns the name of the translator.
+     *
+     * @return  The name of the translator, or <code>null</code>, if only the
+     *          help was requested.
+     */
+    public String getTranslatorName() {
+        return this.translatorName;
+    }
+
+    /**
+     * Returns the names of the domains that will be translated.
+     *
+     * @return  The names of the domains, in the order of their appearance on
+     *          the command line.
+     */
+    public Set<String> getTargetDomains() {
+        return Collections.unmodifiableSet(this.targetDomains);
+    }
+
+    /**
+     * Returns the directory that the output is written to.
+     *
+     * @return  An {@link Optional} instance that either contains the output
+     *          directory, or <code>null</code>, if the translator
+     *          configuration decides where the output is written to.
+     */
+    public Optional<Path> getOutputDirectory() {
+        return Optional.ofNullable(this.outputDirectory);
+    }
+
+    /**
+     * Returns the file that contains the translator-specific configuration.
+     *
+     * @return  An {@link Optional} instance that either contains the path of
+     *          the configuration file, or <code>null</code>, if there is no
+     *          configuration.
+     */
+    public Optional<Path> getConfigFile() {
+        return Optional.ofNullable(this.configFile);
+    }
+
+    /**
+     * Returns the maximum number of source files that are parsed
+     * concurrently.
+     *
+     * @return  The maximum number of concurrently parsed files. Defaults to
+     *          the number of available processors.
+     */
+    public int getJobs() {
+        return this.jobs;
+    }
+
+    /**
+     * Returns the format of the statistics that are printed after the
+     * translation.
+     *
+     * @return  An {@link Optional} instance that either contains the format,
+     *          or <code>null</code>, if no statistics shall be collected.
+     */
+    public Optional<StatisticsFormat> getStatisticsFormat() {
+        return Optional.ofNullable(this.statisticsFormat);
+    }
+
+    /**
+     * Returns the directory of the build cache.
+     *
+     * @return  An {@link Optional} instance that either contains the cache
+     *          directory, or <code>null</code>, if nothing shall be cached.
+     */
+    public Optional<Path> getCacheDirectory() {
+        return Optional.ofNullable(this.cacheDirectory);
+    }
+
+    /**
+     * Returns the maximum size of the build cache.
+     *
+     * @return  The maximum size of the build cache in bytes. Defaults to
+     *          256 MiB.
+     */
+    public long getCacheSize() {
+        return this.cacheSize == 0 ? DEFAULT_CACHE_SIZE : this.cacheSize;
+    }
+
+    /**
+     * Returns whether the tool shall keep running as daemon.
+     *
+     * @return  Either <code>true</code>, if the tool runs as daemon,
+     *          otherwise <code>false</code>.
+     */
+    public boolean isDaemon() {
+        return this.daemon;
+    }
+
+    /**
+     * Returns the port that the daemon listens on.
+     *
+     * @return  The port of the daemon, or <code>0</code>, if an arbitrary free
+     *          port shall be used.
+     */
+    public int getPort() {
+        return this.port;
+    }
+
+    /**
+     * Returns whether the tool shall run as language server.
+     *
+     * @return  Either <code>true</code>, if the tool runs as language server,
+     *          otherwise <code>false</code>.
+     */
+    public boolean isLsp() {
+        return this.lsp;
+    }
+
+    /**
+     * Returns whether the usage description was requested.
+     *
+     * @return  Either <code>true</code>, if the usage description was
+     *          requested, otherwise <code>false</code>.
+     */
+    public boolean isHelp() {
+        return this.help;
+    }
+}
@@ -0,0 +1,226 @@
+package org.fir3.cml.tool.compiler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Opens zip and jar archives as file systems, so that the source files
+ * inside of them can be read without extracting them first.
+ *
+ * <p>
+ *     Each archive is opened once and kept open until the instance is
+ *     closed, since the paths of its source files are only valid as long as
+ *     its file system is open. If the archive changes on disk, it is opened
+ *     again and the paths that have been returned before become invalid.
+ * </p>
+ *
+ * <p>
+ *     Instances of this class are safe for concurrent use.
+ * </p>
+ */
+final class Archives implements Closeable {
+    private static final Logger LOG = Logger.getLogger(
+            Archives.class.getName()
+    );
+
+    private static final String[] ARCHIVE_EXTENSIONS = { ".zip", ".jar" };
+
+    /**
+     * The order of source files that is used by the compiler. Source files
+     * of the default file system come first, followed by the source files of
+     * each archive.
+     *
+     * <p>
+     *     Paths of different file systems cannot be compared with each other,
+     *     thus the paths are compared by their descriptions.
+     * </p>
+     */
+    static final Comparator<Path> SOURCE_ORDER = Comparator
+            .comparing(Archives::isArchived)
+            .thenComparing(Archives::describe);
+
+    /**
+     * An archive that has been opened as file system.
+     */
+    private static final class Archive {
+        private final Path path;
+        private final FileSystem fileSystem;
+        private final FileTime lastModified;
+        private final long size;
+
+        private Archive(
+                Path path,
+                FileSystem fileSystem,
+                BasicFileAttributes attributes
+        ) {
+            this.path = path;
+            this.fileSystem = fileSystem;
+            this.lastModified = attributes.lastModifiedTime();
+            this.size = attributes.size();
+        }
+    }
+
+    /**
+     * Maps the file systems of all archives, including the ones that have
+     * been closed in the meantime, to the paths of the archives. This keeps
+     * the descriptions and thus the order of stale paths stable.
+     */
+    private static final Map<FileSystem, Path> OWNERS = new WeakHashMap<>();
+
+    private final Map<Path, Archive> archives;
+    private boolean closed;
+
+    /**
+     * Initializes a new instance of <code>Archives</code>, which has not
+     * opened any archives yet.
+     */
+    Archives() {
+        this.archives = new HashMap<>();
+    }
+
+    /**
+     * Returns whether the specified <code>file</code> is an archive, judging
+     * by its name.
+     *
+     * @param file  The path of the file.
+     * @return  Either <code>true</code>, if the file is an archive, otherwise
+     *          <code>false</code>.
+     */
+    static boolean isArchive(Path file) {
+        Path fileName = file.getFileName();
+
+        if (fileName == null) {
+            return false;
+        }
+
+        String name = fileName.toString().toLowerCase(Locale.ROOT);
+
+        for (String extension : ARCHIVE_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the root directories of the specified <code>archive</code>,
+     * which is opened, if it was not opened before or if it changed since.
+     *
+     * @param archive   The path of the archive.
+     * @return  The root directories of the archive's file system.
+     *
+     * @throws IOException              If the archive cannot be opened.
+     * @throws IllegalStateException    If this instance has been closed.
+     */
+    synchronized Iterable<Path> open(Path archive) throws IOException {
+        if (this.closed) {
+            throw new IllegalStateException("Archives have been closed");
+        }
+
+        Path key = archive.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(
+                key,
+                BasicFileAttributes.class
+        );
+
+        Archive previous = this.archives.get(key);
+
+        if (previous != null &&
+                previous.size == attributes.size() &&
+                previous.lastModified.equals(
+                        attributes.lastModifiedTime()
+                )) {
+            return previous.fileSystem.getRootDirectories();
+        }
+
+        if (previous != null) {
+            Archives.close(previous);
+        }
+
+        FileSystem fileSystem = FileSystems.newFileSystem(
+                key,
+                (ClassLoader) null
+        );
+
+        this.archives.put(key, new Archive(key, fileSystem, attributes));
+
+        synchronized (Archives.class) {
+            OWNERS.put(fileSystem, key);
+        }
+
+        return fileSystem.getRootDirectories();
+    }
+
+    /**
+     * Returns the path of the archive that contains the specified
+     * <code>source</code> file.
+     *
+     * @param source    The path of the source file.
+     * @return  An {@link Optional} container that either contains the path
+     *          of the archive, or <code>null</code>, if the source file is not
+     *          part of an archive that has been opened by this class.
+     */
+    static Optional<Path> getArchive(Path source) {
+        if (!Archives.isArchived(source)) {
+            return Optional.empty();
+        }
+
+        synchronized (Archives.class) {
+            return Optional.ofNullable(OWNERS.get(source.getFileSystem()));
+        }
+    }
+
+    /**
+     * Returns a description of the specified <code>source</code> file that
+     * is suitable for messages. The description of a file inside an archive
+     * consists of the path of the archive and the path of the file inside
+     * of it.
+     *
+     * @param source    The path of the source file.
+     * @return  The description of the source file.
+     */
+    static String describe(Path source) {
+        Optional<Path> archive = Archives.getArchive(source);
+
+        return archive.isPresent()
+                ? archive.get() + "!" + source
+                : source.toString();
+    }
+
+    /**
+     * Closes the file systems of all archives that have been opened by this
+     * instance. Afterwards, the paths of their source files are invalid.
+     */
+    @Override
+    public synchronized void close() {
+        for (Archive archive : this.archives.values()) {
+            Archives.close(archive);
+        }
+
+        this.archives.clear();
+        this.closed = true;
+    }
+
+    private static boolean isArchived(Path source) {
+        return source.getFileSystem() != FileSystems.getDefault();
+    }
+
+    private static void close(Archive archive) {
+        // Closing fails only if the file system cannot be flushed, which
+        // does not apply, since nothing is written.
+
+        try {
+            archive.fileSystem.close();
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Unable to close " + archive.path, ex);
+        }
+    }
+}
@@ -0,0 +1,684 @@
+package org.fir3.cml.tool.compiler;
+
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.tool.cache.BuildCache;
+import org.fir3.cml.tool.cache.CacheKey;
+import org.fir3.cml.tool.cache.DomainCodec;
+import org.fir3.cml.tool.exception.ParserException;
+import org.fir3.cml.tool.exception.TokenizerException;
+import org.fir3.cml.tool.parser.ParseResult;
+import org.fir3.cml.tool.parser.Parser;
+import org.fir3.cml.tool.parser.ParserDiagnostic;
+import org.fir3.cml.tool.stats.Phase;
+import org.fir3.cml.tool.stats.Statistics;
+import org.fir3.cml.tool.tokenizer.LineIndex;
+import org.fir3.cml.tool.tokenizer.Token;
+import org.fir3.cml.tool.tokenizer.Tokenizer;
+import org.fir3.cml.tool.util.seq.ByteBufferSequence;
+import org.fir3.cml.tool.util.seq.ListSequence;
+import org.fir3.cml.tool.util.seq.Sequence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The compiler turns a set of CML source files into an {@link Environment}.
+ *
+ * <p>
+ *     Each source file declares exactly one domain. The source files are
+ *     independent of each other until the environment is built, thus they
+ *     are parsed concurrently.
+ * </p>
+ *
+ * <p>
+ *     The compiler keeps the archives that it found source files in open,
+ *     until it is closed.
+ * </p>
+ */
+public final class Compiler implements Closeable {
+    /**
+     * The tokens of a source file together with their byte offsets, which
+     * are kept in a separate array, so that each offset only costs four
+     * bytes.
+     */
+    private static final class TokenizedSource {
+        private final List<Token> tokens;
+        private final int size;
+        private int[] offsets;
+
+        public TokenizedSource(int size) {
+            this.tokens = new ArrayList<>();
+            this.size = size;
+            this.offsets = new int[16];
+        }
+
+        public void add(Token token, long offset) {
+            if (this.tokens.size() == this.offsets.length) {
+                this.offsets = Arrays.copyOf(
+                        this.offsets,
+                        this.offsets.length * 2
+                );
+            }
+
+            this.offsets[this.tokens.size()] = (int) offset;
+            this.tokens.add(token);
+        }
+
+        public List<Token> getTokens() {
+            return this.tokens;
+        }
+
+        public int getOffset(long index) {
+            return index < this.tokens.size()
+                    ? this.offsets[(int) index]
+                    : this.size;
+        }
+    }
+
+    private static final Logger LOG = Logger.getLogger(
+            Compiler.class.getName()
+    );
+
+    /**
+     * The file name extension of CML source files.
+     */
+    public static final String SOURCE_FILE_EXTENSION = ".cml";
+
+    /**
+     * Source files of at least this size are mapped into memory instead of
+     * being read into a heap buffer.
+     */
+    private static final long MAPPING_THRESHOLD = 1 << 20;
+
+    private static void findSources(Path directory, Set<Path> sources)
+            throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            sources.addAll(files
+                    .filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName()
+                            .toString()
+                            .endsWith(SOURCE_FILE_EXTENSION))
+                    .map(Path::normalize)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Parses the domain that is declared by the specified source
+     * <code>file</code>.
+     *
+     * @param file  The path of the source file.
+     * @return  The domain that is declared by the source file.
+     *
+     * @throws NullPointerException If <code>file</code> is <code>null</code>.
+     * @throws IOException          If reading the source file fails or if it
+     *                              does not contain a valid domain. The
+     *                              message of the exception contains the path
+     *                              of the file.
+     */
+    public static Domain parse(Path file) throws IOException {
+        return Compiler.parse(file, Statistics.DISABLED, null);
+    }
+
+    private static Domain parse(
+            Path file,
+            Statistics statistics,
+            BuildCache cache
+    ) throws IOException {
+        Objects.requireNonNull(file, "file is null");
+
+        ParseResult result;
+
+        // The source is tokenized completely before it is parsed, so that
+        // both phases can be measured separately. Since the parser buffers
+        // the tokens for backtracking anyway, this does not cost much.
+        //
+        // The messages of all exceptions are prefixed with the path of the
+        // file, since the user would not know which file is broken otherwise.
+
+        String cacheKey = null;
+
+        try {
+            ByteBuffer content;
+            TokenizedSource tokens;
+
+            Statistics.Measurement readMeasurement = statistics.measure(
+                    Phase.Read
+            );
+
+            try {
+                content = Compiler.read(file);
+            } finally {
+                readMeasurement.stop();
+            }
+
+            statistics.addSourceFile(content.remaining());
+
+            if (cache != null) {
+                cacheKey = new CacheKey("domain")
+                        .add(Integer.toString(DomainCodec.VERSION))
+                        .add(content)
+                        .toString();
+
+                Optional<Domain> cachedDomain = Compiler.lookup(
+                        cache,
+                        cacheKey
+                );
+
+                if (cachedDomain.isPresent()) {
+                    statistics.addModels(
+                            cachedDomain.get().getModels().size()
+                    );
+
+                    return cachedDomain.get();
+                }
+            }
+
+            Statistics.Measurement tokenizeMeasurement = statistics.measure(
+                    Phase.Tokenize
+            );
+
+            try {
+                tokens = Compiler.tokenize(content);
+            } finally {
+                tokenizeMeasurement.stop();
+            }
+
+            statistics.addTokens(tokens.getTokens().size());
+
+            Statistics.Measurement parseMeasurement = statistics.measure(
+                    Phase.Parse
+            );
+
+            try (Sequence<Token> src = new ListSequence<>(tokens.getTokens())) {
+                result = new Parser(src).parseRecovering();
+            } finally {
+                parseMeasurement.stop();
+            }
+
+            // All errors of the file are reported at once, so that they can
+            // be fixed without recompiling after each of them. The lines of
+            // the source are only indexed in this case.
+
+            if (!result.isSuccessful()) {
+                LineIndex lines = new LineIndex(content);
+                StringBuilder message = new StringBuilder(
+                        "Unable to parse source"
+                );
+
+                for (ParserDiagnostic diagnostic : result.getDiagnostics()) {
+                    message.append(System.lineSeparator())
+                            .append("    ")
+                            .append(lines.describe(tokens.getOffset(
+                                    diagnostic.getPosition()
+                            )))
+                            .append(": ")
+                            .append(diagnostic.getMessage());
+                }
+
+                throw new ParserException(message.toString());
+            }
+        } catch (ParserException ex) {
+            throw new ParserException(Compiler.describe(file, ex), ex);
+        } catch (TokenizerException ex) {
+            throw new TokenizerException(Compiler.describe(file, ex), ex);
+        } catch (IOException ex) {
+            throw new IOException(Compiler.describe(file, ex), ex);
+        }
+
+        Domain parsedDomain = result.getDomain().orElseThrow(
+                () -> new ParserException(String.format(
+                        "%s: No domain declaration",
+                        Archives.describe(file)
+                ))
+        );
+
+        statistics.addModels(parsedDomain.getModels().size());
+
+        if (cacheKey != null) {
+            cache.put(cacheKey, DomainCodec.encode(parsedDomain));
+        }
+
+        return parsedDomain;
+    }
+
+    private static Optional<Domain> lookup(BuildCache cache, String key) {
+        Optional<byte[]> content = cache.get(key);
+
+        if (!content.isPresent()) {
+            return Optional.empty();
+        }
+
+        // A broken entry is parsed again and replaced afterwards
+
+        try {
+            return Optional.of(DomainCodec.decode(content.get()));
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Ignoring broken cache entry " + key, ex);
+            return Optional.empty();
+        }
+    }
+
+    private static TokenizedSource tokenize(ByteBuffer content)
+            throws IOException {
+        TokenizedSource tokens = new TokenizedSource(content.remaining());
+
+        // The content is not consumed, so that its lines can still be
+        // indexed if an error is reported.
+
+        try (Tokenizer tokenizer = new Tokenizer(new ByteBufferSequence(
+                content.duplicate()
+        ))) {
+            Token token;
+
+            try {
+                while ((token = tokenizer.read()) != null) {
+                    tokens.add(token, tokenizer.getOffset());
+                }
+            } catch (TokenizerException ex) {
+                throw new TokenizerException(String.format(
+                        "%s: %s",
+                        new LineIndex(content).describe(tokenizer.getOffset()),
+                        ex.getMessage()
+                ), ex);
+            }
+        }
+
+        return tokens;
+    }
+
+    private static String describe(Path file, Throwable cause) {
+        return String.format(
+                "%s: %s",
+                Archives.describe(file),
+                cause.getMessage()
+        );
+    }
+
+    private static ByteBuffer read(Path file) throws IOException {
+        // The entries of archives cannot be mapped, but their size is known
+        // upfront, so they are read into a buffer of that size at once. This
+        // avoids the growing intermediate buffers of an input stream.
+
+        if (file.getFileSystem() != FileSystems.getDefault()) {
+            try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+                return Compiler.read(channel, Files.size(file));
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.READ
+        )) {
+            long size = channel.size();
+
+            // Mapping small files is more expensive than reading them, since
+            // setting up the mapping costs more than copying a few pages.
+
+            if (size >= MAPPING_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            return Compiler.read(channel, size);
+        }
+    }
+
+    private static ByteBuffer read(ReadableByteChannel channel, long size)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // Reading until the buffer is full
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    private final int parallelism;
+    private final Statistics statistics;
+    private final BuildCache cache;
+    private final Archives archives;
+
+    /**
+     * Initializes a new instance of <code>Compiler</code> that parses up to
+     * as many source files concurrently as there are available processors.
+     */
+    public Compiler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Initializes a new instance of <code>Compiler</code> that does not
+     * collect any statistics.
+     *
+     * @param parallelism   The maximum number of source files that are parsed
+     *                      concurrently.
+     *
+     * @throws IllegalArgumentException If <code>parallelism</code> is less
+     *                                  than <code>1</code>.
+     */
+    public Compiler(int parallelism) {
+        this(parallelism, Statistics.DISABLED);
+    }
+
+    /**
+     * Initializes a new instance of <code>Compiler</code>.
+     *
+     * @param parallelism   The maximum number of source files that are parsed
+     *                      concurrently.
+     *
+     * @param statistics    The statistics that the phases of the compilation
+     *                      are recorded in.
+     *
+     * @throws NullPointerException     If <code>statistics</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>parallelism</code> is less
+     *                                  than <code>1</code>.
+     */
+    public Compiler(int parallelism, Statistics statistics) {
+        this(parallelism, statistics, null);
+    }
+
+    /**
+     * Initializes a new instance of <code>Compiler</code>, which looks up the
+     * domains of source files in the specified <code>cache</code> before it
+     * parses them.
+     *
+     * @param parallelism   The maximum number of source files that are parsed
+     *                      concurrently.
+     *
+     * @param statistics    The statistics that the phases of the compilation
+     *                      are recorded in.
+     *
+     * @param cache         Either the cache that stores the domains of
+     *                      parsed source files, keyed by the content of the
+     *                      source files, or <code>null</code>, if every
+     *                      source file shall be parsed.
+     *
+     * @throws NullPointerException     If <code>statistics</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>parallelism</code> is less
+     *                                  than <code>1</code>.
+     */
+    public Compiler(int parallelism, Statistics statistics, BuildCache cache) {
+        Objects.requireNonNull(statistics, "statistics is null");
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism is less than 1");
+        }
+
+        this.parallelism = parallelism;
+        this.statistics = statistics;
+        this.cache = cache;
+        this.archives = new Archives();
+    }
+
+    /**
+     * Returns the paths of all CML source files of the specified
+     * <code>inputs</code>.
+     *
+     * <p>
+     *     Directories are searched recursively for files with the
+     *     {@link #SOURCE_FILE_EXTENSION}. Zip and jar archives are opened as
+     *     file systems and searched the same way, so that their source files
+     *     are read without being extracted. Other regular files are
+     *     considered to be source files regardless of their name.
+     * </p>
+     *
+     * <p>
+     *     The archives are kept open by this compiler. The paths of source
+     *     files inside an archive remain valid until the archive changes on
+     *     disk and this method is called again, or until this compiler is
+     *     closed.
+     * </p>
+     *
+     * @param inputs    The source files, directories and archives.
+     * @return  The paths of all source files, sorted and without duplicates.
+     *          The source files of archives come after all other source
+     *          files.
+     *
+     * @throws NullPointerException If <code>inputs</code> is
+     *                              <code>null</code>.
+     *
+     * @throws IOException          If one of the <code>inputs</code> does not
+     *                              exist or cannot be searched.
+     *
+     * @throws IllegalStateException
+     *                              If this compiler has been closed.
+     */
+    public List<Path> findSources(Collection<Path> inputs) throws IOException {
+        Objects.requireNonNull(inputs, "inputs is null");
+
+        SortedSet<Path> sources = new TreeSet<>(Archives.SOURCE_ORDER);
+
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                Compiler.findSources(input, sources);
+            } else if (Files.isRegularFile(input) &&
+                    Archives.isArchive(input)) {
+                for (Path root : this.archives.open(input)) {
+                    Compiler.findSources(root, sources);
+                }
+            } else if (Files.isRegularFile(input)) {
+                sources.add(input.normalize());
+            } else {
+                throw new NoSuchFileException(input.toString());
+            }
+        }
+
+        return new ArrayList<>(sources);
+    }
+
+    /**
+     * Parses all source files of the specified <code>inputs</code> and
+     * builds the environment of their domains.
+     *
+     * @param inputs    The source files and directories, see
+     *                  {@link #findSources(Collection)}.
+     *
+     * @return  The environment that consists of the domains of all source
+     *          files.
+     *
+     * @throws NullPointerException If <code>inputs</code> is
+     *                              <code>null</code>.
+     *
+     * @throws IOException          If reading or parsing one of the source
+     *                              files fails, or if the domains cannot be
+     *                              combined to an environment.
+     */
+    public Environment compile(Collection<Path> inputs) throws IOException {
+        return this.combine(this.parseAll(this.findSources(inputs)));
+    }
+
+    /**
+     * Combines the specified <code>domains</code> to an environment.
+     *
+     * @param domains   The domains, mapped by the paths of the source files
+     *                  that declare them.
+     *
+     * @return  The environment that consists of the specified
+     *          <code>domains</code>.
+     *
+     * @throws NullPointerException If <code>domains</code> is
+     *                              <code>null</code>.
+     *
+     * @throws ParserException      If multiple source files declare the same
+     *                              domain, or if the domains cannot be
+     *                              combined to an environment.
+     */
+    public Environment combine(Map<Path, Domain> domains)
+            throws ParserException {
+        Objects.requireNonNull(domains, "domains is null");
+
+        // Validating that every domain is declared only once, so that the
+        // error message can name the conflicting files.
+
+        Statistics.Measurement combineMeasurement = this.statistics.measure(
+                Phase.Combine
+        );
+
+        try {
+            Map<String, Path> declaringFiles = new HashMap<>();
+
+            for (Map.Entry<Path, Domain> entry : domains.entrySet()) {
+                Path source = entry.getKey();
+                String domainName = entry.getValue().getName();
+                Path previous = declaringFiles.putIfAbsent(domainName, source);
+
+                if (previous != null) {
+                    throw new ParserException(String.format(
+                            "Domain '%s' is declared by both '%s' and '%s'",
+                            domainName,
+                            Archives.describe(previous),
+                            Archives.describe(source)
+                    ));
+                }
+            }
+        } finally {
+            combineMeasurement.stop();
+        }
+
+        Statistics.Measurement environmentMeasurement =
+                this.statistics.measure(Phase.Environment);
+
+        try {
+            return new Environment(new HashSet<>(domains.values()));
+        } catch (IllegalArgumentException ex) {
+            throw new ParserException(ex.getMessage(), ex);
+        } finally {
+            environmentMeasurement.stop();
+        }
+    }
+
+    /**
+     * Parses all of the specified <code>sources</code>, up to
+     * <code>parallelism</code> of them concurrently.
+     *
+     * @param sources   The paths of the source files.
+     * @return  The parsed domains, mapped by the paths of the source files
+     *          that declare them, in the iteration order of
+     *          <code>sources</code>.
+     *
+     * @throws NullPointerException If <code>sources</code> is
+     *                              <code>null</code>.
+     *
+     * @throws IOException          If reading or parsing one of the source
+     *                              files fails.
+     */
+    public Map<Path, Domain> parseAll(Collection<Path> sources)
+            throws IOException {
+        Objects.requireNonNull(sources, "sources is null");
+
+        List<Path> sourceList = new ArrayList<>(sources);
+        List<Domain> domains = this.parseInOrder(sourceList);
+        Map<Path, Domain> domainsBySource = new LinkedHashMap<>();
+
+        for (int index = 0; index < sourceList.size(); index++) {
+            domainsBySource.put(sourceList.get(index), domains.get(index));
+        }
+
+        return domainsBySource;
+    }
+
+    private List<Domain> parseInOrder(List<Path> sources)
+            throws IOException {
+        if (this.parallelism == 1 || sources.size() < 2) {
+            List<Domain> domains = new ArrayList<>();
+
+            for (Path source : sources) {
+                domains.add(this.parseSource(source));
+            }
+
+            return domains;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(this.parallelism, sources.size()),
+                Compiler::newParserThread
+        );
+
+        try {
+            List<Future<Domain>> futures = new ArrayList<>();
+
+            for (Path source : sources) {
+                futures.add(executor.submit(() -> this.parseSource(source)));
+            }
+
+            // Waiting for the results in the order of the sources, so that
+            // the reported failure does not depend on the scheduling.
+
+            List<Domain> domains = new ArrayList<>();
+
+            for (Future<Domain> future : futures) {
+                try {
+                    domains.add(future.get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(
+                            "Interrupted while parsing"
+                    );
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+
+                    throw new IOException(cause);
+                }
+            }
+
+            return domains;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Closes the archives that this compiler found source files in, see
+     * {@link #findSources(Collection)}. Afterwards, the paths of their source
+     * files are invalid, and no more inputs can be searched.
+     */
+    @Override
+    public void close() {
+        this.archives.close();
+    }
+
+    private Domain parseSource(Path source) throws IOException {
+        return Compiler.parse(source, this.statistics, this.cache);
+    }
+
+    private static Thread newParserThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "cml-parser");
+        thread.setDaemon(true);
+
+        return thread;
+    }
+}
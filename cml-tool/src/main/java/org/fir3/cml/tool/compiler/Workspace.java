@@ -0,0 +1,408 @@
+package org.fir3.cml.tool.compiler;
+
+import org.fir3.cml.api.model.*;
+import org.fir3.cml.api.util.ModelHelper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+/**
+ * A workspace keeps the parsed domains of a set of inputs in memory and
+ * updates them incrementally.
+ *
+ * <p>
+ *     When the workspace is refreshed, only those source files are parsed
+ *     again that are new, whose modification time or size changed, or that
+ *     have been reported as changed by the caller. The workspace also
+ *     determines which domains are affected by an update, i.e. the domains
+ *     that changed and all domains that (transitively) reference one of
+ *     them.
+ * </p>
+ *
+ * <p>
+ *     Instances of this class are not safe for concurrent use.
+ * </p>
+ */
+public final class Workspace {
+    /**
+     * The result of {@link #refresh(Set)}.
+     */
+    public static final class Update {
+        private final Environment environment;
+        private final Set<Path> parsedSources;
+        private final Set<String> affectedDomains;
+
+        private Update(
+                Environment environment,
+                Set<Path> parsedSources,
+                Set<String> affectedDomains
+        ) {
+            this.environment = environment;
+            this.parsedSources = Collections.unmodifiableSet(parsedSources);
+            this.affectedDomains = Collections.unmodifiableSet(
+                    affectedDomains
+            );
+        }
+
+        /**
+         * Returns the environment after the update.
+         *
+         * @return  The current environment.
+         */
+        public Environment getEnvironment() {
+            return this.environment;
+        }
+
+        /**
+         * Returns the source files that have been parsed during the update.
+         *
+         * @return  The paths of the parsed source files.
+         */
+        public Set<Path> getParsedSources() {
+            return this.parsedSources;
+        }
+
+        /**
+         * Returns the names of all domains that have been added, changed or
+         * removed, as well as the names of all domains that reference one of
+         * them.
+         *
+         * @return  The names of the affected domains.
+         */
+        public Set<String> getAffectedDomains() {
+            return this.affectedDomains;
+        }
+    }
+
+    /**
+     * A parsed source file and the file attributes that it was parsed at.
+     */
+    private static final class Source {
+        private final Domain domain;
+        private final FileTime lastModified;
+        private final long size;
+
+        private Source(Domain domain, FileTime lastModified, long size) {
+            this.domain = domain;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Maps the names of all models of an environment to the names of their
+     * domains, so that references are resolved without searching the
+     * domains. Names are resolved like {@link Environment#resolveModel}.
+     */
+    private static final class Index {
+        private final Map<String, String> models;
+        private final Map<String, String> ubiquitousModels;
+
+        private Index(Environment environment) {
+            this.models = new HashMap<>();
+            this.ubiquitousModels = new HashMap<>();
+
+            for (Domain domain : environment.getDomains()) {
+                boolean ubiquitous = domain.getFlags().contains(
+                        Domain.Flag.Ubiquitous
+                );
+
+                for (Model model : domain.getModels()) {
+                    this.models.put(
+                            ModelHelper.toString(domain, model),
+                            domain.getName()
+                    );
+
+                    if (ubiquitous) {
+                        this.ubiquitousModels.put(
+                                model.getName(),
+                                domain.getName()
+                        );
+                    }
+                }
+            }
+        }
+
+        private Optional<String> resolveDomain(String name, Domain context) {
+            if (name.indexOf('.') != -1) {
+                return Optional.ofNullable(this.models.get(name));
+            }
+
+            String domainName = this.models.get(context.getName() + "." + name);
+
+            return domainName == null
+                    ? Optional.ofNullable(this.ubiquitousModels.get(name))
+                    : Optional.of(domainName);
+        }
+    }
+
+    private final Collection<Path> inputs;
+    private final Compiler compiler;
+    private final Map<Path, Source> sources;
+    private Environment environment;
+
+    /**
+     * Initializes a new, empty instance of <code>Workspace</code>.
+     *
+     * @param inputs    The source files and directories of this workspace,
+     *                  see {@link Compiler#findSources(Collection)}.
+     *
+     * @param compiler  The compiler that searches and parses the source
+     *                  files. It keeps the archives of the inputs open, thus
+     *                  it needs to be closed once the workspace is no longer
+     *                  used.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     */
+    public Workspace(Collection<Path> inputs, Compiler compiler) {
+        Objects.requireNonNull(inputs, "inputs is null");
+        Objects.requireNonNull(compiler, "compiler is null");
+
+        this.inputs = Collections.unmodifiableList(new ArrayList<>(inputs));
+        this.compiler = compiler;
+        this.sources = new TreeMap<>(Archives.SOURCE_ORDER);
+        this.environment = new Environment(Collections.emptySet());
+    }
+
+    /**
+     * Returns the source files and directories of this workspace.
+     *
+     * @return  The inputs of this workspace.
+     */
+    public Collection<Path> getInputs() {
+        return this.inputs;
+    }
+
+    /**
+     * Returns the environment of the most recent successful refresh.
+     *
+     * @return  The current environment, which is empty, if this workspace
+     *          has not been refreshed successfully yet.
+     */
+    public Environment getEnvironment() {
+        return this.environment;
+    }
+
+    /**
+     * Searches the inputs for source files and parses all source files that
+     * changed since the previous refresh.
+     *
+     * <p>
+     *     If the refresh fails, the state of this workspace is left
+     *     unchanged, so that the next refresh parses the same files again.
+     * </p>
+     *
+     * @param changedSources    The paths of source files that are known to
+     *                          have changed, e.g. because a file system
+     *                          watcher reported them. These files are
+     *                          parsed again, even if their attributes did
+     *                          not change.
+     *
+     * @return  The result of the refresh.
+     *
+     * @throws NullPointerException If <code>changedSources</code> is
+     *                              <code>null</code>.
+     *
+     * @throws IOException          If searching, reading or parsing the
+     *                              source files fails, or if the domains
+     *                              cannot be combined to an environment.
+     */
+    public Update refresh(Set<Path> changedSources) throws IOException {
+        Objects.requireNonNull(changedSources, "changedSources is null");
+
+        Map<Path, BasicFileAttributes> attributes = new TreeMap<>(
+                Archives.SOURCE_ORDER
+        );
+
+        for (Path source : this.compiler.findSources(this.inputs)) {
+            attributes.put(source, Files.readAttributes(
+                    source,
+                    BasicFileAttributes.class
+            ));
+        }
+
+        // Determining the source files that need to be parsed again
+
+        Set<Path> normalizedChanges = new HashSet<>();
+
+        for (Path changedSource : changedSources) {
+            normalizedChanges.add(changedSource.normalize());
+        }
+
+        List<Path> pendingSources = new ArrayList<>();
+
+        for (Map.Entry<Path, BasicFileAttributes> entry :
+                attributes.entrySet()) {
+            Source previous = this.sources.get(entry.getKey());
+
+            // A change of an archive is reported for the archive rather
+            // than for the source files inside of it.
+
+            if (previous == null ||
+                    normalizedChanges.contains(entry.getKey()) ||
+                    Archives.getArchive(entry.getKey())
+                            .filter(normalizedChanges::contains)
+                            .isPresent() ||
+                    previous.size != entry.getValue().size() ||
+                    !previous.lastModified.equals(
+                            entry.getValue().lastModifiedTime()
+                    )) {
+                pendingSources.add(entry.getKey());
+            }
+        }
+
+        Map<Path, Domain> parsedDomains = this.compiler.parseAll(
+                pendingSources
+        );
+
+        // Combining the unchanged and the parsed domains. Source files that
+        // disappeared are dropped.
+
+        Map<Path, Source> sources = new TreeMap<>(Archives.SOURCE_ORDER);
+
+        for (Map.Entry<Path, BasicFileAttributes> entry :
+                attributes.entrySet()) {
+            Domain domain = parsedDomains.get(entry.getKey());
+
+            sources.put(entry.getKey(), domain == null
+                    ? this.sources.get(entry.getKey())
+                    : new Source(
+                            domain,
+                            entry.getValue().lastModifiedTime(),
+                            entry.getValue().size()
+                    ));
+        }
+
+        Map<Path, Domain> domains = new LinkedHashMap<>();
+
+        for (Map.Entry<Path, Source> entry : sources.entrySet()) {
+            domains.put(entry.getKey(), entry.getValue().domain);
+        }
+
+        Environment environment = this.compiler.combine(domains);
+
+        // Determining the affected domains before the state is replaced, so
+        // that references of removed domains are still known.
+
+        Set<String> changedDomains = Workspace.diff(
+                this.environment,
+                environment
+        );
+
+        Set<String> affectedDomains = new TreeSet<>(changedDomains);
+        affectedDomains.addAll(Workspace.findDependents(
+                this.environment,
+                changedDomains
+        ));
+
+        affectedDomains.addAll(Workspace.findDependents(
+                environment,
+                changedDomains
+        ));
+
+        this.sources.clear();
+        this.sources.putAll(sources);
+        this.environment = environment;
+
+        return new Update(
+                environment,
+                new TreeSet<>(parsedDomains.keySet()),
+                affectedDomains
+        );
+    }
+
+    private static Set<String> diff(Environment previous, Environment current) {
+        Map<String, Domain> previousDomains = new HashMap<>();
+
+        for (Domain domain : previous.getDomains()) {
+            previousDomains.put(domain.getName(), domain);
+        }
+
+        Set<String> changedDomains = new TreeSet<>();
+
+        for (Domain domain : current.getDomains()) {
+            Domain previousDomain = previousDomains.remove(domain.getName());
+
+            if (!domain.equals(previousDomain)) {
+                changedDomains.add(domain.getName());
+            }
+        }
+
+        changedDomains.addAll(previousDomains.keySet());
+        return changedDomains;
+    }
+
+    private static Set<String> findDependents(
+            Environment environment,
+            Set<String> domainNames
+    ) {
+        // Inverting the dependency graph of the domains, so that the
+        // dependents of the specified domains can be collected by a simple
+        // traversal.
+
+        Map<String, Set<String>> dependents = new HashMap<>();
+        Index index = new Index(environment);
+
+        for (Domain domain : environment.getDomains()) {
+            for (String dependency : Workspace.findDependencies(
+                    index,
+                    domain
+            )) {
+                dependents.computeIfAbsent(dependency, k -> new HashSet<>())
+                        .add(domain.getName());
+            }
+        }
+
+        Set<String> result = new TreeSet<>();
+        Deque<String> pending = new ArrayDeque<>(domainNames);
+
+        while (!pending.isEmpty()) {
+            for (String dependent : dependents.getOrDefault(
+                    pending.pop(),
+                    Collections.emptySet()
+            )) {
+                if (result.add(dependent)) {
+                    pending.push(dependent);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static Set<String> findDependencies(Index index, Domain domain) {
+        Set<String> dependencies = new HashSet<>();
+        Deque<Type> pending = new ArrayDeque<>();
+
+        for (Model model : domain.getModels()) {
+            for (Attribute attribute : model.getAttributes()) {
+                pending.push(attribute.getType());
+            }
+        }
+
+        while (!pending.isEmpty()) {
+            Type type = pending.pop();
+
+            if (type.getCategory() != Type.Category.Model) {
+                continue;
+            }
+
+            ModelType modelType = (ModelType) type;
+            pending.addAll(modelType.getTypeParameters());
+
+            // Unresolvable references are ignored here, they are reported by
+            // the translator.
+
+            index.resolveDomain(modelType.getModelName(), domain)
+                    .filter(n -> !n.equals(domain.getName()))
+                    .ifPresent(dependencies::add);
+        }
+
+        return dependencies;
+    }
+}
@@ -0,0 +1,496 @@
+package org.fir3.cml.tool.daemon;
+
+import org.fir3.cml.api.OutputSink;
+import org.fir3.cml.api.Translator;
+import org.fir3.cml.api.exception.ConfigurationException;
+import org.fir3.cml.api.exception.TranslationException;
+import org.fir3.cml.tool.compiler.Workspace;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A long-running process that keeps a {@link Workspace} and a
+ * {@link Translator} in memory, watches the inputs of the workspace for
+ * changes and translates the affected target domains whenever something
+ * changed.
+ *
+ * <p>
+ *     Clients control the daemon via a line-based text protocol on a
+ *     loopback socket. Each request is a single line that contains one of
+ *     the following commands, and each response is a single line that
+ *     starts with either <code>ok</code> or <code>error</code>. Error
+ *     messages that span multiple lines, e.g. the errors of a source that
+ *     contains several syntax errors, are joined by <code>; </code>:
+ * </p>
+ *
+ * <ul>
+ *     <li>
+ *         <code>build</code> refreshes the workspace and translates the
+ *         affected target domains. The response lists the translated
+ *         domains.
+ *     </li>
+ *     <li>
+ *         <code>status</code> reports the number of completed builds and
+ *         the outcome of the most recent one.
+ *     </li>
+ *     <li><code>stop</code> stops the daemon.</li>
+ * </ul>
+ */
+public final class Daemon implements Closeable {
+    private static final Logger LOG = Logger.getLogger(Daemon.class.getName());
+
+    /**
+     * The time that the watcher waits for further changes after a change
+     * was reported, so that a burst of changes results in a single build.
+     */
+    private static final long DEBOUNCE_MILLIS = 50;
+
+    private final Workspace workspace;
+    private final Translator translator;
+    private final Set<String> targetDomains;
+    private final byte[] config;
+    private final OutputSink sink;
+    private final CountDownLatch stopped;
+    private final Object buildLock;
+    private final Set<Path> watchedTrees;
+    private final Map<Path, Set<Path>> watchedFiles;
+    private ServerSocket serverSocket;
+    private WatchService watchService;
+    private int builds;
+    private boolean translated;
+    private String lastOutcome;
+
+    /**
+     * Initializes a new instance of <code>Daemon</code>. The daemon does not
+     * do anything before {@link #start(int)} is called.
+     *
+     * @param workspace     The workspace, whose inputs are watched.
+     * @param translator    The translator that translates the target
+     *                      domains.
+     *
+     * @param targetDomains The names of the domains that are translated.
+     * @param config        Either the translator-specific configuration or
+     *                      <code>null</code>, if there is no configuration.
+     *
+     * @param sink          Either the sink that the output is written to or
+     *                      <code>null</code>, if the translator determines
+     *                      the location of the output itself.
+     *
+     * @throws NullPointerException If <code>workspace</code>,
+     *                              <code>translator</code> or
+     *                              <code>targetDomains</code> is
+     *                              <code>null</code>.
+     */
+    public Daemon(
+            Workspace workspace,
+            Translator translator,
+            Set<String> targetDomains,
+            byte[] config,
+            OutputSink sink
+    ) {
+        Objects.requireNonNull(workspace, "workspace is null");
+        Objects.requireNonNull(translator, "translator is null");
+        Objects.requireNonNull(targetDomains, "targetDomains is null");
+
+        this.workspace = workspace;
+        this.translator = translator;
+        this.targetDomains = Collections.unmodifiableSet(
+                new LinkedHashSet<>(targetDomains)
+        );
+
+        this.config = config == null ? null : config.clone();
+        this.sink = sink;
+        this.stopped = new CountDownLatch(1);
+        this.buildLock = new Object();
+        this.watchedTrees = new HashSet<>();
+        this.watchedFiles = new HashMap<>();
+        this.lastOutcome = "no build yet";
+    }
+
+    /**
+     * Performs an initial build, starts watching the inputs of the workspace
+     * and starts accepting clients on the loopback interface.
+     *
+     * <p>
+     *     A failing initial build does not prevent the daemon from starting,
+     *     since the user is expected to fix the sources while the daemon is
+     *     running.
+     * </p>
+     *
+     * @param port  The port that the daemon listens on, or <code>0</code>, if
+     *              an arbitrary free port shall be used.
+     *
+     * @return  The port that the daemon listens on.
+     *
+     * @throws IllegalStateException    If the daemon has been started
+     *                                  already.
+     *
+     * @throws IOException              If the inputs cannot be watched or
+     *                                  if the socket cannot be bound.
+     */
+    public synchronized int start(int port) throws IOException {
+        if (this.serverSocket != null) {
+            throw new IllegalStateException("Daemon has been started already");
+        }
+
+        this.buildQuietly(Collections.emptySet());
+
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        // Directories are watched including their subdirectories. Of the
+        // directory of a single source file, only that file is watched, so
+        // that unrelated files next to it do not trigger builds.
+
+        for (Path input : this.workspace.getInputs()) {
+            if (Files.isDirectory(input)) {
+                this.register(input);
+                continue;
+            }
+
+            Path file = input.toAbsolutePath().normalize();
+            Path directory = file.getParent();
+
+            this.watchedFiles.computeIfAbsent(directory, d -> new HashSet<>())
+                    .add(file.getFileName());
+
+            this.registerDirectory(directory);
+        }
+
+        this.serverSocket = new ServerSocket(
+                port,
+                0,
+                InetAddress.getLoopbackAddress()
+        );
+
+        Daemon.startThread("cml-daemon-watcher", this::watch);
+        Daemon.startThread("cml-daemon-server", this::serve);
+
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * Waits until the daemon has been stopped, either by a client or by
+     * calling {@link #close()}.
+     *
+     * @throws InterruptedException If the current thread is interrupted while
+     *                              waiting.
+     */
+    public void awaitStop() throws InterruptedException {
+        this.stopped.await();
+    }
+
+    /**
+     * Refreshes the workspace and translates the target domains that are
+     * affected by the changes since the previous build. The first build
+     * translates all target domains.
+     *
+     * @param changedSources    The paths of source files that are known to
+     *                          have changed.
+     *
+     * @return  The names of the translated domains.
+     *
+     * @throws IOException              If refreshing the workspace fails.
+     * @throws ConfigurationException   If the configuration is invalid.
+     * @throws TranslationException     If the translation fails.
+     */
+    public Set<String> build(Set<Path> changedSources)
+            throws IOException, ConfigurationException, TranslationException {
+        synchronized (this.buildLock) {
+            try {
+                Set<String> translatedDomains = this.build0(changedSources);
+
+                this.lastOutcome = "ok " + String.join(",", translatedDomains);
+                return translatedDomains;
+            } catch (IOException | ConfigurationException |
+                    TranslationException | RuntimeException ex) {
+                this.lastOutcome = "error " + Daemon.toLine(ex);
+                throw ex;
+            } finally {
+                this.builds++;
+            }
+        }
+    }
+
+    private Set<String> build0(Set<Path> changedSources)
+            throws IOException, ConfigurationException, TranslationException {
+        Workspace.Update update = this.workspace.refresh(changedSources);
+
+        // If the previous translation failed, its output may be incomplete,
+        // thus all target domains are translated again.
+
+        Set<String> domains = new LinkedHashSet<>(this.targetDomains);
+
+        if (this.translated) {
+            domains.retainAll(update.getAffectedDomains());
+        }
+
+        this.translated = false;
+
+        if (!domains.isEmpty()) {
+            if (this.sink == null) {
+                this.translator.translate(
+                        update.getEnvironment(),
+                        domains,
+                        this.openConfig()
+                );
+            } else {
+                this.translator.translate(
+                        update.getEnvironment(),
+                        domains,
+                        this.openConfig(),
+                        this.sink
+                );
+            }
+        }
+
+        this.translated = true;
+        return domains;
+    }
+
+    private InputStream openConfig() {
+        return this.config == null
+                ? null
+                : new ByteArrayInputStream(this.config);
+    }
+
+    private String buildQuietly(Set<Path> changedSources) {
+        try {
+            Set<String> domains = this.build(changedSources);
+
+            LOG.log(Level.INFO, "Translated {0}", domains);
+            return "ok " + String.join(",", domains);
+        } catch (IOException | ConfigurationException | TranslationException |
+                RuntimeException ex) {
+            LOG.log(Level.WARNING, "Build failed: {0}", ex.getMessage());
+            return "error " + Daemon.toLine(ex);
+        }
+    }
+
+    /**
+     * Stops the daemon, i.e. it stops watching the inputs and closes the
+     * socket.
+     *
+     * @throws IOException  If closing the socket or the watch service fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (this.serverSocket != null) {
+                this.serverSocket.close();
+            }
+        } finally {
+            if (this.watchService != null) {
+                this.watchService.close();
+            }
+
+            this.stopped.countDown();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            this.close();
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Unable to stop the daemon", ex);
+        }
+    }
+
+    private void register(Path directory) throws IOException {
+        // WatchService does not watch directories recursively, thus each
+        // subdirectory is registered separately.
+
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(
+                    Path dir,
+                    BasicFileAttributes attrs
+            ) throws IOException {
+                Daemon.this.watchedTrees.add(dir.toAbsolutePath().normalize());
+                Daemon.this.registerDirectory(dir);
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void registerDirectory(Path directory) throws IOException {
+        directory.register(
+                this.watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY
+        );
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                Set<Path> changedSources = new HashSet<>();
+                WatchKey key = this.watchService.take();
+                boolean changed = false;
+
+                // Collecting all changes that are reported shortly after the
+                // first one.
+
+                while (key != null) {
+                    changed |= this.collect(key, changedSources);
+                    key = this.watchService.poll(
+                            DEBOUNCE_MILLIS,
+                            TimeUnit.MILLISECONDS
+                    );
+                }
+
+                if (changed) {
+                    this.buildQuietly(changedSources);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // The daemon has been stopped.
+        }
+    }
+
+    private boolean collect(WatchKey key, Set<Path> changedSources) {
+        Path directory = (Path) key.watchable();
+        Path normalizedDirectory = directory.toAbsolutePath().normalize();
+
+        // If the directory is only watched for some source files, the events
+        // of the other files are ignored.
+
+        boolean tree = this.watchedTrees.contains(normalizedDirectory);
+        Set<Path> files = this.watchedFiles.getOrDefault(
+                normalizedDirectory,
+                Collections.emptySet()
+        );
+
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // If events have been lost, a build is required nevertheless,
+            // which finds the changes by itself.
+
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+                continue;
+            }
+
+            Path name = (Path) event.context();
+
+            if (!tree && !files.contains(name)) {
+                continue;
+            }
+
+            Path path = directory.resolve(name);
+            changedSources.add(path);
+            changed = true;
+
+            if (tree &&
+                    event.kind() == StandardWatchEventKinds.ENTRY_CREATE &&
+                    Files.isDirectory(path)) {
+                try {
+                    this.register(path);
+                } catch (IOException ex) {
+                    LOG.log(Level.WARNING, "Unable to watch " + path, ex);
+                }
+            }
+        }
+
+        key.reset();
+        return changed;
+    }
+
+    private void serve() {
+        try {
+            while (true) {
+                Socket client = this.serverSocket.accept();
+                Daemon.startThread("cml-daemon-client", () -> this.handle(
+                        client
+                ));
+            }
+        } catch (SocketException ignored) {
+            // The socket has been closed, since the daemon has been stopped.
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Unable to accept clients", ex);
+            this.closeQuietly();
+        }
+    }
+
+    private void handle(Socket client) {
+        try (Socket socket = client;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(),
+                     StandardCharsets.UTF_8
+             ));
+             Writer writer = new OutputStreamWriter(
+                     socket.getOutputStream(),
+                     StandardCharsets.UTF_8
+             )) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                String command = line.trim();
+                boolean stop = command.equals("stop");
+
+                writer.write(this.execute(command));
+                writer.write('\n');
+                writer.flush();
+
+                if (stop) {
+                    this.closeQuietly();
+                    return;
+                }
+            }
+        } catch (IOException ex) {
+            LOG.log(Level.FINE, "Client disconnected", ex);
+        }
+    }
+
+    private String execute(String command) {
+        switch (command) {
+            case "build":
+                return this.buildQuietly(Collections.emptySet());
+
+            case "status":
+                synchronized (this.buildLock) {
+                    return String.format(
+                            "ok builds=%d last=%s",
+                            this.builds,
+                            this.lastOutcome
+                    );
+                }
+
+            case "stop":
+                return "ok";
+
+            default:
+                return String.format("error Unknown command '%s'", command);
+        }
+    }
+
+    private static String toLine(Exception ex) {
+        // Each response has to fit into a single line, thus the lines of the
+        // message are joined, without the indentation of subsequent lines.
+
+        return String.valueOf(ex.getMessage()).trim().replaceAll(
+                "\\s*\\R\\s*",
+                "; "
+        );
+    }
+
+    private static void startThread(String name, Runnable runnable) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
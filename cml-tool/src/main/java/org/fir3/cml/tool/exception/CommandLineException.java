@@ -0,0 +1,15 @@
+package org.fir3.cml.tool.exception;
+
+/**
+ * An exception that indicates that the arguments that have been passed on
+ * the command line are invalid.
+ */
+public class CommandLineException extends Exception {
+    public CommandLineException(String message) {
+        super(message);
+    }
+
+    public CommandLineException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
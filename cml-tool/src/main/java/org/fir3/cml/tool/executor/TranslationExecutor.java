@@ -0,0 +1,231 @@
+package org.fir3.cml.tool.executor;
+
+import org.fir3.cml.api.OutputSink;
+import org.fir3.cml.api.Translator;
+import org.fir3.cml.api.exception.ConfigurationException;
+import org.fir3.cml.api.exception.TranslationException;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs multiple {@link TranslationJob}s concurrently on a bounded number of
+ * threads.
+ *
+ * <p>
+ *     Each submitted job results in a {@link Future}, which provides the
+ *     {@link TranslationResult} of the job. If the translation fails, the
+ *     {@link java.util.concurrent.ExecutionException} that is thrown by
+ *     {@link Future#get()} contains the exception of the translator.
+ *     Cancelling a future with <code>mayInterruptIfRunning</code> set to
+ *     <code>true</code> interrupts the translation, if it is already
+ *     running. Translators are expected to respond to interruption, but are
+ *     not required to.
+ * </p>
+ *
+ * <p>
+ *     Instances of this class are safe for concurrent use. The same
+ *     {@link Translator} instance may be used by multiple jobs at once, thus
+ *     it must be safe for concurrent use as well.
+ * </p>
+ */
+public final class TranslationExecutor implements Closeable {
+    private static final AtomicInteger EXECUTOR_COUNTER = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final Set<Future<TranslationResult>> pending;
+
+    /**
+     * Initializes a new instance of <code>TranslationExecutor</code> that
+     * runs up to as many jobs concurrently as there are available processors.
+     */
+    public TranslationExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Initializes a new instance of <code>TranslationExecutor</code>.
+     *
+     * @param parallelism   The maximum number of jobs that run concurrently.
+     *
+     * @throws IllegalArgumentException If <code>parallelism</code> is less
+     *                                  than <code>1</code>.
+     */
+    public TranslationExecutor(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism is less than 1");
+        }
+
+        int executorId = EXECUTOR_COUNTER.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, String.format(
+                    "cml-translation-%d-%d",
+                    executorId,
+                    threadCounter.incrementAndGet()
+            ));
+
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.pending = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Submits the specified <code>job</code> for execution.
+     *
+     * @param job   The job that will be executed.
+     * @return  The future that provides the result of the specified
+     *          <code>job</code>.
+     *
+     * @throws NullPointerException If <code>job</code> is <code>null</code>.
+     * @throws java.util.concurrent.RejectedExecutionException
+     *                              If this executor has been closed.
+     */
+    public Future<TranslationResult> submit(TranslationJob job) {
+        Objects.requireNonNull(job, "job is null");
+
+        long submitted = System.nanoTime();
+
+        // The futures are tracked until they are done, so that cancelAll is
+        // able to cancel the jobs that are still queued.
+
+        FutureTask<TranslationResult> task = new FutureTask<TranslationResult>(
+                () -> TranslationExecutor.run(job, submitted)
+        ) {
+            @Override
+            protected void done() {
+                TranslationExecutor.this.pending.remove(this);
+            }
+        };
+
+        this.pending.add(task);
+
+        try {
+            this.executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            this.pending.remove(task);
+            throw ex;
+        }
+
+        return task;
+    }
+
+    /**
+     * Submits all of the specified <code>jobs</code> for execution.
+     *
+     * @param jobs  The jobs that will be executed.
+     * @return  The futures that provide the results of the specified
+     *          <code>jobs</code>, in the iteration order of
+     *          <code>jobs</code>.
+     *
+     * @throws NullPointerException If <code>jobs</code> or one of its
+     *                              elements is <code>null</code>.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException
+     *                              If this executor has been closed.
+     */
+    public List<Future<TranslationResult>> submitAll(
+            Collection<TranslationJob> jobs
+    ) {
+        Objects.requireNonNull(jobs, "jobs is null");
+
+        List<Future<TranslationResult>> futures = new ArrayList<>();
+
+        for (TranslationJob job : jobs) {
+            futures.add(this.submit(job));
+        }
+
+        return futures;
+    }
+
+    /**
+     * Cancels all jobs that have not been completed yet and interrupts the
+     * running translations. Afterwards, no more jobs can be submitted.
+     */
+    public void cancelAll() {
+        this.executor.shutdownNow();
+
+        // Shutting down the executor drops the queued jobs without
+        // completing their futures, thus they are cancelled explicitly.
+
+        for (Future<TranslationResult> future : this.pending) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Waits until all submitted jobs have been completed or cancelled. No
+     * more jobs can be submitted after this method has been called.
+     *
+     * @param timeout   The maximum time to wait.
+     * @param unit      The unit of <code>timeout</code>.
+     *
+     * @return  Either <code>true</code>, if all jobs have been completed, or
+     *          <code>false</code>, if the timeout elapsed before.
+     *
+     * @throws InterruptedException If the current thread is interrupted while
+     *                              waiting.
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        this.executor.shutdown();
+
+        return this.executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Cancels all jobs that have not been completed yet, see
+     * {@link #cancelAll()}.
+     */
+    @Override
+    public void close() {
+        this.cancelAll();
+    }
+
+    private static TranslationResult run(TranslationJob job, long submitted)
+            throws ConfigurationException, TranslationException {
+        long started = System.nanoTime();
+        Translator translator = job.getTranslator();
+        Optional<OutputSink> sink = job.getSink();
+
+        if (sink.isPresent()) {
+            translator.translate(
+                    job.getEnvironment(),
+                    job.getTargetDomain(),
+                    job.openConfig(),
+                    sink.get()
+            );
+        } else {
+            translator.translate(
+                    job.getEnvironment(),
+                    job.getTargetDomain(),
+                    job.openConfig()
+            );
+        }
+
+        long finished = System.nanoTime();
+
+        return new TranslationResult(
+                job,
+                Duration.ofNanos(started - submitted),
+                Duration.ofNanos(finished - started)
+        );
+    }
+}
@@ -0,0 +1,126 @@
+package org.fir3.cml.tool.executor;
+
+import org.fir3.cml.api.OutputSink;
+import org.fir3.cml.api.Translator;
+import org.fir3.cml.api.model.Environment;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A single translation of one domain that can be submitted to a
+ * {@link TranslationExecutor}.
+ *
+ * <p>
+ *     The configuration of the translator is kept in memory, so that a job
+ *     does not depend on a stream that may only be consumed once.
+ * </p>
+ */
+public final class TranslationJob {
+    private final Translator translator;
+    private final Environment environment;
+    private final String targetDomain;
+    private final byte[] config;
+    private final OutputSink sink;
+
+    /**
+     * Initializes a new instance of <code>TranslationJob</code>, whose
+     * translator determines the location of the output itself.
+     *
+     * @param translator    The translator that performs the translation.
+     * @param environment   The environment of the translation.
+     * @param targetDomain  The full name of the domain that will be
+     *                      translated.
+     *
+     * @param config        Either the translator-specific configuration or
+     *                      <code>null</code>, if there is no configuration.
+     *
+     * @throws NullPointerException If <code>translator</code>,
+     *                              <code>environment</code> or
+     *                              <code>targetDomain</code> is
+     *                              <code>null</code>.
+     */
+    public TranslationJob(
+            Translator translator,
+            Environment environment,
+            String targetDomain,
+            byte[] config
+    ) {
+        this(translator, environment, targetDomain, config, null);
+    }
+
+    /**
+     * Initializes a new instance of <code>TranslationJob</code>.
+     *
+     * @param translator    The translator that performs the translation.
+     * @param environment   The environment of the translation.
+     * @param targetDomain  The full name of the domain that will be
+     *                      translated.
+     *
+     * @param config        Either the translator-specific configuration or
+     *                      <code>null</code>, if there is no configuration.
+     *
+     * @param sink          Either the sink that the output is written to or
+     *                      <code>null</code>, if the translator determines
+     *                      the location of the output itself.
+     *
+     * @throws NullPointerException If <code>translator</code>,
+     *                              <code>environment</code> or
+     *                              <code>targetDomain</code> is
+     *                              <code>null</code>.
+     */
+    public TranslationJob(
+            Translator translator,
+            Environment environment,
+            String targetDomain,
+            byte[] config,
+            OutputSink sink
+    ) {
+        Objects.requireNonNull(translator, "translator is null");
+        Objects.requireNonNull(environment, "environment is null");
+        Objects.requireNonNull(targetDomain, "targetDomain is null");
+
+        this.translator = translator;
+        this.environment = environment;
+        this.targetDomain = targetDomain;
+        this.config = config == null ? null : config.clone();
+        this.sink = sink;
+    }
+
+    public Translator getTranslator() {
+        return this.translator;
+    }
+
+    public Environment getEnvironment() {
+        return this.environment;
+    }
+
+    public String getTargetDomain() {
+        return this.targetDomain;
+    }
+
+    /**
+     * Returns a new stream of the translator-specific configuration.
+     *
+     * @return  Either a new stream of the configuration or
+     *          <code>null</code>, if there is no configuration.
+     */
+    public InputStream openConfig() {
+        return this.config == null
+                ? null
+                : new ByteArrayInputStream(this.config);
+    }
+
+    /**
+     * Returns the sink that the output is written to.
+     *
+     * @return  An {@link Optional} instance that either contains the sink,
+     *          or <code>null</code>, if the translator determines the
+     *          location of the output itself.
+     */
+    public Optional<OutputSink> getSink() {
+        return Optional.ofNullable(this.sink);
+    }
+}
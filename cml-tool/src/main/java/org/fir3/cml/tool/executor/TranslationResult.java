@@ -0,0 +1,52 @@
+package org.fir3.cml.tool.executor;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The result of a {@link TranslationJob} that has been completed
+ * successfully by a {@link TranslationExecutor}.
+ */
+public final class TranslationResult {
+    private final TranslationJob job;
+    private final Duration queueTime;
+    private final Duration runTime;
+
+    /**
+     * Initializes a new instance of <code>TranslationResult</code>.
+     *
+     * @param job       The job that has been completed.
+     * @param queueTime The time between the submission of the job and the
+     *                  start of its translation.
+     *
+     * @param runTime   The time that the translation took.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     */
+    public TranslationResult(
+            TranslationJob job,
+            Duration queueTime,
+            Duration runTime
+    ) {
+        Objects.requireNonNull(job, "job is null");
+        Objects.requireNonNull(queueTime, "queueTime is null");
+        Objects.requireNonNull(runTime, "runTime is null");
+
+        this.job = job;
+        this.queueTime = queueTime;
+        this.runTime = runTime;
+    }
+
+    public TranslationJob getJob() {
+        return this.job;
+    }
+
+    public Duration getQueueTime() {
+        return this.queueTime;
+    }
+
+    public Duration getRunTime() {
+        return this.runTime;
+    }
+}
@@ -0,0 +1,417 @@
+package org.fir3.cml.tool.generator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Generates synthetic CML sources for scale tests and benchmarks.
+ *
+ * <p>
+ *     The generated sources only depend on the seed and the settings of the
+ *     generator, thus two generators with equal settings always generate
+ *     exactly the same sources. Each source file declares one domain, whose
+ *     models reference the models of the same and of preceding domains,
+ *     both qualified and unqualified. Every fourth model is generic.
+ * </p>
+ *
+ * <p>
+ *     The builtin domain, which declares <code>Bit</code> and
+ *     <code>Sequence</code>, is part of the generated sources, so that they
+ *     can be compiled without any further sources.
+ * </p>
+ */
+public final class SchemaGenerator {
+    /**
+     * The name of the file that declares the builtin domain.
+     */
+    public static final String BUILTIN_FILE_NAME = "builtin.cml";
+
+    private static final String BUILTIN_SOURCE = String.join("\n",
+            "ubiquitous domain org.fir3.cml.__builtin__;",
+            "",
+            "builtin model Bit;",
+            "builtin model Sequence<ElementType>;",
+            ""
+    );
+
+    private static final String INDENT = "    ";
+
+    private final long seed;
+    private String domainPrefix;
+    private int domains;
+    private int modelsPerDomain;
+    private int attributesPerModel;
+    private int maxNestingDepth;
+    private double commentDensity;
+
+    /**
+     * Initializes a new instance of <code>SchemaGenerator</code> with the
+     * default settings, i.e. four domains with 16 models each, four
+     * attributes per model, a maximum nesting depth of two and a comment
+     * density of 0.1.
+     *
+     * @param seed  The seed of the pseudo-random choices.
+     */
+    public SchemaGenerator(long seed) {
+        this.seed = seed;
+        this.domainPrefix = "generated";
+        this.domains = 4;
+        this.modelsPerDomain = 16;
+        this.attributesPerModel = 4;
+        this.maxNestingDepth = 2;
+        this.commentDensity = 0.1;
+    }
+
+    /**
+     * Sets the prefix of the names of the generated domains. The domains are
+     * named <code>&lt;prefix&gt;.d0</code>, <code>&lt;prefix&gt;.d1</code>
+     * and so on.
+     *
+     * @param domainPrefix  The prefix of the domain names.
+     * @return  This instance.
+     *
+     * @throws NullPointerException     If <code>domainPrefix</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>domainPrefix</code> is not a
+     *                                  sequence of lowercase identifiers
+     *                                  that are separated by dots.
+     */
+    public SchemaGenerator setDomainPrefix(String domainPrefix) {
+        Objects.requireNonNull(domainPrefix, "domainPrefix is null");
+
+        if (!domainPrefix.matches("[a-z][a-z0-9_]*(\\.[a-z][a-z0-9_]*)*")) {
+            throw new IllegalArgumentException("Invalid domainPrefix");
+        }
+
+        this.domainPrefix = domainPrefix;
+        return this;
+    }
+
+    /**
+     * Sets the number of generated domains, excluding the builtin domain.
+     *
+     * @param domains   The number of domains.
+     * @return  This instance.
+     *
+     * @throws IllegalArgumentException If <code>domains</code> is less than
+     *                                  <code>1</code>.
+     */
+    public SchemaGenerator setDomains(int domains) {
+        this.domains = SchemaGenerator.requirePositive(domains, "domains");
+        return this;
+    }
+
+    /**
+     * Sets the number of models of each domain.
+     *
+     * @param modelsPerDomain   The number of models per domain.
+     * @return  This instance.
+     *
+     * @throws IllegalArgumentException If <code>modelsPerDomain</code> is
+     *                                  less than <code>4</code>, since there
+     *                                  would not be any generic model.
+     */
+    public SchemaGenerator setModelsPerDomain(int modelsPerDomain) {
+        if (modelsPerDomain < 4) {
+            throw new IllegalArgumentException(
+                    "modelsPerDomain is less than 4"
+            );
+        }
+
+        this.modelsPerDomain = modelsPerDomain;
+        return this;
+    }
+
+    /**
+     * Sets the number of attributes of each model.
+     *
+     * @param attributesPerModel    The number of attributes per model.
+     * @return  This instance.
+     *
+     * @throws IllegalArgumentException If <code>attributesPerModel</code> is
+     *                                  negative.
+     */
+    public SchemaGenerator setAttributesPerModel(int attributesPerModel) {
+        if (attributesPerModel < 0) {
+            throw new IllegalArgumentException(
+                    "attributesPerModel is negative"
+            );
+        }
+
+        this.attributesPerModel = attributesPerModel;
+        return this;
+    }
+
+    /**
+     * Sets the maximum nesting depth of generic types. A depth of
+     * <code>0</code> means that attribute types are never generic, a depth
+     * of <code>1</code> allows <code>Sequence&lt;Bit&gt;</code>, a depth of
+     * <code>2</code> allows <code>Sequence&lt;Sequence&lt;Bit&gt;&gt;</code>
+     * and so on.
+     *
+     * @param maxNestingDepth   The maximum nesting depth.
+     * @return  This instance.
+     *
+     * @throws IllegalArgumentException If <code>maxNestingDepth</code> is
+     *                                  negative.
+     */
+    public SchemaGenerator setMaxNestingDepth(int maxNestingDepth) {
+        if (maxNestingDepth < 0) {
+            throw new IllegalArgumentException("maxNestingDepth is negative");
+        }
+
+        this.maxNestingDepth = maxNestingDepth;
+        return this;
+    }
+
+    /**
+     * Sets the probability that a comment is generated in front of a model
+     * or an attribute.
+     *
+     * @param commentDensity    The probability, between <code>0</code> and
+     *                          <code>1</code>.
+     *
+     * @return  This instance.
+     *
+     * @throws IllegalArgumentException If <code>commentDensity</code> is not
+     *                                  between <code>0</code> and
+     *                                  <code>1</code>.
+     */
+    public SchemaGenerator setCommentDensity(double commentDensity) {
+        if (!(commentDensity >= 0 && commentDensity <= 1)) {
+            throw new IllegalArgumentException(
+                    "commentDensity is not between 0 and 1"
+            );
+        }
+
+        this.commentDensity = commentDensity;
+        return this;
+    }
+
+    /**
+     * Generates the sources.
+     *
+     * @return  The content of each generated source file, mapped by the name
+     *          of the file. The names are sorted, the builtin domain is
+     *          declared by {@link #BUILTIN_FILE_NAME}.
+     */
+    public SortedMap<String, String> generate() {
+        Random random = new Random(this.seed);
+        SortedMap<String, String> sources = new TreeMap<>();
+
+        sources.put(BUILTIN_FILE_NAME, BUILTIN_SOURCE);
+
+        for (int domain = 0; domain < this.domains; domain++) {
+            sources.put(
+                    this.domainName(domain) + ".cml",
+                    this.generateDomain(random, domain)
+            );
+        }
+
+        return sources;
+    }
+
+    /**
+     * Generates the sources and writes them to the specified
+     * <code>directory</code>, which is created if it does not exist yet.
+     * Existing files with the same names are replaced.
+     *
+     * @param directory The directory that the source files are written to.
+     * @return  The paths of the written source files.
+     *
+     * @throws NullPointerException If <code>directory</code> is
+     *                              <code>null</code>.
+     *
+     * @throws IOException          If writing one of the files fails.
+     */
+    public List<Path> write(Path directory) throws IOException {
+        Objects.requireNonNull(directory, "directory is null");
+
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+
+        for (Map.Entry<String, String> source : this.generate().entrySet()) {
+            Path file = directory.resolve(source.getKey());
+
+            Files.write(file, source.getValue().getBytes(
+                    StandardCharsets.UTF_8
+            ));
+
+            files.add(file);
+        }
+
+        return files;
+    }
+
+    private static int requirePositive(int value, String name) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " is less than 1");
+        }
+
+        return value;
+    }
+
+    private static int typeParameterCount(int model) {
+        if (model % 4 != 3) {
+            return 0;
+        }
+
+        return model % 8 == 7 ? 2 : 1;
+    }
+
+    private String domainName(int domain) {
+        return this.domainPrefix + ".d" + domain;
+    }
+
+    private void appendComment(
+            StringBuilder source,
+            Random random,
+            String indent,
+            String text
+    ) {
+        if (random.nextDouble() < this.commentDensity) {
+            source.append(indent)
+                    .append("/* ")
+                    .append(text)
+                    .append(" */\n");
+        }
+    }
+
+    private String generateDomain(Random random, int domain) {
+        StringBuilder source = new StringBuilder();
+
+        this.appendComment(source, random, "", "Generated domain " + domain);
+        source.append("domain ")
+                .append(this.domainName(domain))
+                .append(";\n");
+
+        for (int model = 0; model < this.modelsPerDomain; model++) {
+            int parameterCount = SchemaGenerator.typeParameterCount(model);
+
+            source.append('\n');
+            this.appendComment(source, random, "", "Model " + model);
+            source.append("model M").append(model);
+
+            if (parameterCount > 0) {
+                StringJoiner parameters = new StringJoiner(", ", "<", ">");
+
+                for (int index = 1; index <= parameterCount; index++) {
+                    parameters.add("T" + index);
+                }
+
+                source.append(parameters);
+            }
+
+            source.append("\n{\n");
+
+            for (int attribute = 0;
+                 attribute < this.attributesPerModel;
+                 attribute++) {
+                this.appendComment(
+                        source,
+                        random,
+                        INDENT,
+                        "Attribute " + attribute
+                );
+
+                source.append(INDENT);
+                this.appendType(
+                        source,
+                        random,
+                        domain,
+                        parameterCount,
+                        this.maxNestingDepth
+                );
+
+                source.append(" a").append(attribute).append(";\n");
+            }
+
+            source.append("}\n");
+        }
+
+        return source.toString();
+    }
+
+    private void appendType(
+            StringBuilder source,
+            Random random,
+            int domain,
+            int parameterCount,
+            int depth
+    ) {
+        // The generic types are only chosen as long as the maximum nesting
+        // depth has not been reached yet.
+
+        switch (random.nextInt(depth > 0 ? 5 : 3)) {
+            case 0:
+                source.append("Bit");
+                break;
+
+            case 1:
+                if (parameterCount > 0) {
+                    source.append('T')
+                            .append(1 + random.nextInt(parameterCount));
+                } else {
+                    source.append("Bit");
+                }
+
+                break;
+
+            case 2:
+                // A non-generic model of the same domain, unqualified
+
+                source.append('M').append(4 * random.nextInt(
+                        this.modelsPerDomain / 4
+                ));
+
+                break;
+
+            case 3:
+                source.append("Sequence<");
+                this.appendType(
+                        source,
+                        random,
+                        domain,
+                        parameterCount,
+                        depth - 1
+                );
+
+                source.append('>');
+                break;
+
+            default:
+                // A generic model of the same or a preceding domain,
+                // qualified
+
+                int model = 4 * random.nextInt(this.modelsPerDomain / 4) + 3;
+
+                source.append(this.domainName(random.nextInt(domain + 1)))
+                        .append(".M")
+                        .append(model)
+                        .append('<');
+
+                for (int index = 0;
+                     index < SchemaGenerator.typeParameterCount(model);
+                     index++) {
+                    if (index > 0) {
+                        source.append(", ");
+                    }
+
+                    this.appendType(
+                            source,
+                            random,
+                            domain,
+                            parameterCount,
+                            depth - 1
+                    );
+                }
+
+                source.append('>');
+                break;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.fir3.cml.tool.lsp;
+
+import java.util.Objects;
+
+/**
+ * A problem of a source file, which is reported to the client.
+ */
+final class Diagnostic {
+    private final int start;
+    private final int end;
+    private final String message;
+
+    /**
+     * Initializes a new instance of <code>Diagnostic</code>.
+     *
+     * @param start     The offset of the first affected character.
+     * @param end       The offset after the last affected character.
+     * @param message   The description of the problem.
+     *
+     * @throws NullPointerException If <code>message</code> is
+     *                              <code>null</code>.
+     */
+    Diagnostic(int start, int end, String message) {
+        Objects.requireNonNull(message, "message is null");
+
+        this.start = start;
+        this.end = end;
+        this.message = message;
+    }
+
+    int getStart() {
+        return this.start;
+    }
+
+    int getEnd() {
+        return this.end;
+    }
+
+    String getMessage() {
+        return this.message;
+    }
+}
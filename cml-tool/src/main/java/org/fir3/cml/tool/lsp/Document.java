@@ -0,0 +1,364 @@
+package org.fir3.cml.tool.lsp;
+
+import com.google.gson.JsonObject;
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Model;
+import org.fir3.cml.tool.parser.Parser;
+import org.fir3.cml.tool.tokenizer.Token;
+import org.fir3.cml.tool.tokenizer.Tokenizer;
+import org.fir3.cml.tool.util.seq.ByteBufferSequence;
+import org.fir3.cml.tool.util.seq.ListSequence;
+import org.fir3.cml.tool.util.seq.Sequence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A source file that is open in the client, together with the results of
+ * its analysis.
+ *
+ * <p>
+ *     The text is split into its top-level declarations (see
+ *     {@link SourceSplitter}) after each change. The parse result of every
+ *     declaration is cached by its text, so that only the declarations that
+ *     have been touched by a change are tokenized and parsed again. The
+ *     domain is then assembled from the cached results, which is cheap
+ *     compared to parsing.
+ * </p>
+ *
+ * <p>
+ *     Offsets are indices into the text, i.e. they count UTF-16 code units,
+ *     which is also what the positions of the Language Server Protocol count.
+ * </p>
+ */
+final class Document {
+    /**
+     * The parse result of a single declaration.
+     */
+    private static final class Result {
+        private final Domain header;
+        private final Model model;
+        private final String error;
+
+        private Result(Domain header, Model model, String error) {
+            this.header = header;
+            this.model = model;
+            this.error = error;
+        }
+    }
+
+    private final String uri;
+    private int version;
+    private String text;
+    private int[] lineStarts;
+
+    private Map<String, Result> results;
+    private Domain domain;
+    private Map<String, SourceSplitter.Segment> modelSegments;
+    private SourceSplitter.Segment headerSegment;
+    private List<Diagnostic> diagnostics;
+    private long parsedSegments;
+
+    /**
+     * Initializes a new instance of <code>Document</code> and analyzes the
+     * specified <code>text</code>.
+     *
+     * @param uri       The URI of the document.
+     * @param version   The version of the document.
+     * @param text      The text of the document.
+     *
+     * @throws NullPointerException If <code>uri</code> or <code>text</code>
+     *                              is <code>null</code>.
+     */
+    Document(String uri, int version, String text) {
+        Objects.requireNonNull(uri, "uri is null");
+        Objects.requireNonNull(text, "text is null");
+
+        this.uri = uri;
+        this.version = version;
+        this.results = new HashMap<>();
+        this.setText(text);
+    }
+
+    String getUri() {
+        return this.uri;
+    }
+
+    int getVersion() {
+        return this.version;
+    }
+
+    String getText() {
+        return this.text;
+    }
+
+    /**
+     * Returns the domain that this document declares.
+     *
+     * @return  An {@link Optional} container that either contains the
+     *          domain, or <code>null</code>, if the domain declaration of
+     *          this document is broken.
+     */
+    Optional<Domain> getDomain() {
+        return Optional.ofNullable(this.domain);
+    }
+
+    /**
+     * Returns the syntactic problems of this document, i.e. the declarations
+     * that cannot be parsed and the models that are declared twice.
+     *
+     * @return  The syntactic problems of this document.
+     */
+    List<Diagnostic> getDiagnostics() {
+        return this.diagnostics;
+    }
+
+    /**
+     * Returns the number of declarations that have been parsed since this
+     * document was opened. Declarations whose parse result was reused are
+     * not counted.
+     *
+     * @return  The number of parsed declarations.
+     */
+    long getParsedSegments() {
+        return this.parsedSegments;
+    }
+
+    /**
+     * Returns the declaration of the model with the specified
+     * <code>modelName</code>, or the domain declaration, if there is no such
+     * model.
+     *
+     * @param modelName The name of the model.
+     * @return  The start and end offset of the declaration.
+     */
+    int[] getRange(String modelName) {
+        SourceSplitter.Segment segment = this.modelSegments.get(modelName);
+
+        if (segment == null) {
+            segment = this.headerSegment;
+        }
+
+        return segment == null
+                ? new int[] { 0, 0 }
+                : new int[] { segment.getStart(), segment.getEnd() };
+    }
+
+    /**
+     * Returns the range of the domain declaration.
+     *
+     * @return  The start and end offset of the domain declaration.
+     */
+    int[] getHeaderRange() {
+        return this.getRange(null);
+    }
+
+    /**
+     * Applies the specified <code>changes</code>, as sent by the client with
+     * a <code>textDocument/didChange</code> notification, and analyzes the
+     * resulting text.
+     *
+     * @param version   The version of the document after the changes.
+     * @param changes   The changes, each of which either replaces a range or
+     *                  the whole text.
+     */
+    void change(int version, List<JsonObject> changes) {
+        String newText = this.text;
+
+        for (JsonObject change : changes) {
+            String changeText = change.get("text").getAsString();
+
+            if (!change.has("range")) {
+                newText = changeText;
+                continue;
+            }
+
+            // The line table must match the text that the range refers to,
+            // which is the result of the previous change.
+
+            int[] starts = Document.computeLineStarts(newText);
+            JsonObject range = change.getAsJsonObject("range");
+
+            int start = Document.toOffset(
+                    newText,
+                    starts,
+                    range.getAsJsonObject("start")
+            );
+
+            int end = Document.toOffset(
+                    newText,
+                    starts,
+                    range.getAsJsonObject("end")
+            );
+
+            newText = newText.substring(0, start) +
+                    changeText +
+                    newText.substring(Math.max(start, end));
+        }
+
+        this.version = version;
+        this.setText(newText);
+    }
+
+    /**
+     * Converts the specified <code>offset</code> to a position of the
+     * Language Server Protocol.
+     *
+     * @param offset    The offset inside the text.
+     * @return  The position, i.e. an object with the zero-based
+     *          <code>line</code> and <code>character</code>.
+     */
+    JsonObject toPosition(int offset) {
+        int line = Arrays.binarySearch(this.lineStarts, offset);
+
+        if (line < 0) {
+            line = -line - 2;
+        }
+
+        JsonObject position = new JsonObject();
+        position.addProperty("line", line);
+        position.addProperty("character", offset - this.lineStarts[line]);
+
+        return position;
+    }
+
+    private void setText(String text) {
+        this.text = text;
+        this.lineStarts = Document.computeLineStarts(text);
+
+        // Only the results of the current declarations are kept, so that the
+        // cache does not grow while the user is typing.
+
+        Map<String, Result> previousResults = this.results;
+        Map<String, Result> currentResults = new HashMap<>();
+        Map<String, SourceSplitter.Segment> segments = new HashMap<>();
+        Set<Model> models = new HashSet<>();
+        List<Diagnostic> problems = new ArrayList<>();
+        Domain header = null;
+
+        this.headerSegment = null;
+
+        for (SourceSplitter.Segment segment : SourceSplitter.split(text)) {
+            boolean isHeader = this.headerSegment == null;
+            String key = (isHeader ? "h" : "m") + segment.getText();
+            Result result = previousResults.get(key);
+
+            if (result == null) {
+                result = Document.parse(segment.getText(), isHeader);
+                this.parsedSegments++;
+            }
+
+            currentResults.put(key, result);
+
+            if (isHeader) {
+                this.headerSegment = segment;
+                header = result.header;
+            }
+
+            if (result.error != null) {
+                problems.add(new Diagnostic(
+                        segment.getStart(),
+                        segment.getEnd(),
+                        result.error
+                ));
+
+                continue;
+            }
+
+            if (result.model == null) {
+                continue;
+            }
+
+            if (segments.putIfAbsent(
+                    result.model.getName(),
+                    segment
+            ) != null) {
+                problems.add(new Diagnostic(
+                        segment.getStart(),
+                        segment.getEnd(),
+                        String.format(
+                                "Duplicate model '%s'",
+                                result.model.getName()
+                        )
+                ));
+
+                continue;
+            }
+
+            models.add(result.model);
+        }
+
+        this.results = currentResults;
+        this.modelSegments = segments;
+        this.diagnostics = Collections.unmodifiableList(problems);
+        this.domain = header == null
+                ? null
+                : new Domain(header.getName(), header.getFlags(), models);
+    }
+
+    private static Result parse(String text, boolean isHeader) {
+        List<Token> tokens = new ArrayList<>();
+
+        try {
+            try (Tokenizer tokenizer = new Tokenizer(new ByteBufferSequence(
+                    ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8))
+            ))) {
+                Token token;
+
+                while ((token = tokenizer.read()) != null) {
+                    tokens.add(token);
+                }
+            }
+
+            try (Sequence<Token> src = new ListSequence<>(tokens)) {
+                Parser parser = new Parser(src);
+
+                if (isHeader) {
+                    Optional<Domain> header = parser.parse();
+
+                    return header.isPresent()
+                            ? new Result(header.get(), null, null)
+                            : new Result(null, null, "Expected a domain");
+                }
+
+                Optional<Model> model = parser.parseModel();
+
+                return model.isPresent()
+                        ? new Result(null, model.get(), null)
+                        : new Result(null, null, "Expected a model");
+            }
+        } catch (IOException ex) {
+            return new Result(null, null, ex.getMessage());
+        }
+    }
+
+    private static int[] computeLineStarts(String text) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+
+        for (int index = 0; index < text.length(); index++) {
+            if (text.charAt(index) == '\n') {
+                starts.add(index + 1);
+            }
+        }
+
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int toOffset(
+            String text,
+            int[] lineStarts,
+            JsonObject position
+    ) {
+        int line = position.get("line").getAsInt();
+
+        if (line >= lineStarts.length) {
+            return text.length();
+        }
+
+        int offset = lineStarts[line] + position.get("character").getAsInt();
+        return Math.min(offset, text.length());
+    }
+}
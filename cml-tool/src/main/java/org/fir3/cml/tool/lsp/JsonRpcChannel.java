@@ -0,0 +1,136 @@
+package org.fir3.cml.tool.lsp;
+
+import com.google.gson.JsonObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Reads and writes the messages of the base protocol of the Language Server
+ * Protocol, i.e. JSON-RPC messages that are preceded by a header with their
+ * length.
+ */
+final class JsonRpcChannel {
+    private static final String CONTENT_LENGTH_HEADER = "content-length:";
+
+    private final InputStream in;
+    private final OutputStream out;
+
+    /**
+     * Initializes a new instance of <code>JsonRpcChannel</code>.
+     *
+     * @param in    The stream that messages are read from.
+     * @param out   The stream that messages are written to.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     */
+    JsonRpcChannel(InputStream in, OutputStream out) {
+        Objects.requireNonNull(in, "in is null");
+        Objects.requireNonNull(out, "out is null");
+
+        this.in = new BufferedInputStream(in);
+        this.out = new BufferedOutputStream(out);
+    }
+
+    /**
+     * Reads the content of the next message.
+     *
+     * @return  The content of the next message, or <code>null</code>, if the
+     *          end of the stream has been reached.
+     *
+     * @throws IOException  If reading fails or if the header of the message
+     *                      is malformed.
+     */
+    String read() throws IOException {
+        int contentLength = -1;
+        String line = this.readLine();
+
+        if (line == null) {
+            return null;
+        }
+
+        // Reading the header fields until the empty line that separates the
+        // header from the content.
+
+        while (!line.isEmpty()) {
+            if (line.toLowerCase(Locale.ROOT).startsWith(
+                    CONTENT_LENGTH_HEADER
+            )) {
+                try {
+                    contentLength = Integer.parseInt(line.substring(
+                            CONTENT_LENGTH_HEADER.length()
+                    ).trim());
+                } catch (NumberFormatException ex) {
+                    throw new IOException("Malformed header: " + line, ex);
+                }
+            }
+
+            line = this.readLine();
+
+            if (line == null) {
+                throw new EOFException("Unexpected end of header");
+            }
+        }
+
+        if (contentLength < 0) {
+            throw new IOException("Missing Content-Length header");
+        }
+
+        byte[] content = new byte[contentLength];
+        int offset = 0;
+
+        while (offset < contentLength) {
+            int count = this.in.read(content, offset, contentLength - offset);
+
+            if (count < 0) {
+                throw new EOFException("Unexpected end of message");
+            }
+
+            offset += count;
+        }
+
+        return new String(content, StandardCharsets.UTF_8);
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int value;
+
+        while ((value = this.in.read()) != '\n') {
+            if (value < 0) {
+                if (line.length() == 0) {
+                    return null;
+                }
+
+                throw new EOFException("Unexpected end of header");
+            }
+
+            if (value != '\r') {
+                line.append((char) value);
+            }
+        }
+
+        return line.toString();
+    }
+
+    /**
+     * Writes the specified <code>message</code>.
+     *
+     * @param message   The message that will be written.
+     * @throws IOException  If writing fails.
+     */
+    synchronized void write(JsonObject message) throws IOException {
+        byte[] content = message.toString().getBytes(StandardCharsets.UTF_8);
+
+        this.out.write(String.format(
+                "Content-Length: %d\r\n\r\n",
+                content.length
+        ).getBytes(StandardCharsets.US_ASCII));
+
+        this.out.write(content);
+        this.out.flush();
+    }
+}
@@ -0,0 +1,797 @@
+package org.fir3.cml.tool.lsp;
+
+import com.google.gson.*;
+import org.fir3.cml.api.model.*;
+import org.fir3.cml.tool.compiler.Compiler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * A language server that reports the problems of CML source files to an
+ * editor, using the Language Server Protocol over a pair of streams (usually
+ * stdin and stdout).
+ *
+ * <p>
+ *     The source files of the workspace are parsed once when the client
+ *     initializes the server. After that, a source file is only parsed again
+ *     when the client reports that it has been saved, closed or changed on
+ *     disk. The documents that are open in the client are analyzed again on
+ *     every edit, but only the declarations of a document
+ *     that have been touched by an edit are parsed again (see
+ *     {@link Document}). The domains are kept in an index of their models,
+ *     in which an edit only replaces the edited domain, as long as it does
+ *     not change the name of the domain or cause a conflict. The other open
+ *     documents are only checked again if the edit changed the signature of
+ *     the edited domain, i.e. the names of its models or the number of their
+ *     type parameters, since they cannot be affected otherwise.
+ * </p>
+ */
+public final class LanguageServer {
+    private static final Logger LOG = Logger.getLogger(
+            LanguageServer.class.getName()
+    );
+
+    private static final int PARSE_ERROR = -32700;
+    private static final int INVALID_PARAMS = -32602;
+    private static final int METHOD_NOT_FOUND = -32601;
+    private static final int SERVER_NOT_INITIALIZED = -32002;
+
+    private static final int SEVERITY_ERROR = 1;
+    private static final int SYNC_INCREMENTAL = 2;
+
+    /**
+     * A request that cannot be answered with a result.
+     */
+    private static final class ResponseException extends Exception {
+        private final int code;
+
+        private ResponseException(int code, String message) {
+            super(message);
+            this.code = code;
+        }
+    }
+
+    /**
+     * A domain of the workspace together with its models, which are indexed
+     * by their names.
+     */
+    private static final class IndexedDomain {
+        private final String owner;
+        private final Domain domain;
+        private final Map<String, Model> models;
+
+        private IndexedDomain(String owner, Domain domain) {
+            this.owner = owner;
+            this.domain = domain;
+            this.models = new HashMap<>();
+
+            for (Model model : domain.getModels()) {
+                this.models.put(model.getName(), model);
+            }
+        }
+
+        private boolean isUbiquitous() {
+            return this.domain.getFlags().contains(Domain.Flag.Ubiquitous);
+        }
+    }
+
+    private final JsonRpcChannel channel;
+    private final Collection<Path> inputs;
+    private final Set<Path> roots;
+    private final Map<String, Domain> workspaceDomains;
+    private final Map<String, Document> documents;
+    private final Map<String, String> signatures;
+    private final Map<String, String> conflicts;
+    private final Map<String, IndexedDomain> sources;
+    private final Map<String, IndexedDomain> domains;
+    private final Map<String, IndexedDomain> ubiquitousModels;
+    private boolean initialized;
+    private boolean shutdown;
+
+    /**
+     * Initializes a new instance of <code>LanguageServer</code>.
+     *
+     * @param in        The stream that the messages of the client are read
+     *                  from.
+     *
+     * @param out       The stream that the messages to the client are
+     *                  written to.
+     *
+     * @param inputs    The source files and directories that belong to the
+     *                  workspace in addition to the root of the workspace
+     *                  that the client specifies.
+     *
+     * @throws NullPointerException If any of the parameters is
+     *                              <code>null</code>.
+     */
+    public LanguageServer(
+            InputStream in,
+            OutputStream out,
+            Collection<Path> inputs
+    ) {
+        Objects.requireNonNull(inputs, "inputs is null");
+
+        this.channel = new JsonRpcChannel(in, out);
+        this.inputs = new ArrayList<>(inputs);
+        this.roots = new HashSet<>();
+        this.workspaceDomains = new HashMap<>();
+        this.documents = new TreeMap<>();
+        this.signatures = new HashMap<>();
+        this.conflicts = new HashMap<>();
+        this.sources = new HashMap<>();
+        this.domains = new HashMap<>();
+        this.ubiquitousModels = new HashMap<>();
+    }
+
+    /**
+     * Serves the client until it sends the <code>exit</code> notification
+     * or closes the input stream.
+     *
+     * @return  The exit code, which is <code>0</code>, if the client shut
+     *          the server down properly before, otherwise <code>1</code>.
+     *
+     * @throws IOException  If reading or writing a message fails.
+     */
+    public int run() throws IOException {
+        String content;
+
+        while ((content = this.channel.read()) != null) {
+            JsonObject message;
+
+            try {
+                message = JsonParser.parseString(content).getAsJsonObject();
+            } catch (JsonParseException | IllegalStateException ex) {
+                this.respond(
+                        JsonNull.INSTANCE,
+                        PARSE_ERROR,
+                        "Malformed message"
+                );
+
+                continue;
+            }
+
+            // Responses to requests of the server are ignored, since the
+            // server does not send any requests.
+
+            if (!message.has("method")) {
+                continue;
+            }
+
+            String method = message.get("method").getAsString();
+            JsonElement id = message.get("id");
+
+            if (method.equals("exit")) {
+                return this.shutdown ? 0 : 1;
+            }
+
+            JsonObject params = message.has("params") &&
+                    message.get("params").isJsonObject()
+                    ? message.getAsJsonObject("params")
+                    : new JsonObject();
+
+            try {
+                JsonElement result = this.handle(method, params);
+
+                if (id != null) {
+                    this.respond(id, result);
+                }
+            } catch (ResponseException ex) {
+                if (id != null) {
+                    this.respond(id, ex.code, ex.getMessage());
+                }
+            } catch (RuntimeException ex) {
+                // Gson reports missing or mistyped members with unchecked
+                // exceptions.
+
+                if (id != null) {
+                    this.respond(id, INVALID_PARAMS, String.valueOf(
+                            ex.getMessage()
+                    ));
+                }
+            }
+        }
+
+        return this.shutdown ? 0 : 1;
+    }
+
+    private JsonElement handle(String method, JsonObject params)
+            throws IOException, ResponseException {
+        if (!this.initialized && !method.equals("initialize")) {
+            throw new ResponseException(
+                    SERVER_NOT_INITIALIZED,
+                    "Server not initialized"
+            );
+        }
+
+        switch (method) {
+            case "initialize":
+                return this.initialize(params);
+
+            case "initialized":
+                return JsonNull.INSTANCE;
+
+            case "shutdown":
+                this.shutdown = true;
+                return JsonNull.INSTANCE;
+
+            case "textDocument/didOpen":
+                JsonObject opened = params.getAsJsonObject("textDocument");
+
+                this.documents.put(
+                        opened.get("uri").getAsString(),
+                        new Document(
+                                opened.get("uri").getAsString(),
+                                opened.get("version").getAsInt(),
+                                opened.get("text").getAsString()
+                        )
+                );
+
+                this.analyze(opened.get("uri").getAsString());
+                return JsonNull.INSTANCE;
+
+            case "textDocument/didChange":
+                JsonObject changed = params.getAsJsonObject("textDocument");
+                Document document = this.documents.get(
+                        changed.get("uri").getAsString()
+                );
+
+                if (document == null) {
+                    return JsonNull.INSTANCE;
+                }
+
+                List<JsonObject> changes = new ArrayList<>();
+
+                for (JsonElement change :
+                        params.getAsJsonArray("contentChanges")) {
+                    changes.add(change.getAsJsonObject());
+                }
+
+                document.change(changed.get("version").getAsInt(), changes);
+                this.analyze(document.getUri());
+                return JsonNull.INSTANCE;
+
+            case "textDocument/didClose":
+                String uri = params.getAsJsonObject("textDocument")
+                        .get("uri")
+                        .getAsString();
+
+                // Once the document is closed, the source file takes its
+                // place, thus it is parsed again, since it may have been
+                // saved in the meantime.
+
+                if (this.documents.remove(uri) != null) {
+                    this.publish(uri, null, Collections.emptyList());
+                    this.signatures.remove(uri);
+                    this.reload(uri);
+                    this.analyze(null);
+                }
+
+                return JsonNull.INSTANCE;
+
+            case "textDocument/didSave":
+                String saved = params.getAsJsonObject("textDocument")
+                        .get("uri")
+                        .getAsString();
+
+                if (this.reload(saved) && !this.documents.containsKey(saved)) {
+                    this.analyze(null);
+                }
+
+                return JsonNull.INSTANCE;
+
+            case "workspace/didChangeWatchedFiles":
+                boolean reloaded = false;
+
+                for (JsonElement change : params.getAsJsonArray("changes")) {
+                    reloaded |= this.reload(change.getAsJsonObject()
+                            .get("uri")
+                            .getAsString());
+                }
+
+                if (reloaded) {
+                    this.analyze(null);
+                }
+
+                return JsonNull.INSTANCE;
+
+            default:
+                throw new ResponseException(
+                        METHOD_NOT_FOUND,
+                        String.format("Unknown method '%s'", method)
+                );
+        }
+    }
+
+    private JsonElement initialize(JsonObject params) {
+        Set<Path> roots = new LinkedHashSet<>(this.inputs);
+        JsonElement rootUri = params.get("rootUri");
+
+        if (rootUri != null && rootUri.isJsonPrimitive()) {
+            try {
+                roots.add(Paths.get(URI.create(rootUri.getAsString())));
+            } catch (IllegalArgumentException |
+                    FileSystemNotFoundException ex) {
+                LOG.log(Level.WARNING, "Ignoring root " + rootUri, ex);
+            }
+        }
+
+        for (Path root : roots) {
+            this.roots.add(root.toAbsolutePath().normalize());
+        }
+
+        // Broken source files of the workspace are ignored, since their
+        // problems are reported once they are opened. Only the domains are
+        // kept, thus the archives of the workspace are closed right away.
+
+        try (Compiler compiler = new Compiler(1)) {
+            for (Path source : compiler.findSources(roots)) {
+                try {
+                    this.workspaceDomains.put(
+                            source.toUri().toString(),
+                            Compiler.parse(source)
+                    );
+                } catch (IOException ex) {
+                    LOG.log(Level.INFO, "Ignoring broken source", ex);
+                }
+            }
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Unable to find the sources", ex);
+        }
+
+        this.initialized = true;
+
+        JsonObject sync = new JsonObject();
+        sync.addProperty("openClose", true);
+        sync.addProperty("change", SYNC_INCREMENTAL);
+        sync.addProperty("save", true);
+
+        JsonObject capabilities = new JsonObject();
+        capabilities.add("textDocumentSync", sync);
+
+        JsonObject serverInfo = new JsonObject();
+        serverInfo.addProperty("name", "cml");
+
+        JsonObject result = new JsonObject();
+        result.add("capabilities", capabilities);
+        result.add("serverInfo", serverInfo);
+
+        return result;
+    }
+
+    /**
+     * Parses the source file with the specified <code>uri</code> again, so
+     * that the workspace reflects its content on disk. Source files that have
+     * been deleted or broken are removed from the workspace.
+     *
+     * @return  <code>true</code>, if the source file belongs to the
+     *          workspace, or <code>false</code>, if it has been ignored.
+     */
+    private boolean reload(String uri) {
+        Path source;
+
+        try {
+            source = Paths.get(URI.create(uri)).toAbsolutePath().normalize();
+        } catch (IllegalArgumentException |
+                FileSystemNotFoundException ex) {
+            return false;
+        }
+
+        // Source files that have not been known so far are only added, if
+        // they would have been found when the server was initialized.
+
+        if (!this.workspaceDomains.containsKey(uri) &&
+                !this.isWorkspaceSource(source)) {
+            return false;
+        }
+
+        if (!Files.isRegularFile(source)) {
+            this.workspaceDomains.remove(uri);
+            return true;
+        }
+
+        try {
+            this.workspaceDomains.put(uri, Compiler.parse(source));
+        } catch (IOException ex) {
+            LOG.log(Level.INFO, "Ignoring broken source", ex);
+            this.workspaceDomains.remove(uri);
+        }
+
+        return true;
+    }
+
+    private boolean isWorkspaceSource(Path source) {
+        // Like Compiler.findSources, explicitly specified files are sources
+        // regardless of their names.
+
+        if (this.roots.contains(source)) {
+            return true;
+        }
+
+        Path fileName = source.getFileName();
+
+        if (fileName == null || !fileName.toString().endsWith(
+                Compiler.SOURCE_FILE_EXTENSION
+        )) {
+            return false;
+        }
+
+        for (Path root : this.roots) {
+            if (source.startsWith(root)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void analyze(String uri) throws IOException {
+        // If the signature of the edited domain did not change, no other
+        // document can be affected by the edit.
+
+        boolean all = uri == null;
+
+        if (uri != null) {
+            String signature = LanguageServer.toSignature(
+                    this.documents.get(uri)
+            );
+
+            all = !signature.equals(this.signatures.put(uri, signature));
+        }
+
+        if (uri == null || !this.replace(uri)) {
+            this.combine();
+        }
+
+        Collection<Document> affected = all
+                ? this.documents.values()
+                : Collections.singleton(this.documents.get(uri));
+
+        for (Document document : affected) {
+            this.publish(
+                    document.getUri(),
+                    document,
+                    this.check(document)
+            );
+        }
+    }
+
+    /**
+     * Replaces the domain of the document with the specified
+     * <code>uri</code> in the index, without touching the other domains.
+     *
+     * @return  <code>true</code>, if the domain has been replaced, or
+     *          <code>false</code>, if the index has to be rebuilt, because
+     *          the edit changed the name of the domain or may have changed
+     *          a conflict.
+     */
+    private boolean replace(String uri) {
+        Optional<Domain> domain = this.documents.get(uri).getDomain();
+        IndexedDomain previous = this.sources.get(uri);
+
+        if (!domain.isPresent() ||
+                previous == null ||
+                this.conflicts.containsKey(uri) ||
+                !previous.domain.getName().equals(domain.get().getName()) ||
+                this.domains.get(previous.domain.getName()) != previous) {
+            return false;
+        }
+
+        IndexedDomain next = new IndexedDomain(uri, domain.get());
+
+        if (previous.isUbiquitous() || next.isUbiquitous()) {
+            if (previous.isUbiquitous()) {
+                for (String modelName : previous.models.keySet()) {
+                    this.ubiquitousModels.remove(modelName);
+                }
+            }
+
+            if (next.isUbiquitous() && !this.indexUbiquitous(next)) {
+                return false;
+            }
+        }
+
+        this.sources.put(uri, next);
+        this.domains.put(next.domain.getName(), next);
+        return true;
+    }
+
+    private void combine() {
+        // The open documents take precedence over the source files that
+        // they were loaded from. Domains that are declared more than once
+        // are left out, so that the remaining domains can still be checked.
+
+        this.conflicts.clear();
+        this.domains.clear();
+        this.ubiquitousModels.clear();
+
+        for (Document document : this.documents.values()) {
+            if (!document.getDomain().isPresent()) {
+                continue;
+            }
+
+            IndexedDomain domain = this.index(
+                    document.getUri(),
+                    document.getDomain().get()
+            );
+
+            IndexedDomain owner = this.domains.putIfAbsent(
+                    domain.domain.getName(),
+                    domain
+            );
+
+            if (owner == null) {
+                continue;
+            }
+
+            this.conflicts.put(document.getUri(), String.format(
+                    "Domain '%s' is also declared by '%s'",
+                    domain.domain.getName(),
+                    owner.owner
+            ));
+        }
+
+        for (Map.Entry<String, Domain> entry :
+                this.workspaceDomains.entrySet()) {
+            if (this.documents.containsKey(entry.getKey())) {
+                continue;
+            }
+
+            IndexedDomain domain = this.index(
+                    entry.getKey(),
+                    entry.getValue()
+            );
+
+            IndexedDomain owner = this.domains.putIfAbsent(
+                    domain.domain.getName(),
+                    domain
+            );
+
+            if (owner != null && !this.conflicts.containsKey(owner.owner)) {
+                this.conflicts.put(owner.owner, String.format(
+                        "Domain '%s' is also declared by '%s'",
+                        domain.domain.getName(),
+                        entry.getKey()
+                ));
+            }
+        }
+
+        for (IndexedDomain domain : this.domains.values()) {
+            if (domain.isUbiquitous() && !this.indexUbiquitous(domain)) {
+                for (Document document : this.documents.values()) {
+                    this.conflicts.putIfAbsent(
+                            document.getUri(),
+                            "Colliding models of ubiquitous domains"
+                    );
+                }
+
+                return;
+            }
+        }
+    }
+
+    private IndexedDomain index(String uri, Domain domain) {
+        // The models of a source are only indexed again, if it has been
+        // parsed again.
+
+        IndexedDomain indexed = this.sources.get(uri);
+
+        if (indexed == null || indexed.domain != domain) {
+            indexed = new IndexedDomain(uri, domain);
+            this.sources.put(uri, indexed);
+        }
+
+        return indexed;
+    }
+
+    private boolean indexUbiquitous(IndexedDomain domain) {
+        for (String modelName : domain.models.keySet()) {
+            if (this.ubiquitousModels.putIfAbsent(modelName, domain) != null) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private Optional<Model> resolveModel(String name, Domain context) {
+        int lastDotIndex = name.lastIndexOf('.');
+
+        if (lastDotIndex != -1) {
+            IndexedDomain domain = this.domains.get(
+                    name.substring(0, lastDotIndex)
+            );
+
+            return domain == null
+                    ? Optional.empty()
+                    : Optional.ofNullable(domain.models.get(
+                            name.substring(lastDotIndex + 1)
+                    ));
+        }
+
+        IndexedDomain domain = this.domains.get(context.getName());
+
+        if (domain != null && domain.models.containsKey(name)) {
+            return Optional.of(domain.models.get(name));
+        }
+
+        domain = this.ubiquitousModels.get(name);
+
+        return domain == null
+                ? Optional.empty()
+                : Optional.of(domain.models.get(name));
+    }
+
+    private List<Diagnostic> check(Document document) {
+        List<Diagnostic> problems = new ArrayList<>(
+                document.getDiagnostics()
+        );
+
+        String conflict = this.conflicts.get(document.getUri());
+
+        if (conflict != null) {
+            int[] range = document.getHeaderRange();
+            problems.add(new Diagnostic(range[0], range[1], conflict));
+        }
+
+        if (conflict != null ||
+                !document.getDomain().isPresent()) {
+            return problems;
+        }
+
+        Domain domain = document.getDomain().get();
+        List<Model> models = new ArrayList<>(domain.getModels());
+        models.sort(Comparator.comparing(Model::getName));
+
+        for (Model model : models) {
+            int[] range = document.getRange(model.getName());
+            List<Attribute> attributes = new ArrayList<>(
+                    model.getAttributes()
+            );
+
+            attributes.sort(Comparator.comparing(Attribute::getName));
+
+            for (Attribute attribute : attributes) {
+                this.checkType(
+                        attribute.getType(),
+                        domain,
+                        range,
+                        problems
+                );
+            }
+        }
+
+        return problems;
+    }
+
+    private void checkType(
+            Type type,
+            Domain domain,
+            int[] range,
+            List<Diagnostic> problems
+    ) {
+        // Type parameters are resolved by the parser already
+
+        if (type.getCategory() != Type.Category.Model) {
+            return;
+        }
+
+        ModelType modelType = (ModelType) type;
+        Optional<Model> target = this.resolveModel(
+                modelType.getModelName(),
+                domain
+        );
+
+        if (!target.isPresent()) {
+            problems.add(new Diagnostic(range[0], range[1], String.format(
+                    "Unknown model '%s'",
+                    modelType.getModelName()
+            )));
+        } else {
+            int expected = target.get()
+                    .getTypeParameters()
+                    .size();
+
+            int actual = modelType.getTypeParameters().size();
+
+            if (expected != actual) {
+                problems.add(new Diagnostic(range[0], range[1], String.format(
+                        "Model '%s' requires %d type parameters, but got %d",
+                        modelType.getModelName(),
+                        expected,
+                        actual
+                )));
+            }
+        }
+
+        for (Type typeParameter : modelType.getTypeParameters()) {
+            this.checkType(typeParameter, domain, range, problems);
+        }
+    }
+
+    private static String toSignature(Document document) {
+        if (!document.getDomain().isPresent()) {
+            return "";
+        }
+
+        Domain domain = document.getDomain().get();
+
+        return domain.getName() + domain.getFlags() + domain.getModels()
+                .stream()
+                .map(m -> m.getName() + "/" + m.getTypeParameters().size())
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    private void publish(
+            String uri,
+            Document document,
+            List<Diagnostic> problems
+    ) throws IOException {
+        JsonArray diagnostics = new JsonArray();
+
+        for (Diagnostic problem : problems) {
+            JsonObject range = new JsonObject();
+            range.add("start", document.toPosition(problem.getStart()));
+            range.add("end", document.toPosition(problem.getEnd()));
+
+            JsonObject diagnostic = new JsonObject();
+            diagnostic.add("range", range);
+            diagnostic.addProperty("severity", SEVERITY_ERROR);
+            diagnostic.addProperty("source", "cml");
+            diagnostic.addProperty("message", problem.getMessage());
+
+            diagnostics.add(diagnostic);
+        }
+
+        JsonObject params = new JsonObject();
+        params.addProperty("uri", uri);
+
+        if (document != null) {
+            params.addProperty("version", document.getVersion());
+        }
+
+        params.add("diagnostics", diagnostics);
+
+        JsonObject notification = new JsonObject();
+        notification.addProperty("jsonrpc", "2.0");
+        notification.addProperty("method", "textDocument/publishDiagnostics");
+        notification.add("params", params);
+
+        this.channel.write(notification);
+    }
+
+    private void respond(JsonElement id, JsonElement result)
+            throws IOException {
+        JsonObject response = new JsonObject();
+        response.addProperty("jsonrpc", "2.0");
+        response.add("id", id);
+        response.add("result", result);
+
+        this.channel.write(response);
+    }
+
+    private void respond(JsonElement id, int code, String message)
+            throws IOException {
+        JsonObject error = new JsonObject();
+        error.addProperty("code", code);
+        error.addProperty("message", message);
+
+        JsonObject response = new JsonObject();
+        response.addProperty("jsonrpc", "2.0");
+        response.add("id", id);
+        response.add("error", error);
+
+        this.channel.write(response);
+    }
+}
@@ -0,0 +1,138 @@
+package org.fir3.cml.tool.lsp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Splits the text of a source file into its top-level declarations, i.e.
+ * the domain declaration and the model declarations.
+ *
+ * <p>
+ *     The splitter only looks at characters and does not tokenize the text.
+ *     A declaration ends either with a semicolon outside of braces or with
+ *     the brace that closes its outermost pair of braces. Comments and the
+ *     whitespace between declarations do not belong to any declaration.
+ *     Since this is much cheaper than tokenizing, the whole text can be
+ *     split after each edit, so that only the declarations whose text
+ *     changed need to be tokenized and parsed again.
+ * </p>
+ */
+final class SourceSplitter {
+    /**
+     * A top-level declaration of a source file.
+     */
+    static final class Segment {
+        private final int start;
+        private final int end;
+        private final String text;
+
+        private Segment(int start, int end, String text) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+
+        /**
+         * Returns the offset of the first character of this segment.
+         *
+         * @return  The inclusive start offset.
+         */
+        int getStart() {
+            return this.start;
+        }
+
+        /**
+         * Returns the offset after the last character of this segment.
+         *
+         * @return  The exclusive end offset.
+         */
+        int getEnd() {
+            return this.end;
+        }
+
+        /**
+         * Returns the text of this segment.
+         *
+         * @return  The text of this segment.
+         */
+        String getText() {
+            return this.text;
+        }
+    }
+
+    /**
+     * Splits the specified <code>text</code> into segments.
+     *
+     * @param text  The text of a source file.
+     * @return  The segments of the text, in the order of their appearance.
+     *
+     * @throws NullPointerException If <code>text</code> is <code>null</code>.
+     */
+    static List<Segment> split(String text) {
+        Objects.requireNonNull(text, "text is null");
+
+        List<Segment> segments = new ArrayList<>();
+        int length = text.length();
+        int index = SourceSplitter.skipTrivia(text, 0);
+
+        while (index < length) {
+            int start = index;
+            int depth = 0;
+            boolean complete = false;
+
+            while (index < length && !complete) {
+                if (SourceSplitter.isCommentStart(text, index)) {
+                    index = SourceSplitter.skipComment(text, index);
+                    continue;
+                }
+
+                char c = text.charAt(index++);
+
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}') {
+                    complete = --depth <= 0;
+                } else if (c == ';') {
+                    complete = depth == 0;
+                }
+            }
+
+            segments.add(new Segment(start, index, text.substring(
+                    start,
+                    index
+            )));
+
+            index = SourceSplitter.skipTrivia(text, index);
+        }
+
+        return segments;
+    }
+
+    private static int skipTrivia(String text, int index) {
+        while (index < text.length()) {
+            if (SourceSplitter.isCommentStart(text, index)) {
+                index = SourceSplitter.skipComment(text, index);
+            } else if (Character.isWhitespace(text.charAt(index))) {
+                index++;
+            } else {
+                break;
+            }
+        }
+
+        return index;
+    }
+
+    private static boolean isCommentStart(String text, int index) {
+        return text.startsWith("/*", index);
+    }
+
+    private static int skipComment(String text, int index) {
+        int end = text.indexOf("*/", index + 2);
+        return end < 0 ? text.length() : end + 2;
+    }
+
+    private SourceSplitter() {
+        throw new IllegalStateException("Do not instantiate this class");
+    }
+}
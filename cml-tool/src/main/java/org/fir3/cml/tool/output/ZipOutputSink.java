@@ -0,0 +1,140 @@
+package org.fir3.cml.tool.output;
+
+import org.fir3.cml.api.OutputSink;
+import org.fir3.cml.api.output.OutputNames;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * An {@link OutputSink} that streams all output files into a ZIP (or JAR)
+ * archive.
+ *
+ * <p>
+ *     Since a ZIP archive can only be written sequentially, the content of
+ *     each output file is buffered until its channel is closed and then
+ *     appended to the archive as a whole. Thus, only the output files that
+ *     are currently being written are held in memory.
+ * </p>
+ *
+ * <p>
+ *     The archive is complete once this sink has been closed. Every output
+ *     file can only be written once, and output files cannot be deleted.
+ * </p>
+ */
+public final class ZipOutputSink implements OutputSink, Closeable {
+    private final class EntryChannel implements WritableByteChannel {
+        private final String name;
+        private final ByteArrayOutputStream content;
+        private boolean open;
+
+        public EntryChannel(String name) {
+            this.name = name;
+            this.content = new ByteArrayOutputStream();
+            this.open = true;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!this.open) {
+                throw new ClosedChannelException();
+            }
+
+            int length = src.remaining();
+
+            if (src.hasArray()) {
+                this.content.write(
+                        src.array(),
+                        src.arrayOffset() + src.position(),
+                        length
+                );
+
+                src.position(src.limit());
+            } else {
+                byte[] bytes = new byte[length];
+                src.get(bytes);
+                this.content.write(bytes, 0, length);
+            }
+
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!this.open) {
+                return;
+            }
+
+            this.open = false;
+            ZipOutputSink.this.append(this.name, this.content);
+        }
+    }
+
+    private final ZipOutputStream archive;
+    private final Set<String> names;
+
+    /**
+     * Initializes a new instance of <code>ZipOutputSink</code> that writes
+     * the archive to the specified <code>dst</code> stream.
+     *
+     * @param dst   The stream that the archive is written to. It will be
+     *              closed together with this sink.
+     *
+     * @throws NullPointerException If <code>dst</code> is <code>null</code>.
+     */
+    public ZipOutputSink(OutputStream dst) {
+        Objects.requireNonNull(dst, "dst is null");
+
+        this.archive = new ZipOutputStream(dst);
+        this.names = new HashSet<>();
+    }
+
+    @Override
+    public synchronized WritableByteChannel open(String name)
+            throws IOException {
+        OutputNames.validate(name);
+
+        if (!this.names.add(name)) {
+            throw new IOException(String.format(
+                    "Output file '%s' has been written already",
+                    name
+            ));
+        }
+
+        return new EntryChannel(name);
+    }
+
+    @Override
+    public void delete(String name) throws IOException {
+        throw new IOException("Deleting output files is not supported");
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.archive.close();
+    }
+
+    private synchronized void append(
+            String name,
+            ByteArrayOutputStream content
+    ) throws IOException {
+        this.archive.putNextEntry(new ZipEntry(name));
+        content.writeTo(this.archive);
+        this.archive.closeEntry();
+    }
+}
@@ -45,7 +45,7 @@ final class AttributeParser implements EntityParser<Attribute> {
                 return Optional.empty();
             }
 
-            if (!SEMICOLON_MATCHER.matches(src)) {
+            if (!SEMICOLON_MATCHER.skip(src)) {
                 mark.reset();
                 return Optional.empty();
             }
@@ -0,0 +1,57 @@
+package org.fir3.cml.tool.parser;
+
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Model;
+import org.fir3.cml.api.model.Type;
+import org.fir3.cml.api.model.TypeParameter;
+
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Receives the events of {@link Parser#parse(ParseListener)}, in the order
+ * in which the corresponding declarations appear in the source.
+ *
+ * <p>
+ *     All methods do nothing by default, thus implementations only need to
+ *     override the events that they are interested in.
+ * </p>
+ */
+public interface ParseListener {
+    /**
+     * Called after the domain declaration has been parsed.
+     *
+     * @param name  The name of the domain.
+     * @param flags The flags of the domain.
+     */
+    default void onDomain(String name, EnumSet<Domain.Flag> flags) { }
+
+    /**
+     * Called after the declaration of a model has been parsed, before its
+     * attributes are parsed.
+     *
+     * @param name              The name of the model.
+     * @param flags             The flags of the model.
+     * @param typeParameters    The type parameters of the model.
+     */
+    default void onModelStart(
+            String name,
+            EnumSet<Model.Flag> flags,
+            List<TypeParameter> typeParameters
+    ) { }
+
+    /**
+     * Called after an attribute of the current model has been parsed.
+     *
+     * @param name  The name of the attribute.
+     * @param type  The type of the attribute.
+     */
+    default void onAttribute(String name, Type type) { }
+
+    /**
+     * Called after the current model has been parsed completely.
+     *
+     * @param name  The name of the model.
+     */
+    default void onModelEnd(String name) { }
+}
@@ -0,0 +1,72 @@
+package org.fir3.cml.tool.parser;
+
+import org.fir3.cml.api.model.Domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The result of {@link Parser#parseRecovering()}, which consists of the
+ * parts of the source that could be parsed and the errors that have been
+ * encountered in the remaining parts.
+ */
+public final class ParseResult {
+    private final Domain domain;
+    private final List<ParserDiagnostic> diagnostics;
+
+    /**
+     * Initializes a new instance of <code>ParseResult</code>.
+     *
+     * @param domain        The parsed domain, or <code>null</code>, if the
+     *                      source does not contain a domain declaration.
+     *
+     * @param diagnostics   The errors that have been encountered, in the
+     *                      order of their positions.
+     *
+     * @throws NullPointerException If <code>diagnostics</code> is
+     *                              <code>null</code>.
+     */
+    public ParseResult(Domain domain, List<ParserDiagnostic> diagnostics) {
+        Objects.requireNonNull(diagnostics, "diagnostics is null");
+
+        this.domain = domain;
+        this.diagnostics = Collections.unmodifiableList(new ArrayList<>(
+                diagnostics
+        ));
+    }
+
+    /**
+     * Returns the parsed domain. If the source contains errors, the domain
+     * only contains the models that could be parsed.
+     *
+     * @return  An {@link Optional} container that either contains the parsed
+     *          domain, or <code>null</code>, if the source does not contain
+     *          a domain declaration.
+     */
+    public Optional<Domain> getDomain() {
+        return Optional.ofNullable(this.domain);
+    }
+
+    /**
+     * Returns the errors that have been encountered, in the order of their
+     * positions.
+     *
+     * @return  An unmodifiable list of the errors.
+     */
+    public List<ParserDiagnostic> getDiagnostics() {
+        return this.diagnostics;
+    }
+
+    /**
+     * Tests, if the source has been parsed without errors.
+     *
+     * @return  <code>true</code>, if no errors have been encountered,
+     *          otherwise <code>false</code>.
+     */
+    public boolean isSuccessful() {
+        return this.diagnostics.isEmpty();
+    }
+}
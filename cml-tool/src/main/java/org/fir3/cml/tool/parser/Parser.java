@@ -9,6 +9,7 @@ import org.fir3.cml.tool.tokenizer.Token;
 import org.fir3.cml.tool.util.seq.Sequence;
 
 import java.io.IOException;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -78,4 +79,92 @@ public final class Parser {
 
         return nullableDomain;
     }
+
+    /**
+     * Parses the next domain from the sequence of tokens that this instance
+     * was initialized with and reports its declarations to the specified
+     * <code>listener</code>, without building a {@link Domain} instance.
+     *
+     * <p>
+     *     The declarations are reported as soon as they have been parsed,
+     *     thus the required memory does not depend on the size of the
+     *     source. Only the syntax is verified, i.e. duplicate names are not
+     *     detected, and the listener may already have received events when
+     *     an error is encountered.
+     * </p>
+     *
+     * @param listener  The listener that receives the events.
+     * @return  Either <code>true</code>, if a domain has been parsed, or
+     *          <code>false</code>, if there are no tokens left in the
+     *          underlying sequence.
+     *
+     * @throws NullPointerException If <code>listener</code> is
+     *                              <code>null</code>.
+     *
+     * @throws ParserException      If the underlying sequence contains a
+     *                              token-subsequence that cannot be parsed.
+     */
+    public boolean parse(ParseListener listener) throws IOException {
+        Objects.requireNonNull(listener, "listener is null");
+
+        return new StreamingParser(
+                this.source,
+                PARSER_CONTROLLER,
+                listener
+        ).parse();
+    }
+
+    /**
+     * Parses the next {@link Domain} instance from the sequence of tokens that
+     * this instance was initialized with, but instead of failing at the first
+     * error, records it and continues parsing.
+     *
+     * <p>
+     *     After an error, the parser skips to the next <code>;</code> or
+     *     <code>}</code> token. Thus, a single call reports all errors of the
+     *     source, and the returned domain contains all models that could be
+     *     parsed.
+     * </p>
+     *
+     * @return  The parsed domain and the encountered errors. If there are no
+     *          tokens left in the underlying sequence, the result contains
+     *          neither a domain nor errors.
+     *
+     * @throws IOException  If reading from the underlying sequence fails.
+     */
+    public ParseResult parseRecovering() throws IOException {
+        return new RecoveringParser(this.source, PARSER_CONTROLLER).parse();
+    }
+
+    /**
+     * Parses a single {@link Model} instance from the sequence of tokens that
+     * this instance was initialized with. The sequence is expected to
+     * contain nothing but the model.
+     *
+     * <p>
+     *     This allows to parse the declarations of a source one at a time,
+     *     e.g. to parse only the declaration that changed since the previous
+     *     parse.
+     * </p>
+     *
+     * @return  An {@link Optional} container that either contains the parsed
+     *          {@link Model} instance or <code>null</code>, if there are no
+     *          tokens left in the underlying sequence.
+     *
+     * @throws ParserException  If the underlying sequence contains a
+     *                          token-subsequence that cannot be parsed.
+     */
+    public Optional<Model> parseModel() throws IOException {
+        Optional<Model> nullableModel = PARSER_CONTROLLER.parse(
+                this.source,
+                Model.class,
+                Environment.EMPTY_ENVIRONMENT
+        );
+
+        if (this.source.read() != null) {
+            throw new ParserException("Unable to parse (full) source");
+        }
+
+        return nullableModel;
+    }
 }
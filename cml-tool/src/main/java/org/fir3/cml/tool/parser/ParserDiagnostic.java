@@ -0,0 +1,88 @@
+package org.fir3.cml.tool.parser;
+
+import org.fir3.cml.tool.tokenizer.Token;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An error that the parser encountered and recovered from.
+ *
+ * <p>
+ *     The error is positioned by the index of the offending token. If the
+ *     offsets of the tokens have been recorded while tokenizing, see
+ *     {@link org.fir3.cml.tool.tokenizer.Tokenizer#getOffset()}, the position
+ *     can be mapped to a line and column by a
+ *     {@link org.fir3.cml.tool.tokenizer.LineIndex}.
+ * </p>
+ */
+public final class ParserDiagnostic {
+    private final long position;
+    private final Token token;
+    private final String message;
+
+    /**
+     * Initializes a new instance of <code>ParserDiagnostic</code>.
+     *
+     * @param position  The index of the offending token in the parsed
+     *                  sequence of tokens.
+     *
+     * @param token     The offending token, or <code>null</code>, if the
+     *                  error has been encountered at the end of the
+     *                  sequence.
+     *
+     * @param message   A description of the error.
+     *
+     * @throws NullPointerException     If <code>message</code> is
+     *                                  <code>null</code>.
+     *
+     * @throws IllegalArgumentException If <code>position</code> is
+     *                                  negative.
+     */
+    public ParserDiagnostic(long position, Token token, String message) {
+        Objects.requireNonNull(message, "message is null");
+
+        if (position < 0) {
+            throw new IllegalArgumentException("position is negative");
+        }
+
+        this.position = position;
+        this.token = token;
+        this.message = message;
+    }
+
+    /**
+     * Returns the index of the offending token in the parsed sequence of
+     * tokens.
+     *
+     * @return  The index of the offending token.
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Returns the offending token.
+     *
+     * @return  An {@link Optional} container that either contains the
+     *          offending token, or <code>null</code>, if the error has been
+     *          encountered at the end of the sequence.
+     */
+    public Optional<Token> getToken() {
+        return Optional.ofNullable(this.token);
+    }
+
+    /**
+     * Returns a description of the error.
+     *
+     * @return  The description of the error.
+     */
+    public String getMessage() {
+        return this.message;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("token %d: %s", this.position, this.message);
+    }
+}
@@ -0,0 +1,304 @@
+package org.fir3.cml.tool.parser;
+
+import org.fir3.cml.api.model.Attribute;
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Model;
+import org.fir3.cml.tool.tokenizer.KeywordToken;
+import org.fir3.cml.tool.tokenizer.Token;
+import org.fir3.cml.tool.util.seq.CountingSequence;
+import org.fir3.cml.tool.util.seq.Sequence;
+import org.fir3.cml.tool.util.seq.SequenceMatcher;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Parses a {@link Domain} like the {@link DomainParser}, but instead of
+ * giving up at the first error, it records a {@link ParserDiagnostic},
+ * skips to the next <code>;</code> or <code>}</code> token and continues.
+ *
+ * <p>
+ *     Errors inside the body of a model only drop the affected attribute,
+ *     while errors in the declaration of a model drop the whole model,
+ *     including its body.
+ * </p>
+ */
+final class RecoveringParser {
+    private static final SequenceMatcher<Token> SEMICOLON_MATCHER =
+            new SequenceMatcher<>(new KeywordToken(
+                    KeywordToken.Keyword.Semicolon
+            ));
+
+    private static final SequenceMatcher<Token> LEFT_BRACE_MATCHER =
+            new SequenceMatcher<>(new KeywordToken(
+                    KeywordToken.Keyword.LeftBrace
+            ));
+
+    private static final SequenceMatcher<Token> RIGHT_BRACE_MATCHER =
+            new SequenceMatcher<>(new KeywordToken(
+                    KeywordToken.Keyword.RightBrace
+            ));
+
+    private static boolean isKeyword(Token token, KeywordToken.Keyword kw) {
+        return token instanceof KeywordToken &&
+                ((KeywordToken) token).getKeyword() == kw;
+    }
+
+    private static boolean startsModel(Token token) {
+        return RecoveringParser.isKeyword(token, KeywordToken.Keyword.Model) ||
+                RecoveringParser.isKeyword(
+                        token,
+                        KeywordToken.Keyword.Builtin
+                );
+    }
+
+    private final CountingSequence<Token> source;
+    private final ParserController parserCtrl;
+    private final List<ParserDiagnostic> diagnostics;
+
+    public RecoveringParser(
+            Sequence<Token> src,
+            ParserController parserCtrl
+    ) {
+        this.source = new CountingSequence<>(src);
+        this.parserCtrl = parserCtrl;
+        this.diagnostics = new ArrayList<>();
+    }
+
+    public ParseResult parse() throws IOException {
+        Optional<DomainDeclaration> declaration = this.parserCtrl.parse(
+                this.source,
+                DomainDeclaration.class,
+                Environment.EMPTY_ENVIRONMENT
+        );
+
+        if (!declaration.isPresent()) {
+            Token token = this.peek();
+
+            if (token == null) {
+                return new ParseResult(null, this.diagnostics);
+            }
+
+            this.report("Expected a domain declaration");
+
+            // The models are still parsed to report their errors, but
+            // without a declaration, there is no domain to add them to.
+
+            if (!RecoveringParser.startsModel(token)) {
+                this.synchronize();
+            }
+        }
+
+        Map<String, Model> models = new LinkedHashMap<>();
+
+        while (this.peek() != null) {
+            long position = this.source.getPosition();
+            Token token = this.peek();
+            Optional<Model> model = this.parseModel();
+
+            if (model.isPresent() && models.putIfAbsent(
+                    model.get().getName(),
+                    model.get()
+            ) != null) {
+                this.report(position, token, String.format(
+                        "Duplicate model '%s'",
+                        model.get().getName()
+                ));
+            }
+        }
+
+        // Errors in the body of a model are reported before the errors in
+        // its declaration, thus the diagnostics have to be sorted.
+
+        this.diagnostics.sort(Comparator.comparingLong(
+                ParserDiagnostic::getPosition
+        ));
+
+        if (!declaration.isPresent()) {
+            return new ParseResult(null, this.diagnostics);
+        }
+
+        return new ParseResult(
+                new Domain(
+                        declaration.get().getName(),
+                        declaration.get().getFlags(),
+                        new HashSet<>(models.values())
+                ),
+                this.diagnostics
+        );
+    }
+
+    private Optional<Model> parseModel() throws IOException {
+        long position = this.source.getPosition();
+        Token token = this.peek();
+        Optional<ModelDeclaration> nullableDeclaration = this.parserCtrl.parse(
+                this.source,
+                ModelDeclaration.class,
+                Environment.EMPTY_ENVIRONMENT
+        );
+
+        if (!nullableDeclaration.isPresent()) {
+            this.report("Expected a model declaration");
+            this.synchronize();
+            return Optional.empty();
+        }
+
+        ModelDeclaration declaration = nullableDeclaration.get();
+        Map<String, Attribute> attributes = new LinkedHashMap<>();
+
+        if (declaration.getFlags().contains(Model.Flag.Builtin)) {
+            // A missing semicolon is reported, but the model is kept, since
+            // the following tokens most likely belong to the next model.
+
+            if (!SEMICOLON_MATCHER.skip(this.source)) {
+                this.report("Expected ';'");
+            }
+        } else if (!LEFT_BRACE_MATCHER.skip(this.source)) {
+            this.report("Expected '{'");
+            this.synchronize();
+            return Optional.empty();
+        } else {
+            this.parseAttributes(declaration, attributes);
+        }
+
+        try {
+            return Optional.of(new Model(
+                    declaration.getName(),
+                    declaration.getFlags(),
+                    declaration.getTypeParameters(),
+                    new HashSet<>(attributes.values())
+            ));
+        } catch (IllegalArgumentException ex) {
+            this.report(position, token, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void parseAttributes(
+            ModelDeclaration declaration,
+            Map<String, Attribute> attributes
+    ) throws IOException {
+        Environment attributeEnv = Environment.EMPTY_ENVIRONMENT.extend(
+                declaration.getTypeParameters()
+        );
+
+        while (!RIGHT_BRACE_MATCHER.skip(this.source)) {
+            long position = this.source.getPosition();
+            Token token = this.peek();
+
+            // If the closing brace is missing, the body ends at the next
+            // model declaration.
+
+            if (token == null || RecoveringParser.startsModel(token)) {
+                this.report("Expected '}'");
+                return;
+            }
+
+            Optional<Attribute> attribute = this.parserCtrl.parse(
+                    this.source,
+                    Attribute.class,
+                    attributeEnv
+            );
+
+            if (!attribute.isPresent()) {
+                this.report("Expected an attribute");
+                this.skipAttribute();
+            } else if (attributes.putIfAbsent(
+                    attribute.get().getName(),
+                    attribute.get()
+            ) != null) {
+                this.report(position, token, String.format(
+                        "Duplicate attribute '%s'",
+                        attribute.get().getName()
+                ));
+            }
+        }
+    }
+
+    /**
+     * Skips the tokens up to and including the next <code>;</code> token,
+     * but stops in front of a <code>}</code> token or the next model
+     * declaration. At least one token is skipped.
+     */
+    private void skipAttribute() throws IOException {
+        this.source.read();
+
+        Token token;
+
+        while ((token = this.peek()) != null) {
+            if (RecoveringParser.isKeyword(
+                    token,
+                    KeywordToken.Keyword.RightBrace
+            ) || RecoveringParser.startsModel(token)) {
+                return;
+            }
+
+            this.source.read();
+
+            if (RecoveringParser.isKeyword(
+                    token,
+                    KeywordToken.Keyword.Semicolon
+            )) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Skips the tokens up to and including the next <code>;</code> token
+     * outside of braces, or the <code>}</code> token that closes the first
+     * opened brace. Stops in front of the next model declaration outside of
+     * braces. At least one token is skipped.
+     */
+    private void synchronize() throws IOException {
+        int depth = 0;
+        Token token = this.source.read();
+
+        while (token != null) {
+            if (RecoveringParser.isKeyword(
+                    token,
+                    KeywordToken.Keyword.LeftBrace
+            )) {
+                depth++;
+            } else if (RecoveringParser.isKeyword(
+                    token,
+                    KeywordToken.Keyword.RightBrace
+            )) {
+                if (--depth <= 0) {
+                    return;
+                }
+            } else if (depth == 0 && RecoveringParser.isKeyword(
+                    token,
+                    KeywordToken.Keyword.Semicolon
+            )) {
+                return;
+            }
+
+            token = this.peek();
+
+            if (token != null && depth == 0 &&
+                    RecoveringParser.startsModel(token)) {
+                return;
+            }
+
+            this.source.read();
+        }
+    }
+
+    private Token peek() throws IOException {
+        try (Sequence.Mark mark = this.source.mark()) {
+            Token token = this.source.read();
+            mark.reset();
+
+            return token;
+        }
+    }
+
+    private void report(String message) throws IOException {
+        this.report(this.source.getPosition(), this.peek(), message);
+    }
+
+    private void report(long position, Token token, String message) {
+        this.diagnostics.add(new ParserDiagnostic(position, token, message));
+    }
+}
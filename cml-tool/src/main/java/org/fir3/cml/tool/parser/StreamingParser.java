@@ -0,0 +1,146 @@
+package org.fir3.cml.tool.parser;
+
+import org.fir3.cml.api.model.Attribute;
+import org.fir3.cml.api.model.Model;
+import org.fir3.cml.tool.exception.ParserException;
+import org.fir3.cml.tool.tokenizer.KeywordToken;
+import org.fir3.cml.tool.tokenizer.Token;
+import org.fir3.cml.tool.util.seq.Sequence;
+import org.fir3.cml.tool.util.seq.SequenceMatcher;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Parses a domain like the {@link DomainParser}, but reports each
+ * declaration to a {@link ParseListener} as soon as it has been parsed,
+ * instead of building {@link Model} instances.
+ *
+ * <p>
+ *     The sequence is never marked across more than a single declaration or
+ *     attribute, thus the memory that is required for parsing does not grow
+ *     with the size of the source.
+ * </p>
+ */
+final class StreamingParser {
+    private static final SequenceMatcher<Token> SEMICOLON_MATCHER =
+            new SequenceMatcher<>(new KeywordToken(
+                    KeywordToken.Keyword.Semicolon
+            ));
+
+    private static final SequenceMatcher<Token> LEFT_BRACE_MATCHER =
+            new SequenceMatcher<>(new KeywordToken(
+                    KeywordToken.Keyword.LeftBrace
+            ));
+
+    private static final SequenceMatcher<Token> RIGHT_BRACE_MATCHER =
+            new SequenceMatcher<>(new KeywordToken(
+                    KeywordToken.Keyword.RightBrace
+            ));
+
+    private final Sequence<Token> source;
+    private final ParserController parserCtrl;
+    private final ParseListener listener;
+
+    public StreamingParser(
+            Sequence<Token> src,
+            ParserController parserCtrl,
+            ParseListener listener
+    ) {
+        this.source = src;
+        this.parserCtrl = parserCtrl;
+        this.listener = listener;
+    }
+
+    public boolean parse() throws IOException {
+        Optional<DomainDeclaration> declaration = this.parserCtrl.parse(
+                this.source,
+                DomainDeclaration.class,
+                Environment.EMPTY_ENVIRONMENT
+        );
+
+        if (!declaration.isPresent()) {
+            if (this.source.read() != null) {
+                throw new ParserException("Unable to parse (full) source");
+            }
+
+            return false;
+        }
+
+        this.listener.onDomain(
+                declaration.get().getName(),
+                declaration.get().getFlags()
+        );
+
+        while (this.hasNext()) {
+            this.parseModel();
+        }
+
+        return true;
+    }
+
+    private void parseModel() throws IOException {
+        Optional<ModelDeclaration> nullableDeclaration = this.parserCtrl.parse(
+                this.source,
+                ModelDeclaration.class,
+                Environment.EMPTY_ENVIRONMENT
+        );
+
+        if (!nullableDeclaration.isPresent()) {
+            throw new ParserException("Unable to parse (full) source");
+        }
+
+        ModelDeclaration declaration = nullableDeclaration.get();
+
+        this.listener.onModelStart(
+                declaration.getName(),
+                declaration.getFlags(),
+                declaration.getTypeParameters()
+        );
+
+        if (declaration.getFlags().contains(Model.Flag.Builtin)) {
+            if (!SEMICOLON_MATCHER.skip(this.source)) {
+                throw new ParserException("Unable to parse (full) source");
+            }
+
+            this.listener.onModelEnd(declaration.getName());
+            return;
+        }
+
+        if (!LEFT_BRACE_MATCHER.skip(this.source)) {
+            throw new ParserException("Unable to parse (full) source");
+        }
+
+        Environment attributeEnv = Environment.EMPTY_ENVIRONMENT.extend(
+                declaration.getTypeParameters()
+        );
+
+        Optional<Attribute> nextAttribute;
+
+        while ((nextAttribute = this.parserCtrl.parse(
+                this.source,
+                Attribute.class,
+                attributeEnv
+        )).isPresent()) {
+            this.listener.onAttribute(
+                    nextAttribute.get().getName(),
+                    nextAttribute.get().getType()
+            );
+        }
+
+        if (!RIGHT_BRACE_MATCHER.skip(this.source)) {
+            throw new ParserException("Unable to parse (full) source");
+        }
+
+        this.listener.onModelEnd(declaration.getName());
+    }
+
+    private boolean hasNext() throws IOException {
+        try (Sequence.Mark mark = this.source.mark()) {
+            boolean hasNext = this.source.read() != null;
+            mark.reset();
+
+            return hasNext;
+        }
+    }
+}
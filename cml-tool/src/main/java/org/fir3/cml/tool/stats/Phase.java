@@ -0,0 +1,69 @@
+package org.fir3.cml.tool.stats;
+
+/**
+ * The phases of the CML tool pipeline that are measured by
+ * {@link Statistics}.
+ */
+public enum Phase {
+    /**
+     * Reading the source files into memory.
+     */
+    Read("read", false),
+
+    /**
+     * Converting the bytes of the source files into tokens.
+     */
+    Tokenize("tokenize", false),
+
+    /**
+     * Converting the tokens into domains.
+     */
+    Parse("parse", false),
+
+    /**
+     * Combining the domains of all source files and validating that they
+     * do not collide.
+     */
+    Combine("combine", false),
+
+    /**
+     * Building the environment from the combined domains.
+     */
+    Environment("environment", false),
+
+    /**
+     * Translating the target domains. Translators may emit their output on
+     * threads of their own, which are not measured.
+     */
+    Translate("translate", true);
+
+    private final String name;
+    private final boolean mainThreadOnly;
+
+    Phase(String name, boolean mainThreadOnly) {
+        this.name = name;
+        this.mainThreadOnly = mainThreadOnly;
+    }
+
+    /**
+     * Returns the name of this phase as it appears in reports.
+     *
+     * @return  The name of this phase.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns whether the CPU time and the allocations of this phase only
+     * cover the thread that runs the phase, although some of its work may
+     * be done by other threads.
+     *
+     * @return  Either <code>true</code>, if the CPU time and the allocations
+     *          of other threads are missing, or <code>false</code>, if every
+     *          thread that works on this phase is measured.
+     */
+    public boolean isMainThreadOnly() {
+        return this.mainThreadOnly;
+    }
+}
@@ -0,0 +1,75 @@
+package org.fir3.cml.tool.stats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The accumulated measurements of a single {@link Phase}.
+ *
+ * <p>
+ *     If a phase runs on multiple threads concurrently, the measurements of
+ *     all threads are summed up. Thus, the wall time of a parallel phase may
+ *     exceed the time that actually elapsed.
+ * </p>
+ */
+public final class PhaseStatistics {
+    private final LongAdder wallNanos;
+    private final LongAdder cpuNanos;
+    private final LongAdder allocatedBytes;
+    private final LongAdder measurements;
+    private final boolean cpuTimeSupported;
+    private final boolean allocationSupported;
+
+    PhaseStatistics(boolean cpuTimeSupported, boolean allocationSupported) {
+        this.wallNanos = new LongAdder();
+        this.cpuNanos = new LongAdder();
+        this.allocatedBytes = new LongAdder();
+        this.measurements = new LongAdder();
+        this.cpuTimeSupported = cpuTimeSupported;
+        this.allocationSupported = allocationSupported;
+    }
+
+    void add(long wallNanos, long cpuNanos, long allocatedBytes) {
+        this.wallNanos.add(wallNanos);
+        this.cpuNanos.add(cpuNanos);
+        this.allocatedBytes.add(allocatedBytes);
+        this.measurements.increment();
+    }
+
+    /**
+     * Returns the number of times this phase has been measured.
+     *
+     * @return  The number of measurements.
+     */
+    public long getMeasurements() {
+        return this.measurements.sum();
+    }
+
+    /**
+     * Returns the wall time that has been spent in this phase.
+     *
+     * @return  The wall time in nanoseconds.
+     */
+    public long getWallNanos() {
+        return this.wallNanos.sum();
+    }
+
+    /**
+     * Returns the CPU time that has been spent in this phase.
+     *
+     * @return  The CPU time in nanoseconds, or <code>-1</code>, if the JVM
+     *          does not support measuring the CPU time of threads.
+     */
+    public long getCpuNanos() {
+        return this.cpuTimeSupported ? this.cpuNanos.sum() : -1;
+    }
+
+    /**
+     * Returns the number of bytes that have been allocated in this phase.
+     *
+     * @return  The number of allocated bytes, or <code>-1</code>, if the JVM
+     *          does not support measuring the allocations of threads.
+     */
+    public long getAllocatedBytes() {
+        return this.allocationSupported ? this.allocatedBytes.sum() : -1;
+    }
+}
@@ -0,0 +1,316 @@
+package org.fir3.cml.tool.stats;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the wall time, CPU time and allocated bytes of each {@link Phase}
+ * of the CML tool pipeline, as well as some counters that describe the
+ * amount of processed input.
+ *
+ * <p>
+ *     CPU time and allocations are measured per thread via the
+ *     {@link ThreadMXBean} of the JVM. The allocation counters are only
+ *     available on JVMs that provide the
+ *     <code>com.sun.management.ThreadMXBean</code> extension. Work that a
+ *     phase hands over to threads that do not measure it themselves, e.g.
+ *     the threads of a translator, is only covered by the wall time, see
+ *     {@link Phase#isMainThreadOnly()}.
+ * </p>
+ *
+ * <p>
+ *     Instances of this class are safe for concurrent use.
+ * </p>
+ */
+public final class Statistics {
+    /**
+     * A single measurement of a phase, which ends when {@link #stop()} is
+     * called.
+     */
+    public static final class Measurement {
+        private final Statistics owner;
+        private final PhaseStatistics statistics;
+        private final long threadId;
+        private final long wallStart;
+        private final long cpuStart;
+        private final long allocationStart;
+        private boolean stopped;
+
+        private Measurement(Statistics owner, PhaseStatistics statistics) {
+            this.owner = owner;
+            this.statistics = statistics;
+            this.threadId = Thread.currentThread().getId();
+            this.wallStart = System.nanoTime();
+            this.cpuStart = owner.cpuNanos();
+            this.allocationStart = owner.allocatedBytes(this.threadId);
+        }
+
+        /**
+         * Ends this measurement and adds it to the statistics of its phase.
+         * This must be called on the thread that started the measurement.
+         * Calling this method more than once has no further effect.
+         */
+        public void stop() {
+            if (this.stopped || this.statistics == null) {
+                return;
+            }
+
+            this.stopped = true;
+            this.statistics.add(
+                    System.nanoTime() - this.wallStart,
+                    this.owner.cpuNanos() - this.cpuStart,
+                    this.owner.allocatedBytes(this.threadId) -
+                            this.allocationStart
+            );
+        }
+    }
+
+    /**
+     * The statistics instance that does not measure anything. Measuring a
+     * phase with this instance has no noticeable overhead.
+     */
+    public static final Statistics DISABLED = new Statistics(false);
+
+    private static final Measurement NO_MEASUREMENT = new Measurement(
+            DISABLED,
+            null
+    );
+
+    private final boolean enabled;
+    private final ThreadMXBean threadBean;
+    private final com.sun.management.ThreadMXBean allocationBean;
+    private final Map<Phase, PhaseStatistics> phases;
+    private final LongAdder sourceFiles;
+    private final LongAdder sourceBytes;
+    private final LongAdder tokens;
+    private final LongAdder models;
+    private final LongAdder translatedModels;
+    private final long startNanos;
+    private volatile long totalNanos;
+
+    /**
+     * Initializes a new instance of <code>Statistics</code>, which starts
+     * measuring the total time immediately.
+     */
+    public Statistics() {
+        this(true);
+    }
+
+    private Statistics(boolean enabled) {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        boolean cpuTimeSupported = enabled &&
+                threadBean.isCurrentThreadCpuTimeSupported();
+
+        if (cpuTimeSupported && !threadBean.isThreadCpuTimeEnabled()) {
+            threadBean.setThreadCpuTimeEnabled(true);
+        }
+
+        com.sun.management.ThreadMXBean allocationBean = null;
+
+        if (enabled && threadBean instanceof com.sun.management.ThreadMXBean) {
+            allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+
+            if (!allocationBean.isThreadAllocatedMemorySupported()) {
+                allocationBean = null;
+            } else if (!allocationBean.isThreadAllocatedMemoryEnabled()) {
+                allocationBean.setThreadAllocatedMemoryEnabled(true);
+            }
+        }
+
+        this.enabled = enabled;
+        this.threadBean = cpuTimeSupported ? threadBean : null;
+        this.allocationBean = allocationBean;
+        this.phases = new EnumMap<>(Phase.class);
+
+        for (Phase phase : Phase.values()) {
+            this.phases.put(phase, new PhaseStatistics(
+                    this.threadBean != null,
+                    this.allocationBean != null
+            ));
+        }
+
+        this.sourceFiles = new LongAdder();
+        this.sourceBytes = new LongAdder();
+        this.tokens = new LongAdder();
+        this.models = new LongAdder();
+        this.translatedModels = new LongAdder();
+        this.startNanos = System.nanoTime();
+        this.totalNanos = -1;
+    }
+
+    /**
+     * Returns whether this instance measures anything at all.
+     *
+     * @return  Either <code>true</code>, if this instance measures the
+     *          phases, or <code>false</code>, if it is {@link #DISABLED}.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Starts measuring the specified <code>phase</code> on the current
+     * thread. The measurement ends when {@link Measurement#stop()} is called
+     * on the returned instance, which must happen on the same thread,
+     * usually in a <code>finally</code> block.
+     *
+     * @param phase The phase that will be measured.
+     * @return  The measurement that has been started.
+     *
+     * @throws NullPointerException If <code>phase</code> is
+     *                              <code>null</code>.
+     */
+    public Measurement measure(Phase phase) {
+        Objects.requireNonNull(phase, "phase is null");
+
+        if (!this.enabled) {
+            return NO_MEASUREMENT;
+        }
+
+        return new Measurement(this, this.phases.get(phase));
+    }
+
+    private long cpuNanos() {
+        return this.threadBean == null
+                ? 0
+                : this.threadBean.getCurrentThreadCpuTime();
+    }
+
+    private long allocatedBytes(long threadId) {
+        return this.allocationBean == null
+                ? 0
+                : this.allocationBean.getThreadAllocatedBytes(threadId);
+    }
+
+    /**
+     * Records that a source file of the specified <code>size</code> has been
+     * read.
+     *
+     * @param size  The size of the source file in bytes.
+     */
+    public void addSourceFile(long size) {
+        this.sourceFiles.increment();
+        this.sourceBytes.add(size);
+    }
+
+    /**
+     * Records that the specified number of <code>tokens</code> have been
+     * read from a source file.
+     *
+     * @param tokens    The number of tokens.
+     */
+    public void addTokens(long tokens) {
+        this.tokens.add(tokens);
+    }
+
+    /**
+     * Records that the specified number of <code>models</code> have been
+     * parsed.
+     *
+     * @param models    The number of models.
+     */
+    public void addModels(long models) {
+        this.models.add(models);
+    }
+
+    /**
+     * Records that the specified number of <code>models</code> have been
+     * translated.
+     *
+     * @param models    The number of models.
+     */
+    public void addTranslatedModels(long models) {
+        this.translatedModels.add(models);
+    }
+
+    /**
+     * Stops measuring the total time. Calling this method more than once has
+     * no further effect.
+     */
+    public synchronized void stop() {
+        if (this.totalNanos < 0) {
+            this.totalNanos = System.nanoTime() - this.startNanos;
+        }
+    }
+
+    /**
+     * Returns the measurements of all phases.
+     *
+     * @return  The measurements of all phases, in the order of the phases.
+     */
+    public Map<Phase, PhaseStatistics> getPhases() {
+        return Collections.unmodifiableMap(this.phases);
+    }
+
+    /**
+     * Returns the total time, from the creation of this instance until
+     * {@link #stop()} was called, or until now, if it has not been called
+     * yet.
+     *
+     * @return  The total time in nanoseconds.
+     */
+    public long getTotalNanos() {
+        long totalNanos = this.totalNanos;
+
+        return totalNanos < 0
+                ? System.nanoTime() - this.startNanos
+                : totalNanos;
+    }
+
+    public long getSourceFiles() {
+        return this.sourceFiles.sum();
+    }
+
+    public long getSourceBytes() {
+        return this.sourceBytes.sum();
+    }
+
+    public long getTokens() {
+        return this.tokens.sum();
+    }
+
+    public long getModels() {
+        return this.models.sum();
+    }
+
+    public long getTranslatedModels() {
+        return this.translatedModels.sum();
+    }
+
+    /**
+     * Returns the number of tokens that have been read per second of the
+     * {@link Phase#Tokenize} phase.
+     *
+     * @return  The number of tokens per second, or <code>0</code>, if the
+     *          phase has not been measured.
+     */
+    public double getTokensPerSecond() {
+        return Statistics.perSecond(
+                this.getTokens(),
+                this.phases.get(Phase.Tokenize).getWallNanos()
+        );
+    }
+
+    /**
+     * Returns the number of models that have been translated per second of
+     * the {@link Phase#Translate} phase.
+     *
+     * @return  The number of models per second, or <code>0</code>, if the
+     *          phase has not been measured.
+     */
+    public double getModelsPerSecond() {
+        return Statistics.perSecond(
+                this.getTranslatedModels(),
+                this.phases.get(Phase.Translate).getWallNanos()
+        );
+    }
+
+    private static double perSecond(long count, long nanos) {
+        return nanos <= 0 ? 0 : count * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,205 @@
+package org.fir3.cml.tool.stats;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The formats that {@link Statistics} can be reported in.
+ */
+public enum StatisticsFormat {
+    /**
+     * A human-readable table. The phases, whose CPU time and allocations
+     * only cover the main thread, are marked by an asterisk.
+     */
+    Text("text") {
+        @Override
+        public String format(Statistics statistics) {
+            StringBuilder builder = new StringBuilder();
+            boolean mainThreadOnly = false;
+
+            builder.append(String.format(
+                    Locale.ROOT,
+                    "%-12s %12s %12s %14s%n",
+                    "phase",
+                    "wall [ms]",
+                    "cpu [ms]",
+                    "alloc [KiB]"
+            ));
+
+            for (Map.Entry<Phase, PhaseStatistics> entry :
+                    statistics.getPhases().entrySet()) {
+                PhaseStatistics phase = entry.getValue();
+                mainThreadOnly |= entry.getKey().isMainThreadOnly();
+
+                builder.append(String.format(
+                        Locale.ROOT,
+                        "%-12s %12s %12s %14s%n",
+                        entry.getKey().isMainThreadOnly()
+                                ? entry.getKey().getName() + "*"
+                                : entry.getKey().getName(),
+                        StatisticsFormat.toMillis(phase.getWallNanos()),
+                        StatisticsFormat.toMillis(phase.getCpuNanos()),
+                        phase.getAllocatedBytes() < 0
+                                ? "n/a"
+                                : Long.toString(
+                                        phase.getAllocatedBytes() / 1024
+                                )
+                ));
+            }
+
+            builder.append(String.format(
+                    Locale.ROOT,
+                    "%-12s %12s%n",
+                    "total",
+                    StatisticsFormat.toMillis(statistics.getTotalNanos())
+            ));
+
+            if (mainThreadOnly) {
+                builder.append(String.format(
+                        Locale.ROOT,
+                        "* cpu and alloc of the main thread only%n"
+                ));
+            }
+
+            builder.append(String.format(Locale.ROOT, "%n"));
+
+            builder.append(String.format(
+                    Locale.ROOT,
+                    "%d source files (%d bytes), %d tokens, %d models, " +
+                            "%d translated models%n",
+                    statistics.getSourceFiles(),
+                    statistics.getSourceBytes(),
+                    statistics.getTokens(),
+                    statistics.getModels(),
+                    statistics.getTranslatedModels()
+            ));
+
+            builder.append(String.format(
+                    Locale.ROOT,
+                    "%.0f tokens/s, %.0f models/s%n",
+                    statistics.getTokensPerSecond(),
+                    statistics.getModelsPerSecond()
+            ));
+
+            return builder.toString();
+        }
+    },
+
+    /**
+     * A single JSON object, which is meant to be processed by other tools.
+     * All times are reported in nanoseconds; unsupported measurements are
+     * reported as <code>-1</code>. The <code>mainThreadOnly</code> property
+     * of a phase tells whether its CPU time and allocations only cover the
+     * main thread.
+     */
+    Json("json") {
+        @Override
+        public String format(Statistics statistics) {
+            StringBuilder builder = new StringBuilder("{\"phases\":{");
+            boolean first = true;
+
+            for (Map.Entry<Phase, PhaseStatistics> entry :
+                    statistics.getPhases().entrySet()) {
+                PhaseStatistics phase = entry.getValue();
+
+                if (!first) {
+                    builder.append(',');
+                }
+
+                first = false;
+
+                // Phase names only consist of lowercase letters, so they do
+                // not need to be escaped.
+
+                builder.append('"').append(entry.getKey().getName())
+                        .append("\":{\"wallNanos\":")
+                        .append(phase.getWallNanos())
+                        .append(",\"cpuNanos\":")
+                        .append(phase.getCpuNanos())
+                        .append(",\"allocatedBytes\":")
+                        .append(phase.getAllocatedBytes())
+                        .append(",\"mainThreadOnly\":")
+                        .append(entry.getKey().isMainThreadOnly())
+                        .append('}');
+            }
+
+            builder.append("},\"totalNanos\":")
+                    .append(statistics.getTotalNanos())
+                    .append(",\"sourceFiles\":")
+                    .append(statistics.getSourceFiles())
+                    .append(",\"sourceBytes\":")
+                    .append(statistics.getSourceBytes())
+                    .append(",\"tokens\":")
+                    .append(statistics.getTokens())
+                    .append(",\"models\":")
+                    .append(statistics.getModels())
+                    .append(",\"translatedModels\":")
+                    .append(statistics.getTranslatedModels())
+                    .append(",\"tokensPerSecond\":")
+                    .append(String.format(
+                            Locale.ROOT,
+                            "%.3f",
+                            statistics.getTokensPerSecond()
+                    ))
+                    .append(",\"modelsPerSecond\":")
+                    .append(String.format(
+                            Locale.ROOT,
+                            "%.3f",
+                            statistics.getModelsPerSecond()
+                    ))
+                    .append("}\n");
+
+            return builder.toString();
+        }
+    };
+
+    /**
+     * Returns the format with the specified <code>name</code>.
+     *
+     * @param name  The name of the format.
+     * @return  An {@link Optional} instance that either contains the format,
+     *          or <code>null</code>, if there is no format with the specified
+     *          <code>name</code>.
+     */
+    public static Optional<StatisticsFormat> fromName(String name) {
+        for (StatisticsFormat format : StatisticsFormat.values()) {
+            if (Objects.equals(format.name, name)) {
+                return Optional.of(format);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private static String toMillis(long nanos) {
+        return nanos < 0
+                ? "n/a"
+                : String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private final String name;
+
+    StatisticsFormat(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of this format as it is specified on the command
+     * line.
+     *
+     * @return  The name of this format.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Formats the specified <code>statistics</code>.
+     *
+     * @param statistics    The statistics that will be formatted.
+     * @return  The formatted statistics, terminated by a line separator.
+     */
+    public abstract String format(Statistics statistics);
+}
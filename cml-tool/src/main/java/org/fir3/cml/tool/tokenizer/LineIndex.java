@@ -0,0 +1,144 @@
+package org.fir3.cml.tool.tokenizer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Maps the byte offsets of a source, e.g. the offsets that are reported by
+ * {@link Tokenizer#getOffset()}, to lines and columns.
+ *
+ * <p>
+ *     The start offsets of the lines are determined by a single scan of the
+ *     source, which happens when the first offset is mapped. Thus, creating
+ *     an index is cheap, as long as no offset is actually mapped. Afterwards,
+ *     each offset is mapped by a binary search.
+ * </p>
+ *
+ * <p>
+ *     Lines are terminated by line feeds, and both lines and columns are
+ *     counted from one. Columns are counted in bytes.
+ * </p>
+ *
+ * <p>
+ *     Instances of this class are not thread-safe.
+ * </p>
+ */
+public final class LineIndex {
+    private final ByteBuffer source;
+    private int[] lineStarts;
+
+    /**
+     * Initializes a new instance of <code>LineIndex</code> for the remaining
+     * bytes of the specified <code>src</code> buffer. The offset zero refers
+     * to the current position of the buffer.
+     *
+     * <p>
+     *     The buffer is not copied, thus its content must not be modified
+     *     while the index is being used. Its position and limit may be
+     *     changed, though.
+     * </p>
+     *
+     * @param src   The buffer that contains the source.
+     * @throws NullPointerException If <code>src</code> is <code>null</code>.
+     */
+    public LineIndex(ByteBuffer src) {
+        Objects.requireNonNull(src, "src is null");
+
+        this.source = src.slice();
+    }
+
+    /**
+     * Returns the line that contains the specified <code>offset</code>.
+     *
+     * @param offset    The byte offset inside the source. The size of the
+     *                  source is accepted as well and refers to its end.
+     *
+     * @return  The line, counted from one.
+     *
+     * @throws IndexOutOfBoundsException    If <code>offset</code> is negative
+     *                                      or greater than the size of the
+     *                                      source.
+     */
+    public int getLine(long offset) {
+        return this.findLine(offset) + 1;
+    }
+
+    /**
+     * Returns the column of the specified <code>offset</code> inside its
+     * line.
+     *
+     * @param offset    The byte offset inside the source. The size of the
+     *                  source is accepted as well and refers to its end.
+     *
+     * @return  The column, counted from one.
+     *
+     * @throws IndexOutOfBoundsException    If <code>offset</code> is negative
+     *                                      or greater than the size of the
+     *                                      source.
+     */
+    public int getColumn(long offset) {
+        return (int) (offset - this.lineStarts[this.findLine(offset)]) + 1;
+    }
+
+    /**
+     * Returns the line and the column of the specified <code>offset</code>
+     * as a string of the form <code>line:column</code>, which is suitable
+     * for messages.
+     *
+     * @param offset    The byte offset inside the source. The size of the
+     *                  source is accepted as well and refers to its end.
+     *
+     * @return  The line and the column of the offset.
+     *
+     * @throws IndexOutOfBoundsException    If <code>offset</code> is negative
+     *                                      or greater than the size of the
+     *                                      source.
+     */
+    public String describe(long offset) {
+        return String.format(
+                "%d:%d",
+                this.getLine(offset),
+                this.getColumn(offset)
+        );
+    }
+
+    private int findLine(long offset) {
+        if (offset < 0 || offset > this.source.limit()) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Offset %d is outside of the source",
+                    offset
+            ));
+        }
+
+        if (this.lineStarts == null) {
+            this.lineStarts = LineIndex.computeLineStarts(this.source);
+        }
+
+        int index = Arrays.binarySearch(this.lineStarts, (int) offset);
+
+        // If the offset is not the start of a line, the binary search
+        // returns the negated insertion point, which is the next line.
+
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private static int[] computeLineStarts(ByteBuffer source) {
+        int[] starts = new int[16];
+        int count = 1;
+
+        for (int index = 0; index < source.limit(); index++) {
+            if (source.get(index) != 0x0A) {
+                continue;
+            }
+
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+
+            starts[count++] = index + 1;
+        }
+
+        return Arrays.copyOf(starts, count);
+    }
+}
@@ -2,7 +2,9 @@ package org.fir3.cml.tool.tokenizer;
 
 import org.fir3.cml.tool.exception.TokenizerException;
 import org.fir3.cml.tool.util.seq.AbstractSequence;
+import org.fir3.cml.tool.util.seq.CountingSequence;
 import org.fir3.cml.tool.util.seq.MultiSequenceMatcher;
+import org.fir3.cml.tool.util.seq.PositionedSequence;
 import org.fir3.cml.tool.util.seq.Sequence;
 import org.fir3.cml.tool.util.seq.SequenceMatcher;
 
@@ -16,6 +18,14 @@ import java.util.stream.Collectors;
 
 /**
  * The tokenizer reads {@link Token}s from a byte source.
+ *
+ * <p>
+ *     The tokens themselves do not carry their location. Instead, the byte
+ *     offset of each token is available through {@link #getOffset()} right
+ *     after it has been read, so that callers that need locations can store
+ *     them compactly, e.g. in an array next to the tokens. The offsets can be
+ *     mapped to lines and columns by a {@link LineIndex}.
+ * </p>
  */
 public final class Tokenizer extends AbstractSequence<Token> {
     @SuppressWarnings("unchecked")
@@ -82,27 +92,66 @@ public final class Tokenizer extends AbstractSequence<Token> {
                 || (c == 0x5F);             // Underscore
     }
 
-    private final Sequence<Byte> source;
+    private final PositionedSequence<Byte> source;
+    private final long start;
+    private long offset;
 
     /**
      * Creates a new instance of <code>Tokenizer</code> and initializes it with
      * the passed <code>src</code> sequence.
      *
+     * <p>
+     *     If the sequence knows its position, e.g. a
+     *     {@link org.fir3.cml.tool.util.seq.ByteBufferSequence}, the offsets
+     *     are taken from it. Otherwise, the bytes are counted, which costs an
+     *     additional allocation per mark.
+     * </p>
+     *
      * @param src   The byte sequence that this tokenizer operates on
      */
     public Tokenizer(Sequence<Byte> src) {
-        this.source = src;
+        this.source = src instanceof PositionedSequence
+                ? (PositionedSequence<Byte>) src
+                : new CountingSequence<>(src);
+
+        this.start = this.source.getPosition();
+    }
+
+    /**
+     * Returns the byte offset of the token that has been read from the byte
+     * sequence most recently, relative to the position of the sequence when
+     * this tokenizer was created. If reading the token failed, this is the
+     * offset of the offending bytes, or the offset of the unterminated
+     * comment.
+     *
+     * <p>
+     *     Tokens that are read again after resetting a mark are not read from
+     *     the byte sequence, thus this method only refers to the last read
+     *     token, if no mark has been reset.
+     * </p>
+     *
+     * @return  The byte offset of the most recent token.
+     */
+    public long getOffset() {
+        return this.offset;
     }
 
     @Override
     protected Token read0() throws IOException {
         boolean skipped;
 
+        // The offset is updated before anything is skipped, so that errors
+        // inside of a comment are reported at the start of the comment.
+
         do {
+            this.offset = this.source.getPosition() - this.start;
+
             try {
                 skipped = this.skipWhitespace() || this.skipComment();
             } catch (EOFException ignored) {
                 return null;
+            } catch (TokenizerException ex) {
+                throw ex;
             } catch (IOException ex) {
                 throw new TokenizerException(ex);
             }
@@ -154,7 +203,9 @@ public final class Tokenizer extends AbstractSequence<Token> {
         }
 
         while (!Tokenizer.COMMENT_END_MATCHER.skip(this.source)) {
-            this.source.read();
+            if (this.source.read() == null) {
+                throw new TokenizerException("Unterminated comment");
+            }
         }
 
         return true;
@@ -1,6 +1,12 @@
 package org.fir3.cml.tool.util;
 
+import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.CodeSource;
 import java.util.Objects;
 import java.util.Optional;
@@ -27,6 +33,60 @@ public final class ClassHelper {
                 .map(CodeSource::getLocation);
     }
 
+    /**
+     * Returns a string that identifies the implementation of the specified
+     * <code>cls</code>, so that it can be part of cache keys.
+     *
+     * <p>
+     *     The fingerprint consists of the name and the implementation version
+     *     of the class, as well as the location, size and modification time
+     *     of its origin. If the origin is a directory, the modification time
+     *     of the class file is used instead. This is a heuristic: Changes to
+     *     other classes of the same directory are not detected.
+     * </p>
+     *
+     * @param cls   The class whose fingerprint you want to determine.
+     * @return  The fingerprint of the class.
+     *
+     * @throws NullPointerException If <code>cls</code> is <code>null</code>.
+     */
+    public static String getFingerprint(Class<?> cls) {
+        Objects.requireNonNull(cls, "Parameter cls is not allowed to be null");
+
+        StringBuilder fingerprint = new StringBuilder(cls.getName());
+        Package pkg = cls.getPackage();
+
+        fingerprint.append(';').append(
+                pkg == null ? null : pkg.getImplementationVersion()
+        );
+
+        Optional<URL> origin = ClassHelper.getOrigin(cls);
+        fingerprint.append(';').append(origin.orElse(null));
+
+        try {
+            Path file = origin.isPresent()
+                    ? Paths.get(origin.get().toURI())
+                    : null;
+
+            if (file != null && Files.isDirectory(file)) {
+                file = file.resolve(cls.getName().replace('.', '/') + ".class");
+            }
+
+            if (file != null && Files.isRegularFile(file)) {
+                fingerprint.append(';')
+                        .append(Files.size(file))
+                        .append(';')
+                        .append(Files.getLastModifiedTime(file).toMillis());
+            }
+        } catch (URISyntaxException | IllegalArgumentException |
+                FileSystemNotFoundException | IOException ignored) {
+            // The origin is not a local file, thus only its location is
+            // part of the fingerprint.
+        }
+
+        return fingerprint.toString();
+    }
+
     private ClassHelper() {
         throw new IllegalStateException("Do not instantiate this class");
     }
@@ -0,0 +1,129 @@
+package org.fir3.cml.tool.util.seq;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A {@link Sequence} implementation that reads the remaining bytes of a
+ * {@link ByteBuffer} instance.
+ *
+ * <p>
+ *     Unlike an {@link InputStreamSequence}, reading the next element never
+ *     blocks and never fails, which makes this sequence the preferable choice
+ *     for sources that are already in memory or mapped into memory.
+ * </p>
+ *
+ * <p>
+ *     Since the whole source is available, a mark only needs to remember the
+ *     position of the buffer, and resetting it only restores that position.
+ *     The marks are reused once they have been closed, thus marking does not
+ *     allocate memory either. Consequently, a mark must not be used anymore
+ *     after it has been closed, or after a mark that was created before it
+ *     has been closed.
+ * </p>
+ */
+public final class ByteBufferSequence implements PositionedSequence<Byte> {
+    private final class BufferMark implements Mark {
+        private final int depth;
+        private int position;
+
+        private BufferMark(int depth) {
+            this.depth = depth;
+        }
+
+        @Override
+        public void reset() {
+            this.validate();
+
+            // Marks that have been created after this mark become invalid,
+            // like the marks of an AbstractSequence.
+
+            ByteBufferSequence.this.source.position(this.position);
+            ByteBufferSequence.this.depth = this.depth + 1;
+        }
+
+        @Override
+        public void close() {
+            this.validate();
+
+            ByteBufferSequence.this.depth = this.depth;
+        }
+
+        private void validate() {
+            if (this.depth >= ByteBufferSequence.this.depth) {
+                throw new IllegalArgumentException("Invalid mark");
+            }
+        }
+    }
+
+    private final ByteBuffer source;
+    private final int start;
+    private BufferMark[] marks;
+    private int depth;
+
+    /**
+     * Initializes a new instance of <code>ByteBufferSequence</code>, which
+     * reads the remaining bytes of the specified <code>src</code>.
+     *
+     * <p>
+     *     The position of <code>src</code> is advanced while the sequence is
+     *     read.
+     * </p>
+     *
+     * @param src   The buffer that will be read.
+     * @throws NullPointerException If <code>src</code> is <code>null</code>
+     */
+    public ByteBufferSequence(ByteBuffer src) {
+        Objects.requireNonNull(src, "src is not allowed to be null");
+
+        this.source = src;
+        this.start = src.position();
+        this.marks = new BufferMark[8];
+    }
+
+    /**
+     * Returns the number of bytes that have been read from this sequence,
+     * which is the offset of the next byte relative to the position of the
+     * buffer when this sequence was created.
+     *
+     * @return  The position of this sequence.
+     */
+    @Override
+    public long getPosition() {
+        return this.source.position() - this.start;
+    }
+
+    @Override
+    public Byte read() {
+        if (!this.source.hasRemaining()) {
+            return null;
+        }
+
+        return this.source.get();
+    }
+
+    @Override
+    public Mark mark() {
+        if (this.depth == this.marks.length) {
+            this.marks = Arrays.copyOf(this.marks, this.depth * 2);
+        }
+
+        BufferMark mark = this.marks[this.depth];
+
+        if (mark == null) {
+            mark = new BufferMark(this.depth);
+            this.marks[this.depth] = mark;
+        }
+
+        mark.position = this.source.position();
+        this.depth++;
+
+        return mark;
+    }
+
+    @Override
+    public void close() {
+        this.depth = 0;
+    }
+}
@@ -0,0 +1,76 @@
+package org.fir3.cml.tool.util.seq;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * A {@link Sequence} implementation that delegates to another sequence and
+ * keeps track of the number of elements that have been read from it.
+ *
+ * <p>
+ *     Resetting a mark also resets the position to the marked state, thus the
+ *     position always equals the index of the next element in the underlying
+ *     sequence.
+ * </p>
+ *
+ * @param <TElement>    The type of the elements that can be read from this
+ *                      sequence.
+ */
+public final class CountingSequence<TElement>
+        implements PositionedSequence<TElement> {
+    private final Sequence<TElement> source;
+    private long position;
+
+    /**
+     * Initializes a new instance of <code>CountingSequence</code>, which
+     * reads the elements of the specified <code>src</code> sequence.
+     *
+     * @param src   The sequence that will be read.
+     * @throws NullPointerException If <code>src</code> is <code>null</code>
+     */
+    public CountingSequence(Sequence<TElement> src) {
+        Objects.requireNonNull(src, "src is null");
+
+        this.source = src;
+    }
+
+    @Override
+    public long getPosition() {
+        return this.position;
+    }
+
+    @Override
+    public TElement read() throws IOException {
+        TElement element = this.source.read();
+
+        if (element != null) {
+            this.position++;
+        }
+
+        return element;
+    }
+
+    @Override
+    public Mark mark() {
+        Mark mark = this.source.mark();
+        long markedPosition = this.position;
+
+        return new Mark() {
+            @Override
+            public void reset() {
+                mark.reset();
+                CountingSequence.this.position = markedPosition;
+            }
+
+            @Override
+            public void close() {
+                mark.close();
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.source.close();
+    }
+}
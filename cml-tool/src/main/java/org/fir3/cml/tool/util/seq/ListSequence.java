@@ -0,0 +1,46 @@
+package org.fir3.cml.tool.util.seq;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link Sequence} implementation that reads the elements of a
+ * {@link List} instance.
+ *
+ * @param <TElement>    The type of the elements that can be read from this
+ *                      sequence.
+ */
+public final class ListSequence<TElement> extends AbstractSequence<TElement> {
+    private final List<TElement> source;
+    private int index;
+
+    /**
+     * Initializes a new instance of <code>ListSequence</code>, which reads
+     * the elements of the specified <code>src</code> list.
+     *
+     * <p>
+     *     The list is not copied, thus it must not be modified while the
+     *     sequence is being read.
+     * </p>
+     *
+     * @param src   The list that will be read.
+     * @throws NullPointerException If <code>src</code> is <code>null</code>
+     */
+    public ListSequence(List<TElement> src) {
+        Objects.requireNonNull(src, "src is not allowed to be null");
+
+        this.source = src;
+    }
+
+    @Override
+    protected TElement read0() {
+        if (this.index >= this.source.size()) {
+            return null;
+        }
+
+        return this.source.get(this.index++);
+    }
+
+    @Override
+    protected void close0() { }
+}
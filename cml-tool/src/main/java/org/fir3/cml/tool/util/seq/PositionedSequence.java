@@ -0,0 +1,21 @@
+package org.fir3.cml.tool.util.seq;
+
+/**
+ * A {@link Sequence} that knows the index of its next element.
+ *
+ * <p>
+ *     The position is part of the state that a mark restores.
+ * </p>
+ *
+ * @param <TElement>    The type of the elements that can be read from this
+ *                      sequence.
+ */
+public interface PositionedSequence<TElement> extends Sequence<TElement> {
+    /**
+     * Returns the number of elements that have been read from this sequence,
+     * which is the index of the next element.
+     *
+     * @return  The position of this sequence.
+     */
+    long getPosition();
+}
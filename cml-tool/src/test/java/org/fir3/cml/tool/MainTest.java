@@ -0,0 +1,377 @@
+package org.fir3.cml.tool;
+
+import org.fir3.cml.api.OutputSink;
+import org.fir3.cml.api.Translator;
+import org.fir3.cml.api.exception.TranslationException;
+import org.fir3.cml.api.model.Attribute;
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.api.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MainTest {
+    /**
+     * A translator that writes the names of the models of each translated
+     * domain to a file that is named after the domain.
+     */
+    @Translator.Info(name = "recording", supportsOutputSinks = true)
+    public static final class RecordingTranslator implements Translator {
+        @Override
+        public void translate(
+                Environment environment,
+                String targetDomain,
+                InputStream configSource
+        ) {
+            throw new UnsupportedOperationException("Not implemented");
+        }
+
+        @Override
+        public void translate(
+                Environment environment,
+                String targetDomain,
+                InputStream configSource,
+                OutputSink sink
+        ) throws TranslationException {
+            Domain domain = environment.resolveDomain(targetDomain)
+                    .orElseThrow(() -> new TranslationException(
+                            "Unknown domain"
+                    ));
+
+            String models = domain.getModels()
+                    .stream()
+                    .map(Model::getName)
+                    .sorted()
+                    .collect(Collectors.joining(","));
+
+            try (WritableByteChannel channel = sink.open(
+                    targetDomain + ".txt"
+            )) {
+                channel.write(ByteBuffer.wrap(
+                        models.getBytes(StandardCharsets.UTF_8)
+                ));
+            } catch (IOException ex) {
+                throw new TranslationException(ex);
+            }
+        }
+    }
+
+    /**
+     * A translator that writes one file per model of the translated domain,
+     * which contains the names of the model's attributes.
+     */
+    @Translator.Info(name = "per-model", supportsOutputSinks = true)
+    public static final class PerModelTranslator implements Translator {
+        @Override
+        public void translate(
+                Environment environment,
+                String targetDomain,
+                InputStream configSource
+        ) {
+            throw new UnsupportedOperationException("Not implemented");
+        }
+
+        @Override
+        public void translate(
+                Environment environment,
+                String targetDomain,
+                InputStream configSource,
+                OutputSink sink
+        ) throws TranslationException {
+            Domain domain = environment.resolveDomain(targetDomain)
+                    .orElseThrow(() -> new TranslationException(
+                            "Unknown domain"
+                    ));
+
+            for (Model model : domain.getModels()) {
+                String attributes = model.getAttributes()
+                        .stream()
+                        .map(Attribute::getName)
+                        .sorted()
+                        .collect(Collectors.joining(","));
+
+                try (WritableByteChannel channel = sink.open(
+                        targetDomain + "/" + model.getName() + ".java"
+                )) {
+                    channel.write(ByteBuffer.wrap(
+                            attributes.getBytes(StandardCharsets.UTF_8)
+                    ));
+                } catch (IOException ex) {
+                    throw new TranslationException(ex);
+                }
+            }
+        }
+    }
+
+    private static final class Result {
+        private final int exitCode;
+        private final String out;
+        private final String err;
+
+        private Result(int exitCode, String out, String err) {
+            this.exitCode = exitCode;
+            this.out = out;
+            this.err = err;
+        }
+    }
+
+    private static Result run(String... args) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        int exitCode = Main.run(
+                args,
+                new PrintStream(out, true),
+                new PrintStream(err, true)
+        );
+
+        return new Result(exitCode, out.toString(), err.toString());
+    }
+
+    private static Path writeSources(Path directory) throws IOException {
+        Path sources = directory.resolve("src");
+        Files.createDirectories(sources);
+
+        try (InputStream src = MainTest.class.getResourceAsStream(
+                "/cml/sample1.cml"
+        )) {
+            Files.copy(src, sources.resolve("builtin.cml"));
+        }
+
+        Files.write(
+                sources.resolve("test.cml"),
+                "domain test; model B { Bit b; } model A { B b; }".getBytes(
+                        StandardCharsets.UTF_8
+                )
+        );
+
+        return sources;
+    }
+
+    @Test
+    public void testTranslation(@TempDir Path directory) throws IOException {
+        Path sources = writeSources(directory);
+        Path output = directory.resolve("out");
+
+        Result result = run(
+                "-t", "recording",
+                "-d", "test",
+                "-o", output.toString(),
+                sources.toString()
+        );
+
+        assertEquals(Main.EXIT_SUCCESS, result.exitCode, result.err);
+        assertEquals(
+                "A,B",
+                new String(
+                        Files.readAllBytes(output.resolve("test.txt")),
+                        StandardCharsets.UTF_8
+                )
+        );
+    }
+
+    @Test
+    public void testUnsupportedOutputSinks(@TempDir Path directory)
+            throws IOException {
+        Path sources = writeSources(directory);
+
+        Result result = run(
+                "-t", "dummy",
+                "-d", "test",
+                "-o", directory.resolve("out").toString(),
+                sources.toString()
+        );
+
+        assertEquals(Main.EXIT_USAGE, result.exitCode);
+        assertTrue(result.err.contains(
+                "Translator 'dummy' does not support output directories"
+        ), result.err);
+    }
+
+    @Test
+    public void testStatistics(@TempDir Path directory) throws IOException {
+        Path sources = writeSources(directory);
+
+        Result result = run(
+                "-t", "recording",
+                "-d", "test",
+                "-o", directory.resolve("out").toString(),
+                "--stats", "json",
+                sources.toString()
+        );
+
+        assertEquals(Main.EXIT_SUCCESS, result.exitCode, result.err);
+        assertTrue(result.out.startsWith("{\"phases\":{"));
+        assertTrue(result.out.contains("\"sourceFiles\":2"));
+        assertTrue(result.out.contains("\"translatedModels\":2"));
+    }
+
+    @Test
+    public void testCache(@TempDir Path directory) throws IOException {
+        Path sources = writeSources(directory);
+        Path output = directory.resolve("out");
+        String[] args = {
+                "-t", "recording",
+                "-d", "test",
+                "-o", output.toString(),
+                "--cache", directory.resolve("cache").toString(),
+                "--stats", "json",
+                sources.toString()
+        };
+
+        Result result = run(args);
+
+        assertEquals(Main.EXIT_SUCCESS, result.exitCode, result.err);
+        assertTrue(result.out.contains("\"sourceFiles\":2"));
+
+        // The cached output is restored without parsing the sources
+
+        Files.delete(output.resolve("test.txt"));
+        result = run(args);
+
+        assertEquals(Main.EXIT_SUCCESS, result.exitCode, result.err);
+        assertTrue(result.out.contains("\"sourceFiles\":0"));
+        assertTrue(Files.exists(output.resolve("test.txt")));
+
+        // Changing a source invalidates the cached output
+
+        Files.write(
+                sources.resolve("test.cml"),
+                "domain test; model C { }".getBytes(StandardCharsets.UTF_8)
+        );
+
+        result = run(args);
+
+        assertEquals(Main.EXIT_SUCCESS, result.exitCode, result.err);
+        assertEquals(
+                "C",
+                new String(
+                        Files.readAllBytes(output.resolve("test.txt")),
+                        StandardCharsets.UTF_8
+                )
+        );
+    }
+
+    @Test
+    public void testCacheRemovesObsoleteOutput(@TempDir Path directory)
+            throws IOException {
+        Path sources = writeSources(directory);
+        Path output = directory.resolve("out");
+        String[] args = {
+                "-t", "per-model",
+                "-d", "test",
+                "-o", output.toString(),
+                "--cache", directory.resolve("cache").toString(),
+                sources.toString()
+        };
+
+        Result result = run(args);
+
+        assertEquals(Main.EXIT_SUCCESS, result.exitCode, result.err);
+        assertTrue(Files.exists(output.resolve("test/A.java")));
+        assertTrue(Files.exists(output.resolve("test/B.java")));
+
+        // Removing model A and changing model B
+
+        FileTime time = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(output.resolve("test/B.java"), time);
+        Files.write(
+                sources.resolve("test.cml"),
+                "domain test; model B { Bit b; } model C { }".getBytes(
+                        StandardCharsets.UTF_8
+                )
+        );
+
+        result = run(args);
+
+        assertEquals(Main.EXIT_SUCCESS, result.exitCode, result.err);
+        assertFalse(Files.exists(output.resolve("test/A.java")));
+        assertTrue(Files.exists(output.resolve("test/C.java")));
+
+        // The unchanged file is not written again
+
+        assertEquals(
+                time,
+                Files.getLastModifiedTime(output.resolve("test/B.java"))
+        );
+
+        // Restoring the cached output of the first run brings model A back,
+        // and removes model C again.
+
+        Files.write(
+                sources.resolve("test.cml"),
+                "domain test; model B { Bit b; } model A { B b; }".getBytes(
+                        StandardCharsets.UTF_8
+                )
+        );
+
+        result = run(args);
+
+        assertEquals(Main.EXIT_SUCCESS, result.exitCode, result.err);
+        assertTrue(Files.exists(output.resolve("test/A.java")));
+        assertFalse(Files.exists(output.resolve("test/C.java")));
+    }
+
+    @Test
+    public void testUsageErrors() {
+        assertEquals(Main.EXIT_USAGE, run().exitCode);
+        assertEquals(
+                Main.EXIT_USAGE,
+                run("-t", "unknown", "-d", "test", "src").exitCode
+        );
+
+        Result help = run("--help");
+
+        assertEquals(Main.EXIT_SUCCESS, help.exitCode);
+        assertTrue(help.out.startsWith("Usage:"));
+    }
+
+    @Test
+    public void testFailures(@TempDir Path directory) throws IOException {
+        Path sources = writeSources(directory);
+        Path output = directory.resolve("out");
+
+        // Unknown target domain
+
+        Result result = run(
+                "-t", "recording",
+                "-d", "unknown",
+                "-o", output.toString(),
+                sources.toString()
+        );
+
+        assertEquals(Main.EXIT_FAILURE, result.exitCode);
+        assertTrue(result.err.startsWith("error:"));
+
+        // Syntax error in one of the sources
+
+        Files.write(
+                sources.resolve("broken.cml"),
+                "domain broken; model {".getBytes(StandardCharsets.UTF_8)
+        );
+
+        result = run(
+                "-t", "recording",
+                "-d", "test",
+                "-o", output.toString(),
+                sources.toString()
+        );
+
+        assertEquals(Main.EXIT_FAILURE, result.exitCode);
+        assertTrue(result.err.contains("broken.cml"));
+    }
+}
@@ -8,12 +8,15 @@ import org.junit.platform.commons.util.Preconditions;
 import java.io.InputStream;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TranslatorsTest {
     private static final String DUMMY_TRANSLATOR_NAME = "dummy";
     private static final String COLLIDING_TRANSLATORS_NAME = "colliding";
+    private static final String COLLIDING_FLAGS_NAME = "colliding-flags";
 
     private static abstract class AbstractDummyTranslator implements Translator {
         @Override
@@ -38,6 +41,17 @@ public class TranslatorsTest {
     public static final class CollidingTranslator2
             extends AbstractDummyTranslator { }
 
+    @Translator.Info(name = TranslatorsTest.COLLIDING_FLAGS_NAME)
+    public static final class CollidingFlagsTranslator1
+            extends AbstractDummyTranslator { }
+
+    @Translator.Info(
+            name = TranslatorsTest.COLLIDING_FLAGS_NAME,
+            supportsOutputSinks = true
+    )
+    public static final class CollidingFlagsTranslator2
+            extends AbstractDummyTranslator { }
+
     public static final class IgnoredTranslator
             extends AbstractDummyTranslator { }
 
@@ -82,6 +96,30 @@ public class TranslatorsTest {
         assertEquals(1, count);
     }
 
+    @Test
+    public void testCollisionWithDifferentFlags() {
+        // Translators with the same name collide, even if their annotations
+        // differ in other attributes.
+
+        long count = Translators.getInstance()
+                .getTranslatorInfos()
+                .stream()
+                .filter(i -> Objects.equals(
+                        TranslatorsTest.COLLIDING_FLAGS_NAME,
+                        i.name()
+                ))
+                .count();
+
+        assertEquals(1, count);
+
+        Translator translator = Translators.getInstance()
+                .getTranslator(TranslatorsTest.COLLIDING_FLAGS_NAME)
+                .orElse(null);
+
+        assertNotNull(translator);
+        assertSame(CollidingFlagsTranslator1.class, translator.getClass());
+    }
+
     @Test
     public void testIgnored() {
         Map<Translator.Info, Translator> translators =
@@ -95,6 +133,41 @@ public class TranslatorsTest {
         }
     }
 
+    @Test
+    public void testInfos() {
+        Set<String> names = Translators.getInstance()
+                .getTranslatorInfos()
+                .stream()
+                .map(Translator.Info::name)
+                .collect(Collectors.toSet());
+
+        assertTrue(names.contains(TranslatorsTest.DUMMY_TRANSLATOR_NAME));
+        assertTrue(names.contains(TranslatorsTest.COLLIDING_TRANSLATORS_NAME));
+    }
+
+    @Test
+    public void testLookup() {
+        Translator translator = Translators.getInstance()
+                .getTranslator(TranslatorsTest.DUMMY_TRANSLATOR_NAME)
+                .orElse(null);
+
+        assertNotNull(translator);
+        assertSame(DummyTranslator.class, translator.getClass());
+
+        // The instance is created only once.
+
+        assertSame(
+                translator,
+                Translators.getInstance()
+                        .getTranslator(TranslatorsTest.DUMMY_TRANSLATOR_NAME)
+                        .orElse(null)
+        );
+
+        assertFalse(
+                Translators.getInstance().getTranslator("unknown").isPresent()
+        );
+    }
+
     @Test
     public void testUnmodifiability() {
         // Modifying the translator map of the Translators singleton should not
@@ -0,0 +1,91 @@
+package org.fir3.cml.tool.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BuildCacheTest {
+    private static String key(String value) {
+        return new CacheKey("test").add(value).toString();
+    }
+
+    @Test
+    public void testGetAndPut(@TempDir Path directory) throws IOException {
+        BuildCache cache = new BuildCache(directory.resolve("cache"), 1024);
+
+        assertFalse(cache.get(key("a")).isPresent());
+
+        cache.put(key("a"), new byte[] { 1, 2, 3 });
+        cache.put(key("b"), new byte[] { 4 });
+
+        assertArrayEquals(new byte[] { 1, 2, 3 }, cache.get(key("a")).get());
+        assertArrayEquals(new byte[] { 4 }, cache.get(key("b")).get());
+        assertEquals(4, cache.getSize());
+
+        // Entries are replaced
+
+        cache.put(key("a"), new byte[] { 5 });
+        assertArrayEquals(new byte[] { 5 }, cache.get(key("a")).get());
+
+        // Entries survive the instance
+
+        assertArrayEquals(
+                new byte[] { 4 },
+                new BuildCache(directory.resolve("cache"), 1024)
+                        .get(key("b"))
+                        .get()
+        );
+    }
+
+    @Test
+    public void testEviction(@TempDir Path directory) throws IOException {
+        BuildCache cache = new BuildCache(directory, 250);
+
+        cache.put(key("a"), new byte[100]);
+        cache.put(key("b"), new byte[100]);
+
+        // Making sure that the modification times differ, even if the file
+        // system only has a resolution of seconds.
+
+        Files.setLastModifiedTime(
+                directory.resolve(key("a").substring(0, 2)).resolve(key("a")),
+                FileTime.fromMillis(0)
+        );
+
+        Files.setLastModifiedTime(
+                directory.resolve(key("b").substring(0, 2)).resolve(key("b")),
+                FileTime.fromMillis(10_000)
+        );
+
+        // Reading "a" marks it as recently used, thus "b" is evicted
+
+        assertTrue(cache.get(key("a")).isPresent());
+        cache.put(key("c"), new byte[100]);
+
+        assertTrue(cache.get(key("a")).isPresent());
+        assertFalse(cache.get(key("b")).isPresent());
+        assertTrue(cache.get(key("c")).isPresent());
+        assertEquals(200, cache.getSize());
+    }
+
+    @Test
+    public void testKeys(@TempDir Path directory) throws IOException {
+        assertEquals(key("a"), key("a"));
+        assertNotEquals(key("a"), key("b"));
+        assertNotEquals(
+                new CacheKey("test").add("ab").add("c").toString(),
+                new CacheKey("test").add("a").add("bc").toString()
+        );
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new BuildCache(directory, 1).get("../escape")
+        );
+    }
+}
@@ -0,0 +1,74 @@
+package org.fir3.cml.tool.cache;
+
+import org.fir3.cml.api.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DomainCodecTest {
+    private static Domain createDomain() {
+        Model bit = new Model(
+                "Bit",
+                EnumSet.of(Model.Flag.Builtin),
+                Collections.emptyList(),
+                Collections.emptySet()
+        );
+
+        Model pair = new Model(
+                "Pair",
+                EnumSet.noneOf(Model.Flag.class),
+                Arrays.asList(new TypeParameter("A"), new TypeParameter("B")),
+                new HashSet<>(Arrays.asList(
+                        new Attribute("first", new ParameterType("A")),
+                        new Attribute("second", new ParameterType("B")),
+                        new Attribute("flags", new ModelType(
+                                "Sequence",
+                                Collections.singletonList(new ModelType(
+                                        "Bit",
+                                        Collections.emptyList()
+                                ))
+                        ))
+                ))
+        );
+
+        return new Domain(
+                "test.codec",
+                EnumSet.of(Domain.Flag.Ubiquitous),
+                new HashSet<>(Arrays.asList(bit, pair))
+        );
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Domain domain = createDomain();
+        byte[] content = DomainCodec.encode(domain);
+
+        assertEquals(domain, DomainCodec.decode(content));
+        assertArrayEquals(content, DomainCodec.encode(createDomain()));
+    }
+
+    @Test
+    public void testMalformedContent() {
+        byte[] content = DomainCodec.encode(createDomain());
+
+        assertThrows(
+                IOException.class,
+                () -> DomainCodec.decode(Arrays.copyOf(content, 10))
+        );
+
+        assertThrows(
+                IOException.class,
+                () -> DomainCodec.decode(Arrays.copyOf(
+                        content,
+                        content.length + 1
+                ))
+        );
+
+        content[3]++;
+
+        assertThrows(IOException.class, () -> DomainCodec.decode(content));
+    }
+}
@@ -0,0 +1,112 @@
+package org.fir3.cml.tool.cli;
+
+import org.fir3.cml.tool.exception.CommandLineException;
+import org.fir3.cml.tool.stats.StatisticsFormat;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OptionsTest {
+    @Test
+    public void testParse() throws CommandLineException {
+        Options options = Options.parse(new String[] {
+                "-t", "java",
+                "--domain", "a.b",
+                "-d", "c.d",
+                "-o", "out",
+                "--config", "config.json",
+                "-j", "3",
+                "--stats", "json",
+                "src1",
+                "--",
+                "-src2"
+        });
+
+        assertFalse(options.isHelp());
+        assertEquals("java", options.getTranslatorName());
+        assertEquals(
+                Arrays.asList("a.b", "c.d"),
+                Arrays.asList(options.getTargetDomains().toArray())
+        );
+
+        assertEquals(
+                Paths.get("out"),
+                options.getOutputDirectory().orElse(null)
+        );
+        assertEquals(
+                Paths.get("config.json"),
+                options.getConfigFile().orElse(null)
+        );
+
+        assertEquals(3, options.getJobs());
+        assertEquals(
+                StatisticsFormat.Json,
+                options.getStatisticsFormat().orElse(null)
+        );
+
+        assertEquals(
+                Arrays.asList(Paths.get("src1"), Paths.get("-src2")),
+                options.getInputs()
+        );
+    }
+
+    @Test
+    public void testDefaults() throws CommandLineException {
+        Options options = Options.parse(new String[] {
+                "-t", "java", "-d", "a.b", "src"
+        });
+
+        assertFalse(options.getOutputDirectory().isPresent());
+        assertFalse(options.getConfigFile().isPresent());
+        assertFalse(options.getStatisticsFormat().isPresent());
+        assertFalse(options.isDaemon());
+        assertEquals(0, options.getPort());
+        assertTrue(options.getJobs() > 0);
+    }
+
+    @Test
+    public void testDaemon() throws CommandLineException {
+        Options options = Options.parse(new String[] {
+                "-t", "java", "-d", "a.b", "--daemon", "--port", "4711", "src"
+        });
+
+        assertTrue(options.isDaemon());
+        assertEquals(4711, options.getPort());
+    }
+
+    @Test
+    public void testHelp() throws CommandLineException {
+        // Mandatory options are not required if only the help is requested.
+
+        assertTrue(Options.parse(new String[] { "--help" }).isHelp());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        String[][] invalidArgs = {
+                {},
+                { "-t", "java", "-d", "a.b" },
+                { "-d", "a.b", "src" },
+                { "-t", "java", "src" },
+                { "-t", "java", "-d", "a.b", "src", "-x" },
+                { "-t", "java", "-d", "a.b", "src", "-j", "0" },
+                { "-t", "java", "-d", "a.b", "src", "-j", "many" },
+                { "-t", "java", "-d", "a.b", "src", "-o" },
+                { "-t", "java", "-d", "a.b", "src", "--stats", "xml" },
+                { "-t", "java", "-d", "a.b", "src", "--port", "4711" },
+                { "-t", "java", "-d", "a", "--daemon", "--port", "-1", "src" },
+                { "-t", "java", "-d", "a.b", "src", "--daemon", "--port", "x" }
+        };
+
+        for (String[] args : invalidArgs) {
+            assertThrows(
+                    CommandLineException.class,
+                    () -> Options.parse(args),
+                    String.join(" ", args)
+            );
+        }
+    }
+}
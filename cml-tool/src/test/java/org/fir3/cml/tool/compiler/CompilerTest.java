@@ -0,0 +1,267 @@
+package org.fir3.cml.tool.compiler;
+
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.tool.exception.ParserException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompilerTest {
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeSample(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+
+        try (InputStream src = CompilerTest.class.getResourceAsStream(
+                "/cml/sample1.cml"
+        )) {
+            Files.copy(src, file);
+        }
+    }
+
+    private static void writeArchive(Path file, String... entries)
+            throws IOException {
+        // Every other entry is stored rather than deflated, so that both
+        // kinds of entries are read.
+
+        try (ZipOutputStream dst = new ZipOutputStream(
+                Files.newOutputStream(file)
+        )) {
+            for (int index = 0; index < entries.length; index += 2) {
+                byte[] content = entries[index + 1].getBytes(
+                        StandardCharsets.UTF_8
+                );
+
+                ZipEntry entry = new ZipEntry(entries[index]);
+
+                if (index % 4 == 0) {
+                    CRC32 checksum = new CRC32();
+                    checksum.update(content);
+
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(content.length);
+                    entry.setCrc(checksum.getValue());
+                }
+
+                dst.putNextEntry(entry);
+                dst.write(content);
+                dst.closeEntry();
+            }
+        }
+    }
+
+    @Test
+    public void testCompile(@TempDir Path directory) throws IOException {
+        writeSample(directory.resolve("builtin.cml"));
+
+        for (int index = 0; index < 8; index++) {
+            write(
+                    directory.resolve("nested").resolve(index + ".cml"),
+                    String.format(
+                            "domain test.d%d; model M { Bit flag; }",
+                            index
+                    )
+            );
+        }
+
+        write(directory.resolve("ignored.txt"), "not a source file");
+
+        Environment environment = new Compiler(4).compile(
+                Collections.singletonList(directory)
+        );
+
+        Set<String> domainNames = environment.getDomains()
+                .stream()
+                .map(Domain::getName)
+                .collect(Collectors.toSet());
+
+        assertEquals(9, domainNames.size());
+        assertTrue(domainNames.contains("org.fir3.cml.__builtin__"));
+        assertTrue(domainNames.contains("test.d7"));
+        assertTrue(environment.resolveModel(
+                "Bit",
+                environment.resolveDomain("test.d0").orElse(null)
+        ).isPresent());
+    }
+
+    @Test
+    public void testDuplicateDomain(@TempDir Path directory)
+            throws IOException {
+        write(directory.resolve("a.cml"), "domain test; model A { }");
+        write(directory.resolve("b.cml"), "domain test; model B { }");
+
+        ParserException ex = assertThrows(
+                ParserException.class,
+                () -> new Compiler(2).compile(
+                        Collections.singletonList(directory)
+                )
+        );
+
+        assertTrue(ex.getMessage().contains("a.cml"));
+        assertTrue(ex.getMessage().contains("b.cml"));
+    }
+
+    @Test
+    public void testInvalidSource(@TempDir Path directory)
+            throws IOException {
+        Path file = directory.resolve("broken.cml");
+        write(file, "domain test;\nmodel { }\nmodel A { Bit ; }");
+
+        ParserException ex = assertThrows(
+                ParserException.class,
+                () -> Compiler.parse(file)
+        );
+
+        // All errors are reported with their lines and columns
+
+        assertTrue(ex.getMessage().startsWith(file.toString()));
+        assertTrue(ex.getMessage().contains(
+                "2:1: Expected a model declaration"
+        ));
+
+        assertTrue(ex.getMessage().contains("3:11: Expected an attribute"));
+
+        write(file, "domain test;\n  #");
+
+        IOException tokenizerEx = assertThrows(
+                IOException.class,
+                () -> Compiler.parse(file)
+        );
+
+        assertTrue(tokenizerEx.getMessage().contains(": 2:3: "));
+    }
+
+    @Test
+    public void testFindSources(@TempDir Path directory) throws IOException {
+        Path explicit = directory.resolve("explicit.txt");
+
+        write(directory.resolve("b").resolve("z.cml"), "");
+        write(directory.resolve("a.cml"), "");
+        write(explicit, "");
+
+        try (Compiler compiler = new Compiler(1)) {
+            assertEquals(
+                    Arrays.asList(
+                            directory.resolve("a.cml"),
+                            directory.resolve("b").resolve("z.cml"),
+                            explicit
+                    ),
+                    compiler.findSources(Arrays.asList(directory, explicit))
+            );
+
+            assertThrows(
+                    NoSuchFileException.class,
+                    () -> compiler.findSources(Collections.singletonList(
+                            directory.resolve("missing")
+                    ))
+            );
+        }
+    }
+
+    @Test
+    public void testArchive(@TempDir Path directory) throws IOException {
+        Path archive = directory.resolve("schemas.jar");
+
+        writeSample(directory.resolve("src").resolve("builtin.cml"));
+        writeArchive(
+                archive,
+                "a.cml", "domain a; model A { Bit flag; }",
+                "nested/b.cml", "domain b; model B { a.A value; }",
+                "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n"
+        );
+
+        Compiler compiler = new Compiler(2);
+        List<Path> sources = compiler.findSources(Arrays.asList(
+                archive,
+                directory.resolve("src")
+        ));
+
+        assertEquals(3, sources.size());
+        assertEquals(
+                directory.resolve("src").resolve("builtin.cml"),
+                sources.get(0)
+        );
+
+        assertEquals("/a.cml", sources.get(1).toString());
+        assertEquals("/nested/b.cml", sources.get(2).toString());
+
+        Environment environment = compiler.compile(Arrays.asList(
+                archive,
+                directory.resolve("src")
+        ));
+
+        assertEquals(3, environment.getDomains().size());
+        assertTrue(environment.resolveModel("a.A", null).isPresent());
+        assertTrue(environment.resolveModel("b.B", null).isPresent());
+
+        // Closing the compiler closes the archive, which invalidates the
+        // paths of its source files.
+
+        compiler.close();
+
+        assertThrows(
+                ClosedFileSystemException.class,
+                () -> Files.readAllBytes(sources.get(1))
+        );
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> compiler.findSources(Collections.singletonList(archive))
+        );
+    }
+
+    @Test
+    public void testInvalidArchiveSource(@TempDir Path directory)
+            throws IOException {
+        Path archive = directory.resolve("broken.zip");
+        writeArchive(archive, "broken.cml", "domain test; model { }");
+
+        Path emptyArchive = directory.resolve("empty.zip");
+        writeArchive(emptyArchive, "empty.cml", "/* Nothing */");
+
+        try (Compiler compiler = new Compiler(1)) {
+            ParserException ex = assertThrows(
+                    ParserException.class,
+                    () -> compiler.compile(Collections.singletonList(archive))
+            );
+
+            assertTrue(ex.getMessage().startsWith(archive + "!/broken.cml"));
+
+            // Sources without a domain declaration are reported by their
+            // entry as well.
+
+            ex = assertThrows(
+                    ParserException.class,
+                    () -> compiler.compile(
+                            Collections.singletonList(emptyArchive)
+                    )
+            );
+
+            assertEquals(
+                    emptyArchive + "!/empty.cml: No domain declaration",
+                    ex.getMessage()
+            );
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.fir3.cml.tool.compiler;
+
+import org.fir3.cml.tool.exception.ParserException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkspaceTest {
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Workspace createWorkspace(Path directory)
+            throws IOException {
+        try (InputStream src = WorkspaceTest.class.getResourceAsStream(
+                "/cml/sample1.cml"
+        )) {
+            Files.copy(src, directory.resolve("builtin.cml"));
+        }
+
+        write(directory.resolve("a.cml"), "domain a; model A { Bit x; }");
+        write(directory.resolve("b.cml"), "domain b; model B { a.A ref; }");
+        write(directory.resolve("c.cml"), "domain c; model C { Bit y; }");
+
+        return new Workspace(
+                Collections.singletonList(directory),
+                new Compiler(2)
+        );
+    }
+
+    @Test
+    public void testInitialRefresh(@TempDir Path directory)
+            throws IOException {
+        Workspace.Update update = createWorkspace(directory).refresh(
+                Collections.emptySet()
+        );
+
+        assertEquals(4, update.getParsedSources().size());
+        assertEquals(
+                new HashSet<>(Arrays.asList(
+                        "a", "b", "c", "org.fir3.cml.__builtin__"
+                )),
+                update.getAffectedDomains()
+        );
+    }
+
+    @Test
+    public void testIncrementalRefresh(@TempDir Path directory)
+            throws IOException {
+        Workspace workspace = createWorkspace(directory);
+        workspace.refresh(Collections.emptySet());
+
+        // Nothing changed
+
+        Workspace.Update update = workspace.refresh(Collections.emptySet());
+
+        assertTrue(update.getParsedSources().isEmpty());
+        assertTrue(update.getAffectedDomains().isEmpty());
+
+        // Changing a domain affects the domains that reference it
+
+        write(directory.resolve("a.cml"), "domain a; model A { Bit xy; }");
+        update = workspace.refresh(Collections.emptySet());
+
+        assertEquals(
+                Collections.singleton(directory.resolve("a.cml")),
+                update.getParsedSources()
+        );
+
+        assertEquals(
+                new HashSet<>(Arrays.asList("a", "b")),
+                update.getAffectedDomains()
+        );
+
+        // Reported files are parsed again, but an equal domain is not
+        // affected.
+
+        update = workspace.refresh(Collections.singleton(
+                directory.resolve("c.cml")
+        ));
+
+        assertEquals(
+                Collections.singleton(directory.resolve("c.cml")),
+                update.getParsedSources()
+        );
+
+        assertTrue(update.getAffectedDomains().isEmpty());
+
+        // Removing a domain affects the domains that referenced it
+
+        Files.delete(directory.resolve("a.cml"));
+        update = workspace.refresh(Collections.emptySet());
+
+        assertEquals(
+                new HashSet<>(Arrays.asList("a", "b")),
+                update.getAffectedDomains()
+        );
+
+        assertFalse(update.getEnvironment().resolveDomain("a").isPresent());
+    }
+
+    @Test
+    public void testUnqualifiedReferences(@TempDir Path directory)
+            throws IOException {
+        Workspace workspace = createWorkspace(directory);
+
+        write(
+                directory.resolve("d.cml"),
+                "domain d; model A { Bit x; } model D { A a; }"
+        );
+
+        workspace.refresh(Collections.emptySet());
+
+        // Unqualified names refer to the own domain first
+
+        write(directory.resolve("a.cml"), "domain a; model A { Bit xy; }");
+
+        assertEquals(
+                new HashSet<>(Arrays.asList("a", "b")),
+                workspace.refresh(Collections.emptySet()).getAffectedDomains()
+        );
+
+        // and to the ubiquitous domains otherwise.
+
+        Files.write(
+                directory.resolve("builtin.cml"),
+                "\nbuiltin model Extra;".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND
+        );
+
+        assertEquals(
+                new HashSet<>(Arrays.asList(
+                        "a", "b", "c", "d", "org.fir3.cml.__builtin__"
+                )),
+                workspace.refresh(Collections.emptySet()).getAffectedDomains()
+        );
+    }
+
+    @Test
+    public void testFailedRefresh(@TempDir Path directory)
+            throws IOException {
+        Workspace workspace = createWorkspace(directory);
+        workspace.refresh(Collections.emptySet());
+
+        write(directory.resolve("c.cml"), "domain c; model { }");
+
+        assertThrows(
+                ParserException.class,
+                () -> workspace.refresh(Collections.emptySet())
+        );
+
+        assertTrue(workspace.getEnvironment().resolveDomain("c").isPresent());
+
+        // The broken file is parsed again by the next refresh
+
+        write(directory.resolve("c.cml"), "domain c; model C2 { }");
+
+        assertEquals(
+                Collections.singleton("c"),
+                workspace.refresh(Collections.emptySet()).getAffectedDomains()
+        );
+    }
+}
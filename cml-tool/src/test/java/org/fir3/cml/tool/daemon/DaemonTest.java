@@ -0,0 +1,259 @@
+package org.fir3.cml.tool.daemon;
+
+import org.fir3.cml.api.output.MemoryOutputSink;
+import org.fir3.cml.tool.MainTest;
+import org.fir3.cml.tool.compiler.Compiler;
+import org.fir3.cml.tool.compiler.Workspace;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DaemonTest {
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Daemon createDaemon(Path directory, MemoryOutputSink sink)
+            throws IOException {
+        try (InputStream src = DaemonTest.class.getResourceAsStream(
+                "/cml/sample1.cml"
+        )) {
+            Files.copy(src, directory.resolve("builtin.cml"));
+        }
+
+        write(directory.resolve("a.cml"), "domain a; model A { Bit x; }");
+        write(directory.resolve("b.cml"), "domain b; model B { Bit y; }");
+
+        return new Daemon(
+                new Workspace(
+                        Collections.singletonList(directory),
+                        new Compiler(2)
+                ),
+                new MainTest.RecordingTranslator(),
+                new HashSet<>(Arrays.asList("a", "b")),
+                null,
+                sink
+        );
+    }
+
+    private static String readOutput(MemoryOutputSink sink, String name) {
+        return new String(
+                sink.getContent(name).orElse(new byte[0]),
+                StandardCharsets.UTF_8
+        );
+    }
+
+    @Test
+    public void testBuild(@TempDir Path directory) throws Exception {
+        MemoryOutputSink sink = new MemoryOutputSink();
+
+        try (Daemon daemon = createDaemon(directory, sink)) {
+            // The initial build translates every target domain
+
+            daemon.start(0);
+
+            assertEquals("A", readOutput(sink, "a.txt"));
+            assertEquals("B", readOutput(sink, "b.txt"));
+
+            // Subsequent builds only translate affected domains
+
+            write(directory.resolve("b.cml"), "domain b; model B2 { Bit y; }");
+
+            assertEquals(
+                    Collections.singleton("b"),
+                    daemon.build(Collections.emptySet())
+            );
+
+            assertEquals("B2", readOutput(sink, "b.txt"));
+            assertTrue(daemon.build(Collections.emptySet()).isEmpty());
+        }
+    }
+
+    @Test
+    public void testProtocol(@TempDir Path directory) throws Exception {
+        MemoryOutputSink sink = new MemoryOutputSink();
+
+        try (Daemon daemon = createDaemon(directory, sink);
+             Socket socket = new Socket(
+                     InetAddress.getLoopbackAddress(),
+                     daemon.start(0)
+             );
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(),
+                     StandardCharsets.UTF_8
+             ));
+             Writer writer = new OutputStreamWriter(
+                     socket.getOutputStream(),
+                     StandardCharsets.UTF_8
+             )) {
+            write(directory.resolve("a.cml"), "domain a; model A2 { Bit x; }");
+
+            writer.write("build\nstatus\nunknown\nstop\n");
+            writer.flush();
+
+            // The watcher may have rebuilt the domain already
+
+            String response = reader.readLine();
+            assertTrue(
+                    response.equals("ok a") || response.equals("ok "),
+                    response
+            );
+
+            assertTrue(reader.readLine().startsWith("ok builds="));
+            assertEquals("error Unknown command 'unknown'", reader.readLine());
+            assertEquals("ok", reader.readLine());
+
+            daemon.awaitStop();
+            assertEquals("A2", readOutput(sink, "a.txt"));
+        }
+    }
+
+    @Test
+    public void testSyntaxErrors(@TempDir Path directory) throws Exception {
+        MemoryOutputSink sink = new MemoryOutputSink();
+
+        try (Daemon daemon = createDaemon(directory, sink);
+             Socket socket = new Socket(
+                     InetAddress.getLoopbackAddress(),
+                     daemon.start(0)
+             );
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(),
+                     StandardCharsets.UTF_8
+             ));
+             Writer writer = new OutputStreamWriter(
+                     socket.getOutputStream(),
+                     StandardCharsets.UTF_8
+             )) {
+            write(
+                    directory.resolve("a.cml"),
+                    "domain a;\nmodel { }\nmodel A { Bit ; }"
+            );
+
+            writer.write("build\nstatus\nstop\n");
+            writer.flush();
+
+            // Both errors are reported in a single line, thus the following
+            // responses are not shifted.
+
+            String response = reader.readLine();
+
+            assertTrue(response.startsWith("error "), response);
+            assertTrue(response.endsWith(
+                    "Unable to parse source; " +
+                            "2:1: Expected a model declaration; " +
+                            "3:11: Expected an attribute"
+            ), response);
+
+            String status = reader.readLine();
+
+            assertTrue(status.startsWith("ok builds="), status);
+            assertTrue(status.endsWith(" last=" + response), status);
+            assertEquals("ok", reader.readLine());
+
+            daemon.awaitStop();
+        }
+    }
+
+    @Test
+    public void testWatchFiles(@TempDir Path directory) throws Exception {
+        MemoryOutputSink sink = new MemoryOutputSink();
+
+        try (InputStream src = DaemonTest.class.getResourceAsStream(
+                "/cml/sample1.cml"
+        )) {
+            Files.copy(src, directory.resolve("builtin.cml"));
+        }
+
+        write(directory.resolve("a.cml"), "domain a; model A { Bit x; }");
+
+        try (Daemon daemon = new Daemon(
+                new Workspace(
+                        Arrays.asList(
+                                directory.resolve("builtin.cml"),
+                                directory.resolve("a.cml")
+                        ),
+                        new Compiler(1)
+                ),
+                new MainTest.RecordingTranslator(),
+                Collections.singleton("a"),
+                null,
+                sink
+        );
+             Socket socket = new Socket(
+                     InetAddress.getLoopbackAddress(),
+                     daemon.start(0)
+             );
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(),
+                     StandardCharsets.UTF_8
+             ));
+             Writer writer = new OutputStreamWriter(
+                     socket.getOutputStream(),
+                     StandardCharsets.UTF_8
+             )) {
+            // Files next to the inputs do not trigger builds
+
+            write(directory.resolve("notes.txt"), "Unrelated");
+            Files.createDirectory(directory.resolve("nested"));
+            Thread.sleep(1000);
+
+            writer.write("status\n");
+            writer.flush();
+
+            String status = reader.readLine();
+            assertTrue(status.startsWith("ok builds=1 "), status);
+
+            // Some WatchService implementations poll the file system, thus
+            // the timeout is rather generous.
+
+            write(directory.resolve("a.cml"), "domain a; model A4 { Bit x; }");
+            long deadline = System.nanoTime() + 30_000_000_000L;
+
+            while (!readOutput(sink, "a.txt").equals("A4") &&
+                    System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+
+            assertEquals("A4", readOutput(sink, "a.txt"));
+        }
+    }
+
+    @Test
+    public void testWatch(@TempDir Path directory) throws Exception {
+        MemoryOutputSink sink = new MemoryOutputSink();
+
+        try (Daemon daemon = createDaemon(directory, sink)) {
+            daemon.start(0);
+
+            Path nested = directory.resolve("nested");
+            Files.createDirectory(nested);
+            Thread.sleep(500);
+            write(nested.resolve("a.cml"), "domain a; model A3 { Bit x; }");
+            Files.delete(directory.resolve("a.cml"));
+
+            // Some WatchService implementations poll the file system, thus
+            // the timeout is rather generous.
+
+            long deadline = System.nanoTime() + 30_000_000_000L;
+
+            while (!readOutput(sink, "a.txt").equals("A3") &&
+                    System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+
+            assertEquals("A3", readOutput(sink, "a.txt"));
+        }
+    }
+}
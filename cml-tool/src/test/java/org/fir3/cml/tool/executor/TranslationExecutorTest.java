@@ -0,0 +1,186 @@
+package org.fir3.cml.tool.executor;
+
+import org.fir3.cml.api.Translator;
+import org.fir3.cml.api.exception.TranslationException;
+import org.fir3.cml.api.model.Environment;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranslationExecutorTest {
+    private static final Environment ENVIRONMENT = new Environment(
+            Collections.emptySet()
+    );
+
+    /**
+     * A translator that keeps track of the maximum number of concurrent
+     * translations.
+     */
+    private static final class CountingTranslator implements Translator {
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        @Override
+        public void translate(
+                Environment environment,
+                String targetDomain,
+                InputStream configSource
+        ) throws TranslationException {
+            int current = this.running.incrementAndGet();
+            this.maxRunning.accumulateAndGet(current, Math::max);
+
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                throw new TranslationException(ex);
+            } finally {
+                this.running.decrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    public void testBoundedParallelism()
+            throws InterruptedException, ExecutionException {
+        CountingTranslator translator = new CountingTranslator();
+        List<TranslationJob> jobs = new ArrayList<>();
+
+        for (int index = 0; index < 8; index++) {
+            jobs.add(new TranslationJob(
+                    translator,
+                    ENVIRONMENT,
+                    "domain" + index,
+                    null
+            ));
+        }
+
+        try (TranslationExecutor executor = new TranslationExecutor(2)) {
+            List<Future<TranslationResult>> futures = executor.submitAll(jobs);
+
+            for (int index = 0; index < jobs.size(); index++) {
+                TranslationResult result = futures.get(index).get();
+
+                assertSame(jobs.get(index), result.getJob());
+                assertTrue(result.getRunTime().toMillis() >= 20);
+                assertFalse(result.getQueueTime().isNegative());
+            }
+        }
+
+        assertTrue(translator.maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void testFailure() throws InterruptedException {
+        Translator translator = (environment, targetDomain, configSource) -> {
+            throw new TranslationException("Failing on purpose");
+        };
+
+        try (TranslationExecutor executor = new TranslationExecutor(1)) {
+            Future<TranslationResult> future = executor.submit(
+                    new TranslationJob(translator, ENVIRONMENT, "domain", null)
+            );
+
+            ExecutionException ex = assertThrows(
+                    ExecutionException.class,
+                    future::get
+            );
+
+            assertTrue(ex.getCause() instanceof TranslationException);
+        }
+    }
+
+    @Test
+    public void testCancellation()
+            throws InterruptedException, ExecutionException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        Translator translator = (environment, targetDomain, configSource) -> {
+            started.countDown();
+
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+                throw new TranslationException(ex);
+            }
+        };
+
+        try (TranslationExecutor executor = new TranslationExecutor(1)) {
+            Future<TranslationResult> running = executor.submit(
+                    new TranslationJob(translator, ENVIRONMENT, "first", null)
+            );
+
+            Future<TranslationResult> queued = executor.submit(
+                    new TranslationJob(translator, ENVIRONMENT, "second", null)
+            );
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Cancelling the queued job must prevent it from running at all,
+            // cancelling the running job must interrupt it.
+
+            assertTrue(queued.cancel(true));
+            assertTrue(running.cancel(true));
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+
+            assertThrows(CancellationException.class, queued::get);
+            assertThrows(CancellationException.class, running::get);
+        }
+    }
+
+    @Test
+    public void testCancelAll() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+
+        Translator translator = (environment, targetDomain, configSource) -> {
+            started.countDown();
+
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException ex) {
+                throw new TranslationException(ex);
+            }
+        };
+
+        try (TranslationExecutor executor = new TranslationExecutor(1)) {
+            Future<TranslationResult> running = executor.submit(
+                    new TranslationJob(translator, ENVIRONMENT, "first", null)
+            );
+
+            Future<TranslationResult> queued = executor.submit(
+                    new TranslationJob(translator, ENVIRONMENT, "second", null)
+            );
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            executor.cancelAll();
+
+            // The queued job never runs, thus its future must be cancelled
+            // instead of blocking forever.
+
+            assertTrue(queued.isCancelled());
+            assertThrows(
+                    CancellationException.class,
+                    () -> queued.get(5, TimeUnit.SECONDS)
+            );
+
+            assertTrue(running.isDone());
+            assertTrue(executor.awaitCompletion(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testInvalidParallelism() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new TranslationExecutor(0)
+        );
+    }
+}
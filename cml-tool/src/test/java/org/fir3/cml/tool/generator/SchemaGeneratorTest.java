@@ -0,0 +1,100 @@
+package org.fir3.cml.tool.generator;
+
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Environment;
+import org.fir3.cml.api.model.Model;
+import org.fir3.cml.api.util.TypeHelper;
+import org.fir3.cml.tool.compiler.Compiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaGeneratorTest {
+    @Test
+    public void testDeterminism() {
+        assertEquals(
+                new SchemaGenerator(42).generate(),
+                new SchemaGenerator(42).generate()
+        );
+
+        assertNotEquals(
+                new SchemaGenerator(42).generate(),
+                new SchemaGenerator(43).generate()
+        );
+    }
+
+    @Test
+    public void testSettings() {
+        String source = new SchemaGenerator(1)
+                .setDomainPrefix("scale.test")
+                .setDomains(1)
+                .setModelsPerDomain(8)
+                .setAttributesPerModel(16)
+                .setMaxNestingDepth(0)
+                .setCommentDensity(0)
+                .generate()
+                .get("scale.test.d0.cml");
+
+        assertNotNull(source);
+        assertFalse(source.contains("/*"));
+        assertFalse(source.contains("Sequence"));
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new SchemaGenerator(1).setDomains(0)
+        );
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new SchemaGenerator(1).setCommentDensity(1.5)
+        );
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new SchemaGenerator(1).setDomainPrefix("Invalid Name")
+        );
+    }
+
+    @Test
+    public void testCompile(@TempDir Path directory) throws IOException {
+        List<Path> files = new SchemaGenerator(7)
+                .setDomains(8)
+                .setModelsPerDomain(64)
+                .setAttributesPerModel(8)
+                .setMaxNestingDepth(3)
+                .setCommentDensity(0.5)
+                .write(directory);
+
+        assertEquals(9, files.size());
+
+        Environment environment = new Compiler(4).compile(
+                Collections.singletonList(directory)
+        );
+
+        assertEquals(9, environment.getDomains().size());
+
+        // Every attribute type refers to existing models
+
+        for (Domain domain : environment.getDomains()) {
+            if (domain.getFlags().contains(Domain.Flag.Ubiquitous)) {
+                continue;
+            }
+
+            assertEquals(64, domain.getModels().size());
+
+            for (Model model : domain.getModels()) {
+                assertEquals(8, model.getAttributes().size());
+
+                model.getAttributes().forEach(a -> assertNotNull(
+                        TypeHelper.normalize(a.getType(), environment, domain)
+                ));
+            }
+        }
+    }
+}
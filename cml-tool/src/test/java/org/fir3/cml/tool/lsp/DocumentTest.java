@@ -0,0 +1,135 @@
+package org.fir3.cml.tool.lsp;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.fir3.cml.api.model.Domain;
+import org.fir3.cml.api.model.Model;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DocumentTest {
+    private static final String SOURCE = String.join("\n",
+            "domain a;",
+            "/* { ignored } */",
+            "model A { Bit x; }",
+            "model B<T> { T y; }",
+            "builtin model C;"
+    );
+
+    private static JsonObject change(
+            int startLine,
+            int startCharacter,
+            int endLine,
+            int endCharacter,
+            String text
+    ) {
+        JsonObject change = new JsonObject();
+        change.add("range", JsonParser.parseString(String.format(
+                "{\"start\":{\"line\":%d,\"character\":%d}," +
+                        "\"end\":{\"line\":%d,\"character\":%d}}",
+                startLine,
+                startCharacter,
+                endLine,
+                endCharacter
+        )));
+
+        change.addProperty("text", text);
+        return change;
+    }
+
+    private static List<String> getModelNames(Document document) {
+        return document.getDomain()
+                .map(Domain::getModels)
+                .orElse(Collections.emptySet())
+                .stream()
+                .map(Model::getName)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testSplit() {
+        List<String> segments = SourceSplitter.split(SOURCE)
+                .stream()
+                .map(SourceSplitter.Segment::getText)
+                .collect(Collectors.toList());
+
+        assertEquals(4, segments.size());
+        assertEquals("domain a;", segments.get(0));
+        assertEquals("model A { Bit x; }", segments.get(1));
+        assertEquals("model B<T> { T y; }", segments.get(2));
+        assertEquals("builtin model C;", segments.get(3));
+    }
+
+    @Test
+    public void testParse() {
+        Document document = new Document("file:///a.cml", 1, SOURCE);
+
+        assertTrue(document.getDiagnostics().isEmpty());
+        assertEquals("a", document.getDomain().get().getName());
+        assertEquals(
+                Arrays.asList("A", "B", "C"),
+                getModelNames(document)
+        );
+
+        assertEquals(4, document.getParsedSegments());
+    }
+
+    @Test
+    public void testIncrementalChange() {
+        Document document = new Document("file:///a.cml", 1, SOURCE);
+
+        // Renaming the attribute of model B only touches its declaration
+
+        document.change(2, Collections.singletonList(
+                change(3, 15, 3, 16, "z")
+        ));
+
+        assertEquals(5, document.getParsedSegments());
+        assertEquals(2, document.getVersion());
+        assertTrue(document.getText().contains("model B<T> { T z; }"));
+        assertTrue(document.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testBrokenDeclaration() {
+        Document document = new Document("file:///a.cml", 1, SOURCE);
+
+        // Breaking model A must not affect the other models
+
+        document.change(2, Collections.singletonList(
+                change(2, 14, 2, 15, "")
+        ));
+
+        assertEquals(1, document.getDiagnostics().size());
+        assertEquals(Arrays.asList("B", "C"), getModelNames(document));
+
+        Diagnostic diagnostic = document.getDiagnostics().get(0);
+        assertEquals(2, document.toPosition(diagnostic.getStart())
+                .get("line")
+                .getAsInt());
+    }
+
+    @Test
+    public void testDuplicateModel() {
+        Document document = new Document(
+                "file:///a.cml",
+                1,
+                "domain a; builtin model A; builtin model A;"
+        );
+
+        assertEquals(1, document.getDiagnostics().size());
+        assertEquals(
+                "Duplicate model 'A'",
+                document.getDiagnostics().get(0).getMessage()
+        );
+
+        assertEquals(Collections.singletonList("A"), getModelNames(document));
+    }
+}
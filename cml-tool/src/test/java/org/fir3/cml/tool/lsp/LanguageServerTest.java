@@ -0,0 +1,398 @@
+package org.fir3.cml.tool.lsp;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LanguageServerTest {
+    private static void write(ByteArrayOutputStream dst, String message) {
+        byte[] content = message.getBytes(StandardCharsets.UTF_8);
+        byte[] header = String.format(
+                "Content-Length: %d\r\n\r\n",
+                content.length
+        ).getBytes(StandardCharsets.US_ASCII);
+
+        dst.write(header, 0, header.length);
+        dst.write(content, 0, content.length);
+    }
+
+    private static byte[] encode(List<String> messages) {
+        ByteArrayOutputStream dst = new ByteArrayOutputStream();
+
+        for (String message : messages) {
+            write(dst, message);
+        }
+
+        return dst.toByteArray();
+    }
+
+    private static List<JsonObject> run(
+            Path workspace,
+            List<String> messages,
+            int expectedExitCode
+    ) throws IOException {
+        return run(
+                workspace,
+                new ByteArrayInputStream(encode(messages)),
+                expectedExitCode
+        );
+    }
+
+    private static List<JsonObject> run(
+            Path workspace,
+            InputStream in,
+            int expectedExitCode
+    ) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LanguageServer server = new LanguageServer(
+                in,
+                out,
+                Collections.singletonList(workspace)
+        );
+
+        assertEquals(expectedExitCode, server.run());
+
+        List<JsonObject> responses = new ArrayList<>();
+        JsonRpcChannel channel = new JsonRpcChannel(
+                new ByteArrayInputStream(out.toByteArray()),
+                new ByteArrayOutputStream()
+        );
+
+        String content;
+
+        while ((content = channel.read()) != null) {
+            responses.add(JsonParser.parseString(content).getAsJsonObject());
+        }
+
+        return responses;
+    }
+
+    private static String open(String uri, String text) {
+        JsonObject document = new JsonObject();
+        document.addProperty("uri", uri);
+        document.addProperty("languageId", "cml");
+        document.addProperty("version", 1);
+        document.addProperty("text", text);
+
+        JsonObject params = new JsonObject();
+        params.add("textDocument", document);
+
+        return notification("textDocument/didOpen", params);
+    }
+
+    private static String change(String uri, int version, String text) {
+        JsonObject document = new JsonObject();
+        document.addProperty("uri", uri);
+        document.addProperty("version", version);
+
+        JsonObject change = new JsonObject();
+        change.addProperty("text", text);
+
+        JsonArray changes = new JsonArray();
+        changes.add(change);
+
+        JsonObject params = new JsonObject();
+        params.add("textDocument", document);
+        params.add("contentChanges", changes);
+
+        return notification("textDocument/didChange", params);
+    }
+
+    private static String close(String uri) {
+        JsonObject document = new JsonObject();
+        document.addProperty("uri", uri);
+
+        JsonObject params = new JsonObject();
+        params.add("textDocument", document);
+
+        return notification("textDocument/didClose", params);
+    }
+
+    private static String created(String uri) {
+        JsonObject change = new JsonObject();
+        change.addProperty("uri", uri);
+        change.addProperty("type", 1);
+
+        JsonArray changes = new JsonArray();
+        changes.add(change);
+
+        JsonObject params = new JsonObject();
+        params.add("changes", changes);
+
+        return notification("workspace/didChangeWatchedFiles", params);
+    }
+
+    private static String notification(String method, JsonObject params) {
+        JsonObject message = new JsonObject();
+        message.addProperty("jsonrpc", "2.0");
+        message.addProperty("method", method);
+        message.add("params", params);
+
+        return message.toString();
+    }
+
+    private static String request(int id, String method) {
+        return String.format(
+                "{\"jsonrpc\":\"2.0\",\"id\":%d,\"method\":\"%s\"," +
+                        "\"params\":{}}",
+                id,
+                method
+        );
+    }
+
+    private static List<JsonArray> getDiagnostics(
+            List<JsonObject> messages,
+            String uri
+    ) {
+        List<JsonArray> diagnostics = new ArrayList<>();
+
+        for (JsonObject message : messages) {
+            if (message.has("method") &&
+                    message.get("method").getAsString().equals(
+                            "textDocument/publishDiagnostics"
+                    ) &&
+                    message.getAsJsonObject("params")
+                            .get("uri")
+                            .getAsString()
+                            .equals(uri)) {
+                diagnostics.add(message.getAsJsonObject("params")
+                        .getAsJsonArray("diagnostics"));
+            }
+        }
+
+        return diagnostics;
+    }
+
+    private static Path createWorkspace(Path directory) throws IOException {
+        try (InputStream src = LanguageServerTest.class.getResourceAsStream(
+                "/cml/sample1.cml"
+        )) {
+            Files.copy(src, directory.resolve("builtin.cml"));
+        }
+
+        return directory;
+    }
+
+    @Test
+    public void testDiagnostics(@TempDir Path directory) throws IOException {
+        String uri = createWorkspace(directory).resolve("a.cml")
+                .toUri()
+                .toString();
+
+        List<JsonObject> messages = run(directory, Arrays.asList(
+                request(1, "initialize"),
+                open(uri, "domain a;\nmodel A { Bit x; }\nmodel B { C y; }"),
+                change(uri, 2, "domain a;\nmodel A { Bit x }"),
+                change(uri, 3, "domain a;\nmodel A { Bit x; }"),
+                request(2, "shutdown"),
+                "{\"jsonrpc\":\"2.0\",\"method\":\"exit\"}"
+        ), 0);
+
+        JsonObject capabilities = messages.get(0)
+                .getAsJsonObject("result")
+                .getAsJsonObject("capabilities");
+
+        assertEquals(2, capabilities.getAsJsonObject("textDocumentSync")
+                .get("change")
+                .getAsInt());
+
+        List<JsonArray> diagnostics = getDiagnostics(messages, uri);
+        assertEquals(3, diagnostics.size());
+
+        // Unknown model C
+
+        assertEquals(1, diagnostics.get(0).size());
+        JsonObject unknown = diagnostics.get(0).get(0).getAsJsonObject();
+
+        assertEquals("Unknown model 'C'", unknown.get("message").getAsString());
+        assertEquals(2, unknown.getAsJsonObject("range")
+                .getAsJsonObject("start")
+                .get("line")
+                .getAsInt());
+
+        // Syntax error, which is fixed by the last change
+
+        assertEquals(1, diagnostics.get(1).size());
+        assertEquals(0, diagnostics.get(2).size());
+    }
+
+    @Test
+    public void testReferencesBetweenDocuments(@TempDir Path directory)
+            throws IOException {
+        Path workspace = createWorkspace(directory);
+        String a = workspace.resolve("a.cml").toUri().toString();
+        String b = workspace.resolve("b.cml").toUri().toString();
+        String c = workspace.resolve("c.cml").toUri().toString();
+
+        List<JsonObject> messages = run(directory, Arrays.asList(
+                request(1, "initialize"),
+                open(a, "domain a;\nmodel A { Bit x; }"),
+                open(b, "domain b;\nmodel B { a.A x; a.C y; }"),
+                change(a, 2, "domain a;\nmodel A { Bit x; Bit y; }"),
+                change(a, 3, "domain a;\nmodel A { Bit x; }\nmodel C { }"),
+                open(c, "domain a;\nmodel D { }"),
+                request(2, "shutdown"),
+                "{\"jsonrpc\":\"2.0\",\"method\":\"exit\"}"
+        ), 0);
+
+        // The first change does not affect the signature of domain a, thus
+        // only the changed document is checked again.
+
+        List<JsonArray> diagnostics = getDiagnostics(messages, b);
+        assertEquals(3, diagnostics.size());
+
+        assertEquals(1, diagnostics.get(0).size());
+        assertEquals(
+                "Unknown model 'a.C'",
+                diagnostics.get(0)
+                        .get(0)
+                        .getAsJsonObject()
+                        .get("message")
+                        .getAsString()
+        );
+
+        assertEquals(0, diagnostics.get(1).size());
+        assertEquals(0, diagnostics.get(2).size());
+
+        // Domain a is declared twice
+
+        diagnostics = getDiagnostics(messages, c);
+        assertEquals(1, diagnostics.size());
+        assertEquals(1, diagnostics.get(0).size());
+        assertEquals(
+                String.format("Domain 'a' is also declared by '%s'", a),
+                diagnostics.get(0)
+                        .get(0)
+                        .getAsJsonObject()
+                        .get("message")
+                        .getAsString()
+        );
+    }
+
+    @Test
+    public void testChangesOnDisk(@TempDir Path directory) throws IOException {
+        Path workspace = createWorkspace(directory);
+        Path a = workspace.resolve("a.cml");
+        Path e = workspace.resolve("e.cml");
+        String b = workspace.resolve("b.cml").toUri().toString();
+
+        Files.write(
+                a,
+                "domain a;\nmodel A { Bit x; }".getBytes(StandardCharsets.UTF_8)
+        );
+
+        // The files are changed on disk only after the server processed the
+        // first messages, i.e. after it has been initialized.
+
+        byte[] first = encode(Arrays.asList(
+                request(1, "initialize"),
+                open(b, "domain b;\nmodel B { a.C y; e.E z; }")
+        ));
+
+        String text = "domain a;\nmodel A { Bit x; }\nmodel C { }";
+        byte[] second = encode(Arrays.asList(
+                open(a.toUri().toString(), text),
+                close(a.toUri().toString()),
+                created(e.toUri().toString()),
+                request(2, "shutdown"),
+                "{\"jsonrpc\":\"2.0\",\"method\":\"exit\"}"
+        ));
+
+        InputStream in = new SequenceInputStream(
+                new ByteArrayInputStream(first),
+                new InputStream() {
+                    private InputStream delegate;
+
+                    @Override
+                    public int read() throws IOException {
+                        return this.getDelegate().read();
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len)
+                            throws IOException {
+                        return this.getDelegate().read(b, off, len);
+                    }
+
+                    private InputStream getDelegate() throws IOException {
+                        if (this.delegate == null) {
+                            Files.write(a, text.getBytes(
+                                    StandardCharsets.UTF_8
+                            ));
+
+                            Files.write(e, "domain e;\nmodel E { }".getBytes(
+                                    StandardCharsets.UTF_8
+                            ));
+
+                            this.delegate = new ByteArrayInputStream(second);
+                        }
+
+                        return this.delegate;
+                    }
+                }
+        );
+
+        List<JsonObject> messages = run(directory, in, 0);
+
+        assertTrue(messages.get(0)
+                .getAsJsonObject("result")
+                .getAsJsonObject("capabilities")
+                .getAsJsonObject("textDocumentSync")
+                .get("save")
+                .getAsBoolean());
+
+        // After closing a, the saved source file takes its place, and the
+        // created source file e is added to the workspace.
+
+        List<JsonArray> diagnostics = getDiagnostics(messages, b);
+        assertEquals(4, diagnostics.size());
+        assertEquals(2, diagnostics.get(0).size());
+        assertEquals(1, diagnostics.get(1).size());
+        assertEquals(1, diagnostics.get(2).size());
+        assertEquals(0, diagnostics.get(3).size());
+    }
+
+    @Test
+    public void testErrors(@TempDir Path directory) throws IOException {
+        List<JsonObject> messages = run(directory, Arrays.asList(
+                request(1, "shutdown"),
+                request(2, "initialize"),
+                request(3, "textDocument/hover"),
+                "{not json"
+        ), 1);
+
+        assertEquals(4, messages.size());
+        assertEquals(-32002, messages.get(0)
+                .getAsJsonObject("error")
+                .get("code")
+                .getAsInt());
+
+        assertTrue(messages.get(1).has("result"));
+        assertEquals(-32601, messages.get(2)
+                .getAsJsonObject("error")
+                .get("code")
+                .getAsInt());
+
+        assertEquals(-32700, messages.get(3)
+                .getAsJsonObject("error")
+                .get("code")
+                .getAsInt());
+    }
+}
@@ -0,0 +1,93 @@
+package org.fir3.cml.tool.output;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipOutputSinkTest {
+    private static Map<String, String> readArchive(byte[] archive)
+            throws IOException {
+        Map<String, String> entries = new HashMap<>();
+
+        try (ZipInputStream src = new ZipInputStream(
+                new ByteArrayInputStream(archive)
+        )) {
+            ZipEntry entry;
+
+            while ((entry = src.getNextEntry()) != null) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[256];
+                int length;
+
+                while ((length = src.read(buffer)) >= 0) {
+                    content.write(buffer, 0, length);
+                }
+
+                entries.put(
+                        entry.getName(),
+                        new String(
+                                content.toByteArray(),
+                                StandardCharsets.UTF_8
+                        )
+                );
+            }
+        }
+
+        return entries;
+    }
+
+    private static void write(WritableByteChannel channel, String content)
+            throws IOException {
+        channel.write(ByteBuffer.wrap(
+                content.getBytes(StandardCharsets.UTF_8)
+        ));
+    }
+
+    @Test
+    public void testInterleavedEntries() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+
+        try (ZipOutputSink sink = new ZipOutputSink(archive)) {
+            // Writing two output files at the same time must not mix up
+            // their contents.
+
+            WritableByteChannel first = sink.open("a/First.java");
+            WritableByteChannel second = sink.open("b/Second.java");
+
+            write(first, "first-1;");
+            write(second, "second-1;");
+            write(first, "first-2;");
+            second.close();
+            write(first, "first-3;");
+            first.close();
+        }
+
+        Map<String, String> entries = readArchive(archive.toByteArray());
+
+        assertEquals(2, entries.size());
+        assertEquals("first-1;first-2;first-3;", entries.get("a/First.java"));
+        assertEquals("second-1;", entries.get("b/Second.java"));
+    }
+
+    @Test
+    public void testDuplicateEntry() throws IOException {
+        try (ZipOutputSink sink = new ZipOutputSink(
+                new ByteArrayOutputStream()
+        )) {
+            sink.open("File.java").close();
+
+            assertThrows(IOException.class, () -> sink.open("File.java"));
+        }
+    }
+}
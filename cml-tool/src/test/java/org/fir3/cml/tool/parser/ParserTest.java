@@ -1,22 +1,106 @@
 package org.fir3.cml.tool.parser;
 
+import org.fir3.cml.api.model.Attribute;
 import org.fir3.cml.api.model.Domain;
 import org.fir3.cml.api.model.Model;
+import org.fir3.cml.api.model.Type;
 import org.fir3.cml.api.model.TypeParameter;
+import org.fir3.cml.tool.exception.ParserException;
 import org.fir3.cml.tool.tokenizer.IdentifierToken;
 import org.fir3.cml.tool.tokenizer.KeywordToken;
 import org.fir3.cml.tool.tokenizer.Token;
+import org.fir3.cml.tool.tokenizer.Tokenizer;
+import org.fir3.cml.tool.util.seq.ByteBufferSequence;
 import org.fir3.cml.tool.util.seq.IteratorSequence;
+import org.fir3.cml.tool.util.seq.ListSequence;
 import org.fir3.cml.tool.util.seq.Sequence;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ParserTest {
+    private static List<Token> tokenize(String source) throws IOException {
+        List<Token> tokens = new ArrayList<>();
+
+        try (Tokenizer tokenizer = new Tokenizer(new ByteBufferSequence(
+                ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8))
+        ))) {
+            Token token;
+
+            while ((token = tokenizer.read()) != null) {
+                tokens.add(token);
+            }
+        }
+
+        return tokens;
+    }
+
+    private static ParseResult parseRecovering(String source)
+            throws IOException {
+        try (Sequence<Token> src = new ListSequence<>(tokenize(source))) {
+            return new Parser(src).parseRecovering();
+        }
+    }
+
+    private static List<String> parseEvents(String source)
+            throws IOException {
+        List<String> events = new ArrayList<>();
+
+        try (Sequence<Token> src = new ListSequence<>(tokenize(source))) {
+            new Parser(src).parse(new ParseListener() {
+                @Override
+                public void onDomain(String name, EnumSet<Domain.Flag> flags) {
+                    events.add("domain " + name + " " + flags);
+                }
+
+                @Override
+                public void onModelStart(
+                        String name,
+                        EnumSet<Model.Flag> flags,
+                        List<TypeParameter> typeParameters
+                ) {
+                    events.add(String.format(
+                            "start %s %s %d",
+                            name,
+                            flags,
+                            typeParameters.size()
+                    ));
+                }
+
+                @Override
+                public void onAttribute(String name, Type type) {
+                    events.add(String.format(
+                            "attribute %s %s",
+                            name,
+                            type.getCategory()
+                    ));
+                }
+
+                @Override
+                public void onModelEnd(String name) {
+                    events.add("end " + name);
+                }
+            });
+        }
+
+        return events;
+    }
+
+    private static Set<String> modelNames(ParseResult result) {
+        return result.getDomain()
+                .orElseThrow(AssertionError::new)
+                .getModels()
+                .stream()
+                .map(Model::getName)
+                .collect(Collectors.toSet());
+    }
+
     @Test
     public void testParseDomain() throws IOException {
         try (Sequence<Token> src = new IteratorSequence<>(
@@ -133,4 +217,193 @@ public class ParserTest {
             assertTrue(testModel.getTypeParameters().isEmpty());
         }
     }
+
+    @Test
+    public void testParseDomainWithAttributes() throws IOException {
+        try (Sequence<Token> src = new IteratorSequence<>(
+                new KeywordToken(KeywordToken.Keyword.Domain),
+                new IdentifierToken("test"),
+                new KeywordToken(KeywordToken.Keyword.Semicolon),
+                new KeywordToken(KeywordToken.Keyword.Model),
+                new IdentifierToken("TestModel"),
+                new KeywordToken(KeywordToken.Keyword.LeftBrace),
+                new IdentifierToken("Bit"),
+                new IdentifierToken("first"),
+                new KeywordToken(KeywordToken.Keyword.Semicolon),
+                new IdentifierToken("Bit"),
+                new IdentifierToken("second"),
+                new KeywordToken(KeywordToken.Keyword.Semicolon),
+                new KeywordToken(KeywordToken.Keyword.RightBrace)
+        )) {
+            Parser parser = new Parser(src);
+
+            Optional<Domain> nullableDomain = parser.parse();
+            assertTrue(nullableDomain.isPresent());
+
+            // Validate that both attributes (including their terminating
+            // semicolons) have been consumed
+
+            Model model = nullableDomain.get()
+                    .getModels()
+                    .stream()
+                    .findFirst()
+                    .orElse(null);
+
+            assertNotNull(model);
+            assertEquals(
+                    new HashSet<>(Arrays.asList("first", "second")),
+                    model.getAttributes()
+                            .stream()
+                            .map(Attribute::getName)
+                            .collect(Collectors.toSet())
+            );
+        }
+    }
+
+    @Test
+    public void testParseRecoveringValidSource() throws IOException {
+        ParseResult result = parseRecovering(
+                "domain test; builtin model Bit; model A { Bit a; }"
+        );
+
+        assertTrue(result.isSuccessful());
+        assertEquals(
+                new HashSet<>(Arrays.asList("Bit", "A")),
+                modelNames(result)
+        );
+
+        // An empty source contains neither a domain nor errors
+
+        result = parseRecovering("");
+
+        assertTrue(result.isSuccessful());
+        assertFalse(result.getDomain().isPresent());
+    }
+
+    @Test
+    public void testParseRecoveringReportsAllErrors() throws IOException {
+        ParseResult result = parseRecovering(
+                "domain test;" +
+                        "model A { Bit a; Bit ; Bit b; }" +
+                        "model { Bit c; }" +
+                        "model B { Bit d; Bit d; }" +
+                        "builtin model C " +
+                        "model D Bit e; }" +
+                        "model E { Bit f;"
+        );
+
+        List<String> messages = result.getDiagnostics()
+                .stream()
+                .map(ParserDiagnostic::getMessage)
+                .collect(Collectors.toList());
+
+        assertEquals(Arrays.asList(
+                "Expected an attribute",
+                "Expected a model declaration",
+                "Duplicate attribute 'd'",
+                "Expected ';'",
+                "Expected '{'",
+                "Expected a model declaration",
+                "Expected '}'"
+        ), messages);
+
+        // The position of the first error is the index of the broken
+        // attribute's first token.
+
+        ParserDiagnostic first = result.getDiagnostics().get(0);
+        assertEquals(9, first.getPosition());
+        assertEquals(
+                Optional.of(new IdentifierToken("Bit")),
+                first.getToken()
+        );
+
+        ParserDiagnostic last = result.getDiagnostics().get(6);
+        assertFalse(last.getToken().isPresent());
+
+        // Everything that could be parsed is kept
+
+        assertEquals(
+                new HashSet<>(Arrays.asList("A", "B", "C", "E")),
+                modelNames(result)
+        );
+
+        Model model = result.getDomain()
+                .get()
+                .getModels()
+                .stream()
+                .filter(m -> m.getName().equals("A"))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+
+        assertEquals(
+                new HashSet<>(Arrays.asList("a", "b")),
+                model.getAttributes()
+                        .stream()
+                        .map(Attribute::getName)
+                        .collect(Collectors.toSet())
+        );
+    }
+
+    @Test
+    public void testParseRecoveringWithoutDomain() throws IOException {
+        ParseResult result = parseRecovering(
+                "domain ; model A { Bit ; } model A { }"
+        );
+
+        assertFalse(result.getDomain().isPresent());
+        assertEquals(
+                Arrays.asList(
+                        "Expected a domain declaration",
+                        "Expected an attribute",
+                        "Duplicate model 'A'"
+                ),
+                result.getDiagnostics()
+                        .stream()
+                        .map(ParserDiagnostic::getMessage)
+                        .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testParseEvents() throws IOException {
+        List<String> events = parseEvents(
+                "ubiquitous domain test;" +
+                        "builtin model Bit;" +
+                        "model Pair<A, B> { A first; Bit second; }" +
+                        "model Empty { }"
+        );
+
+        assertEquals(Arrays.asList(
+                "domain test [Ubiquitous]",
+                "start Bit [Builtin] 0",
+                "end Bit",
+                "start Pair [] 2",
+                "attribute first Parameter",
+                "attribute second Model",
+                "end Pair",
+                "start Empty [] 0",
+                "end Empty"
+        ), events);
+
+        // An empty source does not cause any events
+
+        try (Sequence<Token> src = new ListSequence<>(
+                Collections.emptyList()
+        )) {
+            assertFalse(new Parser(src).parse(new ParseListener() { }));
+        }
+    }
+
+    @Test
+    public void testParseEventsInvalidSource() {
+        assertThrows(
+                ParserException.class,
+                () -> parseEvents("domain test; model A { Bit ; }")
+        );
+
+        assertThrows(
+                ParserException.class,
+                () -> parseEvents("model A { }")
+        );
+    }
 }
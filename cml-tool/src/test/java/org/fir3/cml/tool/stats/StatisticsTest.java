@@ -0,0 +1,116 @@
+package org.fir3.cml.tool.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatisticsTest {
+    private static volatile Object sink;
+
+    @Test
+    public void testMeasure() {
+        Statistics statistics = new Statistics();
+
+        Statistics.Measurement measurement = statistics.measure(Phase.Parse);
+
+        // Allocating about 1 MiB, so that there is something to measure
+
+        for (int index = 0; index < 1024; index++) {
+            sink = new byte[1024];
+        }
+
+        // Stopping a measurement again does not count it twice
+
+        measurement.stop();
+        measurement.stop();
+
+        statistics.addTokens(100);
+        statistics.addTranslatedModels(10);
+
+        PhaseStatistics parse = statistics.getPhases().get(Phase.Parse);
+
+        assertEquals(1, parse.getMeasurements());
+        assertTrue(parse.getWallNanos() > 0);
+
+        if (parse.getAllocatedBytes() >= 0) {
+            assertTrue(parse.getAllocatedBytes() >= 1024 * 1024);
+        }
+
+        PhaseStatistics translate = statistics.getPhases().get(
+                Phase.Translate
+        );
+
+        assertEquals(0, translate.getMeasurements());
+        assertEquals(0, translate.getWallNanos());
+
+        // Without a measured phase, there is no throughput.
+
+        assertEquals(0.0, statistics.getTokensPerSecond());
+        assertEquals(0.0, statistics.getModelsPerSecond());
+    }
+
+    @Test
+    public void testStop() throws InterruptedException {
+        Statistics statistics = new Statistics();
+        statistics.stop();
+
+        long totalNanos = statistics.getTotalNanos();
+        Thread.sleep(5);
+
+        assertEquals(totalNanos, statistics.getTotalNanos());
+    }
+
+    @Test
+    public void testDisabled() {
+        Statistics statistics = Statistics.DISABLED;
+
+        Statistics.Measurement measurement = statistics.measure(Phase.Read);
+        sink = new byte[1024];
+        measurement.stop();
+
+        assertFalse(statistics.isEnabled());
+        assertEquals(
+                0,
+                statistics.getPhases().get(Phase.Read).getMeasurements()
+        );
+    }
+
+    @Test
+    public void testFormats() {
+        Statistics statistics = new Statistics();
+
+        Statistics.Measurement measurement = statistics.measure(
+                Phase.Tokenize
+        );
+
+        statistics.addTokens(42);
+        measurement.stop();
+
+        statistics.stop();
+
+        String json = StatisticsFormat.Json.format(statistics);
+
+        assertTrue(json.startsWith("{\"phases\":{\"read\":{"));
+        assertTrue(json.contains("\"tokens\":42"));
+        assertTrue(json.contains("\"tokensPerSecond\":"));
+        assertTrue(json.contains("\"mainThreadOnly\":false}"));
+        assertTrue(json.contains("\"mainThreadOnly\":true}}"));
+        assertTrue(json.trim().endsWith("}"));
+
+        String text = StatisticsFormat.Text.format(statistics);
+
+        for (Phase phase : Phase.values()) {
+            assertTrue(text.contains(phase.getName()), phase.getName());
+        }
+
+        assertTrue(text.contains("translate*"));
+        assertTrue(text.contains("* cpu and alloc of the main thread only"));
+        assertTrue(text.contains("42 tokens"));
+        assertEquals(
+                StatisticsFormat.Json,
+                StatisticsFormat.fromName("json").orElse(null)
+        );
+
+        assertFalse(StatisticsFormat.fromName("xml").isPresent());
+    }
+}
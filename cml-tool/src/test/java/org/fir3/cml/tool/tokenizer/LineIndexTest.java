@@ -0,0 +1,51 @@
+package org.fir3.cml.tool.tokenizer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LineIndexTest {
+    @Test
+    public void testLinesAndColumns() {
+        LineIndex index = new LineIndex(ByteBuffer.wrap(
+                "ab\ncd\r\n\nef".getBytes(StandardCharsets.US_ASCII)
+        ));
+
+        assertEquals("1:1", index.describe(0));
+        assertEquals("1:3", index.describe(2));
+        assertEquals("2:1", index.describe(3));
+        assertEquals("2:4", index.describe(6));
+        assertEquals("3:1", index.describe(7));
+        assertEquals("4:2", index.describe(9));
+
+        // The end of the source is a valid offset as well
+
+        assertEquals(4, index.getLine(10));
+        assertEquals(3, index.getColumn(10));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getLine(11));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getLine(-1));
+    }
+
+    @Test
+    public void testBufferPosition() {
+        ByteBuffer buffer = ByteBuffer.wrap(
+                "x\nab\ncd".getBytes(StandardCharsets.US_ASCII)
+        );
+
+        buffer.position(2);
+
+        // Offsets are relative to the position at construction time, which
+        // may change afterwards.
+
+        LineIndex index = new LineIndex(buffer);
+        buffer.position(buffer.limit());
+
+        assertEquals("1:1", index.describe(0));
+        assertEquals("2:2", index.describe(4));
+    }
+}
@@ -1,14 +1,21 @@
 package org.fir3.cml.tool.tokenizer;
 
+import org.fir3.cml.tool.util.seq.ByteBufferSequence;
 import org.fir3.cml.tool.util.seq.InputStreamSequence;
 import org.fir3.cml.tool.util.seq.Sequence;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 
-import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class TokenizerTest {
     private static final Token[] SAMPLE_1_TOKENS = {
@@ -83,4 +90,72 @@ public class TokenizerTest {
                 tokens.toArray(new Token[0])
         );
     }
+
+    @Test
+    public void testOffsets() throws IOException {
+        byte[] source = "domain a;\n/* b */ model\r\n  C { }"
+                .getBytes(StandardCharsets.US_ASCII);
+
+        List<Long> offsets = new ArrayList<>();
+
+        try (Tokenizer tknzr = new Tokenizer(new ByteBufferSequence(
+                ByteBuffer.wrap(source)
+        ))) {
+            while (tknzr.read() != null) {
+                offsets.add(tknzr.getOffset());
+            }
+        }
+
+        assertEquals(Arrays.asList(0L, 7L, 8L, 18L, 27L, 29L, 31L), offsets);
+    }
+
+    @Test
+    public void testOffsetOfUnknownToken() throws IOException {
+        byte[] source = "domain a; #".getBytes(StandardCharsets.US_ASCII);
+
+        try (Tokenizer tknzr = new Tokenizer(new ByteBufferSequence(
+                ByteBuffer.wrap(source)
+        ))) {
+            assertNotNull(tknzr.read());
+            assertNotNull(tknzr.read());
+            assertNotNull(tknzr.read());
+            assertThrows(IOException.class, tknzr::read);
+            assertEquals(10, tknzr.getOffset());
+        }
+    }
+
+    @Test
+    public void testOffsetOfUnterminatedComment() throws IOException {
+        byte[] source = "domain a; /* b".getBytes(StandardCharsets.US_ASCII);
+
+        try (Tokenizer tknzr = new Tokenizer(new ByteBufferSequence(
+                ByteBuffer.wrap(source)
+        ))) {
+            assertNotNull(tknzr.read());
+            assertNotNull(tknzr.read());
+            assertNotNull(tknzr.read());
+
+            IOException ex = assertThrows(IOException.class, tknzr::read);
+            assertEquals("Unterminated comment", ex.getMessage());
+            assertEquals(10, tknzr.getOffset());
+        }
+    }
+
+    @Test
+    public void testOffsetsOfCountedSequence() throws IOException {
+        byte[] source = "domain /* a */ b;".getBytes(StandardCharsets.US_ASCII);
+        List<Long> offsets = new ArrayList<>();
+
+        // Sequences that do not know their position are counted instead
+
+        try (Tokenizer tknzr = new Tokenizer(new InputStreamSequence(
+                new ByteArrayInputStream(source)
+        ))) {
+            while (tknzr.read() != null) {
+                offsets.add(tknzr.getOffset());
+            }
+        }
+
+        assertEquals(Arrays.asList(0L, 15L, 16L), offsets);
+    }
 }
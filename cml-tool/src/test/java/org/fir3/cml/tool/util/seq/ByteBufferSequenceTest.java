@@ -0,0 +1,74 @@
+package org.fir3.cml.tool.util.seq;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ByteBufferSequenceTest {
+    private static final byte[] TEST_SEQUENCE = new byte[] {
+            (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE,
+            (byte) 0xDE, (byte) 0xAD, (byte) 0xBE, (byte) 0xEF,
+            (byte) 0xBA, (byte) 0xAD, (byte) 0xC0, (byte) 0xDE
+    };
+
+    @Test
+    public void testRead() throws IOException {
+        // Wrapping only a part of the array, so that the sequence has to
+        // respect the position and limit of the buffer.
+
+        ByteBuffer src = ByteBuffer.wrap(
+                ByteBufferSequenceTest.TEST_SEQUENCE,
+                2,
+                8
+        );
+
+        try (Sequence<Byte> seq = new ByteBufferSequence(src)) {
+            for (int index = 2; index < 10; index++) {
+                assertEquals(
+                        ByteBufferSequenceTest.TEST_SEQUENCE[index],
+                        seq.read()
+                );
+            }
+
+            // Asserting that EOF is indicated by 'null'
+
+            assertNull(seq.read());
+        }
+    }
+
+    @Test
+    public void testMarks() throws IOException {
+        ByteBuffer src = ByteBuffer.wrap(ByteBufferSequenceTest.TEST_SEQUENCE);
+
+        try (ByteBufferSequence seq = new ByteBufferSequence(src)) {
+            assertEquals((byte) 0xCA, seq.read());
+
+            try (Sequence.Mark outer = seq.mark()) {
+                assertEquals((byte) 0xFE, seq.read());
+
+                try (Sequence.Mark inner = seq.mark()) {
+                    assertEquals((byte) 0xBA, seq.read());
+                    assertEquals(3, seq.getPosition());
+
+                    inner.reset();
+                    assertEquals(2, seq.getPosition());
+                }
+
+                // Resetting the outer mark invalidates the inner one
+
+                Sequence.Mark inner = seq.mark();
+                outer.reset();
+
+                assertEquals(1, seq.getPosition());
+                assertThrows(IllegalArgumentException.class, inner::reset);
+            }
+
+            assertEquals((byte) 0xFE, seq.read());
+        }
+    }
+}
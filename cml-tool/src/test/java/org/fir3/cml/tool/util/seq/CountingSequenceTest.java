@@ -0,0 +1,40 @@
+package org.fir3.cml.tool.util.seq;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CountingSequenceTest {
+    @Test
+    public void testPosition() throws IOException {
+        try (CountingSequence<Integer> seq = new CountingSequence<>(
+                new ListSequence<>(Arrays.asList(1, 2, 3))
+        )) {
+            assertEquals(0, seq.getPosition());
+            assertEquals(1, seq.read());
+
+            // Resetting a mark restores the marked position
+
+            try (Sequence.Mark mark = seq.mark()) {
+                assertEquals(2, seq.read());
+                assertEquals(3, seq.read());
+                assertEquals(3, seq.getPosition());
+
+                mark.reset();
+            }
+
+            assertEquals(1, seq.getPosition());
+            assertEquals(2, seq.read());
+            assertEquals(3, seq.read());
+
+            // Reading beyond the end does not change the position
+
+            assertNull(seq.read());
+            assertEquals(3, seq.getPosition());
+        }
+    }
+}